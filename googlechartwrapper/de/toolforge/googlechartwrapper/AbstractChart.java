@@ -1,11 +1,19 @@
 package de.toolforge.googlechartwrapper;
 
 
+import de.toolforge.googlechartwrapper.coder.DataScalingTextEncoder;
+import de.toolforge.googlechartwrapper.coder.EncoderFactory;
+import de.toolforge.googlechartwrapper.coder.EncodingType;
+import de.toolforge.googlechartwrapper.coder.IEncoder;
+import de.toolforge.googlechartwrapper.interfaces.IEncodeable;
 import de.toolforge.googlechartwrapper.util.AppendableFeature;
 import de.toolforge.googlechartwrapper.util.ArrayUtils;
 import de.toolforge.googlechartwrapper.util.IExtendedFeatureAppender;
 
+import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Field;
+import java.math.BigDecimal;
 import java.util.*;
 
 /**
@@ -15,7 +23,9 @@ import java.util.*;
  * {@link #collectUrlElements(List)}. Each implementing subclass shall use
  * {@link IExtendedFeatureAppender} to collect the chart parameters. These appenders
  * are gathered by the reflection mechanism by default and added to the url, separated
- * by the default {@value #AMPERSAND_SEPARATOR}.
+ * by the default {@value #AMPERSAND_SEPARATOR}. Instead of building the url string
+ * with {@link #getUrl()} it may also be written directly into any {@link Appendable}
+ * by {@link #writeUrl(Appendable)}.
  *
  * @author steffan
  * @author martin
@@ -31,10 +41,30 @@ public abstract class AbstractChart implements IChart {
      * default separator for parameters.
      */
     public static final String AMPERSAND_SEPARATOR = "&";
+
+    /**
+     * characters of the extended encoding, the simple encoding uses the first 62
+     */
+    private static final String ENCODING_CHARS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-.";
     /**
      * queue with url elements which are added to the url string later on
      */
 
+    /**
+     * appender fields per chart class, see {@link #getAppenderFields(Class)}.
+     * The classes are weak keys, so the class loader of a chart class can be
+     * unloaded; the fields refer to their class, so they are held softly.
+     */
+    private static final Map<Class<?>, SoftReference<Field[]>> appenderFields =
+            Collections.synchronizedMap(new WeakHashMap<Class<?>, SoftReference<Field[]>>());
+
+    /**
+     * listener of the url generation of all charts, {@code null} if none is
+     * registered
+     */
+    private static volatile ChartMetrics chartMetrics;
+
     /**
      * height of the chart. If no height is specified the
      * value must equal {@link Integer#MIN_VALUE}
@@ -47,6 +77,12 @@ public abstract class AbstractChart implements IChart {
      */
     protected int width = Integer.MIN_VALUE;
 
+    /**
+     * chooses the Chart API's location of {@link #getUrl()}, {@code null} for
+     * {@link #GOOGLE_API}
+     */
+    private ApiLocationStrategy apiLocationStrategy;
+
     /**
      * Generates an AbstractChart with the given chartDimension.
      *
@@ -121,7 +157,185 @@ public abstract class AbstractChart implements IChart {
       */
 
     public final String getUrl() {
-        return generateUrlString(GOOGLE_API, collectUrlElements(getAllAppenders()));
+        Queue<FeatureAppender> urlElements = collectUrlElements(collectAppenders());
+        return generateUrlString(getApiLocation(urlElements), urlElements);
+    }
+
+    /**
+     * Sets the strategy which chooses the Chart API's location of
+     * {@link #getUrl()} and {@link #writeUrl(Appendable)}, for example to spread
+     * the charts of a page across several hosts.
+     *
+     * @param strategy the strategy, {@code null} for {@link #GOOGLE_API}
+     * @see ConsistentHashStrategy
+     */
+    public void setApiLocationStrategy(ApiLocationStrategy strategy) {
+        this.apiLocationStrategy = strategy;
+    }
+
+    /**
+     * Returns the strategy which chooses the Chart API's location.
+     *
+     * @return the strategy, {@code null} if {@link #GOOGLE_API} is used
+     */
+    public ApiLocationStrategy getApiLocationStrategy() {
+        return apiLocationStrategy;
+    }
+
+    /**
+     * Registers a listener which is informed about the url generation of all
+     * charts: timings, lengths and the chosen encoding types. Without a listener
+     * the url generation is not measured at all.
+     *
+     * @param metrics the listener, {@code null} to remove the listener
+     * @see ChartMetricsRecorder
+     */
+    public static void setChartMetrics(ChartMetrics metrics) {
+        chartMetrics = metrics;
+    }
+
+    /**
+     * Returns the listener of the url generation of all charts.
+     *
+     * @return the listener or {@code null} if none is registered
+     */
+    public static ChartMetrics getChartMetrics() {
+        return chartMetrics;
+    }
+
+    /**
+     * Returns the Chart API's location of {@link #getUrl()}: the location
+     * chosen by the {@link ApiLocationStrategy} for the key of the chart, or
+     * {@link #GOOGLE_API} if no strategy is set.
+     *
+     * @return the Chart API's location
+     */
+    public String getApiLocation() {
+        return apiLocationStrategy != null ? apiLocationStrategy
+                .getApiLocation(getChartKey()) : GOOGLE_API;
+    }
+
+    /**
+     * Returns the Chart API's location for the collected url elements, so the
+     * elements are collected and encoded once for the key and the url.
+     *
+     * @param urlElements url elements, they are left in the queue
+     * @return the Chart API's location
+     */
+    private String getApiLocation(Queue<FeatureAppender> urlElements) {
+        return apiLocationStrategy != null ? apiLocationStrategy
+                .getApiLocation(getChartKey(urlElements)) : GOOGLE_API;
+    }
+
+    /**
+     * Writes the chart url with the Chart API's location of {@link #getApiLocation()}
+     * to the given appendable, for example a {@link StringBuilder}, a
+     * {@link java.io.Writer} or a {@link java.nio.CharBuffer}. The written characters
+     * equal the string returned by {@link #getUrl()}, but no intermediate url string
+     * is built.
+     *
+     * @param out destination of the url
+     * @throws IOException if out throws an IOException
+     * @throws IllegalArgumentException if out is {@code null}
+     */
+    public void writeUrl(Appendable out) throws IOException {
+        if (out == null)
+            throw new IllegalArgumentException("out can not be null");
+        Queue<FeatureAppender> urlElements = collectUrlElements(collectAppenders());
+        writeUrlElements(getApiLocation(urlElements), urlElements, out);
+    }
+
+    /**
+     * Writes the chart url with the given Chart API's location to the given
+     * appendable. The written characters equal the string returned by
+     * {@link #getUrl(String)}.
+     *
+     * @param apiLocation the Chart API's location
+     * @param out         destination of the url
+     * @throws IOException if out throws an IOException
+     * @throws IllegalArgumentException if out is {@code null}
+     * @see #writeUrl(Appendable)
+     */
+    public void writeUrl(String apiLocation, Appendable out) throws IOException {
+        if (out == null)
+            throw new IllegalArgumentException("out can not be null");
+        writeUrlElements(apiLocation, collectUrlElements(collectAppenders()), out);
+    }
+
+    /**
+     * Returns the 128 bit MD5 digest of the parameters of the chart. The
+     * parameters are digested while they are written, no url string is built.
+     * Charts with the same url have the same key, independent of the Chart
+     * API's location.
+     *
+     * @return key of the chart
+     * @see ChartImageCache
+     */
+    public ChartKey getChartKey() {
+        return getChartKey(collectUrlElements(collectAppenders()));
+    }
+
+    /**
+     * Returns the key of the collected url elements, see {@link #getChartKey()}.
+     *
+     * @param urlElements url elements, they are left in the queue
+     * @return key of the chart
+     */
+    ChartKey getChartKey(Queue<FeatureAppender> urlElements) {
+        ChartKey.Hasher hasher = new ChartKey.Hasher();
+        try {
+            writeUrlElements("", new ArrayDeque<FeatureAppender>(urlElements), hasher);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e); //not thrown by ChartKey.Hasher
+        }
+        return hasher.toKey();
+    }
+
+    /**
+     * Returns the length of the url of {@link #getUrl()} without the encoded
+     * chart data, so the length of the url with other chart data is the sum of
+     * this length and the length of the encoded data. The url elements are
+     * collected once and the url is not built.
+     *
+     * @return length of the url without the content of the chart data
+     */
+    protected int getUrlLengthWithoutChartData() {
+        Queue<FeatureAppender> urlElements = collectUrlElements(collectAppenders());
+        int length = getApiLocation(urlElements).length();
+        boolean first = true;
+        for (FeatureAppender urlElem : urlElements) {
+            if (first || urlElem.hasUrlGetString()) {
+                length += urlElem.getUrlGetString().length()
+                        + (first ? 0 : AMPERSAND_SEPARATOR.length());
+                if (ChartTypeFeature.ChartData.getPrefix().equals(urlElem.getPrefix())) {
+                    length -= urlElem.getContent().length();
+                }
+            }
+            first = false;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the collected url elements of the chart, so the key, the url and
+     * the post body of a request are written from the same elements.
+     *
+     * @return url elements
+     */
+    Queue<FeatureAppender> getUrlElements() {
+        return collectUrlElements(collectAppenders());
+    }
+
+    /**
+     * Returns the body of a post request of the chart, which contains the same
+     * parameters as the query of the url. The body is written straight from the
+     * url elements, see {@link PostBody}.
+     *
+     * @return post request body
+     */
+    public PostBody getPostBody() {
+        return new PostBody(collectUrlElements(collectAppenders()));
     }
 
     /**
@@ -129,10 +343,11 @@ public abstract class AbstractChart implements IChart {
      * renamed or removed in upcomming releases.
      *
      * @return post request form with submit button
+     * @see PostBody#writeForm(String, Appendable)
      */
     public String getPostRequest() {
         return generatePostRequestString("http://chart.apis.google.com/chart",
-                collectUrlElements(getAllAppenders()));
+                collectUrlElements(collectAppenders()));
     }
     
     /**
@@ -140,15 +355,17 @@ public abstract class AbstractChart implements IChart {
      * content. The prefix is used as the key. This method might
      * be helpful if a post request should be manually created. 
      * An automatic method to create a simple post request is 
-     * available by using {@link #getPostRequest()}.
+     * available by using {@link #getPostRequest()}, a body which is
+     * written without the map by {@link #getPostBody()}.
+     * The map keeps the order of the elements in the url.
      * 
      * Note: Experimental.
      * @return map of prefixes and content
      */
     public Map<String, String> getPostRequestParameters(){
-    	Map<String, String> params = new HashMap<String, String>();
+    	Map<String, String> params = new LinkedHashMap<String, String>();
     	
-    	Queue<FeatureAppender> elements = collectUrlElements(getAllAppenders());
+    	Queue<FeatureAppender> elements = collectUrlElements(collectAppenders());
     	for (FeatureAppender f : elements){
     		params.put(f.getPrefix(), f.getContent());
     	}
@@ -163,8 +380,13 @@ public abstract class AbstractChart implements IChart {
      *
      * @param format format the chart should be exported with
      * @return chart url with chof parameter
+     *
+     * @throws IllegalArgumentException if the format is not supported by the
+     * chart service, see {@link OutputFormat#isRemote()}
      */
     public String getUrl(OutputFormat format) {
+        if (!format.isRemote())
+            throw new IllegalArgumentException("format is rendered locally: " + format);
         return getUrl() + AMPERSAND_SEPARATOR + format.getParameter();
     }
 
@@ -183,7 +405,182 @@ public abstract class AbstractChart implements IChart {
      * @see #GOOGLE_API
      */
     public String getUrl(String apiLocation) {
-        return generateUrlString(apiLocation, collectUrlElements(getAllAppenders()));
+        return generateUrlString(apiLocation, collectUrlElements(collectAppenders()));
+    }
+
+    /**
+     * Returns a breakdown of the length of the url of {@link #getUrl()}: the
+     * length of each element, the appenders which contributed to it, the length
+     * of each data series and the url length with each encoding type which can
+     * hold the values of the chart data. The alternatives are predicted from the
+     * chart data, the encoder of the chart is not changed.
+     *
+     * @return breakdown of the url
+     * @see UrlProfile
+     */
+    public UrlProfile getUrlProfile() {
+        String apiLocation = getApiLocation();
+        List<IExtendedFeatureAppender> appenders = getAllAppenders();
+
+        //contributions of the appenders per prefix
+        Map<String, List<UrlProfile.Source>> sources =
+                new HashMap<String, List<UrlProfile.Source>>();
+        for (IExtendedFeatureAppender ap : appenders) {
+            Map<String, Integer> lengths = new LinkedHashMap<String, Integer>();
+            for (AppendableFeature feature : ap.getAppendableFeatures(appenders)) {
+                Integer length = lengths.get(feature.getPrefix());
+                lengths.put(feature.getPrefix(), length == null ? feature.getData().length()
+                        : length + 1 + feature.getData().length());
+            }
+            for (Map.Entry<String, Integer> entry : lengths.entrySet()) {
+                List<UrlProfile.Source> list = sources.get(entry.getKey());
+                if (list == null) {
+                    list = new ArrayList<UrlProfile.Source>();
+                    sources.put(entry.getKey(), list);
+                }
+                list.add(new UrlProfile.Source(ap.getClass().getSimpleName(),
+                        entry.getValue()));
+            }
+        }
+
+        List<UrlProfile.Element> elements = new ArrayList<UrlProfile.Element>();
+        EncodingType encodingType = null;
+        String chartData = null;
+        int length = apiLocation.length();
+        Queue<FeatureAppender> urlElements = collectUrlElements(appenders);
+        boolean first = true;
+        while (urlElements.size() > 0) {
+            FeatureAppender urlElem = urlElements.poll();
+            if (!first && !urlElem.hasUrlGetString()) {
+                continue;
+            }
+            List<Integer> series = new ArrayList<Integer>();
+            String content = urlElem.getContent();
+            if (ChartTypeFeature.ChartData.getPrefix().equals(urlElem.getPrefix())
+                    && content.length() > 1 && content.charAt(1) == ':') {
+                encodingType = getEncodingType(content.charAt(0));
+                chartData = content;
+                //text encoded series are separated by |, the others by a comma
+                char separator = encodingType == EncodingType.SimpleEncoding
+                        || encodingType == EncodingType.ExtendedEncoding ? ',' : '|';
+                int start = 2;
+                for (int i = 2; i <= content.length(); i++) {
+                    if (i == content.length() || content.charAt(i) == separator) {
+                        series.add(i - start);
+                        start = i + 1;
+                    }
+                }
+            }
+            List<UrlProfile.Source> elementSources = sources.get(urlElem.getPrefix());
+            int elementLength = urlElem.getUrlGetString().length()
+                    + (first ? 0 : AMPERSAND_SEPARATOR.length());
+            length += elementLength;
+            elements.add(new UrlProfile.Element(urlElem.getPrefix(), elementLength,
+                    elementSources != null ? elementSources : new ArrayList<UrlProfile.Source>(),
+                    series));
+            first = false;
+        }
+
+        return new UrlProfile(apiLocation.length(), elements, encodingType,
+                encodingType != null ? getAlternativeUrlLengths(length, encodingType, chartData)
+                        : new EnumMap<EncodingType, Integer>(EncodingType.class));
+    }
+
+    /**
+     * Returns the url length with each encoding type which can hold the values
+     * of the chart data, if the encoder of the chart can be set. The values are
+     * decoded from the chart data and the length of their encoding is predicted
+     * by the {@link EncoderFactory}, so neither the encoder of the chart is
+     * changed nor an url is built. Text is predicted with the decimal places the
+     * values need; {@link EncodingType#TextEncoding} holds values from 0 to 100
+     * only, a data scaling parameter of
+     * {@link EncodingType#TextEncodingWithDataScaling} is not counted.
+     *
+     * @param urlLength    length of the url
+     * @param encodingType encoding type of the chart data
+     * @param data         the chart data, for example "s:AB,CD"
+     */
+    private Map<EncodingType, Integer> getAlternativeUrlLengths(int urlLength,
+            EncodingType encodingType, String data) {
+        Map<EncodingType, Integer> lengths =
+                new EnumMap<EncodingType, Integer>(EncodingType.class);
+        if (!(this instanceof IEncodeable)) {
+            return lengths;
+        }
+        List<float[]> values = new ArrayList<float[]>();
+        int decimals;
+        try {
+            decimals = decodeChartData(encodingType, data, values);
+        }
+        catch (NumberFormatException e) {
+            //the data was not written by an encoder
+            return lengths;
+        }
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (float[] series : values) {
+            for (float value : series) {
+                if (value == value) { //not NaN
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+            }
+        }
+        int otherLength = urlLength - data.length();
+        if (min >= 0 && Math.round(max) < 62) {
+            lengths.put(EncodingType.SimpleEncoding, otherLength
+                    + EncoderFactory.getEncodedLength(EncodingType.SimpleEncoding, values));
+        }
+        if (min >= 0 && Math.round(max) < 4096) {
+            lengths.put(EncodingType.ExtendedEncoding, otherLength
+                    + EncoderFactory.getEncodedLength(EncodingType.ExtendedEncoding, values));
+        }
+        int textLength = otherLength + EncoderFactory.getTextEncodedLength(values, decimals);
+        if (min >= 0 && max <= 100) {
+            lengths.put(EncodingType.TextEncoding, textLength);
+        }
+        lengths.put(EncodingType.TextEncodingWithDataScaling, textLength);
+        return lengths;
+    }
+
+    /**
+     * Decodes encoded chart data like "s:AB,CD" or "t:1.5,2|3" into the list of
+     * series, missing values are NaN. Returns the count of decimal places the
+     * text encoded values need at most.
+     *
+     * @throws NumberFormatException if a text encoded value is no number
+     */
+    private static int decodeChartData(EncodingType encodingType, String data,
+                                       List<float[]> values) {
+        boolean text = encodingType != EncodingType.SimpleEncoding
+                && encodingType != EncodingType.ExtendedEncoding;
+        int width = encodingType == EncodingType.SimpleEncoding ? 1 : 2;
+        int decimals = 0;
+        for (String series : data.substring(2).split(text ? "\\|" : ",", -1)) {
+            if (text) {
+                String[] tokens = series.length() > 0 ? series.split(",") : new String[0];
+                float[] current = new float[tokens.length];
+                for (int i = 0; i < tokens.length; i++) {
+                    //-1 is a missing value of the text encoding
+                    current[i] = "-1".equals(tokens[i]) ? Float.NaN : Float.parseFloat(tokens[i]);
+                    decimals = Math.max(decimals,
+                            new BigDecimal(tokens[i]).stripTrailingZeros().scale());
+                }
+                values.add(current);
+            } else {
+                float[] current = new float[series.length() / width];
+                for (int i = 0; i < current.length; i++) {
+                    int value = 0;
+                    for (int j = 0; j < width && value >= 0; j++) {
+                        int digit = ENCODING_CHARS.indexOf(series.charAt(i * width + j));
+                        value = digit >= 0 ? value * ENCODING_CHARS.length() + digit : -1;
+                    }
+                    current[i] = value >= 0 ? value : Float.NaN;
+                }
+                values.add(current);
+            }
+        }
+        return Math.min(decimals, DataScalingTextEncoder.MAX_DECIMALS);
     }
 
     /**
@@ -223,10 +620,11 @@ public abstract class AbstractChart implements IChart {
     protected abstract ChartType getChartType();
 
     /**
-     * Returns all appenders from the extending class, but not inherited fields. It
+     * Returns all appenders from the extending class and its superclasses. It
      * requires that these appenders implement {@link IExtendedFeatureAppender} and
-     * the fields are public or protected. If subclass fields are necessary this method
-     * must be overwritten.
+     * the fields are public or protected. The matching fields are resolved once per
+     * chart class by {@link #getAppenderFields(Class)}, so each call only reads the
+     * field values of this instance.
      * <p/>
      * It's recommended that this method is overwritten as it uses reflection which may
      * not be safe in all environments.
@@ -234,38 +632,82 @@ public abstract class AbstractChart implements IChart {
      * @return list of all appenders
      */
     protected List<IExtendedFeatureAppender> getAllAppenders() {
+        Field[] fields = getAppenderFields(this.getClass());
         List<IExtendedFeatureAppender> allExtendedFeatureAppenders =
-                new ArrayList<IExtendedFeatureAppender>(5);
+                new ArrayList<IExtendedFeatureAppender>(fields.length);
+
+        for (Field f : fields) {
+            try {
+                allExtendedFeatureAppenders.add((
+                        IExtendedFeatureAppender) f.get(this));
+                //der Liste hinzuf�gen, und zwar das feld aus der aktuellen instanz
+            }
+            catch (IllegalArgumentException e) {
+                throw new RuntimeException(e); //todo mva: think about this!
+            }
+            catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return allExtendedFeatureAppenders;
+    }
+
+    /**
+     * Returns {@link #getAllAppenders()} and informs the registered
+     * {@link ChartMetrics} about it.
+     *
+     * @return list of all appenders
+     */
+    private List<IExtendedFeatureAppender> collectAppenders() {
+        ChartMetrics metrics = chartMetrics;
+        if (metrics == null) {
+            return getAllAppenders();
+        }
+        long start = System.nanoTime();
+        List<IExtendedFeatureAppender> appenders = getAllAppenders();
+        metrics.appendersCollected(getChartType(), appenders.size(),
+                System.nanoTime() - start);
+        return appenders;
+    }
+
+    /**
+     * Returns the fields of the chart class and its superclasses whose type
+     * implements {@link IExtendedFeatureAppender}. The fields of the chart class
+     * come first, followed by the fields of each superclass up the hierarchy. The
+     * lookup is done once per class; later calls return the cached fields.
+     *
+     * @param chartClass class of the chart
+     * @return appender fields, never {@code null}
+     */
+    private static Field[] getAppenderFields(Class<?> chartClass) {
+        SoftReference<Field[]> reference = appenderFields.get(chartClass);
+        Field[] cached = reference != null ? reference.get() : null;
+        if (cached != null) {
+            return cached;
+        }
 
         List<Field> fields = new ArrayList<Field>(); //every field (appenders)
-        fields.addAll(Arrays.asList(this.getClass().getDeclaredFields()));
-        Class<?> current = this.getClass().getSuperclass(); //to deal with inheritance
+        fields.addAll(Arrays.asList(chartClass.getDeclaredFields()));
+        Class<?> current = chartClass.getSuperclass(); //to deal with inheritance
         while (current.getSuperclass() != null) {
             fields.addAll(Arrays.asList(current.getDeclaredFields()));
             current = current.getSuperclass();
         }
-        //Field[] fields = this.getClass().getDeclaredFields(); //alle Felder
 
+        List<Field> matching = new ArrayList<Field>(fields.size());
         for (Field f : fields) {
             if (ArrayUtils.linearSearch(f.getType().getInterfaces(),
                     IExtendedFeatureAppender.class) >= 0) {
                 //if field implements the IExtendedFeatureAppender - so e.g. a
                 //genericAppender
-                try {
-
-                    allExtendedFeatureAppenders.add((
-                            IExtendedFeatureAppender) f.get(this));
-                    //der Liste hinzuf�gen, und zwar das feld aus der aktuellen instanz
-                }
-                catch (IllegalArgumentException e) {
-                    throw new RuntimeException(e); //todo mva: think about this!
-                }
-                catch (IllegalAccessException e) {
-                    throw new RuntimeException(e);
-                }
+                matching.add(f);
             }
         }
-        return allExtendedFeatureAppenders;
+
+        Field[] resolved = matching.toArray(new Field[matching.size()]);
+        //resolving twice in parallel is harmless, both results are equal
+        appenderFields.put(chartClass, new SoftReference<Field[]>(resolved));
+        return resolved;
     }
 
     /**
@@ -321,7 +763,7 @@ public abstract class AbstractChart implements IChart {
            * Wenn also 2 FeatureAppender ein Feature mit dem selben Prefix enthalten,
            * werden diese beiden Werte in der URL zusammen appended.
            */
-        Queue<FeatureAppender> urlElements = new LinkedList<FeatureAppender>();
+        Queue<FeatureAppender> urlElements = new ArrayDeque<FeatureAppender>();
         collectUrlElements(urlElements); //alle Grundelemente laden
         //TODO martin: move base elements collecting this to another method
 
@@ -330,8 +772,16 @@ public abstract class AbstractChart implements IChart {
         //map fuer key=featureprefixstring (z.b. chm)
         //value=Appender f�r alle von diesem Typen
 
+        ChartMetrics metrics = chartMetrics;
         for (IExtendedFeatureAppender ap : appenders) {
-            List<AppendableFeature> ft = ap.getAppendableFeatures(appenders);
+            List<AppendableFeature> ft;
+            if (metrics == null) {
+                ft = ap.getAppendableFeatures(appenders);
+            } else {
+                long start = System.nanoTime();
+                ft = ap.getAppendableFeatures(appenders);
+                reportFeatures(metrics, ap, ft, System.nanoTime() - start);
+            }
             for (AppendableFeature feature : ft) {
                 if (m.containsKey(feature.getPrefix())) {
                     //if a feature with the same prefix existed before, add the
@@ -375,37 +825,191 @@ public abstract class AbstractChart implements IChart {
      *
      * @param baseUrl string which is in front of the url elements
      * @return final url containing the base url and each feature string
+     * @see #writeUrlElements(String, Queue, Appendable)
      */
     protected String generateUrlString(String baseUrl, Queue<FeatureAppender> urlElements) {
         //TODO mva: get and post with strategy pattern.
-        StringBuilder url = new StringBuilder();
-        url.append(baseUrl); //Standardpfad zur API
-        url.append(urlElements.poll().getUrlGetString());//charttype anh�ngen
+        ChartMetrics metrics = chartMetrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        StringBuilder url = new StringBuilder(256);
+        try {
+            writeUrlElements(baseUrl, urlElements, url);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e); //not thrown by StringBuilder
+        }
+        if (metrics != null) {
+            metrics.urlGenerated(getChartType(), url.length(),
+                    System.nanoTime() - start);
+        }
+        return url.toString();
+    }
+
+    /**
+     * Informs the metrics about the features of an appender and about the
+     * encoding of each chart data feature. The encoding type and the count of
+     * points are read from the encoded data, so the encoders need not to be
+     * instrumented.
+     */
+    private void reportFeatures(ChartMetrics metrics, IExtendedFeatureAppender appender,
+                                List<AppendableFeature> features, long nanos) {
+        ChartType chartType = getChartType();
+        metrics.featuresCollected(chartType, appender, features, nanos);
+        for (AppendableFeature feature : features) {
+            String data = feature.getData();
+            if (ChartTypeFeature.ChartData.getPrefix().equals(feature.getPrefix())
+                    && data.length() > 1 && data.charAt(1) == ':') {
+                EncodingType encodingType = getEncodingType(data.charAt(0));
+                if (encodingType != null) {
+                    metrics.dataEncoded(chartType, encodingType,
+                            countPoints(encodingType, data), data.length());
+                }
+            }
+        }
+    }
+
+    private static EncodingType getEncodingType(char prefix) {
+        for (EncodingType encodingType : EncodingType.values()) {
+            if (encodingType.getPrefix() == prefix) {
+                //the first text encoding, scaling is a separate parameter
+                return encodingType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the points of encoded data like "s:AB,CD" or "t:1.0,2.0|3.0".
+     * Missing points are counted as well.
+     */
+    private static int countPoints(EncodingType encodingType, String data) {
+        int chars = 0;
+        int separators = 0;
+        for (int i = 2; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (c == ',' || c == '|') {
+                separators++;
+            } else {
+                chars++;
+            }
+        }
+        switch (encodingType) {
+            case SimpleEncoding:
+                return chars;
+            case ExtendedEncoding:
+                return chars / 2;
+            default:
+                return chars > 0 ? separators + 1 : 0;
+        }
+    }
+
+    /**
+     * Writes the final url based on the elements in the queue to the given appendable.
+     * In front of the url a base url is appended. Each url element of the queue which
+     * is not empty is separated by the default {@link #AMPERSAND_SEPARATOR}. The
+     * elements are written by {@link FeatureAppender#appendUrlGetString(Appendable)},
+     * so no intermediate strings are built for them.
+     *
+     * @param baseUrl     string which is in front of the url elements
+     * @param urlElements url elements, the queue is empty afterwards
+     * @param out         destination of the url
+     * @throws IOException if out throws an IOException
+     */
+    protected void writeUrlElements(String baseUrl, Queue<FeatureAppender> urlElements,
+                                    Appendable out) throws IOException {
+        out.append(baseUrl); //Standardpfad zur API
+        urlElements.poll().appendUrlGetString(out);//charttype anh�ngen
 
         while (urlElements.size() > 0) {
             //solange noch etwas drin, an die url mit dem Trennzeichen & anh�ngen
-            String urlElem = urlElements.poll().getUrlGetString();
-            if (urlElem.length() > 0) {
-                url.append(AMPERSAND_SEPARATOR + urlElem);
+            FeatureAppender urlElem = urlElements.poll();
+            if (urlElem.hasUrlGetString()) {
+                out.append(AMPERSAND_SEPARATOR);
+                urlElem.appendUrlGetString(out);
             }
         }
-        return url.toString();
     }
 
-    protected String generatePostRequestString(String postUrl,
-                                               Queue<FeatureAppender> urlElements) {
-        //TODO mva: get and post with strategy pattern.
-        String result = "<form action='" + postUrl + "' method='POST' id='chartForm'>";
-        while (urlElements.size() > 0) {
-            FeatureAppender f = urlElements.poll();
-            String urlElem = "<input type=\"hidden\" name=\"" + f.getPrefix() + "\" value=\"" +
-                    f.getContent() + "\" />";
-            if (urlElem.length() > 0) {
-                result = result + ("\n" + urlElem);
+    /**
+     * Compiles the chart into a {@link ChartTemplate}: all url elements except the
+     * chart data are written once, the chart data is encoded by the given encoder
+     * when the template is rendered. Subclasses provide the encoder, which must
+     * encode the data like the data appender of the chart.
+     *
+     * @param apiLocation the Chart API's location
+     * @param seriesCount count of series of the chart data
+     * @param encoder     encoder of the chart data
+     * @return the compiled template
+     * @throws IllegalArgumentException if apiLocation or encoder is {@code null}
+     * @throws IllegalStateException    if the chart has no chart data
+     */
+    protected ChartTemplate compileTemplate(String apiLocation, int seriesCount,
+                                            ChartTemplate.DataEncoder encoder) {
+        return compileTemplate(apiLocation, null, seriesCount, encoder);
+    }
+
+    /**
+     * Compiles the chart into a {@link ChartTemplate} like
+     * {@link #compileTemplate(String, int, ChartTemplate.DataEncoder)}. If a
+     * strategy is given, the template chooses the Chart API's location of each
+     * rendered url by its key like {@link #getApiLocation()}, otherwise the given
+     * location is used.
+     *
+     * @param apiLocation the Chart API's location if there is no strategy
+     * @param strategy    the strategy of the locations or {@code null}
+     * @param seriesCount count of series of the chart data
+     * @param encoder     encoder of the chart data
+     * @return the compiled template
+     * @throws IllegalArgumentException if apiLocation or encoder is {@code null}
+     * @throws IllegalStateException    if the chart has no chart data
+     * @see #getApiLocationStrategy()
+     */
+    protected ChartTemplate compileTemplate(String apiLocation,
+                                            ApiLocationStrategy strategy, int seriesCount,
+                                            ChartTemplate.DataEncoder encoder) {
+        if (apiLocation == null)
+            throw new IllegalArgumentException("apiLocation can not be null");
+        if (encoder == null)
+            throw new IllegalArgumentException("encoder can not be null");
+
+        Queue<FeatureAppender> urlElements = collectUrlElements(collectAppenders());
+        StringBuilder head = new StringBuilder(256);
+        StringBuilder tail = new StringBuilder(128);
+        StringBuilder current = head;
+        try {
+            urlElements.poll().appendUrlGetString(head);
+            while (urlElements.size() > 0) {
+                FeatureAppender urlElem = urlElements.poll();
+                if (current == head && ChartTypeFeature.ChartData.getPrefix()
+                        .equals(urlElem.getPrefix())) {
+                    //the data is inserted here when the template is rendered
+                    current = tail;
+                } else if (urlElem.hasUrlGetString()) {
+                    current.append(AMPERSAND_SEPARATOR);
+                    urlElem.appendUrlGetString(current);
+                }
             }
         }
-        result = result + " <input type=\"submit\"  /></form>";
-        return result;
+        catch (IOException e) {
+            throw new RuntimeException(e); //not thrown by StringBuilder
+        }
+        if (current == head)
+            throw new IllegalStateException("the chart has no data");
+        return new ChartTemplate(apiLocation, strategy, head.toString(), tail.toString(),
+                seriesCount, encoder);
+    }
+
+    /**
+     * Generates a html form which posts the url elements to the given url.
+     *
+     * @param postUrl     url the form is posted to
+     * @param urlElements url elements, the queue is empty afterwards
+     * @return post request form with submit button
+     * @see PostBody#writeForm(String, Appendable)
+     */
+    protected String generatePostRequestString(String postUrl,
+                                               Queue<FeatureAppender> urlElements) {
+        return new PostBody(urlElements).toForm(postUrl);
     }
 
     protected static interface FeatureAppender {
@@ -414,6 +1018,23 @@ public abstract class AbstractChart implements IChart {
         public String getContent();
 
         public String getUrlGetString();
+
+        /**
+         * Returns whether {@link #getUrlGetString()} returns a string with a length
+         * greater 0.
+         *
+         * @return {@code true} if there is something to append to the url
+         */
+        public boolean hasUrlGetString();
+
+        /**
+         * Appends the string returned by {@link #getUrlGetString()} to the given
+         * appendable.
+         *
+         * @param out destination of the url string
+         * @throws IOException if out throws an IOException
+         */
+        public void appendUrlGetString(Appendable out) throws IOException;
     }
 
     /**
@@ -484,22 +1105,56 @@ public abstract class AbstractChart implements IChart {
             return "";
         }
 
+        /**
+         * The content is empty if there is no feature or only one feature with an
+         * empty data string. Otherwise at least a separator is part of the content.
+         */
+        public boolean hasUrlGetString() {
+            return list.size() > 1
+                    || (list.size() == 1 && list.get(0).getData().length() > 0);
+        }
+
+        public void appendUrlGetString(Appendable out) throws IOException {
+            if (!hasUrlGetString()) {
+                return;
+            }
+            if (prefix.length() > 0) {
+                out.append(prefix);
+                out.append('=');
+            }
+            appendContent(out);
+        }
+
         public void add(AppendableFeature m) {
             list.add(m);
         }
 
         @Override
         public String getContent() {
-            List<AppendableFeature> features = list;
             StringBuilder bf = new StringBuilder();
-            for (AppendableFeature f : features) {
-                bf.append(f.getData());
-                bf.append(separator);
+            try {
+                appendContent(bf);
             }
-            if (bf.length() > 0) {
-                return bf.substring(0, bf.length() - 1);
+            catch (IOException e) {
+                throw new RuntimeException(e); //not thrown by StringBuilder
+            }
+            return bf.toString();
+        }
+
+        /**
+         * Appends the data strings of all features, separated by the
+         * {@link #separator}.
+         *
+         * @param out destination of the content
+         * @throws IOException if out throws an IOException
+         */
+        protected void appendContent(Appendable out) throws IOException {
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    out.append(separator);
+                }
+                out.append(list.get(i).getData());
             }
-            return "";
         }
     }
 
@@ -524,6 +1179,16 @@ public abstract class AbstractChart implements IChart {
         public String getUrlGetString() {
             return prefix + "=" + content;
         }
+
+        public boolean hasUrlGetString() {
+            return true;
+        }
+
+        public void appendUrlGetString(Appendable out) throws IOException {
+            out.append(prefix);
+            out.append('=');
+            out.append(content);
+        }
     }
 
 }
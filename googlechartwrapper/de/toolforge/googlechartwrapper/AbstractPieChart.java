@@ -229,6 +229,16 @@ public abstract class AbstractPieChart extends AbstractChart implements
 		this.pieChartOrientationAppender.set(angle);
 	}
 
+	/**
+	 * Returns the pie chart orientation.
+	 * 
+	 * @return number as radian, {@code null} if no orientation is set
+	 */
+	public Float getPieChartOrientation() {
+
+		return this.pieChartOrientationAppender.get();
+	}
+
 	/**
 	 * Removes the pie chart orientation.
 	 */
@@ -0,0 +1,25 @@
+package de.toolforge.googlechartwrapper;
+
+/**
+ * Chooses the Chart API's location of the url of a chart, see
+ * {@link AbstractChart#setApiLocationStrategy(ApiLocationStrategy)}. A
+ * strategy may spread the charts of a page across several hosts, so a browser
+ * loads them over more parallel connections.
+ *
+ * @author martin
+ * @see ConsistentHashStrategy
+ */
+public interface ApiLocationStrategy {
+
+	/**
+	 * Returns the Chart API's location of the chart with the key, for example
+	 * {@link AbstractChart#GOOGLE_API}. The location ends with the "?" the
+	 * parameters are appended to. The same key should return the same location,
+	 * so caches keep working.
+	 *
+	 * @param key the key of the chart parameters
+	 * @return the Chart API's location
+	 */
+	public String getApiLocation(ChartKey key);
+
+}
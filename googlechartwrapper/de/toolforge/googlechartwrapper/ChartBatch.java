@@ -0,0 +1,406 @@
+package de.toolforge.googlechartwrapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Generates the urls of many charts in parallel. The charts are split into
+ * chunks which are rendered by the threads of an {@link ExecutorService}. Each
+ * thread reuses its own buffer, so the url of an {@link AbstractChart} is written
+ * by {@link AbstractChart#writeUrl(Appendable)} without growing a new buffer per
+ * chart. The urls are returned (or passed to a {@link UrlSink}) in the order of
+ * the charts. Only a limited count of chunks is rendered ahead, so an iterator
+ * over millions of charts does not need to be held in memory.
+ *
+ * <p>
+ * The different chart instances may be rendered concurrently, but a single chart
+ * must not be modified while the batch is running and must not occur twice.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how ChartBatch can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * ChartBatch batch = new ChartBatch(4);
+ * List&lt;String&gt; urls = batch.render(charts);
+ * ChartBatch.Statistics statistics = batch.render(charts.iterator(), sink);
+ * batch.shutdown();
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see AbstractChart#writeUrl(Appendable)
+ */
+public class ChartBatch {
+
+	/**
+	 * default count of charts rendered by one task
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 256;
+
+	/**
+	 * buffers which grew larger are not reused
+	 */
+	private static final int MAX_BUFFER_CAPACITY = 1 << 16;
+
+	private final ExecutorService executor;
+	private final boolean ownExecutor;
+	private final int parallelism;
+	private final int chunkSize;
+
+	/**
+	 * buffer of each worker thread
+	 */
+	private final ThreadLocal<StringBuilder> buffers = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(512);
+		}
+	};
+
+	/**
+	 * Constructs a batch with an own pool of the given count of threads. The
+	 * pool must be stopped by {@link #shutdown()}.
+	 *
+	 * @param threads count of threads
+	 *
+	 * @throws IllegalArgumentException if threads &lt; 1
+	 */
+	public ChartBatch(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("threads must be > 0");
+		this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ChartBatch");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.ownExecutor = true;
+		this.parallelism = threads;
+		this.chunkSize = DEFAULT_CHUNK_SIZE;
+	}
+
+	/**
+	 * Constructs a batch which uses the given executor. The executor is not
+	 * stopped by {@link #shutdown()}.
+	 *
+	 * @param executor executor rendering the chunks
+	 * @param parallelism count of chunks which are rendered at the same time,
+	 * usually the count of threads of the executor
+	 * @param chunkSize count of charts rendered by one task
+	 *
+	 * @throws IllegalArgumentException if executor is {@code null} or
+	 * parallelism or chunkSize &lt; 1
+	 */
+	public ChartBatch(ExecutorService executor, int parallelism, int chunkSize) {
+		if (executor == null)
+			throw new IllegalArgumentException("executor can not be null");
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism must be > 0");
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("chunkSize must be > 0");
+		this.executor = executor;
+		this.ownExecutor = false;
+		this.parallelism = parallelism;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Returns the urls of the charts in the order of the collection.
+	 *
+	 * @param charts the charts
+	 * @return list of urls
+	 *
+	 * @throws IllegalArgumentException if charts or member is {@code null}
+	 * @throws InterruptedException if the thread was interrupted while waiting
+	 */
+	public List<String> render(Collection<? extends IChart> charts)
+			throws InterruptedException {
+		if (charts == null)
+			throw new IllegalArgumentException("charts can not be null");
+		final List<String> urls = new ArrayList<String>(charts.size());
+		try {
+			render(charts.iterator(), new UrlSink() {
+				public void write(int index, IChart chart, String url, long nanos) {
+					urls.add(url);
+				}
+			});
+		} catch (IOException e) {
+			// the sink does not throw
+			throw new IllegalStateException(e);
+		}
+		return urls;
+	}
+
+	/**
+	 * Renders the charts and passes each url in the order of the iterator to
+	 * the sink. The sink is called by the current thread.
+	 *
+	 * @param charts the charts
+	 * @param sink destination of the urls
+	 * @return statistics of the batch
+	 *
+	 * @throws IllegalArgumentException if charts, sink or member is {@code null}
+	 * @throws IOException if the sink throws an IOException
+	 * @throws InterruptedException if the thread was interrupted while waiting
+	 */
+	public Statistics render(Iterator<? extends IChart> charts, UrlSink sink)
+			throws IOException, InterruptedException {
+		if (charts == null)
+			throw new IllegalArgumentException("charts can not be null");
+		if (sink == null)
+			throw new IllegalArgumentException("sink can not be null");
+
+		long start = System.nanoTime();
+		Statistics statistics = new Statistics();
+		LinkedList<Future<Chunk>> pending = new LinkedList<Future<Chunk>>();
+		int index = 0;
+		try {
+			while (charts.hasNext() || !pending.isEmpty()) {
+				// render ahead, but only a limited count of chunks
+				while (charts.hasNext() && pending.size() < parallelism * 2) {
+					List<IChart> chunk = new ArrayList<IChart>(chunkSize);
+					while (charts.hasNext() && chunk.size() < chunkSize) {
+						IChart chart = charts.next();
+						if (chart == null)
+							throw new IllegalArgumentException("chart can not be null");
+						chunk.add(chart);
+					}
+					pending.add(executor.submit(new ChunkTask(chunk)));
+				}
+				Chunk done = get(pending.removeFirst());
+				for (int i = 0; i < done.charts.size(); i++) {
+					statistics.add(done.urls[i].length(), done.nanos[i]);
+					sink.write(index++, done.charts.get(i), done.urls[i], done.nanos[i]);
+				}
+			}
+		} finally {
+			for (Future<Chunk> future : pending) {
+				future.cancel(true);
+			}
+		}
+		statistics.elapsedNanos = System.nanoTime() - start;
+		return statistics;
+	}
+
+	/**
+	 * Stops the own thread pool. Does nothing if the executor was passed to
+	 * the constructor.
+	 */
+	public void shutdown() {
+		if (ownExecutor) {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Waits for the chunk and rethrows the exception of the task.
+	 */
+	private static Chunk get(Future<Chunk> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Writes the url of the chart into the buffer of the current thread.
+	 */
+	private String renderUrl(IChart chart) throws IOException {
+		StringBuilder buffer = buffers.get();
+		buffer.setLength(0);
+		if (chart instanceof AbstractChart) {
+			((AbstractChart) chart).writeUrl(buffer);
+		} else {
+			buffer.append(chart.getUrl());
+		}
+		String url = buffer.toString();
+		if (buffer.capacity() > MAX_BUFFER_CAPACITY) {
+			buffers.remove();
+		}
+		return url;
+	}
+
+	/**
+	 * Destination of the urls of a batch.
+	 *
+	 * @author martin
+	 */
+	public static interface UrlSink {
+
+		/**
+		 * Receives the url of a chart. The urls are passed in the order of
+		 * the charts.
+		 *
+		 * @param index index of the chart in the batch
+		 * @param chart the chart
+		 * @param url the url of the chart
+		 * @param nanos time spent to generate the url in nanoseconds
+		 * @throws IOException if the url can not be written
+		 */
+		public void write(int index, IChart chart, String url, long nanos)
+				throws IOException;
+	}
+
+	/**
+	 * Statistics of a batch: count of charts, throughput and time spent per
+	 * chart.
+	 *
+	 * @author martin
+	 */
+	public static class Statistics {
+
+		private int chartCount = 0;
+		private long totalUrlLength = 0;
+		private long totalChartNanos = 0;
+		private long minChartNanos = Long.MAX_VALUE;
+		private long maxChartNanos = 0;
+		private long elapsedNanos = 0;
+
+		private void add(int urlLength, long nanos) {
+			chartCount++;
+			totalUrlLength += urlLength;
+			totalChartNanos += nanos;
+			if (nanos < minChartNanos) minChartNanos = nanos;
+			if (nanos > maxChartNanos) maxChartNanos = nanos;
+		}
+
+		/**
+		 * Returns the count of rendered charts.
+		 *
+		 * @return count of charts
+		 */
+		public int getChartCount() {
+			return chartCount;
+		}
+
+		/**
+		 * Returns the sum of the lengths of all urls.
+		 *
+		 * @return count of characters of all urls
+		 */
+		public long getTotalUrlLength() {
+			return totalUrlLength;
+		}
+
+		/**
+		 * Returns the time from the start to the end of the batch.
+		 *
+		 * @return elapsed time in nanoseconds
+		 */
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		/**
+		 * Returns the count of charts rendered per second.
+		 *
+		 * @return charts per second, 0 if nothing was rendered
+		 */
+		public double getChartsPerSecond() {
+			return elapsedNanos > 0 ? chartCount * 1e9 / elapsedNanos : 0;
+		}
+
+		/**
+		 * Returns the sum of the time spent for each chart by all threads.
+		 *
+		 * @return time spent for all charts in nanoseconds
+		 */
+		public long getTotalChartNanos() {
+			return totalChartNanos;
+		}
+
+		/**
+		 * Returns the average time spent for one chart.
+		 *
+		 * @return average time per chart in nanoseconds, 0 if nothing was rendered
+		 */
+		public long getAverageChartNanos() {
+			return chartCount > 0 ? totalChartNanos / chartCount : 0;
+		}
+
+		/**
+		 * Returns the shortest time spent for one chart.
+		 *
+		 * @return minimum time per chart in nanoseconds, 0 if nothing was rendered
+		 */
+		public long getMinChartNanos() {
+			return chartCount > 0 ? minChartNanos : 0;
+		}
+
+		/**
+		 * Returns the longest time spent for one chart.
+		 *
+		 * @return maximum time per chart in nanoseconds
+		 */
+		public long getMaxChartNanos() {
+			return maxChartNanos;
+		}
+
+		@Override
+		public String toString() {
+			return "charts: " + chartCount + " charts/s: " + (long) getChartsPerSecond()
+					+ " avg ns: " + getAverageChartNanos() + " min ns: "
+					+ getMinChartNanos() + " max ns: " + maxChartNanos;
+		}
+	}
+
+	/**
+	 * Rendered chunk of charts.
+	 */
+	private static class Chunk {
+		private final List<IChart> charts;
+		private final String[] urls;
+		private final long[] nanos;
+
+		private Chunk(List<IChart> charts) {
+			this.charts = charts;
+			this.urls = new String[charts.size()];
+			this.nanos = new long[charts.size()];
+		}
+	}
+
+	/**
+	 * Renders the charts of one chunk.
+	 */
+	private class ChunkTask implements Callable<Chunk> {
+
+		private final List<IChart> charts;
+
+		private ChunkTask(List<IChart> charts) {
+			this.charts = charts;
+		}
+
+		public Chunk call() throws IOException {
+			Chunk chunk = new Chunk(charts);
+			for (int i = 0; i < charts.size(); i++) {
+				long start = System.nanoTime();
+				chunk.urls[i] = renderUrl(charts.get(i));
+				chunk.nanos[i] = System.nanoTime() - start;
+			}
+			return chunk;
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+package de.toolforge.googlechartwrapper;
+
+/**
+ * Drawing surface of the {@link ChartPainter}. The coordinates are pixels with
+ * the origin in the upper left corner of the chart. A line is passed segment by
+ * segment ({@link #beginPath(Color, float, float[])}, {@link #moveTo(double, double)},
+ * {@link #lineTo(double, double)}, {@link #endPath()}), so an implementation may
+ * write it out without holding all points of a series.
+ *
+ * @author martin
+ * @see ChartImageRenderer
+ */
+interface ChartCanvas {
+
+	/**
+	 * text alignment: the text starts at x
+	 */
+	public static final int ALIGN_LEFT = -1;
+
+	/**
+	 * text alignment: the text is centered at x
+	 */
+	public static final int ALIGN_CENTER = 0;
+
+	/**
+	 * text alignment: the text ends at x
+	 */
+	public static final int ALIGN_RIGHT = 1;
+
+	/**
+	 * Fills a rectangle.
+	 */
+	public void fillRect(double x, double y, double width, double height,
+			Color color);
+
+	/**
+	 * Fills a polygon with the given count of points.
+	 */
+	public void fillPolygon(double[] x, double[] y, int count, Color color);
+
+	/**
+	 * Fills a circle.
+	 */
+	public void fillCircle(double x, double y, double radius, Color color);
+
+	/**
+	 * Fills a sector of a ring, or of a circle if innerRadius is 0. The angles
+	 * are radians, 0 points to the right and positive angles turn clockwise.
+	 *
+	 * @param extent angle of the sector, at most {@link Math#PI}
+	 */
+	public void fillSector(double x, double y, double innerRadius,
+			double outerRadius, double startAngle, double extent, Color color);
+
+	/**
+	 * Draws a single line.
+	 *
+	 * @param dash length of line and blank segment, {@code null} for a solid line
+	 */
+	public void drawLine(double x1, double y1, double x2, double y2,
+			Color color, float thickness, float[] dash);
+
+	/**
+	 * Starts a line which consists of several segments.
+	 *
+	 * @param dash length of line and blank segment, {@code null} for a solid line
+	 */
+	public void beginPath(Color color, float thickness, float[] dash);
+
+	/**
+	 * Starts a new part of the current line at the point.
+	 */
+	public void moveTo(double x, double y);
+
+	/**
+	 * Adds a segment from the last point to the point to the current line.
+	 */
+	public void lineTo(double x, double y);
+
+	/**
+	 * Finishes the current line.
+	 */
+	public void endPath();
+
+	/**
+	 * Draws a single line of text.
+	 *
+	 * @param y vertical center of the text
+	 * @param alignment {@link #ALIGN_LEFT}, {@link #ALIGN_CENTER} or {@link #ALIGN_RIGHT}
+	 */
+	public void drawText(String text, double x, double y, int fontSize,
+			Color color, int alignment);
+
+	/**
+	 * Returns the width of a single line of text.
+	 */
+	public double getTextWidth(String text, int fontSize);
+
+	/**
+	 * Restricts the following drawing to the rectangle.
+	 */
+	public void clip(double x, double y, double width, double height);
+
+	/**
+	 * Removes the restriction set by {@link #clip(double, double, double, double)}.
+	 */
+	public void resetClip();
+
+}
@@ -0,0 +1,519 @@
+package de.toolforge.googlechartwrapper;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of encoded chart images in front of the image fetching
+ * ({@link ChartImageClient}) or the local rendering ({@link ChartImageRenderer}).
+ * The images are looked up by the {@link ChartKey} of the chart, so an unchanged
+ * chart is loaded only once and the url is never built for a lookup.
+ * <p>
+ * The cache has two tiers, both evict the least recently used images when they
+ * exceed their maximum size in bytes:
+ * </p>
+ * <ul>
+ * <li>memory: the bytes of the images</li>
+ * <li>disk (optional): one file per image in a directory, named by the hex
+ * string of the key. The index holds only the key and the size of each file,
+ * it is rebuilt from the directory (ordered by the time of the last use) when
+ * the cache is constructed, so the images survive a restart.</li>
+ * </ul>
+ * <p>
+ * An image found on disk is moved into memory. Hits, misses and evictions of
+ * both tiers are counted. The cache may be shared between threads, the same
+ * chart loaded by several threads at the same time may be loaded more than
+ * once. The returned arrays are shared and must not be modified.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how ChartImageCache can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * ChartImageCache cache = new ChartImageCache(16 &lt;&lt; 20, new File("charts"),
+ * 		256 &lt;&lt; 20);
+ * ChartImageCache.Loader loader = ChartImageCache.fetching(client);
+ * byte[] png = cache.get(lineChart, loader);
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see AbstractChart#getChartKey()
+ */
+public class ChartImageCache {
+
+	/**
+	 * file name extension of the images on disk
+	 */
+	private static final String EXTENSION = ".png";
+
+	private final long maxMemorySize;
+	private final File directory;
+	private final long maxDiskSize;
+
+	/**
+	 * images in memory, in the order of the last use
+	 */
+	private final LinkedHashMap<ChartKey, byte[]> memory = new LinkedHashMap<ChartKey, byte[]>(
+			16, 0.75f, true);
+	private long memorySize;
+
+	/**
+	 * size of each image on disk, in the order of the last use
+	 */
+	private final LinkedHashMap<ChartKey, Long> disk = new LinkedHashMap<ChartKey, Long>(
+			16, 0.75f, true);
+	private long diskSize;
+
+	private final AtomicLong memoryHits = new AtomicLong();
+	private final AtomicLong diskHits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong memoryEvictions = new AtomicLong();
+	private final AtomicLong diskEvictions = new AtomicLong();
+
+	/**
+	 * Constructs a cache which keeps the images in memory only.
+	 *
+	 * @param maxMemorySize maximum count of bytes in memory
+	 *
+	 * @throws IllegalArgumentException if maxMemorySize &lt; 0
+	 */
+	public ChartImageCache(long maxMemorySize) {
+		if (maxMemorySize < 0)
+			throw new IllegalArgumentException("maxMemorySize must be >= 0");
+		this.maxMemorySize = maxMemorySize;
+		this.directory = null;
+		this.maxDiskSize = 0;
+	}
+
+	/**
+	 * Constructs a cache which keeps the images in memory and in the
+	 * directory. The images already in the directory are indexed.
+	 *
+	 * @param maxMemorySize maximum count of bytes in memory
+	 * @param directory directory of the images, created if it does not exist
+	 * @param maxDiskSize maximum count of bytes in the directory
+	 * @throws IOException if the directory can not be created
+	 *
+	 * @throws IllegalArgumentException if directory is {@code null} or
+	 * maxMemorySize or maxDiskSize &lt; 0
+	 */
+	public ChartImageCache(long maxMemorySize, File directory, long maxDiskSize)
+			throws IOException {
+		if (maxMemorySize < 0)
+			throw new IllegalArgumentException("maxMemorySize must be >= 0");
+		if (directory == null)
+			throw new IllegalArgumentException("directory can not be null");
+		if (maxDiskSize < 0)
+			throw new IllegalArgumentException("maxDiskSize must be >= 0");
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("can not create directory " + directory);
+		this.maxMemorySize = maxMemorySize;
+		this.directory = directory;
+		this.maxDiskSize = maxDiskSize;
+		index();
+	}
+
+	/**
+	 * Returns the image of the chart. If it is not cached, it is loaded by
+	 * the loader and cached.
+	 *
+	 * @param chart the chart
+	 * @param loader loads the image if it is not cached
+	 * @return bytes of the image
+	 * @throws IOException if the loader throws an IOException
+	 *
+	 * @throws IllegalArgumentException if chart or loader is {@code null}
+	 */
+	public byte[] get(AbstractChart chart, Loader loader) throws IOException {
+		if (chart == null)
+			throw new IllegalArgumentException("chart can not be null");
+		if (loader == null)
+			throw new IllegalArgumentException("loader can not be null");
+		ChartKey key = chart.getChartKey();
+		byte[] image = get(key);
+		if (image == null) {
+			image = loader.load(chart);
+			if (image == null)
+				throw new IOException("loader returned no image");
+			put(key, image);
+		}
+		return image;
+	}
+
+	/**
+	 * Returns the cached image with the key.
+	 *
+	 * @param key key of the chart
+	 * @return bytes of the image, {@code null} if not cached
+	 *
+	 * @throws IllegalArgumentException if key is {@code null}
+	 */
+	public byte[] get(ChartKey key) {
+		if (key == null)
+			throw new IllegalArgumentException("key can not be null");
+		synchronized (memory) {
+			byte[] image = memory.get(key);
+			if (image != null) {
+				memoryHits.incrementAndGet();
+				return image;
+			}
+		}
+		byte[] image = readFromDisk(key);
+		if (image == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+		diskHits.incrementAndGet();
+		putInMemory(key, image);
+		return image;
+	}
+
+	/**
+	 * Puts the image into the cache, an image with the same key is replaced.
+	 *
+	 * @param key key of the chart
+	 * @param image bytes of the image
+	 *
+	 * @throws IllegalArgumentException if key or image is {@code null}
+	 */
+	public void put(ChartKey key, byte[] image) {
+		if (key == null)
+			throw new IllegalArgumentException("key can not be null");
+		if (image == null)
+			throw new IllegalArgumentException("image can not be null");
+		putInMemory(key, image);
+		writeToDisk(key, image);
+	}
+
+	/**
+	 * Removes all images from memory and disk. The counters are not reset.
+	 */
+	public void clear() {
+		synchronized (memory) {
+			memory.clear();
+			memorySize = 0;
+		}
+		if (directory != null) {
+			synchronized (disk) {
+				for (ChartKey key : disk.keySet()) {
+					file(key).delete();
+				}
+				disk.clear();
+				diskSize = 0;
+			}
+		}
+	}
+
+	/**
+	 * Returns the count of lookups which found the image in memory.
+	 *
+	 * @return count of memory hits
+	 */
+	public long getMemoryHitCount() {
+		return memoryHits.get();
+	}
+
+	/**
+	 * Returns the count of lookups which found the image on disk.
+	 *
+	 * @return count of disk hits
+	 */
+	public long getDiskHitCount() {
+		return diskHits.get();
+	}
+
+	/**
+	 * Returns the count of lookups which did not find the image.
+	 *
+	 * @return count of misses
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the count of images removed from memory to free space.
+	 *
+	 * @return count of memory evictions
+	 */
+	public long getMemoryEvictionCount() {
+		return memoryEvictions.get();
+	}
+
+	/**
+	 * Returns the count of images removed from disk to free space.
+	 *
+	 * @return count of disk evictions
+	 */
+	public long getDiskEvictionCount() {
+		return diskEvictions.get();
+	}
+
+	/**
+	 * Returns the count of bytes of the images in memory.
+	 *
+	 * @return bytes in memory
+	 */
+	public long getMemorySize() {
+		synchronized (memory) {
+			return memorySize;
+		}
+	}
+
+	/**
+	 * Returns the count of bytes of the images on disk.
+	 *
+	 * @return bytes on disk, 0 without disk tier
+	 */
+	public long getDiskSize() {
+		synchronized (disk) {
+			return diskSize;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "memory hits: " + getMemoryHitCount() + " disk hits: "
+				+ getDiskHitCount() + " misses: " + getMissCount()
+				+ " memory evictions: " + getMemoryEvictionCount()
+				+ " disk evictions: " + getDiskEvictionCount();
+	}
+
+	/**
+	 * Returns a loader which renders the images locally as png.
+	 *
+	 * @param renderer the renderer
+	 * @return loader
+	 *
+	 * @throws IllegalArgumentException if renderer is {@code null}
+	 */
+	public static Loader rendering(final ChartImageRenderer renderer) {
+		if (renderer == null)
+			throw new IllegalArgumentException("renderer can not be null");
+		return new Loader() {
+			public byte[] load(IChart chart) {
+				return renderer.toPng(chart);
+			}
+		};
+	}
+
+	/**
+	 * Returns a loader which fetches the images from the chart service and
+	 * waits for the response.
+	 *
+	 * @param client the client
+	 * @return loader
+	 *
+	 * @throws IllegalArgumentException if client is {@code null}
+	 */
+	public static Loader fetching(final ChartImageClient client) {
+		if (client == null)
+			throw new IllegalArgumentException("client can not be null");
+		return new Loader() {
+			public byte[] load(IChart chart) throws IOException {
+				try {
+					return client.fetch(chart).get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("interrupted while fetching");
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof IOException)
+						throw (IOException) cause;
+					if (cause instanceof RuntimeException)
+						throw (RuntimeException) cause;
+					if (cause instanceof Error)
+						throw (Error) cause;
+					throw new IllegalStateException(cause);
+				}
+			}
+		};
+	}
+
+	private void putInMemory(ChartKey key, byte[] image) {
+		if (image.length > maxMemorySize) {
+			return;
+		}
+		synchronized (memory) {
+			byte[] old = memory.put(key, image);
+			memorySize += image.length - (old != null ? old.length : 0);
+			Iterator<byte[]> eldest = memory.values().iterator();
+			while (memorySize > maxMemorySize) {
+				memorySize -= eldest.next().length;
+				eldest.remove();
+				memoryEvictions.incrementAndGet();
+			}
+		}
+	}
+
+	private byte[] readFromDisk(ChartKey key) {
+		if (directory == null) {
+			return null;
+		}
+		synchronized (disk) {
+			if (disk.get(key) == null) {
+				return null;
+			}
+		}
+		File file = file(key);
+		try {
+			byte[] image = read(file);
+			// the time of the last use orders the index after a restart
+			file.setLastModified(System.currentTimeMillis());
+			return image;
+		} catch (IOException e) {
+			// removed by an other thread or by someone else
+			synchronized (disk) {
+				Long size = disk.remove(key);
+				if (size != null) {
+					diskSize -= size;
+				}
+			}
+			return null;
+		}
+	}
+
+	private void writeToDisk(ChartKey key, byte[] image) {
+		if (directory == null || image.length > maxDiskSize) {
+			return;
+		}
+		synchronized (disk) {
+			if (disk.containsKey(key)) {
+				// same parameters, same image
+				return;
+			}
+		}
+		File file = file(key);
+		try {
+			// written to a temporary file first, so no partial file is read
+			File temporary = File.createTempFile(key.toHexString(), ".tmp",
+					directory);
+			OutputStream out = new FileOutputStream(temporary);
+			try {
+				out.write(image);
+			} finally {
+				out.close();
+			}
+			if (!temporary.renameTo(file)) {
+				temporary.delete();
+				return;
+			}
+		} catch (IOException e) {
+			// the disk tier is optional, the image is still in memory
+			return;
+		}
+		synchronized (disk) {
+			Long old = disk.put(key, (long) image.length);
+			diskSize += image.length - (old != null ? old : 0);
+			evictFromDisk();
+		}
+	}
+
+	/**
+	 * Removes the least recently used files until the directory fits into the
+	 * maximum size. Must be called while holding the lock of the index.
+	 */
+	private void evictFromDisk() {
+		Iterator<Map.Entry<ChartKey, Long>> eldest = disk.entrySet().iterator();
+		while (diskSize > maxDiskSize) {
+			Map.Entry<ChartKey, Long> entry = eldest.next();
+			file(entry.getKey()).delete();
+			diskSize -= entry.getValue();
+			eldest.remove();
+			diskEvictions.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Builds the index of the images in the directory.
+	 */
+	private void index() {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		Arrays.sort(files, new Comparator<File>() {
+			public int compare(File a, File b) {
+				long difference = a.lastModified() - b.lastModified();
+				return difference < 0 ? -1 : difference > 0 ? 1 : 0;
+			}
+		});
+		synchronized (disk) {
+			for (File file : files) {
+				String name = file.getName();
+				if (name.length() != 32 + EXTENSION.length()
+						|| !name.endsWith(EXTENSION)) {
+					continue;
+				}
+				ChartKey key;
+				try {
+					key = ChartKey.parse(name.substring(0, 32));
+				} catch (IllegalArgumentException e) {
+					// not written by the cache
+					continue;
+				}
+				disk.put(key, file.length());
+				diskSize += file.length();
+			}
+			evictFromDisk();
+		}
+	}
+
+	private File file(ChartKey key) {
+		return new File(directory, key.toHexString() + EXTENSION);
+	}
+
+	private static byte[] read(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			byte[] bytes = new byte[(int) file.length()];
+			int offset = 0;
+			while (offset < bytes.length) {
+				int read = in.read(bytes, offset, bytes.length - offset);
+				if (read < 0)
+					throw new IOException("file shortened while reading: " + file);
+				offset += read;
+			}
+			return bytes;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Loads the image of a chart which is not cached.
+	 *
+	 * @author martin
+	 * @see ChartImageCache#rendering(ChartImageRenderer)
+	 * @see ChartImageCache#fetching(ChartImageClient)
+	 */
+	public static interface Loader {
+
+		/**
+		 * Loads the image of the chart.
+		 *
+		 * @param chart the chart
+		 * @return bytes of the image
+		 * @throws IOException if the image can not be loaded
+		 */
+		public byte[] load(IChart chart) throws IOException;
+	}
+
+}
@@ -0,0 +1,613 @@
+package de.toolforge.googlechartwrapper;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+import de.toolforge.googlechartwrapper.AbstractChart.FeatureAppender;
+
+/**
+ * Fetches the images of charts from the chart service asynchronously. The
+ * requests are executed by the threads of an {@link ExecutorService}, so the
+ * count of threads limits the count of concurrent requests. The connections are
+ * kept alive and reused by {@link HttpURLConnection} for the following requests
+ * to the same host, as each response is read completely.
+ * <p>
+ * The request of a chart is generated when the chart is passed, so the chart
+ * may be modified afterwards. If the url is longer than the maximum url length
+ * ({@link #DEFAULT_MAX_URL_LENGTH} by default), the chart is sent as post
+ * request with the {@link PostBody} of the chart instead, which is streamed
+ * with a fixed content length. A response with a status other than 200 fails with an
+ * {@link IOException}, as well as a connection or a response which exceeds
+ * the timeouts.
+ * </p>
+ * <p>
+ * Fetches of an identical chart (the same {@link ChartKey} and location) while its request is in
+ * progress are coalesced: only one request is sent, its response is shared by
+ * all waiting futures, see {@link #getCoalescedCount()}. Each future may be
+ * cancelled or waited for with a timeout on its own, the request is cancelled
+ * when all of its futures are cancelled. The timeouts of the first fetch apply
+ * to the shared request.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how ChartImageClient can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * ChartImageClient client = new ChartImageClient(4);
+ * client.setReadTimeout(5000);
+ * Future&lt;BufferedImage&gt; image = client.fetchImage(lineChart);
+ * Future&lt;byte[]&gt; png = client.fetch(barChart);
+ * ImageIO.write(image.get(), "png", file);
+ * client.shutdown();
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see ChartImageRenderer renders the chart locally
+ */
+public class ChartImageClient {
+
+	/**
+	 * default maximum length of a url, longer charts are sent by post
+	 */
+	public static final int DEFAULT_MAX_URL_LENGTH = 2048;
+
+	/**
+	 * default timeout to connect and to read in milliseconds
+	 */
+	public static final int DEFAULT_TIMEOUT = 10000;
+
+	private final ExecutorService executor;
+	private final boolean ownExecutor;
+
+	private volatile String apiLocation = AbstractChart.GOOGLE_API;
+	private volatile int maxUrlLength = DEFAULT_MAX_URL_LENGTH;
+	private volatile int connectTimeout = DEFAULT_TIMEOUT;
+	private volatile int readTimeout = DEFAULT_TIMEOUT;
+
+	/**
+	 * requests in progress by the key of their chart
+	 */
+	private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<String, Flight>();
+	private final AtomicLong fetches = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+
+	/**
+	 * Constructs a client with an own pool of the given count of threads,
+	 * which is the maximum count of concurrent requests. The pool must be
+	 * stopped by {@link #shutdown()}.
+	 *
+	 * @param threads count of threads
+	 *
+	 * @throws IllegalArgumentException if threads &lt; 1
+	 */
+	public ChartImageClient(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("threads must be > 0");
+		this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ChartImageClient");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.ownExecutor = true;
+	}
+
+	/**
+	 * Constructs a client which executes the requests with the given executor.
+	 * The executor is not stopped by {@link #shutdown()}.
+	 *
+	 * @param executor executor of the requests
+	 *
+	 * @throws IllegalArgumentException if executor is {@code null}
+	 */
+	public ChartImageClient(ExecutorService executor) {
+		if (executor == null)
+			throw new IllegalArgumentException("executor can not be null");
+		this.executor = executor;
+		this.ownExecutor = false;
+	}
+
+	/**
+	 * Sets the Chart API's location, for example a local stand-in of the chart
+	 * service. The location ends with the "?" the parameters are appended to.
+	 *
+	 * @param apiLocation the Chart API's location
+	 *
+	 * @throws IllegalArgumentException if apiLocation is {@code null} or does
+	 * not end with "?"
+	 * @see AbstractChart#GOOGLE_API
+	 */
+	public void setApiLocation(String apiLocation) {
+		if (apiLocation == null)
+			throw new IllegalArgumentException("apiLocation can not be null");
+		if (!apiLocation.endsWith("?"))
+			throw new IllegalArgumentException("apiLocation must end with ?");
+		this.apiLocation = apiLocation;
+	}
+
+	/**
+	 * Returns the Chart API's location.
+	 *
+	 * @return the Chart API's location
+	 */
+	public String getApiLocation() {
+		return apiLocation;
+	}
+
+	/**
+	 * Sets the maximum length of a url. A chart with a longer url is sent as
+	 * post request.
+	 *
+	 * @param maxUrlLength maximum count of characters
+	 *
+	 * @throws IllegalArgumentException if maxUrlLength &lt; 1
+	 */
+	public void setMaxUrlLength(int maxUrlLength) {
+		if (maxUrlLength < 1)
+			throw new IllegalArgumentException("maxUrlLength must be > 0");
+		this.maxUrlLength = maxUrlLength;
+	}
+
+	/**
+	 * Returns the maximum length of a url.
+	 *
+	 * @return maximum count of characters
+	 */
+	public int getMaxUrlLength() {
+		return maxUrlLength;
+	}
+
+	/**
+	 * Sets the timeout to connect to the chart service.
+	 *
+	 * @param millis timeout in milliseconds, 0 waits infinitely
+	 *
+	 * @throws IllegalArgumentException if millis &lt; 0
+	 */
+	public void setConnectTimeout(int millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("millis must be >= 0");
+		this.connectTimeout = millis;
+	}
+
+	/**
+	 * Returns the timeout to connect to the chart service.
+	 *
+	 * @return timeout in milliseconds
+	 */
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * Sets the timeout to wait for data of the response.
+	 *
+	 * @param millis timeout in milliseconds, 0 waits infinitely
+	 *
+	 * @throws IllegalArgumentException if millis &lt; 0
+	 */
+	public void setReadTimeout(int millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("millis must be >= 0");
+		this.readTimeout = millis;
+	}
+
+	/**
+	 * Returns the timeout to wait for data of the response.
+	 *
+	 * @return timeout in milliseconds
+	 */
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	/**
+	 * Fetches the image of the chart. The future returns the bytes of the
+	 * response, for example a png image, or throws an
+	 * {@link java.util.concurrent.ExecutionException} with the
+	 * {@link IOException} of the request.
+	 *
+	 * @param chart the chart
+	 * @return future bytes of the image
+	 *
+	 * @throws IllegalArgumentException if chart is {@code null}
+	 */
+	public Future<byte[]> fetch(IChart chart) {
+		Request request = new Request(chart);
+		while (true) {
+			Flight flight = flights.get(request.key);
+			if (flight == null) {
+				Flight created = new Flight(request);
+				flight = flights.putIfAbsent(request.key, created);
+				if (flight == null) {
+					Future<byte[]> waiter = created.join();
+					try {
+						executor.execute(created);
+					} catch (RuntimeException e) {
+						// for example rejected after the shutdown, the fetches
+						// which joined in the meantime fail as well
+						created.reject(e);
+						throw e;
+					}
+					fetches.incrementAndGet();
+					return waiter;
+				}
+			}
+			Future<byte[]> waiter = flight.join();
+			if (waiter != null) {
+				coalesced.incrementAndGet();
+				return waiter;
+			}
+			// cancelled by its last waiter, it is removed from the flights
+			flights.remove(request.key, flight);
+		}
+	}
+
+	/**
+	 * Fetches and decodes the image of the chart. The future throws an
+	 * {@link java.util.concurrent.ExecutionException} with the
+	 * {@link IOException} of the request, or if the response is no image.
+	 *
+	 * @param chart the chart
+	 * @return future image
+	 *
+	 * @throws IllegalArgumentException if chart is {@code null}
+	 */
+	public Future<BufferedImage> fetchImage(IChart chart) {
+		return new ImageFuture(fetch(chart));
+	}
+
+	/**
+	 * Returns the count of requests sent to the chart service.
+	 *
+	 * @return count of requests
+	 */
+	public long getFetchCount() {
+		return fetches.get();
+	}
+
+	/**
+	 * Returns the count of fetches which did not send an own request, but
+	 * waited for the request of an identical chart.
+	 *
+	 * @return count of coalesced fetches
+	 */
+	public long getCoalescedCount() {
+		return coalesced.get();
+	}
+
+	/**
+	 * Stops the own thread pool, requests already passed are still executed.
+	 * Does nothing if the executor was passed to the constructor.
+	 */
+	public void shutdown() {
+		if (ownExecutor) {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Request of a chart, the url or the post body is generated when the
+	 * request is constructed. Charts other than {@link AbstractChart} are
+	 * identified by their url and post the query of their url.
+	 */
+	private class Request implements Callable<byte[]> {
+
+		private final String key;
+		/**
+		 * url of the connection, the query is in the body of a post request
+		 */
+		private final String url;
+		/**
+		 * body of a post request, {@code null} for a get request
+		 */
+		private final PostBody body;
+		private final byte[] query;
+		private final int connectTimeout;
+		private final int readTimeout;
+
+		private Request(IChart chart) {
+			if (chart == null)
+				throw new IllegalArgumentException("chart can not be null");
+			String location = apiLocation;
+			String postUrl = location.substring(0, location.length() - 1);
+			if (chart instanceof AbstractChart) {
+				AbstractChart abstractChart = (AbstractChart) chart;
+				Queue<FeatureAppender> urlElements = abstractChart.getUrlElements();
+				this.key = location
+						+ abstractChart.getChartKey(urlElements).toHexString();
+				PostBody postBody = new PostBody(new ArrayDeque<FeatureAppender>(
+						urlElements));
+				if (location.length() + postBody.getContentLength() > maxUrlLength) {
+					this.url = postUrl;
+					this.body = postBody;
+				} else {
+					this.url = abstractChart.generateUrlString(location, urlElements);
+					this.body = null;
+				}
+				this.query = null;
+			} else {
+				String chartUrl = chart.getUrl();
+				int start = chartUrl.indexOf('?');
+				this.key = chartUrl;
+				this.body = null;
+				if (chartUrl.length() > maxUrlLength && start >= 0) {
+					this.url = chartUrl.substring(0, start);
+					this.query = toAscii(chartUrl.substring(start + 1));
+				} else {
+					this.url = chartUrl;
+					this.query = null;
+				}
+			}
+			this.connectTimeout = ChartImageClient.this.connectTimeout;
+			this.readTimeout = ChartImageClient.this.readTimeout;
+		}
+
+		public byte[] call() throws IOException {
+			HttpURLConnection connection = (HttpURLConnection) new URL(url)
+					.openConnection();
+			connection.setConnectTimeout(connectTimeout);
+			connection.setReadTimeout(readTimeout);
+			if (body != null || query != null) {
+				connection.setRequestMethod("POST");
+				connection.setDoOutput(true);
+				connection.setFixedLengthStreamingMode(body != null ? body
+						.getContentLength() : query.length);
+				connection.setRequestProperty("Content-Type", PostBody.CONTENT_TYPE);
+				OutputStream out = connection.getOutputStream();
+				try {
+					if (body != null) {
+						body.writeTo(out);
+					} else {
+						// the parameters are url encoded already, like in the query
+						out.write(query);
+					}
+				} finally {
+					out.close();
+				}
+			}
+			int status = connection.getResponseCode();
+			if (status != HttpURLConnection.HTTP_OK) {
+				// the error body is read, so the connection can be reused
+				InputStream error = connection.getErrorStream();
+				if (error != null) {
+					try {
+						readFully(error);
+					} finally {
+						error.close();
+					}
+				}
+				throw new IOException("chart service returned " + status + " "
+						+ connection.getResponseMessage());
+			}
+			InputStream in = connection.getInputStream();
+			try {
+				return readFully(in);
+			} finally {
+				in.close();
+			}
+		}
+	}
+
+	/**
+	 * Request in progress, shared by all fetches of the same chart. The request
+	 * is cancelled when all of its waiters are cancelled.
+	 */
+	private class Flight extends FutureTask<byte[]> {
+
+		private final String key;
+		private final List<Waiter> blocked = new ArrayList<Waiter>();
+		private int waiters;
+		private boolean abandoned;
+
+		private Flight(Request request) {
+			super(request);
+			this.key = request.key;
+		}
+
+		/**
+		 * Returns a new waiter of the request, {@code null} if the request was
+		 * cancelled.
+		 */
+		private synchronized Future<byte[]> join() {
+			if (abandoned) {
+				return null;
+			}
+			waiters++;
+			Waiter waiter = new Waiter(this);
+			if (isDone()) {
+				waiter.release();
+			} else {
+				blocked.add(waiter);
+			}
+			return waiter;
+		}
+
+		private void leave() {
+			synchronized (this) {
+				if (--waiters > 0 || isDone()) {
+					return;
+				}
+				abandoned = true;
+			}
+			cancel(true);
+		}
+
+		/**
+		 * Fails the request which could not be executed.
+		 */
+		private void reject(Throwable cause) {
+			setException(cause);
+		}
+
+		@Override
+		protected void done() {
+			flights.remove(key, this);
+			synchronized (this) {
+				for (Waiter waiter : blocked) {
+					waiter.release();
+				}
+				blocked.clear();
+			}
+		}
+	}
+
+	/**
+	 * View of a waiter on a shared request. Cancelling or a timeout of a waiter
+	 * does not affect the other waiters. A waiter is released when the request
+	 * is done or when it is cancelled itself.
+	 */
+	private static class Waiter implements Future<byte[]> {
+
+		private final Flight flight;
+		private final CountDownLatch released = new CountDownLatch(1);
+		private volatile boolean cancelled;
+
+		private Waiter(Flight flight) {
+			this.flight = flight;
+		}
+
+		private void release() {
+			released.countDown();
+		}
+
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			synchronized (this) {
+				if (cancelled || flight.isDone()) {
+					return false;
+				}
+				cancelled = true;
+			}
+			release();
+			flight.leave();
+			return true;
+		}
+
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		public boolean isDone() {
+			return cancelled || flight.isDone();
+		}
+
+		public byte[] get() throws InterruptedException, ExecutionException {
+			released.await();
+			return result();
+		}
+
+		public byte[] get(long timeout, TimeUnit unit)
+				throws InterruptedException, ExecutionException, TimeoutException {
+			if (!released.await(timeout, unit))
+				throw new TimeoutException();
+			return result();
+		}
+
+		private byte[] result() throws InterruptedException, ExecutionException {
+			if (cancelled)
+				throw new CancellationException();
+			return flight.get();
+		}
+	}
+
+	/**
+	 * Decodes the fetched bytes when the image is requested the first time.
+	 */
+	private static class ImageFuture implements Future<BufferedImage> {
+
+		private final Future<byte[]> bytes;
+		private BufferedImage image;
+
+		private ImageFuture(Future<byte[]> bytes) {
+			this.bytes = bytes;
+		}
+
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			return bytes.cancel(mayInterruptIfRunning);
+		}
+
+		public boolean isCancelled() {
+			return bytes.isCancelled();
+		}
+
+		public boolean isDone() {
+			return bytes.isDone();
+		}
+
+		public BufferedImage get() throws InterruptedException,
+				ExecutionException {
+			return decode(bytes.get());
+		}
+
+		public BufferedImage get(long timeout, TimeUnit unit)
+				throws InterruptedException, ExecutionException, TimeoutException {
+			return decode(bytes.get(timeout, unit));
+		}
+
+		private synchronized BufferedImage decode(byte[] data)
+				throws ExecutionException {
+			if (image == null) {
+				try {
+					image = ImageIO.read(new ByteArrayInputStream(data));
+				} catch (IOException e) {
+					throw new ExecutionException(e);
+				}
+				if (image == null)
+					throw new ExecutionException(new IOException(
+							"response is no image"));
+			}
+			return image;
+		}
+	}
+
+	private static byte[] toAscii(String query) {
+		try {
+			return query.getBytes("US-ASCII");
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e); //US-ASCII is always supported
+		}
+	}
+
+	private static byte[] readFully(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+		byte[] buffer = new byte[4096];
+		for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+}
@@ -0,0 +1,303 @@
+package de.toolforge.googlechartwrapper;
+
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Renders charts locally into images with Java2D, without a request to the
+ * chart service. This allows charts in offline environments, in tests and in
+ * batch jobs which must not depend on the service. The image has the size of
+ * the chart, the content is painted from the model of the chart and
+ * approximates the image of the service.
+ * <p>
+ * Supported are the line charts, {@link BarChart}, {@link ScatterPlot}, the
+ * pie charts, {@link RadarChart}, {@link VennDiagram} and {@link GoogleOMeter},
+ * see {@link #isSupported(IChart)}. Gradients, stripes, range markers, fill
+ * areas, financial markers and data point labels are not painted.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how ChartImageRenderer can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * LineChart lineChart = new LineChart(new Dimension(300, 200));
+ * lineChart.addLineChartData(new LineChartData.LineChartDataBuilder(
+ * 		new float[]{10, 40, 25}).color(Color.BLUE).build());
+ *
+ * ChartImageRenderer renderer = new ChartImageRenderer();
+ * BufferedImage image = renderer.render(lineChart);
+ * renderer.writePng(lineChart, new FileOutputStream("chart.png"));
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see ChartImageClient fetches the image of the chart service
+ * @see SvgChartWriter
+ */
+public class ChartImageRenderer {
+
+	/**
+	 * Returns {@code true} if the chart can be rendered locally.
+	 *
+	 * @param chart the chart
+	 * @return {@code true} if the chart type is supported
+	 */
+	public static boolean isSupported(IChart chart) {
+		return ChartPainter.isSupported(chart);
+	}
+
+	/**
+	 * Renders the chart into a new image with the size of the chart.
+	 *
+	 * @param chart the chart
+	 * @return the image
+	 *
+	 * @throws IllegalArgumentException if chart is {@code null} or not
+	 * supported
+	 */
+	public BufferedImage render(IChart chart) {
+		ChartPainter painter = new ChartPainter(checkChart(chart));
+		BufferedImage image = new BufferedImage(painter.getWidth(),
+				painter.getHeight(), BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		try {
+			painter.paint(new Java2DCanvas(graphics));
+		} finally {
+			graphics.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Renders the chart and writes it as png image to the stream. The stream
+	 * is not closed.
+	 *
+	 * @param chart the chart
+	 * @param out destination of the image
+	 * @throws IOException if the image can not be written
+	 *
+	 * @throws IllegalArgumentException if chart or out is {@code null} or the
+	 * chart is not supported
+	 */
+	public void writePng(IChart chart, OutputStream out) throws IOException {
+		write(chart, OutputFormat.PNG, out);
+	}
+
+	/**
+	 * Renders the chart in the format and writes it to the stream: PNG and GIF
+	 * as image, SVG as document of the {@link SvgChartWriter}. The stream is
+	 * not closed.
+	 *
+	 * @param chart the chart
+	 * @param format format of the chart
+	 * @param out destination of the chart
+	 * @throws IOException if the chart can not be written
+	 *
+	 * @throws IllegalArgumentException if chart, format or out is {@code null},
+	 * the chart is not supported or the format is not graphical
+	 */
+	public void write(IChart chart, OutputFormat format, OutputStream out)
+			throws IOException {
+		if (format == null)
+			throw new IllegalArgumentException("format can not be null");
+		if (out == null)
+			throw new IllegalArgumentException("out can not be null");
+		switch (format) {
+		case PNG:
+		case GIF:
+			String name = format.name().toLowerCase();
+			if (!ImageIO.write(render(chart), name, out)) {
+				throw new IOException("no " + name + " writer available");
+			}
+			break;
+		case SVG:
+			new SvgChartWriter().write(checkChart(chart), out);
+			break;
+		default:
+			throw new IllegalArgumentException("format can not be rendered: "
+					+ format);
+		}
+	}
+
+	/**
+	 * Renders the chart and returns the png image.
+	 *
+	 * @param chart the chart
+	 * @return bytes of the png image
+	 *
+	 * @throws IllegalArgumentException if chart is {@code null} or not
+	 * supported
+	 */
+	public byte[] toPng(IChart chart) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			writePng(chart, out);
+		} catch (IOException e) {
+			throw new RuntimeException(e); //not thrown by ByteArrayOutputStream
+		}
+		return out.toByteArray();
+	}
+
+	private static AbstractChart checkChart(IChart chart) {
+		if (chart == null)
+			throw new IllegalArgumentException("chart can not be null");
+		if (!isSupported(chart))
+			throw new IllegalArgumentException("chart type can not be rendered: "
+					+ chart.getClass().getName());
+		return (AbstractChart) chart;
+	}
+
+	/**
+	 * Canvas which paints with a {@link Graphics2D}.
+	 */
+	private static class Java2DCanvas implements ChartCanvas {
+
+		private final Graphics2D graphics;
+		private final Map<Integer, Font> fonts = new HashMap<Integer, Font>();
+		private GeneralPath path;
+
+		private Java2DCanvas(Graphics2D graphics) {
+			this.graphics = graphics;
+			graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+					RenderingHints.VALUE_ANTIALIAS_ON);
+			graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+					RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+			graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL,
+					RenderingHints.VALUE_STROKE_PURE);
+		}
+
+		public void fillRect(double x, double y, double width, double height,
+				Color color) {
+			graphics.setColor(color.toAwtColor());
+			graphics.fill(new Rectangle2D.Double(x, y, width, height));
+		}
+
+		public void fillPolygon(double[] x, double[] y, int count, Color color) {
+			GeneralPath polygon = new GeneralPath();
+			polygon.moveTo((float) x[0], (float) y[0]);
+			for (int i = 1; i < count; i++) {
+				polygon.lineTo((float) x[i], (float) y[i]);
+			}
+			polygon.closePath();
+			graphics.setColor(color.toAwtColor());
+			graphics.fill(polygon);
+		}
+
+		public void fillCircle(double x, double y, double radius, Color color) {
+			graphics.setColor(color.toAwtColor());
+			graphics.fill(new Ellipse2D.Double(x - radius, y - radius, 2 * radius,
+					2 * radius));
+		}
+
+		public void fillSector(double x, double y, double innerRadius,
+				double outerRadius, double startAngle, double extent, Color color) {
+			// Arc2D counts the degrees counterclockwise
+			double start = -Math.toDegrees(startAngle);
+			double degrees = -Math.toDegrees(extent);
+			Shape sector;
+			if (innerRadius <= 0) {
+				sector = new Arc2D.Double(x - outerRadius, y - outerRadius,
+						2 * outerRadius, 2 * outerRadius, start, degrees, Arc2D.PIE);
+			} else {
+				GeneralPath ring = new GeneralPath(new Arc2D.Double(x - outerRadius,
+						y - outerRadius, 2 * outerRadius, 2 * outerRadius, start,
+						degrees, Arc2D.OPEN));
+				ring.append(new Arc2D.Double(x - innerRadius, y - innerRadius,
+						2 * innerRadius, 2 * innerRadius, start + degrees, -degrees,
+						Arc2D.OPEN), true);
+				ring.closePath();
+				sector = ring;
+			}
+			graphics.setColor(color.toAwtColor());
+			graphics.fill(sector);
+		}
+
+		public void drawLine(double x1, double y1, double x2, double y2,
+				Color color, float thickness, float[] dash) {
+			setStroke(color, thickness, dash);
+			graphics.draw(new Line2D.Double(x1, y1, x2, y2));
+		}
+
+		public void beginPath(Color color, float thickness, float[] dash) {
+			setStroke(color, thickness, dash);
+			path = new GeneralPath();
+		}
+
+		public void moveTo(double x, double y) {
+			path.moveTo((float) x, (float) y);
+		}
+
+		public void lineTo(double x, double y) {
+			path.lineTo((float) x, (float) y);
+		}
+
+		public void endPath() {
+			graphics.draw(path);
+			path = null;
+		}
+
+		public void drawText(String text, double x, double y, int fontSize,
+				Color color, int alignment) {
+			if (text.length() == 0) {
+				return;
+			}
+			graphics.setFont(getFont(fontSize));
+			FontMetrics metrics = graphics.getFontMetrics();
+			double width = metrics.stringWidth(text);
+			double left = alignment == ALIGN_LEFT ? x
+					: alignment == ALIGN_CENTER ? x - width / 2 : x - width;
+			double baseline = y + (metrics.getAscent() - metrics.getDescent()) / 2.0;
+			graphics.setColor(color.toAwtColor());
+			graphics.drawString(text, (float) left, (float) baseline);
+		}
+
+		public double getTextWidth(String text, int fontSize) {
+			return graphics.getFontMetrics(getFont(fontSize)).stringWidth(text);
+		}
+
+		public void clip(double x, double y, double width, double height) {
+			graphics.setClip(new Rectangle2D.Double(x, y, width, height));
+		}
+
+		public void resetClip() {
+			graphics.setClip(null);
+		}
+
+		private void setStroke(Color color, float thickness, float[] dash) {
+			graphics.setColor(color.toAwtColor());
+			graphics.setStroke(new BasicStroke(thickness, BasicStroke.CAP_ROUND,
+					BasicStroke.JOIN_ROUND, 10f, dash, 0f));
+		}
+
+		private Font getFont(int size) {
+			Font font = fonts.get(size);
+			if (font == null) {
+				font = new Font("SansSerif", Font.PLAIN, size);
+				fonts.put(size, font);
+			}
+			return font;
+		}
+	}
+
+}
@@ -0,0 +1,192 @@
+package de.toolforge.googlechartwrapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 128 bit MD5 digest of the parameters of a chart, see
+ * {@link AbstractChart#getChartKey()}. Two charts with the same parameters (and
+ * so the same url) have the same key, charts with different parameters have
+ * different keys unless the parameters are built to collide on purpose, which
+ * is known to be feasible for MD5. The parameters are digested while they are
+ * written, the url itself is never built. Keys are immutable.
+ *
+ * <p>
+ * Here are some examples of how ChartKey can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * ChartKey key = lineChart.getChartKey();
+ * String fileName = key.toHexString() + ".png";
+ * boolean unchanged = key.equals(lastKey);
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see ChartImageCache
+ */
+public final class ChartKey {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final long high;
+	private final long low;
+
+	/**
+	 * Constructs a key of the two halves of the hash.
+	 *
+	 * @param high the upper 64 bits
+	 * @param low the lower 64 bits
+	 */
+	public ChartKey(long high, long low) {
+		this.high = high;
+		this.low = low;
+	}
+
+	/**
+	 * Parses a key written by {@link #toHexString()}.
+	 *
+	 * @param hex 32 hex digits
+	 * @return the key
+	 *
+	 * @throws IllegalArgumentException if hex is {@code null} or no key
+	 */
+	public static ChartKey parse(String hex) {
+		if (hex == null)
+			throw new IllegalArgumentException("hex can not be null");
+		if (hex.length() != 32)
+			throw new IllegalArgumentException("hex must have 32 digits");
+		return new ChartKey(parseHalf(hex, 0), parseHalf(hex, 16));
+	}
+
+	private static long parseHalf(String hex, int start) {
+		long value = 0;
+		for (int i = start; i < start + 16; i++) {
+			int digit = Character.digit(hex.charAt(i), 16);
+			if (digit < 0)
+				throw new IllegalArgumentException("no hex digit: " + hex.charAt(i));
+			value = (value << 4) | digit;
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the upper 64 bits of the hash.
+	 *
+	 * @return upper half
+	 */
+	public long getHigh() {
+		return high;
+	}
+
+	/**
+	 * Returns the lower 64 bits of the hash.
+	 *
+	 * @return lower half
+	 */
+	public long getLow() {
+		return low;
+	}
+
+	/**
+	 * Returns the key as 32 lower case hex digits, which can be used as file
+	 * name.
+	 *
+	 * @return hex string
+	 */
+	public String toHexString() {
+		char[] chars = new char[32];
+		for (int i = 0; i < 16; i++) {
+			chars[i] = HEX[(int) (high >>> (60 - 4 * i)) & 0xF];
+			chars[16 + i] = HEX[(int) (low >>> (60 - 4 * i)) & 0xF];
+		}
+		return new String(chars);
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (low ^ (low >>> 32));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof ChartKey))
+			return false;
+		ChartKey other = (ChartKey) obj;
+		return high == other.high && low == other.low;
+	}
+
+	@Override
+	public String toString() {
+		return toHexString();
+	}
+
+	/**
+	 * Appendable which digests the appended characters into a key. The
+	 * characters are digested by MD5 as UTF-16 code units, buffered to update
+	 * the digest in blocks.
+	 */
+	static class Hasher implements Appendable {
+
+		private final MessageDigest digest;
+		private final byte[] buffer = new byte[256];
+		private int position;
+
+		Hasher() {
+			try {
+				digest = MessageDigest.getInstance("MD5");
+			}
+			catch (NoSuchAlgorithmException e) {
+				//every platform must support MD5
+				throw new IllegalStateException(e);
+			}
+		}
+
+		public Hasher append(char c) {
+			if (position == buffer.length) {
+				digest.update(buffer, 0, position);
+				position = 0;
+			}
+			buffer[position++] = (byte) (c >>> 8);
+			buffer[position++] = (byte) c;
+			return this;
+		}
+
+		public Hasher append(CharSequence csq) {
+			return append(csq, 0, csq.length());
+		}
+
+		public Hasher append(CharSequence csq, int start, int end) {
+			for (int i = start; i < end; i++) {
+				append(csq.charAt(i));
+			}
+			return this;
+		}
+
+		/**
+		 * Returns the key of the characters appended so far.
+		 *
+		 * @return the key
+		 */
+		ChartKey toKey() {
+			digest.update(buffer, 0, position);
+			position = 0;
+			byte[] hash = digest.digest();
+			return new ChartKey(toLong(hash, 0), toLong(hash, 8));
+		}
+
+		private static long toLong(byte[] bytes, int start) {
+			long value = 0;
+			for (int i = start; i < start + 8; i++) {
+				value = (value << 8) | (bytes[i] & 0xFF);
+			}
+			return value;
+		}
+	}
+
+}
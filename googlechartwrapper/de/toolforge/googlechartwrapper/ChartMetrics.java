@@ -0,0 +1,70 @@
+package de.toolforge.googlechartwrapper;
+
+import java.util.List;
+
+import de.toolforge.googlechartwrapper.coder.EncodingType;
+import de.toolforge.googlechartwrapper.util.AppendableFeature;
+import de.toolforge.googlechartwrapper.util.IExtendedFeatureAppender;
+
+/**
+ * Listener of the url generation of the charts, see
+ * {@link AbstractChart#setChartMetrics(ChartMetrics)}. The listener is called
+ * by the threads which generate the urls, so it must be thread safe and should
+ * return quickly. All timings are in nanoseconds, all lengths are counts of
+ * characters, which equal the bytes of the url.
+ *
+ * @author martin
+ * @see ChartMetricsRecorder
+ */
+public interface ChartMetrics {
+
+	/**
+	 * Called after the appenders of a chart were collected by
+	 * {@link AbstractChart#getAllAppenders()}.
+	 *
+	 * @param chartType type of the chart
+	 * @param appenderCount count of the appenders
+	 * @param nanos time taken
+	 */
+	public void appendersCollected(ChartType chartType, int appenderCount,
+			long nanos);
+
+	/**
+	 * Called after an appender returned its features. The time includes the
+	 * encoding of the chart data if the appender holds the data.
+	 *
+	 * @param chartType type of the chart
+	 * @param appender the appender
+	 * @param features the features of the appender, must not be modified
+	 * @param nanos time taken by
+	 * {@link IExtendedFeatureAppender#getAppendableFeatures(List)}
+	 */
+	public void featuresCollected(ChartType chartType,
+			IExtendedFeatureAppender appender, List<AppendableFeature> features,
+			long nanos);
+
+	/**
+	 * Called for each encoded chart data feature (chd) after
+	 * {@link #featuresCollected(ChartType, IExtendedFeatureAppender, List, long)}.
+	 * Text encoded data is always reported as {@link EncodingType#TextEncoding},
+	 * the data scaling is a separate parameter.
+	 *
+	 * @param chartType type of the chart
+	 * @param encodingType the encoding type, for example the one chosen by the
+	 * {@link de.toolforge.googlechartwrapper.coder.AutoEncoder}
+	 * @param pointCount count of the encoded points of all series
+	 * @param length length of the encoded data
+	 */
+	public void dataEncoded(ChartType chartType, EncodingType encodingType,
+			int pointCount, int length);
+
+	/**
+	 * Called after the url of a chart was generated as string.
+	 *
+	 * @param chartType type of the chart
+	 * @param length length of the url
+	 * @param nanos time taken to write the url elements
+	 */
+	public void urlGenerated(ChartType chartType, int length, long nanos);
+
+}
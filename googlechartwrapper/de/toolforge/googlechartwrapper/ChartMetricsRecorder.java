@@ -0,0 +1,281 @@
+package de.toolforge.googlechartwrapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import de.toolforge.googlechartwrapper.coder.EncodingType;
+import de.toolforge.googlechartwrapper.util.AppendableFeature;
+import de.toolforge.googlechartwrapper.util.IExtendedFeatureAppender;
+
+/**
+ * Records the {@link ChartMetrics} of the url generation in histograms. Each
+ * histogram is named after the chart type and the measured value:
+ * <ul>
+ * <li><code>&lt;type&gt;.appenders.nanos</code>: collecting the appenders</li>
+ * <li><code>&lt;type&gt;.&lt;prefix&gt;.nanos</code>: collecting the features of
+ * an appender, counted for the prefix of its first feature</li>
+ * <li><code>&lt;type&gt;.&lt;prefix&gt;.bytes</code>: length of a feature in the
+ * url</li>
+ * <li><code>&lt;type&gt;.chd.&lt;encoding type&gt;.points</code>: points encoded
+ * with the encoding type, the count of the histogram is the count of times the
+ * encoding type was chosen</li>
+ * <li><code>&lt;type&gt;.url.nanos</code> and
+ * <code>&lt;type&gt;.url.bytes</code>: writing the url and its length</li>
+ * </ul>
+ * The histograms record without locks, so the recorder may be shared by all
+ * threads generating urls.
+ *
+ * <p>
+ * Here are some examples of how ChartMetricsRecorder can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * ChartMetricsRecorder recorder = new ChartMetricsRecorder();
+ * AbstractChart.setChartMetrics(recorder);
+ * ... // generate urls
+ * AbstractChart.setChartMetrics(null);
+ * System.out.println(recorder);
+ * long p99 = recorder.getHistogram(&quot;LineChart.url.nanos&quot;).getPercentile(0.99);
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see AbstractChart#setChartMetrics(ChartMetrics)
+ */
+public class ChartMetricsRecorder implements ChartMetrics {
+
+	private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<String, Histogram>();
+
+	public void appendersCollected(ChartType chartType, int appenderCount,
+			long nanos) {
+		record(chartType + ".appenders.nanos", nanos);
+	}
+
+	public void featuresCollected(ChartType chartType,
+			IExtendedFeatureAppender appender, List<AppendableFeature> features,
+			long nanos) {
+		if (features.isEmpty()) {
+			return;
+		}
+		record(chartType + "." + name(features.get(0)) + ".nanos", nanos);
+		for (AppendableFeature feature : features) {
+			// the prefix, the = and the data
+			record(chartType + "." + name(feature) + ".bytes", feature
+					.getPrefix().length()
+					+ 1 + feature.getData().length());
+		}
+	}
+
+	public void dataEncoded(ChartType chartType, EncodingType encodingType,
+			int pointCount, int length) {
+		record(chartType + ".chd." + encodingType + ".points", pointCount);
+	}
+
+	public void urlGenerated(ChartType chartType, int length, long nanos) {
+		record(chartType + ".url.nanos", nanos);
+		record(chartType + ".url.bytes", length);
+	}
+
+	private static String name(AppendableFeature feature) {
+		return feature.getPrefix().length() > 0 ? feature.getPrefix() : "none";
+	}
+
+	private void record(String name, long value) {
+		Histogram histogram = histograms.get(name);
+		if (histogram == null) {
+			Histogram created = new Histogram();
+			histogram = histograms.putIfAbsent(name, created);
+			if (histogram == null) {
+				histogram = created;
+			}
+		}
+		histogram.record(value);
+	}
+
+	/**
+	 * Returns the histogram with the name.
+	 *
+	 * @param name name of the histogram, for example
+	 * <code>LineChart.url.bytes</code>
+	 * @return the histogram or {@code null} if nothing was recorded
+	 */
+	public Histogram getHistogram(String name) {
+		return histograms.get(name);
+	}
+
+	/**
+	 * Returns all histograms sorted by their names.
+	 *
+	 * @return snapshot of the histograms
+	 */
+	public SortedMap<String, Histogram> getHistograms() {
+		return new TreeMap<String, Histogram>(histograms);
+	}
+
+	/**
+	 * Removes all histograms.
+	 */
+	public void clear() {
+		histograms.clear();
+	}
+
+	/**
+	 * Writes one line per histogram with its count, mean, median, 99th
+	 * percentile and maximum.
+	 *
+	 * @param out destination of the text
+	 * @throws IOException if out throws an IOException
+	 */
+	public void writeTo(Appendable out) throws IOException {
+		for (Map.Entry<String, Histogram> entry : getHistograms().entrySet()) {
+			Histogram histogram = entry.getValue();
+			out.append(entry.getKey()).append(" count=").append(
+					Long.toString(histogram.getCount())).append(" mean=")
+					.append(Long.toString(Math.round(histogram.getMean())))
+					.append(" p50=").append(
+							Long.toString(histogram.getPercentile(0.5))).append(
+							" p99=").append(
+							Long.toString(histogram.getPercentile(0.99)))
+					.append(" max=").append(Long.toString(histogram.getMax()))
+					.append('\n');
+		}
+	}
+
+	/**
+	 * Returns the text written by {@link #writeTo(Appendable)}.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder();
+		try {
+			writeTo(text);
+		}
+		catch (IOException e) {
+			throw new RuntimeException(e); //not thrown by StringBuilder
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Histogram of non negative values with buckets of logarithmic size: each
+	 * power of two is divided into eight buckets, so a percentile is exact to
+	 * about 12 percent. Values are recorded without locks.
+	 *
+	 * @author martin
+	 */
+	public static final class Histogram {
+
+		private static final int SUB_BUCKET_BITS = 3;
+		private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+		private final AtomicLongArray buckets = new AtomicLongArray(
+				SUB_BUCKETS * (64 - SUB_BUCKET_BITS + 1));
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong sum = new AtomicLong();
+		private final AtomicLong max = new AtomicLong();
+
+		/**
+		 * Records the value, negative values are recorded as 0.
+		 *
+		 * @param value the value
+		 */
+		public void record(long value) {
+			if (value < 0) {
+				value = 0;
+			}
+			buckets.incrementAndGet(index(value));
+			count.incrementAndGet();
+			sum.addAndGet(value);
+			long current = max.get();
+			while (value > current && !max.compareAndSet(current, value)) {
+				current = max.get();
+			}
+		}
+
+		private static int index(long value) {
+			if (value < SUB_BUCKETS) {
+				return (int) value;
+			}
+			int exponent = 63 - Long.numberOfLeadingZeros(value);
+			int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS))
+					& (SUB_BUCKETS - 1);
+			return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+		}
+
+		private static long lowestValue(int index) {
+			if (index < SUB_BUCKETS) {
+				return index;
+			}
+			int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+			long sub = index % SUB_BUCKETS;
+			return (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+		}
+
+		/**
+		 * Returns the count of recorded values.
+		 *
+		 * @return count of values
+		 */
+		public long getCount() {
+			return count.get();
+		}
+
+		/**
+		 * Returns the exact mean of the recorded values.
+		 *
+		 * @return the mean or 0 if no value was recorded
+		 */
+		public double getMean() {
+			long n = count.get();
+			return n == 0 ? 0 : (double) sum.get() / n;
+		}
+
+		/**
+		 * Returns the exact maximum of the recorded values.
+		 *
+		 * @return the maximum or 0 if no value was recorded
+		 */
+		public long getMax() {
+			return max.get();
+		}
+
+		/**
+		 * Returns the highest value of the bucket which contains the
+		 * percentile, but at most the maximum.
+		 *
+		 * @param percentile the percentile between 0 and 1, for example 0.99
+		 * @return the value or 0 if no value was recorded
+		 *
+		 * @throws IllegalArgumentException if percentile is not between 0 and 1
+		 */
+		public long getPercentile(double percentile) {
+			if (percentile < 0 || percentile > 1)
+				throw new IllegalArgumentException(
+						"percentile must be between 0 and 1");
+			long n = count.get();
+			if (n == 0) {
+				return 0;
+			}
+			long rank = Math.max(1, (long) Math.ceil(percentile * n));
+			long seen = 0;
+			for (int i = 0; i < buckets.length(); i++) {
+				seen += buckets.get(i);
+				if (seen >= rank) {
+					return Math.min(lowestValue(i + 1) - 1, max.get());
+				}
+			}
+			return max.get();
+		}
+	}
+
+}
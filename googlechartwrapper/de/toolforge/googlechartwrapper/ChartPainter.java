@@ -0,0 +1,1622 @@
+package de.toolforge.googlechartwrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.toolforge.googlechartwrapper.coder.AutoEncoder;
+import de.toolforge.googlechartwrapper.coder.DataScalingTextEncoder;
+import de.toolforge.googlechartwrapper.coder.EncoderFactory;
+import de.toolforge.googlechartwrapper.coder.EncodingType;
+import de.toolforge.googlechartwrapper.coder.ExtendedEncoder;
+import de.toolforge.googlechartwrapper.coder.IEncoder;
+import de.toolforge.googlechartwrapper.coder.PercentageEncoder;
+import de.toolforge.googlechartwrapper.coder.SimpleEncoder;
+import de.toolforge.googlechartwrapper.color.ChartColor;
+import de.toolforge.googlechartwrapper.color.IChartColorable;
+import de.toolforge.googlechartwrapper.color.ISolidFillable;
+import de.toolforge.googlechartwrapper.color.SolidFill;
+import de.toolforge.googlechartwrapper.color.SolidFill.ChartFillDestination;
+import de.toolforge.googlechartwrapper.data.BarChartDataSerie;
+import de.toolforge.googlechartwrapper.data.ConcentricPieChartSlice;
+import de.toolforge.googlechartwrapper.data.DataScalingSet;
+import de.toolforge.googlechartwrapper.data.FloatDataSet;
+import de.toolforge.googlechartwrapper.data.GoogleOMeterValue;
+import de.toolforge.googlechartwrapper.data.LineChartData;
+import de.toolforge.googlechartwrapper.data.PieChartSlice;
+import de.toolforge.googlechartwrapper.data.RadarChartLine;
+import de.toolforge.googlechartwrapper.data.ScatterPlotData;
+import de.toolforge.googlechartwrapper.data.SeriesStats;
+import de.toolforge.googlechartwrapper.data.VennDiagramData;
+import de.toolforge.googlechartwrapper.data.XYLineChartData;
+import de.toolforge.googlechartwrapper.label.AxisLabel;
+import de.toolforge.googlechartwrapper.label.AxisLabelContainer;
+import de.toolforge.googlechartwrapper.label.AxisRange;
+import de.toolforge.googlechartwrapper.label.AxisType;
+import de.toolforge.googlechartwrapper.label.ChartLegend;
+import de.toolforge.googlechartwrapper.label.ChartTitle;
+import de.toolforge.googlechartwrapper.label.IAxisLabelable;
+import de.toolforge.googlechartwrapper.label.IChartLegendable;
+import de.toolforge.googlechartwrapper.label.IChartTitleable;
+import de.toolforge.googlechartwrapper.label.ChartLegend.ChartLegendPosition;
+import de.toolforge.googlechartwrapper.style.BarChartZeroLine;
+import de.toolforge.googlechartwrapper.style.ChartMargin;
+import de.toolforge.googlechartwrapper.style.GridLine;
+import de.toolforge.googlechartwrapper.style.IChartMarginable;
+import de.toolforge.googlechartwrapper.style.IGridLineable;
+import de.toolforge.googlechartwrapper.style.IShapeMarkable;
+import de.toolforge.googlechartwrapper.style.LineStyle;
+import de.toolforge.googlechartwrapper.style.ShapeMarker;
+import de.toolforge.googlechartwrapper.style.ShapeMarker.IDataPoint;
+import de.toolforge.googlechartwrapper.util.Pair;
+
+/**
+ * Paints a chart from its model onto a {@link ChartCanvas} without a request
+ * to the chart service. The data, the axes ({@link AxisLabelContainer}), the
+ * {@link ChartTitle}, the legend, the {@link ChartColor}s, the {@link SolidFill}s,
+ * the {@link GridLine} and the {@link ShapeMarker}s are painted. The title is
+ * placed on top, the legend at its position (right by default) and the axes
+ * around the plot area. The values are mapped like the chart service maps
+ * the encoded values: the range depends on the encoder of the chart and on the
+ * data scaling. Pixel level differences to the images of the service are
+ * expected.
+ * <p>
+ * The data is read from the model while it is painted, the painter holds no
+ * copy of a series. A line is passed point by point to the canvas, so the
+ * memory needed does not grow with the length of a series.
+ * </p>
+ * <p>
+ * Supported are the line charts ({@link LineChart}, {@link XYLineChart}),
+ * {@link BarChart}, {@link ScatterPlot}, the pie charts ({@link PieChart},
+ * {@link ConcentricPieChart}), {@link RadarChart}, {@link VennDiagram} and
+ * {@link GoogleOMeter}. Gradients, stripes, range markers, fill areas,
+ * financial markers and data point labels are not painted, 3D pies are painted
+ * flat and curved radar lines straight.
+ * </p>
+ *
+ * @author martin
+ * @see ChartImageRenderer
+ * @see SvgChartWriter
+ */
+final class ChartPainter {
+
+	/**
+	 * width of a chart without a specified width
+	 */
+	static final int DEFAULT_WIDTH = 300;
+
+	/**
+	 * height of a chart without a specified height
+	 */
+	static final int DEFAULT_HEIGHT = 200;
+
+	/**
+	 * series colors if no color is specified
+	 */
+	private static final Color[] DEFAULT_COLORS = { new Color(255, 153, 0),
+			new Color(51, 102, 204), new Color(220, 57, 18),
+			new Color(16, 150, 24), new Color(153, 0, 153),
+			new Color(0, 153, 198) };
+
+	/**
+	 * colors of the scale of a google-o-meter if no color is specified
+	 */
+	private static final Color[] METER_COLORS = { new Color(220, 57, 18),
+			new Color(255, 204, 0), new Color(16, 150, 24) };
+
+	private static final Color TEXT_COLOR = new Color(68, 68, 68);
+	private static final Color AXIS_COLOR = Color.GRAY;
+	private static final Color GRID_COLOR = Color.LIGHT_GRAY;
+
+	private static final int TITLE_FONT_SIZE = 13;
+	private static final int FONT_SIZE = 11;
+	private static final int PADDING = 6;
+	private static final int TICK_LENGTH = 4;
+	private static final int SWATCH_SIZE = 10;
+	private static final float LINE_THICKNESS = 2f;
+	private static final double POINT_RADIUS = 3;
+	private static final double MAX_POINT_RADIUS = 10;
+
+	/**
+	 * part of a group of bars which is covered by bars
+	 */
+	private static final double BAR_FILL = 0.8;
+
+	/**
+	 * alpha of the circles of a venn diagram
+	 */
+	private static final int VENN_ALPHA = 150;
+
+	/**
+	 * count of bands of the scale of a google-o-meter
+	 */
+	private static final int METER_BANDS = 30;
+
+	private final AbstractChart chart;
+	private final int width;
+	private final int height;
+
+	/*
+	 * the plot area, set while painting
+	 */
+	private double plotLeft;
+	private double plotTop;
+	private double plotRight;
+	private double plotBottom;
+
+	/*
+	 * the value range of each encoded series, set while painting
+	 */
+	private double[][] ranges;
+
+	/*
+	 * the columns of a scatter plot, read once while painting
+	 */
+	private int[] scatterX;
+	private int[] scatterY;
+	private int[] scatterSizes;
+
+	/**
+	 * Constructs a painter for the chart.
+	 *
+	 * @param chart the chart to paint
+	 *
+	 * @throws IllegalArgumentException if chart is {@code null} or not supported
+	 */
+	ChartPainter(AbstractChart chart) {
+		if (chart == null)
+			throw new IllegalArgumentException("chart can not be null");
+		if (!isSupported(chart))
+			throw new IllegalArgumentException("chart type can not be painted: "
+					+ chart.getClass().getName());
+		this.chart = chart;
+		this.width = chart.getWidth() != Integer.MIN_VALUE ? chart.getWidth()
+				: DEFAULT_WIDTH;
+		this.height = chart.getHeight() != Integer.MIN_VALUE ? chart.getHeight()
+				: DEFAULT_HEIGHT;
+	}
+
+	/**
+	 * Returns {@code true} if the chart can be painted.
+	 *
+	 * @param chart the chart
+	 * @return {@code true} if supported
+	 */
+	static boolean isSupported(IChart chart) {
+		return isPlotChart(chart) || chart instanceof AbstractPieChart
+				|| chart instanceof RadarChart || chart instanceof VennDiagram
+				|| chart instanceof GoogleOMeter;
+	}
+
+	/**
+	 * Returns {@code true} if the chart has a rectangular plot area with axes.
+	 */
+	private static boolean isPlotChart(IChart chart) {
+		return chart instanceof AbstractLineChart || chart instanceof BarChart
+				|| chart instanceof ScatterPlot;
+	}
+
+	/**
+	 * Returns the width of the painted chart in pixels.
+	 *
+	 * @return width
+	 */
+	int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the painted chart in pixels.
+	 *
+	 * @return height
+	 */
+	int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Paints the chart onto the canvas.
+	 *
+	 * @param canvas destination of the chart
+	 */
+	void paint(ChartCanvas canvas) {
+		canvas.fillRect(0, 0, width, height,
+				fillColor(ChartFillDestination.Background, Color.WHITE));
+
+		double left = PADDING;
+		double top = PADDING;
+		double right = width - PADDING;
+		double bottom = height - PADDING;
+		ChartMargin margin = chart instanceof IChartMarginable ? ((IChartMarginable) chart)
+				.getChartMargin()
+				: null;
+		if (margin != null) {
+			left += margin.getLeftMargin();
+			right -= margin.getRightMargin();
+			top += margin.getTopMargin();
+			bottom -= margin.getBottomMargin();
+		}
+
+		top = paintTitle(canvas, left, top, right);
+
+		// the legend takes its space from the outer area
+		double[] area = { left, top, right, bottom };
+		paintLegend(canvas, area);
+
+		if (isPlotChart(chart)) {
+			paintPlot(canvas, area);
+		} else if (chart instanceof AbstractPieChart) {
+			paintPie(canvas, area);
+		} else if (chart instanceof RadarChart) {
+			paintRadar(canvas, (RadarChart) chart, area);
+		} else if (chart instanceof VennDiagram) {
+			paintVenn(canvas, (VennDiagram) chart, area);
+		} else {
+			paintMeter(canvas, (GoogleOMeter) chart, area);
+		}
+	}
+
+	/**
+	 * Paints the title and returns the top of the remaining area.
+	 */
+	private double paintTitle(ChartCanvas canvas, double left, double top,
+			double right) {
+		ChartTitle title = chart instanceof IChartTitleable ? ((IChartTitleable) chart)
+				.getChartTitle()
+				: null;
+		if (title == null || title.getTitle() == null) {
+			return top;
+		}
+		int fontSize = title.getFontsize() > 0 ? title.getFontsize()
+				: TITLE_FONT_SIZE;
+		Color color = title.getColor() != null ? title.getColor() : TEXT_COLOR;
+		// a plus sign specifies a space, a pipe character a line break
+		List<String> lines = split(title.getTitle().replace('+', ' '), '|');
+		double lineHeight = fontSize * 1.25;
+		for (int i = 0; i < lines.size(); i++) {
+			canvas.drawText(lines.get(i), (left + right) / 2, top + lineHeight
+					* (i + 0.5), fontSize, color, ChartCanvas.ALIGN_CENTER);
+		}
+		return top + lineHeight * lines.size() + PADDING;
+	}
+
+	/**
+	 * Paints the legend and reduces the area (left, top, right, bottom) by the
+	 * space of the legend.
+	 */
+	private void paintLegend(ChartCanvas canvas, double[] area) {
+		List<String> labels = legendLabels();
+		if (labels.isEmpty()) {
+			return;
+		}
+		ChartLegend legend = chartLegend();
+		ChartLegendPosition position = legend != null
+				&& legend.getChartLegendPosition() != null ? legend
+				.getChartLegendPosition() : ChartLegendPosition.Right_Vertical;
+		double lineHeight = FONT_SIZE * 1.5;
+
+		if (position == ChartLegendPosition.Right_Vertical
+				|| position == ChartLegendPosition.Left_Vertival) {
+			double textWidth = 0;
+			for (String label : labels) {
+				textWidth = Math.max(textWidth, canvas.getTextWidth(label, FONT_SIZE));
+			}
+			double legendWidth = SWATCH_SIZE + PADDING + textWidth;
+			double x;
+			if (position == ChartLegendPosition.Right_Vertical) {
+				x = area[2] - legendWidth;
+				area[2] = x - PADDING;
+			} else {
+				x = area[0];
+				area[0] += legendWidth + PADDING;
+			}
+			for (int i = 0; i < labels.size(); i++) {
+				paintLegendEntry(canvas, labels.get(i), i, x, area[1] + lineHeight
+						* (i + 0.5));
+			}
+		} else {
+			double rowWidth = 0;
+			for (String label : labels) {
+				rowWidth += SWATCH_SIZE + PADDING
+						+ canvas.getTextWidth(label, FONT_SIZE) + 2 * PADDING;
+			}
+			double x = Math.max(area[0], (area[0] + area[2] - rowWidth) / 2);
+			double y;
+			if (position == ChartLegendPosition.Top_Horizontal
+					|| position == ChartLegendPosition.Top_Vertival) {
+				y = area[1] + lineHeight / 2;
+				area[1] += lineHeight + PADDING;
+			} else {
+				y = area[3] - lineHeight / 2;
+				area[3] -= lineHeight + PADDING;
+			}
+			for (int i = 0; i < labels.size(); i++) {
+				paintLegendEntry(canvas, labels.get(i), i, x, y);
+				x += SWATCH_SIZE + PADDING
+						+ canvas.getTextWidth(labels.get(i), FONT_SIZE) + 2 * PADDING;
+			}
+		}
+	}
+
+	private void paintLegendEntry(ChartCanvas canvas, String label, int index,
+			double x, double y) {
+		canvas.fillRect(x, y - SWATCH_SIZE / 2.0, SWATCH_SIZE, SWATCH_SIZE,
+				seriesColor(index));
+		canvas.drawText(label, x + SWATCH_SIZE + PADDING, y, FONT_SIZE,
+				TEXT_COLOR, ChartCanvas.ALIGN_LEFT);
+	}
+
+	private ChartLegend chartLegend() {
+		return chart instanceof IChartLegendable ? ((IChartLegendable) chart)
+				.getChartLegend() : null;
+	}
+
+	/**
+	 * Returns the labels of the chart legend or, if there is none, the legends
+	 * of the series.
+	 */
+	private List<String> legendLabels() {
+		ChartLegend legend = chartLegend();
+		if (legend != null) {
+			return legend.getLabel();
+		}
+		List<String> labels = new ArrayList<String>();
+		if (chart instanceof LineChart) {
+			for (LineChartData data : ((LineChart) chart).getAllLineChartData()) {
+				addFirstLabel(labels, data.getLegend());
+			}
+		} else if (chart instanceof XYLineChart) {
+			for (XYLineChartData data : ((XYLineChart) chart).getAllXYLineChartData()) {
+				addFirstLabel(labels, data.getLegend());
+			}
+		} else if (chart instanceof BarChart) {
+			for (BarChartDataSerie serie : ((BarChart) chart)
+					.getAllBarChartDataSeries()) {
+				addFirstLabel(labels, serie.getLegend());
+			}
+		}
+		// series without a legend are listed as empty entry, like in the url
+		for (String label : labels) {
+			if (label.length() > 0) {
+				return labels;
+			}
+		}
+		return Collections.emptyList();
+	}
+
+	private static void addFirstLabel(List<String> labels, ChartLegend legend) {
+		if (legend != null && legend.getLabel().size() > 0) {
+			labels.add(legend.getLabel().get(0));
+		} else {
+			labels.add("");
+		}
+	}
+
+	/**
+	 * Returns the color of the series (or slice, or circle): the color of the
+	 * series itself, else the chart color at the index, else a default color.
+	 */
+	private Color seriesColor(int index) {
+		Color color = ownColor(index);
+		if (color != null) {
+			return color;
+		}
+		List<ChartColor> colors = chart instanceof IChartColorable ? ((IChartColorable) chart)
+				.getChartColors()
+				: null;
+		if (colors != null && colors.size() > 0) {
+			return colors.get(index % colors.size()).getColor();
+		}
+		return DEFAULT_COLORS[index % DEFAULT_COLORS.length];
+	}
+
+	/**
+	 * Returns the color set at the series itself, {@code null} if none is set.
+	 */
+	private Color ownColor(int index) {
+		if (chart instanceof LineChart) {
+			List<? extends LineChartData> data = ((LineChart) chart)
+					.getAllLineChartData();
+			return index < data.size() ? data.get(index).getColor() : null;
+		} else if (chart instanceof XYLineChart) {
+			List<? extends XYLineChartData> data = ((XYLineChart) chart)
+					.getAllXYLineChartData();
+			return index < data.size() ? data.get(index).getColor() : null;
+		} else if (chart instanceof BarChart) {
+			List<? extends BarChartDataSerie> series = ((BarChart) chart)
+					.getAllBarChartDataSeries();
+			return index < series.size() ? series.get(index).getColor() : null;
+		} else if (chart instanceof RadarChart) {
+			List<? extends RadarChartLine> lines = ((RadarChart) chart)
+					.getRadarChartLineList();
+			return index < lines.size() ? lines.get(index).getColor() : null;
+		} else if (chart instanceof PieChart) {
+			List<? extends PieChartSlice> slices = ((PieChart) chart)
+					.getAllPieChartSlices();
+			return index < slices.size() ? slices.get(index).getColor() : null;
+		} else if (chart instanceof ConcentricPieChart) {
+			// the slices of all rings are counted from the inner ring
+			for (ConcentricPieChartSlice ring : ((ConcentricPieChart) chart)
+					.getAllConcentricPieChartSlices()) {
+				List<? extends PieChartSlice> slices = ring.getPieChartSlices();
+				if (index < slices.size()) {
+					return slices.get(index).getColor() != null ? slices.get(index)
+							.getColor() : ring.getColor();
+				}
+				index -= slices.size();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the color of the first solid fill with the destination, or the
+	 * given default color.
+	 */
+	private Color fillColor(ChartFillDestination destination, Color defaultColor) {
+		List<SolidFill> fills = chart instanceof ISolidFillable ? ((ISolidFillable) chart)
+				.getSolidFills()
+				: null;
+		if (fills != null) {
+			for (SolidFill fill : fills) {
+				if (fill.getChartFillDestination() == destination) {
+					return fill.getColor();
+				}
+			}
+		}
+		return defaultColor;
+	}
+
+	/**
+	 * Paints a chart with a rectangular plot area: the axes, the grid, the data
+	 * and the shape markers.
+	 */
+	private void paintPlot(ChartCanvas canvas, double[] area) {
+		computeRanges();
+
+		List<Axis> axes = collectAxes();
+		double[] offsets = new double[4]; // left, top, right, bottom
+		for (Axis axis : axes) {
+			int side = axis.getSide();
+			axis.offset = offsets[side];
+			offsets[side] += axis.getExtent(canvas);
+		}
+		plotLeft = area[0] + offsets[0];
+		plotTop = area[1] + offsets[1];
+		plotRight = Math.max(area[2] - offsets[2], plotLeft + 1);
+		plotBottom = Math.max(area[3] - offsets[3], plotTop + 1);
+
+		Color chartArea = fillColor(ChartFillDestination.ChartArea, null);
+		if (chartArea != null) {
+			canvas.fillRect(plotLeft, plotTop, plotRight - plotLeft,
+					plotBottom - plotTop, chartArea);
+		}
+		paintGrid(canvas);
+
+		canvas.clip(plotLeft, plotTop, plotRight - plotLeft, plotBottom - plotTop);
+		if (chart instanceof AbstractLineChart) {
+			paintLines(canvas, (AbstractLineChart) chart);
+		} else if (chart instanceof BarChart) {
+			paintBars(canvas);
+		} else {
+			paintScatter(canvas, (ScatterPlot) chart);
+		}
+		canvas.resetClip();
+
+		paintShapeMarkers(canvas);
+		for (Axis axis : axes) {
+			paintAxis(canvas, axis);
+		}
+	}
+
+	/**
+	 * Computes the value range of each encoded series of the chart.
+	 */
+	private void computeRanges() {
+		if (chart instanceof LineChart) {
+			LineChart lineChart = (LineChart) chart;
+			List<? extends LineChartData> data = lineChart.getAllLineChartData();
+			SeriesStats stats = SeriesStats.EMPTY;
+			for (LineChartData current : data) {
+				stats = stats.combine(current.getFloatDataSet().getStats());
+			}
+			ranges = new double[data.size()][];
+			for (int i = 0; i < data.size(); i++) {
+				ranges[i] = valueRange(lineChart.getEncoder(), stats, scaling(
+						lineChart.getDataScalings(), i));
+			}
+		} else if (chart instanceof XYLineChart) {
+			// the x and y values of each line are encoded as two series
+			XYLineChart xyChart = (XYLineChart) chart;
+			List<? extends XYLineChartData> data = xyChart.getAllXYLineChartData();
+			SeriesStats stats = SeriesStats.EMPTY;
+			for (XYLineChartData current : data) {
+				stats = stats.combine(floatStats(current.getDataSet().getFirst()))
+						.combine(floatStats(current.getDataSet().getSecond()));
+			}
+			ranges = new double[data.size() * 2][];
+			for (int i = 0; i < ranges.length; i++) {
+				ranges[i] = valueRange(xyChart.getEncoder(), stats, scaling(xyChart
+						.getDataScalings(), i));
+			}
+		} else if (chart instanceof BarChart) {
+			BarChart barChart = (BarChart) chart;
+			List<? extends BarChartDataSerie> series = barChart
+					.getAllBarChartDataSeries();
+			SeriesStats stats = SeriesStats.EMPTY;
+			for (BarChartDataSerie serie : series) {
+				stats = stats.combine(serie.getStats());
+			}
+			ranges = new double[series.size()][];
+			for (int i = 0; i < series.size(); i++) {
+				ranges[i] = valueRange(barChart.getEncoder(), stats, scaling(
+						barChart.getDataScalings(), i));
+			}
+		} else if (chart instanceof ScatterPlot) {
+			ScatterPlot scatterPlot = (ScatterPlot) chart;
+			ScatterPlotData data = scatterPlot.getScatterPlotData();
+			if (data == null) {
+				ranges = new double[0][];
+				return;
+			}
+			scatterX = data.getXValues();
+			scatterY = data.getYValues();
+			scatterSizes = data.getSizes();
+			// the encoders regard all encoded series, the sizes if any is set
+			SeriesStats stats = SeriesStats.of(scatterX).combine(
+					SeriesStats.of(scatterY));
+			if (scatterSizes != null) {
+				stats = stats.combine(SeriesStats.of(scatterSizes));
+			}
+			ranges = new double[][] { valueRange(scatterPlot.getEncoder(), stats,
+					scatterPlot.getDataScaling()) };
+		} else if (chart instanceof RadarChart) {
+			RadarChart radarChart = (RadarChart) chart;
+			List<? extends RadarChartLine> lines = radarChart.getRadarChartLineList();
+			SeriesStats stats = SeriesStats.EMPTY;
+			for (RadarChartLine line : lines) {
+				stats = stats.combine(integerStats(line.getValues()));
+			}
+			ranges = new double[lines.size()][];
+			for (int i = 0; i < lines.size(); i++) {
+				ranges[i] = valueRange(radarChart.getEncoder(), stats, scaling(
+						radarChart.getDataScalings(), i));
+			}
+		}
+	}
+
+	private void paintGrid(ChartCanvas canvas) {
+		GridLine grid = ((IGridLineable) chart).getGridLine();
+		if (grid == null) {
+			return;
+		}
+		float[] dash = dash(grid.getLengthLineSegment(), grid
+				.getLengthBlankSegment());
+		double plotWidth = plotRight - plotLeft;
+		double plotHeight = plotBottom - plotTop;
+		if (grid.getXAxisStepSize() > 0) {
+			for (double p = grid.getXOffset(); p <= 100; p += grid.getXAxisStepSize()) {
+				double x = plotLeft + plotWidth * p / 100;
+				canvas.drawLine(x, plotTop, x, plotBottom, GRID_COLOR, 1, dash);
+			}
+		}
+		if (grid.getYAxisStepSize() > 0) {
+			for (double p = grid.getYOffset(); p <= 100; p += grid.getYAxisStepSize()) {
+				double y = plotBottom - plotHeight * p / 100;
+				canvas.drawLine(plotLeft, y, plotRight, y, GRID_COLOR, 1, dash);
+			}
+		}
+	}
+
+	private void paintLines(ChartCanvas canvas, AbstractLineChart lineChart) {
+		List<LineStyle> styles = lineChart.getLineStyles();
+		double[] point = new double[2];
+		for (int i = 0; i < getSeriesCount(); i++) {
+			LineStyle style = chart instanceof LineChart ? ((LineChart) chart)
+					.getAllLineChartData().get(i).getStyle() : ((XYLineChart) chart)
+					.getAllXYLineChartData().get(i).getStyle();
+			if (style == null && styles != null && i < styles.size()) {
+				style = styles.get(i);
+			}
+			float thickness = style != null ? style.getthickness() : LINE_THICKNESS;
+			float[] dash = style != null ? dash(style.getLengthOfLineSegment(),
+					style.getLengthOfBlankSegment()) : null;
+
+			canvas.beginPath(seriesColor(i), thickness, dash);
+			boolean drawing = false;
+			int count = getPointCount(i);
+			for (int j = 0; j < count; j++) {
+				if (!locate(i, j, point)) {
+					// a missing value interrupts the line
+					drawing = false;
+					continue;
+				}
+				if (drawing) {
+					canvas.lineTo(point[0], point[1]);
+				} else {
+					canvas.moveTo(point[0], point[1]);
+					drawing = true;
+				}
+			}
+			canvas.endPath();
+		}
+	}
+
+	private void paintBars(ChartCanvas canvas) {
+		double[] bar = new double[4];
+		for (int i = 0; i < getSeriesCount(); i++) {
+			Color color = seriesColor(i);
+			int count = getPointCount(i);
+			for (int j = 0; j < count; j++) {
+				if (barBounds(i, j, bar)) {
+					canvas.fillRect(bar[0], bar[1], bar[2], bar[3], color);
+				}
+			}
+		}
+	}
+
+	private void paintScatter(ChartCanvas canvas, ScatterPlot scatterPlot) {
+		if (ranges.length == 0) {
+			return;
+		}
+		Color color = seriesColor(0);
+		double[] point = new double[2];
+		for (int i = 0; i < scatterX.length; i++) {
+			locate(0, i, point);
+			double radius = scatterSizes != null ? Math.max(1, MAX_POINT_RADIUS
+					* fraction(scatterSizes[i], ranges[0])) : POINT_RADIUS;
+			canvas.fillCircle(point[0], point[1], radius, color);
+		}
+	}
+
+	/**
+	 * Returns the count of series of a chart with a plot area.
+	 */
+	private int getSeriesCount() {
+		if (chart instanceof LineChart) {
+			return ((LineChart) chart).getAllLineChartData().size();
+		} else if (chart instanceof XYLineChart) {
+			return ((XYLineChart) chart).getAllXYLineChartData().size();
+		} else if (chart instanceof BarChart) {
+			return ((BarChart) chart).getAllBarChartDataSeries().size();
+		} else {
+			return ranges.length;
+		}
+	}
+
+	/**
+	 * Returns the count of points of the series.
+	 */
+	private int getPointCount(int series) {
+		if (series < 0 || series >= getSeriesCount()) {
+			return 0;
+		}
+		if (chart instanceof LineChart) {
+			return ((LineChart) chart).getAllLineChartData().get(series)
+					.getFloatDataSet().size();
+		} else if (chart instanceof XYLineChart) {
+			Pair<List<Float>, List<Float>> data = ((XYLineChart) chart)
+					.getAllXYLineChartData().get(series).getDataSet();
+			return Math.min(data.getFirst().size(), data.getSecond().size());
+		} else if (chart instanceof BarChart) {
+			return ((BarChart) chart).getAllBarChartDataSeries().get(series)
+					.size();
+		} else {
+			return ((ScatterPlot) chart).getScatterPlotData().size();
+		}
+	}
+
+	/**
+	 * Computes the position of a data point: the point of a line, the end of
+	 * a bar or the point of a scatter plot.
+	 *
+	 * @param series index of the series
+	 * @param index index of the point
+	 * @param point receives x and y
+	 * @return {@code false} if the point does not exist or is missing
+	 */
+	private boolean locate(int series, int index, double[] point) {
+		if (index < 0 || index >= getPointCount(series)) {
+			return false;
+		}
+		if (chart instanceof LineChart) {
+			FloatDataSet values = ((LineChart) chart).getAllLineChartData()
+					.get(series).getFloatDataSet();
+			float value = values.get(index);
+			if (value != value) { // NaN
+				return false;
+			}
+			point[0] = values.size() > 1 ? plotLeft + (plotRight - plotLeft)
+					* index / (values.size() - 1) : plotLeft;
+			point[1] = plotBottom - (plotBottom - plotTop)
+					* fraction(value, ranges[series]);
+			return true;
+		} else if (chart instanceof XYLineChart) {
+			Pair<List<Float>, List<Float>> data = ((XYLineChart) chart)
+					.getAllXYLineChartData().get(series).getDataSet();
+			Float x = data.getFirst().get(index);
+			Float y = data.getSecond().get(index);
+			if (x == null || y == null || x.isNaN() || y.isNaN()) {
+				return false;
+			}
+			point[0] = plotLeft + (plotRight - plotLeft)
+					* fraction(x, ranges[2 * series]);
+			point[1] = plotBottom - (plotBottom - plotTop)
+					* fraction(y, ranges[2 * series + 1]);
+			return true;
+		} else if (chart instanceof BarChart) {
+			double[] bar = new double[4];
+			barBounds(series, index, bar);
+			boolean negative = ((BarChart) chart).getAllBarChartDataSeries()
+					.get(series).getValue(index) < 0;
+			if (isVerticalBars()) {
+				point[0] = bar[0] + bar[2] / 2;
+				point[1] = negative ? bar[1] + bar[3] : bar[1];
+			} else {
+				point[0] = negative ? bar[0] : bar[0] + bar[2];
+				point[1] = bar[1] + bar[3] / 2;
+			}
+			return true;
+		} else {
+			point[0] = plotLeft + (plotRight - plotLeft)
+					* fraction(scatterX[index], ranges[0]);
+			point[1] = plotBottom - (plotBottom - plotTop)
+					* fraction(scatterY[index], ranges[0]);
+			return true;
+		}
+	}
+
+	/**
+	 * Computes the rectangle (x, y, width, height) of a bar.
+	 *
+	 * @return {@code false} if the bar does not exist
+	 */
+	private boolean barBounds(int series, int index, double[] bar) {
+		List<? extends BarChartDataSerie> all = ((BarChart) chart)
+				.getAllBarChartDataSeries();
+		if (index >= all.get(series).size()) {
+			return false;
+		}
+		int groups = 0;
+		for (BarChartDataSerie serie : all) {
+			groups = Math.max(groups, serie.size());
+		}
+		boolean stacked = isStackedBars();
+		boolean vertical = isVerticalBars();
+
+		double length = vertical ? plotRight - plotLeft : plotBottom - plotTop;
+		double groupSize = length / groups;
+		double thickness = groupSize * BAR_FILL / (stacked ? 1 : all.size());
+		double start = (vertical ? plotLeft : plotTop) + groupSize * index
+				+ groupSize * (1 - BAR_FILL) / 2 + (stacked ? 0 : thickness * series);
+
+		double base = 0;
+		if (stacked) {
+			// stacked on the bars of the series before
+			for (int i = 0; i < series; i++) {
+				if (index < all.get(i).size()) {
+					base += all.get(i).getValue(index);
+				}
+			}
+		}
+		double value = base + all.get(series).getValue(index);
+		double baseFraction = stacked && series > 0 ? fraction(base, ranges[series])
+				: zeroLine(series);
+		double valueFraction = fraction(value, ranges[series]);
+
+		double extent = vertical ? plotBottom - plotTop : plotRight - plotLeft;
+		double from = Math.min(baseFraction, valueFraction) * extent;
+		double to = Math.max(baseFraction, valueFraction) * extent;
+		if (vertical) {
+			bar[0] = start;
+			bar[1] = plotBottom - to;
+			bar[2] = thickness;
+			bar[3] = to - from;
+		} else {
+			bar[0] = plotLeft + from;
+			bar[1] = start;
+			bar[2] = to - from;
+			bar[3] = thickness;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the position of the zero line of the series as fraction of the
+	 * value axis.
+	 */
+	private double zeroLine(int series) {
+		BarChartZeroLine zeroLine = ((BarChart) chart).getBarChartZeroLine();
+		if (zeroLine != null && zeroLine.getDataSets().size() > 0) {
+			List<Float> lines = zeroLine.getDataSets();
+			return lines.get(Math.min(series, lines.size() - 1));
+		}
+		return fraction(0, ranges[series]);
+	}
+
+	private boolean isVerticalBars() {
+		// the url chart type is bvg, bvs, bhg or bhs
+		return chart.getUrlChartType().charAt(1) == 'v';
+	}
+
+	private boolean isStackedBars() {
+		return chart.getUrlChartType().charAt(2) == 's';
+	}
+
+	private void paintShapeMarkers(ChartCanvas canvas) {
+		List<ShapeMarker> markers = ((IShapeMarkable) chart).getShapeMarkers();
+		if (markers == null) {
+			return;
+		}
+		double[] point = new double[2];
+		for (ShapeMarker marker : markers) {
+			IDataPoint dataPoint = marker.getDataPoint();
+			String position = dataPoint.getAppendableString();
+			if (dataPoint.isPrefixRequiered()) {
+				// @x:y, a position in the plot area
+				int sep = position.indexOf(':');
+				point[0] = plotLeft + (plotRight - plotLeft)
+						* Double.parseDouble(position.substring(0, sep));
+				point[1] = plotBottom - (plotBottom - plotTop)
+						* Double.parseDouble(position.substring(sep + 1));
+				paintMarker(canvas, marker, point);
+				continue;
+			}
+			int series = marker.getDataSetIndex();
+			int count = getPointCount(series);
+			int first;
+			int last;
+			int step;
+			if (position.indexOf(':') >= 0) {
+				// low:high:n, every nth point in the range
+				String[] parts = position.split(":");
+				first = Integer.parseInt(parts[0]);
+				last = Math.min(Integer.parseInt(parts[1]), count - 1);
+				step = Math.max(Integer.parseInt(parts[2]), 1);
+			} else {
+				double value = Double.parseDouble(position);
+				if (value < 0) {
+					// -n, every nth point
+					first = 0;
+					last = count - 1;
+					step = Math.max((int) -value, 1);
+				} else {
+					if (locateBetween(series, value, point)) {
+						paintMarker(canvas, marker, point);
+					}
+					continue;
+				}
+			}
+			for (int i = Math.max(first, 0); i <= last; i += step) {
+				if (locate(series, i, point)) {
+					paintMarker(canvas, marker, point);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the position of a point between two data points, for example
+	 * 1.5 is between the second and the third point.
+	 */
+	private boolean locateBetween(int series, double index, double[] point) {
+		int lower = (int) Math.floor(index);
+		if (!locate(series, lower, point)) {
+			return false;
+		}
+		double ratio = index - lower;
+		double[] upper = new double[2];
+		if (ratio > 0 && locate(series, lower + 1, upper)) {
+			point[0] += (upper[0] - point[0]) * ratio;
+			point[1] += (upper[1] - point[1]) * ratio;
+		}
+		return true;
+	}
+
+	private void paintMarker(ChartCanvas canvas, ShapeMarker marker,
+			double[] point) {
+		Color color = marker.getColor();
+		double x = point[0];
+		double y = point[1];
+		int size = marker.getSize();
+		double half = size / 2.0;
+		float thickness = Math.max(1, size / 4f);
+		switch (marker.getMarkerTyp()) {
+		case Circle:
+			canvas.fillCircle(x, y, half, color);
+			break;
+		case Square:
+			canvas.fillRect(x - half, y - half, size, size, color);
+			break;
+		case Diamond:
+			canvas.fillPolygon(new double[] { x, x + half, x, x - half },
+					new double[] { y - half, y, y + half, y }, 4, color);
+			break;
+		case Arrow:
+			canvas.fillPolygon(new double[] { x, x - half, x + half },
+					new double[] { y, y - size, y - size }, 3, color);
+			break;
+		case Cross:
+			canvas.drawLine(x - half, y, x + half, y, color, thickness, null);
+			canvas.drawLine(x, y - half, x, y + half, color, thickness, null);
+			break;
+		case XShape:
+			canvas.drawLine(x - half, y - half, x + half, y + half, color,
+					thickness, null);
+			canvas.drawLine(x - half, y + half, x + half, y - half, color,
+					thickness, null);
+			break;
+		case VerticalLineFrom:
+			canvas.drawLine(x, plotBottom, x, y, color, Math.max(size, 1), null);
+			break;
+		case VerticalLineTo:
+			canvas.drawLine(x, plotBottom, x, plotTop, color, Math.max(size, 1), null);
+			break;
+		case HorizontalLine:
+			canvas.drawLine(plotLeft, y, plotRight, y, color, Math.max(size, 1), null);
+			break;
+		default:
+			// a text marker has no text in the model
+			break;
+		}
+	}
+
+	/**
+	 * Collects the axes of the chart with their labels.
+	 */
+	private List<Axis> collectAxes() {
+		List<AxisLabelContainer> containers = ((IAxisLabelable) chart)
+				.getAxisLabelContainer();
+		List<Axis> axes = new ArrayList<Axis>();
+		if (containers == null) {
+			return axes;
+		}
+		for (AxisLabelContainer container : containers) {
+			Axis axis = new Axis(container);
+			AxisRange range = container.getAxisRange();
+			double lower = range != null ? range.getLower() : 0;
+			double upper = range != null ? range.getUpper() : 100;
+			List<AxisLabel> labels = container.getLabels();
+
+			if (container.isUseLabels() && labels.size() > 0) {
+				boolean categories = isCategoryAxis(axis.type);
+				for (int i = 0; i < labels.size(); i++) {
+					double position;
+					if (container.isUseLabelPositions()) {
+						position = upper != lower ? (labels.get(i).getPos() - lower)
+								/ (upper - lower) : 0;
+					} else if (categories) {
+						position = (i + 0.5) / labels.size();
+					} else {
+						position = labels.size() > 1 ? (double) i
+								/ (labels.size() - 1) : 0.5;
+					}
+					axis.add(labels.get(i).getLabel(), position);
+				}
+			} else if (upper != lower) {
+				double step = range != null && range.getInterval() != null
+						&& range.getInterval().intValue() > 0 ? range.getInterval()
+						.intValue() : niceStep(Math.abs(upper - lower));
+				if (Math.abs(upper - lower) / step > 100) {
+					step = niceStep(Math.abs(upper - lower));
+				}
+				double direction = upper > lower ? 1 : -1;
+				for (int i = 0;; i++) {
+					double value = lower + direction * step * i;
+					if ((value - upper) * direction > step * 1e-6) {
+						break;
+					}
+					axis.add(format(value), (value - lower) / (upper - lower));
+				}
+			}
+			axes.add(axis);
+		}
+		return axes;
+	}
+
+	/**
+	 * Returns {@code true} if the axis runs along the groups of a bar chart.
+	 */
+	private boolean isCategoryAxis(AxisType type) {
+		if (!(chart instanceof BarChart)) {
+			return false;
+		}
+		boolean horizontalAxis = type == AxisType.XAxis || type == AxisType.TopAxis;
+		return horizontalAxis == isVerticalBars();
+	}
+
+	private void paintAxis(ChartCanvas canvas, Axis axis) {
+		Color color = axis.color != null ? axis.color : AXIS_COLOR;
+		Color textColor = axis.color != null ? axis.color : TEXT_COLOR;
+		int side = axis.getSide();
+		if (side == 0 || side == 2) {
+			double x = side == 0 ? plotLeft - axis.offset : plotRight + axis.offset;
+			double direction = side == 0 ? -1 : 1;
+			canvas.drawLine(x, plotTop, x, plotBottom, color, 1, null);
+			for (int i = 0; i < axis.texts.size(); i++) {
+				double y = plotBottom - (plotBottom - plotTop) * axis.positions.get(i);
+				canvas.drawLine(x, y, x + direction * TICK_LENGTH, y, color, 1, null);
+				canvas.drawText(axis.texts.get(i), x + direction * (TICK_LENGTH + 2),
+						y, axis.fontSize, textColor, side == 0 ? ChartCanvas.ALIGN_RIGHT
+								: ChartCanvas.ALIGN_LEFT);
+			}
+		} else {
+			double y = side == 3 ? plotBottom + axis.offset : plotTop - axis.offset;
+			double direction = side == 3 ? 1 : -1;
+			canvas.drawLine(plotLeft, y, plotRight, y, color, 1, null);
+			for (int i = 0; i < axis.texts.size(); i++) {
+				double x = plotLeft + (plotRight - plotLeft) * axis.positions.get(i);
+				canvas.drawLine(x, y, x, y + direction * TICK_LENGTH, color, 1, null);
+				canvas.drawText(axis.texts.get(i), x, y + direction
+						* (TICK_LENGTH + 2 + axis.fontSize / 2.0), axis.fontSize,
+						textColor, ChartCanvas.ALIGN_CENTER);
+			}
+		}
+	}
+
+	/**
+	 * Paints a pie chart or the rings of a concentric pie chart. The first
+	 * slice starts at the right, the slices follow clockwise.
+	 */
+	private void paintPie(ChartCanvas canvas, double[] area) {
+		List<List<? extends PieChartSlice>> rings = new ArrayList<List<? extends PieChartSlice>>();
+		if (chart instanceof PieChart) {
+			rings.add(((PieChart) chart).getAllPieChartSlices());
+		} else {
+			for (ConcentricPieChartSlice ring : ((ConcentricPieChart) chart)
+					.getAllConcentricPieChartSlices()) {
+				rings.add(ring.getPieChartSlices());
+			}
+		}
+		if (rings.isEmpty()) {
+			return;
+		}
+		// the labels of the outer ring are written beside the pie
+		List<? extends PieChartSlice> outer = rings.get(rings.size() - 1);
+		double labelWidth = 0;
+		for (PieChartSlice slice : outer) {
+			if (slice.getLabel() != null) {
+				labelWidth = Math.max(labelWidth, canvas.getTextWidth(slice
+						.getLabel(), FONT_SIZE)
+						+ 2 * PADDING);
+			}
+		}
+		double labelHeight = labelWidth > 0 ? FONT_SIZE + PADDING : 0;
+		double radius = Math.max(1, Math.min(area[2] - area[0] - 2 * labelWidth,
+				area[3] - area[1] - 2 * labelHeight) / 2);
+		double x = (area[0] + area[2]) / 2;
+		double y = (area[1] + area[3]) / 2;
+		Float orientation = ((AbstractPieChart) chart).getPieChartOrientation();
+		double start = orientation != null ? orientation : 0;
+
+		int colorIndex = 0;
+		for (int r = 0; r < rings.size(); r++) {
+			List<? extends PieChartSlice> slices = rings.get(r);
+			double total = 0;
+			for (PieChartSlice slice : slices) {
+				total += Math.max(slice.getValue(), 0);
+			}
+			// the first ring is the inner pie
+			double inner = radius * r / rings.size();
+			double outerRadius = radius * (r + 1) / rings.size();
+			double angle = start;
+			for (PieChartSlice slice : slices) {
+				double extent = total > 0 ? 2 * Math.PI
+						* Math.max(slice.getValue(), 0) / total : 0;
+				fillSector(canvas, x, y, inner, outerRadius, angle, extent,
+						seriesColor(colorIndex++));
+				if (r == rings.size() - 1 && slice.getLabel() != null) {
+					paintSliceLabel(canvas, slice.getLabel(), x, y, radius, angle
+							+ extent / 2);
+				}
+				angle += extent;
+			}
+		}
+	}
+
+	/**
+	 * Fills a sector, which is split into parts the canvas can fill.
+	 */
+	private static void fillSector(ChartCanvas canvas, double x, double y,
+			double inner, double outer, double start, double extent, Color color) {
+		if (extent <= 0) {
+			return;
+		}
+		int parts = (int) Math.ceil(extent / Math.PI);
+		for (int i = 0; i < parts; i++) {
+			canvas.fillSector(x, y, inner, outer, start + extent * i / parts,
+					extent / parts, color);
+		}
+	}
+
+	private static void paintSliceLabel(ChartCanvas canvas, String label,
+			double x, double y, double radius, double angle) {
+		double cos = Math.cos(angle);
+		double sin = Math.sin(angle);
+		canvas.drawLine(x + cos * radius, y + sin * radius, x + cos
+				* (radius + PADDING), y + sin * (radius + PADDING), AXIS_COLOR, 1,
+				null);
+		canvas.drawText(label, x + cos * (radius + PADDING + 2), y + sin
+				* (radius + PADDING + FONT_SIZE / 2.0), FONT_SIZE, TEXT_COLOR,
+				cos >= 0 ? ChartCanvas.ALIGN_LEFT : ChartCanvas.ALIGN_RIGHT);
+	}
+
+	/**
+	 * Paints a radar chart. The points of a line are spread around the circle
+	 * starting on top, the last point is on the same spoke as the first.
+	 */
+	private void paintRadar(ChartCanvas canvas, RadarChart radarChart,
+			double[] area) {
+		computeRanges();
+		List<? extends RadarChartLine> lines = radarChart.getRadarChartLineList();
+
+		// the labels of the x axis are written around the circle
+		List<String> labels = new ArrayList<String>();
+		List<AxisLabelContainer> containers = radarChart.getAxisLabelContainer();
+		if (containers != null) {
+			for (AxisLabelContainer container : containers) {
+				if (container.getType() == AxisType.XAxis && container.isUseLabels()) {
+					for (AxisLabel label : container.getLabels()) {
+						labels.add(label.getLabel());
+					}
+				}
+			}
+		}
+		double labelWidth = 0;
+		for (String label : labels) {
+			labelWidth = Math.max(labelWidth, canvas.getTextWidth(label, FONT_SIZE)
+					+ PADDING);
+		}
+		double labelHeight = labels.isEmpty() ? 0 : FONT_SIZE + PADDING;
+		double radius = Math.max(1, Math.min(area[2] - area[0] - 2 * labelWidth,
+				area[3] - area[1] - 2 * labelHeight) / 2);
+		double x = (area[0] + area[2]) / 2;
+		double y = (area[1] + area[3]) / 2;
+
+		int points = 0;
+		for (RadarChartLine line : lines) {
+			points = Math.max(points, line.getValues().size());
+		}
+		int spokes = Math.max(points - 1, 1);
+		for (int i = 0; i < spokes && points > 1; i++) {
+			double angle = radarAngle(i, spokes);
+			canvas.drawLine(x, y, x + Math.cos(angle) * radius, y + Math.sin(angle)
+					* radius, GRID_COLOR, 1, null);
+		}
+		GridLine grid = radarChart.getGridLine();
+		if (grid != null && grid.getYAxisStepSize() > 0) {
+			float[] dash = dash(grid.getLengthLineSegment(), grid
+					.getLengthBlankSegment());
+			for (double p = grid.getYAxisStepSize(); p <= 100; p += grid
+					.getYAxisStepSize()) {
+				paintRing(canvas, x, y, radius * p / 100, spokes, dash);
+			}
+		} else {
+			paintRing(canvas, x, y, radius, spokes, null);
+		}
+
+		for (int i = 0; i < lines.size(); i++) {
+			List<Integer> values = lines.get(i).getValues();
+			canvas.beginPath(seriesColor(i), LINE_THICKNESS, null);
+			for (int j = 0; j < values.size(); j++) {
+				double angle = radarAngle(j, spokes);
+				double r = radius * fraction(values.get(j), ranges[i]);
+				if (j == 0) {
+					canvas.moveTo(x + Math.cos(angle) * r, y + Math.sin(angle) * r);
+				} else {
+					canvas.lineTo(x + Math.cos(angle) * r, y + Math.sin(angle) * r);
+				}
+			}
+			canvas.endPath();
+		}
+
+		for (int i = 0; i < labels.size(); i++) {
+			double angle = radarAngle(i, labels.size());
+			double cos = Math.cos(angle);
+			int alignment = Math.abs(cos) < 0.2 ? ChartCanvas.ALIGN_CENTER
+					: cos > 0 ? ChartCanvas.ALIGN_LEFT : ChartCanvas.ALIGN_RIGHT;
+			canvas.drawText(labels.get(i), x + cos * (radius + PADDING), y
+					+ Math.sin(angle) * (radius + PADDING + FONT_SIZE / 2.0),
+					FONT_SIZE, TEXT_COLOR, alignment);
+		}
+	}
+
+	private static double radarAngle(int index, int spokes) {
+		return -Math.PI / 2 + 2 * Math.PI * index / spokes;
+	}
+
+	private static void paintRing(ChartCanvas canvas, double x, double y,
+			double radius, int spokes, float[] dash) {
+		int corners = spokes > 2 ? spokes : 60;
+		canvas.beginPath(GRID_COLOR, 1, dash);
+		for (int i = 0; i <= corners; i++) {
+			double angle = radarAngle(i, corners);
+			if (i == 0) {
+				canvas.moveTo(x + Math.cos(angle) * radius, y + Math.sin(angle)
+						* radius);
+			} else {
+				canvas.lineTo(x + Math.cos(angle) * radius, y + Math.sin(angle)
+						* radius);
+			}
+		}
+		canvas.endPath();
+	}
+
+	/**
+	 * Paints a venn diagram. The areas of the circles are proportional to their
+	 * sizes, the distances are chosen so the areas of the pairwise intersections
+	 * match (the intersection of all three circles is not regarded).
+	 */
+	private void paintVenn(ChartCanvas canvas, VennDiagram vennDiagram,
+			double[] area) {
+		VennDiagramData data = vennDiagram.getVennDiagramData();
+		if (data == null) {
+			return;
+		}
+		double max = Math.max(data.getCircleSizeA(), Math.max(data
+				.getCircleSizeB(), data.getCircleSizeC()));
+		if (max <= 0) {
+			return;
+		}
+		double[] r = { Math.sqrt(Math.max(data.getCircleSizeA(), 0) / max),
+				Math.sqrt(Math.max(data.getCircleSizeB(), 0) / max),
+				Math.sqrt(Math.max(data.getCircleSizeC(), 0) / max) };
+		double ab = vennDistance(r[0], r[1], Math.PI * data.getAreaAB() / max);
+		double ac = vennDistance(r[0], r[2], Math.PI * data.getAreaAC() / max);
+		double bc = vennDistance(r[1], r[2], Math.PI * data.getAreaBC() / max);
+
+		// a is placed left, b right of a, c below both
+		double[] cx = new double[3];
+		double[] cy = new double[3];
+		cx[1] = ab;
+		if (ab > 0) {
+			cx[2] = (ac * ac - bc * bc + ab * ab) / (2 * ab);
+			cy[2] = Math.sqrt(Math.max(0, ac * ac - cx[2] * cx[2]));
+		} else {
+			cx[2] = ac;
+		}
+
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < 3; i++) {
+			if (r[i] > 0) {
+				minX = Math.min(minX, cx[i] - r[i]);
+				maxX = Math.max(maxX, cx[i] + r[i]);
+				minY = Math.min(minY, cy[i] - r[i]);
+				maxY = Math.max(maxY, cy[i] + r[i]);
+			}
+		}
+		double scale = Math.min((area[2] - area[0]) / (maxX - minX),
+				(area[3] - area[1]) / (maxY - minY));
+		double offsetX = (area[0] + area[2]) / 2 - (minX + maxX) / 2 * scale;
+		double offsetY = (area[1] + area[3]) / 2 - (minY + maxY) / 2 * scale;
+		for (int i = 0; i < 3; i++) {
+			if (r[i] > 0) {
+				Color color = seriesColor(i);
+				canvas.fillCircle(offsetX + cx[i] * scale, offsetY + cy[i] * scale,
+						r[i] * scale, new Color(color.getRed(), color.getGreen(),
+								color.getBlue(), Math.min(color.getAlpha(), VENN_ALPHA)));
+			}
+		}
+	}
+
+	/**
+	 * Returns the distance of two circles with the given area of their
+	 * intersection.
+	 */
+	private static double vennDistance(double r1, double r2, double overlap) {
+		double low = Math.abs(r1 - r2);
+		double high = r1 + r2;
+		if (overlap <= 0) {
+			return high;
+		}
+		if (overlap >= Math.PI * Math.min(r1, r2) * Math.min(r1, r2)) {
+			return low;
+		}
+		// the intersection shrinks with the distance
+		for (int i = 0; i < 50; i++) {
+			double middle = (low + high) / 2;
+			if (circleOverlap(r1, r2, middle) > overlap) {
+				low = middle;
+			} else {
+				high = middle;
+			}
+		}
+		return (low + high) / 2;
+	}
+
+	private static double circleOverlap(double r1, double r2, double d) {
+		if (d >= r1 + r2) {
+			return 0;
+		}
+		if (d <= Math.abs(r1 - r2)) {
+			return Math.PI * Math.min(r1, r2) * Math.min(r1, r2);
+		}
+		double a1 = Math.acos((d * d + r1 * r1 - r2 * r2) / (2 * d * r1));
+		double a2 = Math.acos((d * d + r2 * r2 - r1 * r1) / (2 * d * r2));
+		return r1 * r1 * (a1 - Math.sin(2 * a1) / 2) + r2 * r2
+				* (a2 - Math.sin(2 * a2) / 2);
+	}
+
+	/**
+	 * Paints a google-o-meter: a half circle with a scale from the first to the
+	 * last chart color and an arrow for each value.
+	 */
+	private void paintMeter(ChartCanvas canvas, GoogleOMeter meter,
+			double[] area) {
+		List<GoogleOMeterValue> values = meter.getGoogleOMeterValues();
+		double labelHeight = FONT_SIZE + PADDING;
+		double radius = Math.max(1, Math.min((area[2] - area[0]) / 2, area[3]
+				- area[1] - labelHeight - PADDING));
+		double x = (area[0] + area[2]) / 2;
+		double y = (area[1] + area[3] + radius) / 2 + labelHeight / 2;
+
+		List<ChartColor> chartColors = meter.getChartColors();
+		Color[] colors;
+		if (chartColors != null && chartColors.size() > 0) {
+			colors = new Color[chartColors.size()];
+			for (int i = 0; i < colors.length; i++) {
+				colors[i] = chartColors.get(i).getColor();
+			}
+		} else {
+			colors = METER_COLORS;
+		}
+		for (int i = 0; i < METER_BANDS; i++) {
+			fillSector(canvas, x, y, radius * 0.6, radius, Math.PI + Math.PI * i
+					/ METER_BANDS, Math.PI / METER_BANDS, blend(colors, (i + 0.5)
+					/ METER_BANDS));
+		}
+
+		float min = 0;
+		float max = 0;
+		for (GoogleOMeterValue value : values) {
+			min = Math.min(min, (float) value.getValue());
+			max = Math.max(max, (float) value.getValue());
+		}
+		double[] range = valueRange(meter.getEncoder(), SeriesStats
+				.of(new float[] { min, max }), meter.getDataScaling());
+		for (GoogleOMeterValue value : values) {
+			double f = Math.max(0, Math.min(1, fraction(value.getValue(), range)));
+			double angle = Math.PI + Math.PI * f;
+			double cos = Math.cos(angle);
+			double sin = Math.sin(angle);
+			double length = radius * 0.9;
+			canvas.fillPolygon(new double[] { x + cos * length, x - sin * 3,
+					x + sin * 3 }, new double[] { y + sin * length, y + cos * 3,
+					y - cos * 3 }, 3, TEXT_COLOR);
+			if (value.getLabel() != null) {
+				canvas.drawText(value.getLabel(), x + cos * (radius + PADDING), y
+						+ sin * (radius + PADDING) - FONT_SIZE / 2.0, FONT_SIZE,
+						TEXT_COLOR, ChartCanvas.ALIGN_CENTER);
+			}
+		}
+		canvas.fillCircle(x, y, 4, TEXT_COLOR);
+	}
+
+	/**
+	 * Returns the color at the position (0 to 1) of a gradient through the
+	 * colors.
+	 */
+	private static Color blend(Color[] colors, double position) {
+		if (colors.length == 1) {
+			return colors[0];
+		}
+		double scaled = position * (colors.length - 1);
+		int index = Math.min((int) scaled, colors.length - 2);
+		double ratio = scaled - index;
+		Color from = colors[index];
+		Color to = colors[index + 1];
+		return new Color(mix(from.getRed(), to.getRed(), ratio), mix(from
+				.getGreen(), to.getGreen(), ratio), mix(from.getBlue(), to
+				.getBlue(), ratio));
+	}
+
+	private static int mix(int from, int to, double ratio) {
+		return (int) Math.round(from + (to - from) * ratio);
+	}
+
+	/**
+	 * Returns the range of the values of a series (minimum and maximum) like
+	 * the chart service maps the encoded values: the data scaling of a text
+	 * encoding, else the range of the encoding.
+	 */
+	private static double[] valueRange(IEncoder encoder, SeriesStats stats,
+			DataScalingSet scaling) {
+		if (encoder instanceof DataScalingTextEncoder && scaling != null) {
+			return new double[] { scaling.getMinimumValue(),
+					scaling.getMaximumValue() };
+		}
+		if (encoder instanceof PercentageEncoder) {
+			// the values are scaled to the maximum value
+			return new double[] { 0, stats.getValueCount() > 0
+					&& stats.getMax() > 0 ? stats.getMax() : 1 };
+		}
+		EncodingType type;
+		if (encoder instanceof SimpleEncoder) {
+			type = EncodingType.SimpleEncoding;
+		} else if (encoder instanceof ExtendedEncoder) {
+			type = EncodingType.ExtendedEncoding;
+		} else if (encoder instanceof AutoEncoder) {
+			type = EncoderFactory.getSuggestedEncodingType(stats);
+		} else {
+			type = EncodingType.TextEncoding;
+		}
+		switch (type) {
+		case SimpleEncoding:
+			return new double[] { 0, 61 };
+		case ExtendedEncoding:
+			return new double[] { 0, 4095 };
+		default:
+			return new double[] { 0, 100 };
+		}
+	}
+
+	/**
+	 * Returns the data scaling of the series: the scaling at the index or the
+	 * last one.
+	 */
+	private static DataScalingSet scaling(List<DataScalingSet> scalings, int index) {
+		if (scalings == null || scalings.isEmpty()) {
+			return null;
+		}
+		return scalings.get(Math.min(index, scalings.size() - 1));
+	}
+
+	/**
+	 * Returns the position of the value in the range, 0 for the minimum and 1
+	 * for the maximum.
+	 */
+	private static double fraction(double value, double[] range) {
+		return range[1] != range[0] ? (value - range[0]) / (range[1] - range[0]) : 0;
+	}
+
+	/**
+	 * Returns the statistics of the bounds of the values, which is all the
+	 * encoders regard, without copying the values.
+	 */
+	private static SeriesStats integerStats(List<Integer> values) {
+		if (values.isEmpty()) {
+			return SeriesStats.EMPTY;
+		}
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (Integer value : values) {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		return SeriesStats.of(new int[] { min, max });
+	}
+
+	/**
+	 * Returns the statistics of the bounds of the values, see
+	 * {@link #integerStats(List)}.
+	 */
+	private static SeriesStats floatStats(List<Float> values) {
+		float min = Float.POSITIVE_INFINITY;
+		float max = Float.NEGATIVE_INFINITY;
+		boolean integral = true;
+		for (Float value : values) {
+			if (value == null || value.isNaN()) {
+				continue;
+			}
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+			integral &= value == Math.floor(value);
+		}
+		if (min > max) {
+			return SeriesStats.EMPTY;
+		}
+		// a fraction keeps the statistics non integral
+		return SeriesStats.of(integral ? new float[] { min, max } : new float[] {
+				min, max, 0.5f });
+	}
+
+	/**
+	 * Returns the dash of a line, {@code null} for a solid line.
+	 */
+	private static float[] dash(float line, float blank) {
+		return blank > 0 ? new float[] { Math.max(line, 1), blank } : null;
+	}
+
+	/**
+	 * Returns a step for about five labels in the span: 1, 2 or 5 multiplied
+	 * by a power of ten.
+	 */
+	private static double niceStep(double span) {
+		double raw = span / 5;
+		double magnitude = Math.pow(10, Math.floor(Math.log10(raw)));
+		double normalized = raw / magnitude;
+		if (normalized < 1.5) {
+			return magnitude;
+		} else if (normalized < 3) {
+			return 2 * magnitude;
+		} else if (normalized < 7) {
+			return 5 * magnitude;
+		}
+		return 10 * magnitude;
+	}
+
+	private static String format(double value) {
+		if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+			return Long.toString((long) value);
+		}
+		return Float.toString((float) value);
+	}
+
+	private static List<String> split(String text, char separator) {
+		List<String> parts = new ArrayList<String>();
+		int start = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) == separator) {
+				parts.add(text.substring(start, i));
+				start = i + 1;
+			}
+		}
+		parts.add(text.substring(start));
+		return parts;
+	}
+
+	/**
+	 * An axis with its labels and their positions (0 at the start and 1 at the
+	 * end of the axis).
+	 */
+	private static class Axis {
+		private final AxisType type;
+		private final Color color;
+		private final int fontSize;
+		private final List<String> texts = new ArrayList<String>();
+		private final List<Double> positions = new ArrayList<Double>();
+
+		/**
+		 * distance to the plot area, set by the layout
+		 */
+		private double offset;
+
+		private Axis(AxisLabelContainer container) {
+			this.type = container.getType();
+			this.color = container.getAxisStyle() != null ? container
+					.getAxisStyle().getColor() : null;
+			this.fontSize = container.getAxisStyle() != null
+					&& container.getAxisStyle().getFontSize() > 0 ? container
+					.getAxisStyle().getFontSize() : FONT_SIZE;
+		}
+
+		private void add(String text, double position) {
+			texts.add(text);
+			positions.add(position);
+		}
+
+		/**
+		 * Returns the side of the plot area: 0 left, 1 top, 2 right, 3 bottom.
+		 */
+		private int getSide() {
+			switch (type) {
+			case YAxis:
+				return 0;
+			case TopAxis:
+				return 1;
+			case RightAxis:
+				return 2;
+			default:
+				return 3;
+			}
+		}
+
+		/**
+		 * Returns the space the axis needs besides the plot area.
+		 */
+		private double getExtent(ChartCanvas canvas) {
+			if (getSide() == 1 || getSide() == 3) {
+				return TICK_LENGTH + 2 + fontSize + PADDING / 2;
+			}
+			double textWidth = 0;
+			for (String text : texts) {
+				textWidth = Math.max(textWidth, canvas.getTextWidth(text, fontSize));
+			}
+			return TICK_LENGTH + 2 + textWidth + PADDING / 2;
+		}
+	}
+
+}
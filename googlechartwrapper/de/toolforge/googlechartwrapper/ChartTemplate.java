@@ -0,0 +1,252 @@
+package de.toolforge.googlechartwrapper;
+
+import java.io.IOException;
+
+/**
+ * A compiled chart: all url parameters except the chart data (chd) are rendered
+ * once when the template is compiled, so rendering a chart with new data only
+ * encodes the data and puts it between the static parts of the url. The url
+ * equals the url of the chart ({@link AbstractChart#getUrl()}) with the same
+ * count of series and the given values. A template is created by the compile
+ * methods of the charts, for example {@link LineChart#compile()}.
+ * <p>
+ * Templates are immutable and may be rendered by several threads at once.
+ * Changing the chart afterwards does not change the template. A template of
+ * {@link LineChart#compile()} keeps the {@link ApiLocationStrategy} of the chart
+ * and chooses the location by the key of each rendered url, like the chart.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how ChartTemplate can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * LineChart lineChart = new LineChart(new Dimension(300, 300));
+ * lineChart.setChartTitle(new ChartTitle("latency"));
+ * lineChart.addLineChartData(new LineChartData.LineChartDataBuilder(new float[0]).build());
+ *
+ * ChartTemplate template = lineChart.compile();
+ * String url = template.render(new float[]{20f, 30f, 40f});
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see AbstractChart#compileTemplate(String, int, DataEncoder)
+ */
+public final class ChartTemplate {
+
+	/**
+	 * the url parameter of the chart data including the separator
+	 */
+	private static final String DATA_PARAMETER = AbstractChart.AMPERSAND_SEPARATOR
+			+ ChartTypeFeature.ChartData.getPrefix() + "=";
+
+	private final String apiLocation;
+	private final ApiLocationStrategy apiLocationStrategy;
+	private final String head;
+	private final String tail;
+	private final int seriesCount;
+	private final DataEncoder encoder;
+
+	/**
+	 * Constructs a new template.
+	 *
+	 * @param apiLocation the Chart API's location, used if there is no strategy
+	 * @param apiLocationStrategy strategy choosing the location of each url or
+	 * {@code null}
+	 * @param head url parameters in front of the chart data
+	 * @param tail url parameters behind the chart data
+	 * @param seriesCount count of series of the chart data
+	 * @param encoder encoder of the chart data
+	 */
+	ChartTemplate(String apiLocation, ApiLocationStrategy apiLocationStrategy,
+			String head, String tail, int seriesCount, DataEncoder encoder) {
+		this.apiLocation = apiLocation;
+		this.apiLocationStrategy = apiLocationStrategy;
+		this.head = head;
+		this.tail = tail;
+		this.seriesCount = seriesCount;
+		this.encoder = encoder;
+	}
+
+	/**
+	 * Returns the count of series which must be passed to the render methods.
+	 *
+	 * @return count of series
+	 */
+	public int getSeriesCount() {
+		return seriesCount;
+	}
+
+	/**
+	 * Returns the url of the chart with the given values.
+	 *
+	 * @param series values of each series
+	 * @return the chart url
+	 *
+	 * @throws IllegalArgumentException if series or member is {@code null} or
+	 * the count of series does not match {@link #getSeriesCount()}
+	 */
+	public String render(float[]... series) {
+		checkSeries(series);
+		return join(encoder.encode(series));
+	}
+
+	/**
+	 * Returns the url of the chart with the given values.
+	 *
+	 * @param series values of each series
+	 * @return the chart url
+	 *
+	 * @throws IllegalArgumentException if series or member is {@code null} or
+	 * the count of series does not match {@link #getSeriesCount()}
+	 */
+	public String render(int[]... series) {
+		checkSeries(series);
+		return join(encoder.encode(series));
+	}
+
+	/**
+	 * Writes the url of the chart with the given values to the appendable.
+	 *
+	 * @param out destination of the url
+	 * @param series values of each series
+	 * @throws IOException if out throws an IOException
+	 *
+	 * @throws IllegalArgumentException if out, series or member is {@code null} or
+	 * the count of series does not match {@link #getSeriesCount()}
+	 */
+	public void writeUrl(Appendable out, float[]... series) throws IOException {
+		if (out == null)
+			throw new IllegalArgumentException("out can not be null");
+		checkSeries(series);
+		write(encoder.encode(series), out);
+	}
+
+	/**
+	 * Writes the url of the chart with the given values to the appendable.
+	 *
+	 * @param out destination of the url
+	 * @param series values of each series
+	 * @throws IOException if out throws an IOException
+	 *
+	 * @throws IllegalArgumentException if out, series or member is {@code null} or
+	 * the count of series does not match {@link #getSeriesCount()}
+	 */
+	public void writeUrl(Appendable out, int[]... series) throws IOException {
+		if (out == null)
+			throw new IllegalArgumentException("out can not be null");
+		checkSeries(series);
+		write(encoder.encode(series), out);
+	}
+
+	private void checkSeries(Object[] series) {
+		if (series == null)
+			throw new IllegalArgumentException("series can not be null");
+		if (series.length != seriesCount)
+			throw new IllegalArgumentException("count of series must be " + seriesCount);
+		for (Object current : series) {
+			if (current == null)
+				throw new IllegalArgumentException("series can not be null");
+		}
+	}
+
+	private String join(String data) {
+		StringBuilder url = new StringBuilder(apiLocation.length() + head.length()
+				+ DATA_PARAMETER.length() + data.length() + tail.length());
+		try {
+			write(data, url);
+		} catch (IOException e) {
+			throw new RuntimeException(e); //not thrown by StringBuilder
+		}
+		return url.toString();
+	}
+
+	private void write(String data, Appendable out) throws IOException {
+		if (apiLocationStrategy != null) {
+			// the key of the chart is the hash of the parameters
+			ChartKey.Hasher hasher = new ChartKey.Hasher();
+			writeParameters(data, hasher);
+			out.append(apiLocationStrategy.getApiLocation(hasher.toKey()));
+		} else {
+			out.append(apiLocation);
+		}
+		writeParameters(data, out);
+	}
+
+	private void writeParameters(String data, Appendable out) throws IOException {
+		out.append(head);
+		// an empty parameter is omitted like in the url of the chart
+		if (data.length() > 0) {
+			out.append(DATA_PARAMETER);
+			out.append(data);
+		}
+		out.append(tail);
+	}
+
+	/**
+	 * Encodes the chart data of a template like the data appender of the chart.
+	 * Implementations must not depend on the chart after the template was
+	 * compiled.
+	 *
+	 * @author martin
+	 */
+	protected static abstract class DataEncoder {
+
+		/**
+		 * Returns the encoded data (without the parameter name) of the series.
+		 *
+		 * @param series values of each series
+		 * @return encoded data
+		 */
+		protected abstract String encode(float[][] series);
+
+		/**
+		 * Returns the encoded data (without the parameter name) of the series.
+		 *
+		 * @param series values of each series
+		 * @return encoded data
+		 */
+		protected abstract String encode(int[][] series);
+	}
+
+	/**
+	 * Data encoder of a chart with float data. Integer values are converted.
+	 */
+	protected static abstract class FloatDataEncoder extends DataEncoder {
+
+		@Override
+		protected String encode(int[][] series) {
+			float[][] converted = new float[series.length][];
+			for (int i = 0; i < series.length; i++) {
+				converted[i] = new float[series[i].length];
+				for (int j = 0; j < series[i].length; j++) {
+					converted[i][j] = series[i][j];
+				}
+			}
+			return encode(converted);
+		}
+	}
+
+	/**
+	 * Data encoder of a chart with integer data. Float values are rounded.
+	 */
+	protected static abstract class IntegerDataEncoder extends DataEncoder {
+
+		@Override
+		protected String encode(float[][] series) {
+			int[][] converted = new int[series.length][];
+			for (int i = 0; i < series.length; i++) {
+				converted[i] = new int[series[i].length];
+				for (int j = 0; j < series[i].length; j++) {
+					converted[i][j] = Math.round(series[i][j]);
+				}
+			}
+			return encode(converted);
+		}
+	}
+
+}
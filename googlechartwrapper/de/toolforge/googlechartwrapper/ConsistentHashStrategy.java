@@ -0,0 +1,154 @@
+package de.toolforge.googlechartwrapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Spreads charts across a set of Chart API's locations by consistent hashing
+ * of the {@link ChartKey}. The same chart is always mapped to the same location,
+ * so the caches of the hosts (or of a CDN in front of them) are hit, while the
+ * charts of a page are spread across the hosts. Each location is placed at
+ * several points on a ring of hashes, a chart is mapped to the next point after
+ * its key. If a location is added or removed, only the charts of about one in
+ * n locations move.
+ * <p>
+ * The strategy is immutable and may be shared between charts and threads.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how ConsistentHashStrategy can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * List&lt;String&gt; locations = new ArrayList&lt;String&gt;();
+ * for (int i = 0; i &lt; 10; i++) {
+ * 	locations.add(&quot;http://&quot; + i + &quot;.chart.apis.google.com/chart?&quot;);
+ * }
+ * ApiLocationStrategy strategy = new ConsistentHashStrategy(locations);
+ * lineChart.setApiLocationStrategy(strategy);
+ * String url = lineChart.getUrl(); // http://7.chart.apis.google.com/chart?...
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see AbstractChart#setApiLocationStrategy(ApiLocationStrategy)
+ */
+public class ConsistentHashStrategy implements ApiLocationStrategy {
+
+	/**
+	 * default count of points of each location on the ring
+	 */
+	public static final int DEFAULT_POINTS_PER_LOCATION = 128;
+
+	private final List<String> locations;
+
+	/**
+	 * sorted points of the ring
+	 */
+	private final long[] points;
+
+	/**
+	 * index of the location of each point
+	 */
+	private final int[] owners;
+
+	/**
+	 * Constructs a strategy with {@link #DEFAULT_POINTS_PER_LOCATION} points
+	 * per location.
+	 *
+	 * @param locations the Chart API's locations
+	 *
+	 * @throws IllegalArgumentException if locations is {@code null}, empty or
+	 * contains {@code null}
+	 */
+	public ConsistentHashStrategy(List<String> locations) {
+		this(locations, DEFAULT_POINTS_PER_LOCATION);
+	}
+
+	/**
+	 * Constructs a strategy. More points per location spread the charts more
+	 * evenly.
+	 *
+	 * @param locations the Chart API's locations
+	 * @param pointsPerLocation count of points of each location on the ring
+	 *
+	 * @throws IllegalArgumentException if locations is {@code null}, empty or
+	 * contains {@code null}, or if pointsPerLocation &lt; 1
+	 */
+	public ConsistentHashStrategy(List<String> locations, int pointsPerLocation) {
+		if (locations == null)
+			throw new IllegalArgumentException("locations can not be null");
+		if (locations.isEmpty())
+			throw new IllegalArgumentException("locations can not be empty");
+		if (pointsPerLocation < 1)
+			throw new IllegalArgumentException("pointsPerLocation must be > 0");
+		for (String location : locations) {
+			if (location == null)
+				throw new IllegalArgumentException("location can not be null");
+		}
+		this.locations = Collections.unmodifiableList(new ArrayList<String>(
+				locations));
+
+		int count = locations.size() * pointsPerLocation;
+		final long[] unsorted = new long[count];
+		Integer[] order = new Integer[count];
+		for (int i = 0; i < locations.size(); i++) {
+			for (int j = 0; j < pointsPerLocation; j++) {
+				// the point depends on the location only, not on its index
+				ChartKey.Hasher hasher = new ChartKey.Hasher();
+				hasher.append(locations.get(i)).append('#').append(
+						Integer.toString(j));
+				unsorted[i * pointsPerLocation + j] = hasher.toKey().getHigh();
+				order[i * pointsPerLocation + j] = i * pointsPerLocation + j;
+			}
+		}
+		// sorts the points and their owners together
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return unsorted[a] < unsorted[b] ? -1
+						: unsorted[a] > unsorted[b] ? 1 : 0;
+			}
+		});
+		this.points = new long[count];
+		this.owners = new int[count];
+		for (int i = 0; i < count; i++) {
+			points[i] = unsorted[order[i]];
+			owners[i] = order[i] / pointsPerLocation;
+		}
+	}
+
+	/**
+	 * Returns the Chart API's locations.
+	 *
+	 * @return unmodifiable list of locations
+	 */
+	public List<String> getLocations() {
+		return locations;
+	}
+
+	/**
+	 * Returns the location of the next point on the ring after the key.
+	 *
+	 * @throws IllegalArgumentException if key is {@code null}
+	 */
+	public String getApiLocation(ChartKey key) {
+		if (key == null)
+			throw new IllegalArgumentException("key can not be null");
+		int index = Arrays.binarySearch(points, key.getHigh());
+		if (index < 0) {
+			index = -index - 1;
+		}
+		if (index == points.length) {
+			// the ring wraps around
+			index = 0;
+		}
+		return locations.get(owners[index]);
+	}
+
+}
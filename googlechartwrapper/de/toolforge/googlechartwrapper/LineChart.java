@@ -1,13 +1,19 @@
 package de.toolforge.googlechartwrapper;
 
 
+import java.util.ArrayList;
 import java.util.List;
 
 import de.toolforge.googlechartwrapper.coder.DataScalingTextEncoder;
+import de.toolforge.googlechartwrapper.coder.EncoderFactory;
+import de.toolforge.googlechartwrapper.coder.EncodingType;
 import de.toolforge.googlechartwrapper.coder.IEncoder;
 import de.toolforge.googlechartwrapper.data.DataScalingSet;
+import de.toolforge.googlechartwrapper.data.DownsamplingMethod;
+import de.toolforge.googlechartwrapper.data.FloatDataSet;
 import de.toolforge.googlechartwrapper.data.LineChartData;
 import de.toolforge.googlechartwrapper.data.LineChartDataAppender;
+import de.toolforge.googlechartwrapper.data.SeriesStats;
 import de.toolforge.googlechartwrapper.interfaces.IEncodeable;
 
 /**
@@ -43,6 +49,11 @@ public class LineChart extends AbstractLineChart implements IEncodeable {
 
 	private ChartType type = ChartType.LineChart;
 
+	/**
+	 * the data scaling added by {@link #fitUrlLength(int)}, replaced by the next fit
+	 */
+	private DataScalingSet budgetScaling;
+
 	/**
 	 * Constructs a new {@link LineChart}
 	 * 
@@ -185,6 +196,261 @@ public class LineChart extends AbstractLineChart implements IEncodeable {
 		return this.lineChartDataAppender.getList();
 	}
 
+	/**
+	 * Reduces each line with more points than the chart is wide in pixels
+	 * before it is encoded. If no width was specified, the maximum width of 
+	 * 1000 pixels is used.
+	 * 
+	 * @param method the downsampling method, {@code null} to turn the downsampling off
+	 * @see #setDownsampling(DownsamplingMethod, int)
+	 */
+	public void setDownsampling(DownsamplingMethod method) {
+		this.lineChartDataAppender.setDownsampling(method,
+				getWidth() != Integer.MIN_VALUE ? Math.max(getWidth(), 3) : 1000);
+	}
+
+	/**
+	 * Reduces each line with more than threshold points before it is encoded. 
+	 * The {@link LineChartData} itself is not changed.
+	 * 
+	 * @param method the downsampling method, {@code null} to turn the downsampling off
+	 * @param threshold maximum count of points of each line
+	 * 
+	 * @throws IllegalArgumentException if method is not {@code null} and threshold &lt; 3
+	 */
+	public void setDownsampling(DownsamplingMethod method, int threshold) {
+		this.lineChartDataAppender.setDownsampling(method, threshold);
+	}
+
+	/**
+	 * Returns the downsampling method.
+	 * 
+	 * @return the downsampling method, {@code null} if no downsampling is used
+	 */
+	public DownsamplingMethod getDownsampling() {
+		return this.lineChartDataAppender.getDownsampling();
+	}
+
+	/**
+	 * Returns the count of points which were dropped by the downsampling
+	 * when the url was generated last.
+	 * 
+	 * @return count of dropped points
+	 */
+	public int getDroppedPointCount() {
+		return this.lineChartDataAppender.getDroppedPointCount();
+	}
+
+	/**
+	 * Chooses the encoding, the decimal places of a text encoding and the count
+	 * of points of each line with the highest fidelity, so that the url is
+	 * not longer than maxLength characters. The length of the encoded data is
+	 * predicted for each alternative without encoding it, so the url elements
+	 * are collected only once to measure the remaining parameters.
+	 * <p>
+	 * Dropping points is regarded as the greatest loss of fidelity: first all lines
+	 * are kept complete, then the lines are reduced to the chart width and halved
+	 * again ({@link DownsamplingMethod#LargestTriangleThreeBuckets}). With each
+	 * count of points simple or extended encoding is kept if it is able to encode
+	 * the rounded values, there is no {@link DataScalingSet} and the url fits.
+	 * Otherwise the values are text encoded and rounded to two, one and no decimal
+	 * places. If the text encoded values are out of the range from 0 to 100 and the
+	 * chart has no data scaling, a data scaling from the smallest to the greatest
+	 * value is added, see {@link UrlBudget#getDataScaling()}.
+	 * </p>
+	 * The chosen settings replace the encoder, the downsampling and a data scaling
+	 * added by a previous fit. If the url does not fit in any case, the data is
+	 * encoded with the highest fidelity and the returned result provides the
+	 * parameters for a post request.
+	 * 
+	 * @param maxLength maximum length of the url
+	 * @return the chosen settings
+	 * 
+	 * @throws IllegalArgumentException if maxLength &lt; 1
+	 * @see #getPostRequestParameters()
+	 */
+	public UrlBudget fitUrlLength(int maxLength) {
+		if (maxLength < 1)
+			throw new IllegalArgumentException("maxLength must be > 0");
+
+		if (this.budgetScaling != null) {
+			removeDataScalingSet(this.budgetScaling);
+			this.budgetScaling = null;
+		}
+		// length of the url without the encoded data
+		int baseLength = getUrlLengthWithoutChartData();
+		boolean scaled = this.dataScalingAppender.getListSize() > 0;
+
+		List<? extends LineChartData> lines = getAllLineChartData();
+		int maxSize = 0;
+		for (LineChartData line : lines) {
+			maxSize = Math.max(maxSize, line.getFloatDataSet().size());
+		}
+
+		// the point thresholds, 0 if no point is dropped
+		List<Integer> thresholds = new ArrayList<Integer>();
+		thresholds.add(0);
+		int threshold = Math.min(maxSize - 1, getWidth() != Integer.MIN_VALUE ? getWidth() : 1000);
+		while (threshold >= 3) {
+			thresholds.add(threshold);
+			threshold /= 2;
+		}
+
+		UrlBudget best = null;
+		for (int pointThreshold : thresholds) {
+			List<float[]> data = new ArrayList<float[]>(lines.size());
+			SeriesStats stats = SeriesStats.EMPTY;
+			for (LineChartData line : lines) {
+				if (pointThreshold > 0) {
+					float[] sampled = DownsamplingMethod.LargestTriangleThreeBuckets
+							.downsample(line.getFloatDataSet(), pointThreshold);
+					data.add(sampled);
+					stats = stats.combine(SeriesStats.of(sampled));
+				} else {
+					data.add(line.getFloatDataSet().toArray());
+					stats = stats.combine(line.getFloatDataSet().getStats());
+				}
+			}
+
+			List<UrlBudget> candidates = new ArrayList<UrlBudget>(4);
+			if (!scaled) {
+				UrlBudget integer = integerEncoding(maxLength, baseLength, data,
+						stats, pointThreshold);
+				if (integer != null) {
+					candidates.add(integer);
+				}
+			}
+			int[] decimalTiers = stats.isIntegral() ? new int[] { 0 } : new int[] { 2, 1, 0 };
+			for (int decimals : decimalTiers) {
+				candidates.add(textEncoding(maxLength, baseLength, data, stats,
+						scaled, decimals, pointThreshold));
+			}
+			for (UrlBudget candidate : candidates) {
+				if (best == null) {
+					best = candidate;
+				}
+				if (candidate.getUrlLength() <= maxLength) {
+					applyBudget(candidate);
+					return candidate;
+				}
+			}
+		}
+
+		// nothing fits, use the highest fidelity for a post request
+		applyBudget(best);
+		return new UrlBudget(maxLength, best.getUrlLength(), best.getEncodingType(),
+				best.getDecimals(), best.getPointThreshold(), best.getDataScaling(),
+				getPostRequestParameters());
+	}
+
+	/**
+	 * Returns the simple or extended encoding of the rounded values,
+	 * {@code null} if the values are out of the range of both.
+	 */
+	private static UrlBudget integerEncoding(int maxLength, int baseLength,
+			List<float[]> data, SeriesStats stats, int pointThreshold) {
+
+		// missing values are encoded as missing ("_" or "__"), so gaps are kept
+		boolean positive = stats.getValueCount() == 0 || stats.getMin() >= 0;
+		long max = stats.getValueCount() == 0 ? 0 : Math.round(stats.getMax());
+		if (!positive || max >= 4096) {
+			return null;
+		}
+		EncodingType type = max < 62 ? EncodingType.SimpleEncoding
+				: EncodingType.ExtendedEncoding;
+		return new UrlBudget(maxLength, baseLength + EncoderFactory.getEncodedLength(type, data),
+				type, -1, pointThreshold, null, null);
+	}
+
+	/**
+	 * Returns the text encoding of the values rounded to the decimal places. The
+	 * service clips text encoded values to the range from 0 to 100, so values out
+	 * of this range get a data scaling if the chart has none.
+	 */
+	private static UrlBudget textEncoding(int maxLength, int baseLength,
+			List<float[]> data, SeriesStats stats, boolean scaled, int decimals,
+			int pointThreshold) {
+
+		int length = baseLength + EncoderFactory.getTextEncodedLength(data, decimals);
+		DataScalingSet scaling = null;
+		if (!scaled && stats.getValueCount() > 0
+				&& (stats.getMin() < 0 || stats.getMax() > 100)) {
+			scaling = stats.toDataScalingSet();
+			length += AMPERSAND_SEPARATOR.length()
+					+ ChartTypeFeature.DataScaling.getPrefix().length() + 1
+					+ scaling.getAppendableFeatures(null).get(0).getData().length();
+		}
+		return new UrlBudget(maxLength, length, EncodingType.TextEncodingWithDataScaling,
+				decimals, pointThreshold, scaling, null);
+	}
+
+	/**
+	 * Sets the encoder, the downsampling and the data scaling of the budget.
+	 */
+	private void applyBudget(UrlBudget budget) {
+		if (budget.getDataScaling() != null) {
+			this.budgetScaling = budget.getDataScaling();
+			this.dataScalingAppender.add(this.budgetScaling);
+		}
+		if (budget.getEncodingType() == EncodingType.TextEncodingWithDataScaling) {
+			setEncoder(new DataScalingTextEncoder(budget.getDecimals()));
+		} else {
+			setEncoder(EncoderFactory.getEncoder(budget.getEncodingType()));
+		}
+		if (budget.getPointThreshold() > 0) {
+			setDownsampling(DownsamplingMethod.LargestTriangleThreeBuckets,
+					budget.getPointThreshold());
+		} else {
+			setDownsampling(null);
+		}
+	}
+
+	/**
+	 * Compiles the chart into a {@link ChartTemplate} with the Chart API's
+	 * location of the chart: the template chooses the location of each url by
+	 * the {@link ApiLocationStrategy} of the chart, or uses {@link #GOOGLE_API}
+	 * if no strategy is set. The template renders the chart with new values for
+	 * each {@link LineChartData}; the count of lines, the encoder and the
+	 * downsampling are fixed.
+	 * 
+	 * @return the compiled template
+	 * @see #compile(String)
+	 */
+	public ChartTemplate compile() {
+		return compile(GOOGLE_API, getApiLocationStrategy());
+	}
+
+	/**
+	 * Compiles the chart into a {@link ChartTemplate} with the given Chart API's
+	 * location, the {@link ApiLocationStrategy} of the chart is not used.
+	 * 
+	 * @param apiLocation the Chart API's location
+	 * @return the compiled template
+	 * @throws IllegalArgumentException if apiLocation is {@code null}
+	 */
+	public ChartTemplate compile(String apiLocation) {
+		return compile(apiLocation, null);
+	}
+
+	private ChartTemplate compile(String apiLocation, ApiLocationStrategy strategy) {
+		// a copy of the encoder and downsampling settings
+		final LineChartDataAppender data = new LineChartDataAppender();
+		data.setEncoder(getEncoder());
+		data.setDownsampling(getDownsampling(),
+				this.lineChartDataAppender.getDownsamplingThreshold());
+		return compileTemplate(apiLocation, strategy, getAllLineChartData().size(),
+				new ChartTemplate.FloatDataEncoder() {
+					@Override
+					protected String encode(float[][] series) {
+						List<FloatDataSet> dataSets = new ArrayList<FloatDataSet>(series.length);
+						for (float[] current : series) {
+							dataSets.add(FloatDataSet.wrap(current));
+						}
+						return data.encodeDataSets(dataSets);
+					}
+				});
+	}
+
 	public boolean isSparkline() {
 		return (ChartType.SparkLine.equals(type));
 	}
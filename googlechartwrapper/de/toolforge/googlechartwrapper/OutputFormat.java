@@ -28,12 +28,34 @@ public enum OutputFormat {
 	 * Returns an HTML page listing any errors in the chart URL.
 	 * Warning: non-graphical format.
 	 */
-	VALIDATE("validate");
+	VALIDATE("validate"),
+	/**
+	 * Returns the chart as a SVG document.
+	 * Warning: not supported by the chart service, the document is written
+	 * locally by the {@link SvgChartWriter}, so there is no url with this format.
+	 */
+	SVG("svg", false);
 	
 	private String append;
+	private boolean remote;
 
 	private OutputFormat(String append) {
+		this(append, true);
+	}
+
+	private OutputFormat(String append, boolean remote) {
 		this.append = append;
+		this.remote = remote;
+	}
+
+	/**
+	 * Returns {@code true} if the chart service returns the chart in this
+	 * format, {@code false} if the chart is only rendered locally.
+	 * 
+	 * @return {@code true} if a url with this format exists
+	 */
+	public boolean isRemote(){
+		return remote;
 	}
 	
 	protected String getParameter(){
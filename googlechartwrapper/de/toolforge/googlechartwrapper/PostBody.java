@@ -0,0 +1,412 @@
+package de.toolforge.googlechartwrapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+
+import de.toolforge.googlechartwrapper.AbstractChart.FeatureAppender;
+
+/**
+ * Body of a post request of a chart, see {@link AbstractChart#getPostBody()}.
+ * The body is encoded as <code>application/x-www-form-urlencoded</code> and
+ * contains the same parameters as the query of the chart url. The parameters
+ * are written straight from the url elements of the chart into an
+ * {@link OutputStream} or a {@link ByteBuffer}, neither the url nor a map of
+ * the parameters is built. The exact length of the body is known before it is
+ * written, so it can be sent with a fixed content length.
+ * <p>
+ * The url elements are written when the body is written, so the chart must not
+ * be modified while the body is in use.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how PostBody can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * PostBody body = lineChart.getPostBody();
+ * HttpURLConnection connection = (HttpURLConnection) new URL(
+ * 		&quot;http://chart.apis.google.com/chart&quot;).openConnection();
+ * connection.setDoOutput(true);
+ * connection.setRequestMethod(&quot;POST&quot;);
+ * connection.setFixedLengthStreamingMode(body.getContentLength());
+ * connection.setRequestProperty(&quot;Content-Type&quot;, body.getContentType());
+ * body.writeTo(connection.getOutputStream());
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see AbstractChart#getPostRequest()
+ * @see ChartImageClient
+ */
+public class PostBody {
+
+	/**
+	 * content type of the body
+	 */
+	public static final String CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	private final List<FeatureAppender> urlElements;
+
+	private int contentLength = -1;
+
+	/**
+	 * Constructs the body of the url elements. Elements without content are
+	 * left out, like in the url.
+	 *
+	 * @param urlElements url elements, the queue is empty afterwards
+	 *
+	 * @throws IllegalArgumentException if urlElements is {@code null}
+	 */
+	PostBody(Queue<FeatureAppender> urlElements) {
+		if (urlElements == null)
+			throw new IllegalArgumentException("urlElements can not be null");
+		List<FeatureAppender> elements = new ArrayList<FeatureAppender>(
+				urlElements.size());
+		while (urlElements.size() > 0) {
+			FeatureAppender urlElem = urlElements.poll();
+			if (urlElem.hasUrlGetString()) {
+				elements.add(urlElem);
+			}
+		}
+		this.urlElements = Collections.unmodifiableList(elements);
+	}
+
+	/**
+	 * Returns the content type of the body.
+	 *
+	 * @return {@link #CONTENT_TYPE}
+	 */
+	public String getContentType() {
+		return CONTENT_TYPE;
+	}
+
+	/**
+	 * Returns the exact count of bytes written by {@link #writeTo(OutputStream)}.
+	 * The length is counted once by writing the body without storing it.
+	 *
+	 * @return length of the body in bytes
+	 */
+	public int getContentLength() {
+		if (contentLength < 0) {
+			Counter counter = new Counter();
+			try {
+				writeBody(counter);
+			}
+			catch (IOException e) {
+				throw new RuntimeException(e); //not thrown by Counter
+			}
+			contentLength = counter.count;
+		}
+		return contentLength;
+	}
+
+	/**
+	 * Writes the body to the stream. The stream is neither flushed nor
+	 * closed.
+	 *
+	 * @param out destination of the body
+	 * @throws IOException if out throws an IOException
+	 *
+	 * @throws IllegalArgumentException if out is {@code null}
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		if (out == null)
+			throw new IllegalArgumentException("out can not be null");
+		StreamSink sink = new StreamSink(out);
+		writeBody(sink);
+		sink.flush();
+	}
+
+	/**
+	 * Writes the body to the buffer at its position.
+	 *
+	 * @param buffer destination of the body
+	 *
+	 * @throws IllegalArgumentException if buffer is {@code null}
+	 * @throws java.nio.BufferOverflowException if the buffer has less than
+	 * {@link #getContentLength()} bytes remaining
+	 */
+	public void writeTo(final ByteBuffer buffer) {
+		if (buffer == null)
+			throw new IllegalArgumentException("buffer can not be null");
+		try {
+			writeBody(new Sink() {
+				@Override
+				void write(int b) {
+					buffer.put((byte) b);
+				}
+			});
+		}
+		catch (IOException e) {
+			throw new RuntimeException(e); //not thrown by ByteBuffer
+		}
+	}
+
+	/**
+	 * Returns a buffer with the body, ready to be read.
+	 *
+	 * @return new buffer of exactly {@link #getContentLength()} bytes
+	 */
+	public ByteBuffer toByteBuffer() {
+		ByteBuffer buffer = ByteBuffer.allocate(getContentLength());
+		writeTo(buffer);
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Writes a html form which posts the parameters of the body to the url. Each
+	 * parameter is a hidden input field, its value is decoded from the url
+	 * encoding, so the browser sends the same parameters as the body.
+	 *
+	 * @param postUrl url the form is posted to
+	 * @param out destination of the form
+	 * @throws IOException if out throws an IOException
+	 *
+	 * @throws IllegalArgumentException if postUrl or out is {@code null}
+	 */
+	public void writeForm(String postUrl, Appendable out) throws IOException {
+		if (postUrl == null)
+			throw new IllegalArgumentException("postUrl can not be null");
+		if (out == null)
+			throw new IllegalArgumentException("out can not be null");
+		out.append("<form action='");
+		appendHtml(postUrl, out);
+		out.append("' method='POST' id='chartForm'>");
+		for (FeatureAppender urlElem : urlElements) {
+			out.append("\n<input type=\"hidden\" name=\"");
+			appendHtml(urlElem.getPrefix(), out);
+			out.append("\" value=\"");
+			FormValue value = new FormValue(out, urlElem.getPrefix().length() > 0
+					? urlElem.getPrefix().length() + 1 : 0);
+			urlElem.appendUrlGetString(value);
+			value.flush();
+			out.append("\" />");
+		}
+		out.append(" <input type=\"submit\"  /></form>");
+	}
+
+	/**
+	 * Returns the html form written by {@link #writeForm(String, Appendable)}.
+	 *
+	 * @param postUrl url the form is posted to
+	 * @return html form with submit button
+	 *
+	 * @throws IllegalArgumentException if postUrl is {@code null}
+	 */
+	public String toForm(String postUrl) {
+		StringBuilder form = new StringBuilder(256);
+		try {
+			writeForm(postUrl, form);
+		}
+		catch (IOException e) {
+			throw new RuntimeException(e); //not thrown by StringBuilder
+		}
+		return form.toString();
+	}
+
+	/**
+	 * Returns the body as string.
+	 */
+	@Override
+	public String toString() {
+		return new String(toByteBuffer().array(), Charset.forName("US-ASCII"));
+	}
+
+	private void writeBody(Appendable out) throws IOException {
+		for (int i = 0; i < urlElements.size(); i++) {
+			if (i > 0) {
+				out.append(AbstractChart.AMPERSAND_SEPARATOR);
+			}
+			urlElements.get(i).appendUrlGetString(out);
+		}
+	}
+
+	private static void appendHtml(CharSequence text, Appendable out)
+			throws IOException {
+		for (int i = 0; i < text.length(); i++) {
+			appendHtml(text.charAt(i), out);
+		}
+	}
+
+	private static void appendHtml(char c, Appendable out) throws IOException {
+		switch (c) {
+		case '&':
+			out.append("&amp;");
+			break;
+		case '<':
+			out.append("&lt;");
+			break;
+		case '>':
+			out.append("&gt;");
+			break;
+		case '"':
+			out.append("&quot;");
+			break;
+		case '\'':
+			out.append("&#39;");
+			break;
+		default:
+			out.append(c);
+		}
+	}
+
+	/**
+	 * Writes the chars of the url elements as bytes. The url elements are
+	 * already url encoded, characters beyond ASCII are encoded as UTF-8 bytes
+	 * in %XX notation, so the body is plain ASCII in any case.
+	 */
+	private static abstract class Sink implements Appendable {
+
+		private char highSurrogate;
+
+		abstract void write(int b) throws IOException;
+
+		public Appendable append(CharSequence csq) throws IOException {
+			return append(csq, 0, csq.length());
+		}
+
+		public Appendable append(CharSequence csq, int start, int end)
+				throws IOException {
+			for (int i = start; i < end; i++) {
+				append(csq.charAt(i));
+			}
+			return this;
+		}
+
+		public Appendable append(char c) throws IOException {
+			if (c < 0x80) {
+				write(c);
+			} else if (Character.isHighSurrogate(c)) {
+				highSurrogate = c;
+			} else {
+				String chars = Character.isLowSurrogate(c) && highSurrogate != 0
+						? new String(new char[] { highSurrogate, c })
+						: String.valueOf(c);
+				highSurrogate = 0;
+				for (byte b : chars.getBytes(UTF8)) {
+					write('%');
+					write(HEX[(b >> 4) & 0xF]);
+					write(HEX[b & 0xF]);
+				}
+			}
+			return this;
+		}
+	}
+
+	private static class Counter extends Sink {
+
+		private int count;
+
+		@Override
+		void write(int b) {
+			count++;
+		}
+	}
+
+	private static class StreamSink extends Sink {
+
+		private final OutputStream out;
+		private final byte[] buffer = new byte[8192];
+		private int size;
+
+		StreamSink(OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		void write(int b) throws IOException {
+			if (size == buffer.length) {
+				flush();
+			}
+			buffer[size++] = (byte) b;
+		}
+
+		void flush() throws IOException {
+			out.write(buffer, 0, size);
+			size = 0;
+		}
+	}
+
+	/**
+	 * Decodes a url encoded value while it is appended and writes it html
+	 * escaped. The first chars (the prefix and the =) are skipped.
+	 */
+	private static class FormValue implements Appendable {
+
+		private final Appendable out;
+		private int skip;
+		private byte[] bytes = new byte[64];
+		private int size;
+		/**
+		 * count of hex digits read after a %, or -1 outside of an escape
+		 */
+		private int digits = -1;
+		private int value;
+
+		FormValue(Appendable out, int skip) {
+			this.out = out;
+			this.skip = skip;
+		}
+
+		public Appendable append(CharSequence csq) throws IOException {
+			return append(csq, 0, csq.length());
+		}
+
+		public Appendable append(CharSequence csq, int start, int end)
+				throws IOException {
+			for (int i = start; i < end; i++) {
+				append(csq.charAt(i));
+			}
+			return this;
+		}
+
+		public Appendable append(char c) throws IOException {
+			if (skip > 0) {
+				skip--;
+			} else if (digits >= 0) {
+				value = value << 4 | Character.digit(c, 16);
+				if (++digits == 2) {
+					if (size == bytes.length) {
+						// a char may span several escapes, so the bytes are kept
+						bytes = Arrays.copyOf(bytes, size * 2);
+					}
+					bytes[size++] = (byte) value;
+					digits = -1;
+				}
+			} else if (c == '%') {
+				digits = 0;
+				value = 0;
+			} else {
+				flush();
+				appendHtml(c == '+' ? ' ' : c, out);
+			}
+			return this;
+		}
+
+		/**
+		 * Writes the pending decoded bytes.
+		 */
+		void flush() throws IOException {
+			if (size > 0) {
+				appendHtml(new String(bytes, 0, size, UTF8), out);
+				size = 0;
+			}
+		}
+	}
+
+}
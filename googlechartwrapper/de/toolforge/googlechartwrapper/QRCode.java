@@ -9,6 +9,7 @@ import de.toolforge.googlechartwrapper.coder.EncoderFactory;
 import de.toolforge.googlechartwrapper.coder.EncodingType;
 import de.toolforge.googlechartwrapper.coder.ExtendedEncoder;
 import de.toolforge.googlechartwrapper.coder.IEncoder;
+import de.toolforge.googlechartwrapper.util.UrlEscaper;
 
 /**
  * 
@@ -245,8 +246,10 @@ public class QRCode extends AbstractChart {
 	protected void collectUrlElements(Queue<FeatureAppender> urlElements) {
 		super.collectUrlElements(urlElements);
 
+		// the text is always passed as UTF-8, the output encoding only specifies
+		// the encoding of the qr code
 		urlElements.add(new BasicStringAppender("chl",
-				this.textToEncode.replaceAll(" ", "%20")));
+				UrlEscaper.PAYLOAD.escape(this.textToEncode)));
 
 		urlElements.add(new BasicStringAppender("choe",
 				this.outputEncoding.getEncoding()));
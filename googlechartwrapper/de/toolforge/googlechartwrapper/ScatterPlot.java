@@ -2,6 +2,7 @@ package de.toolforge.googlechartwrapper;
 
 
 
+import java.util.Arrays;
 import java.util.List;
 
 import de.toolforge.googlechartwrapper.coder.AutoEncoder;
@@ -204,6 +205,51 @@ public class ScatterPlot extends AbstractChart implements ILinearable,
 		return this.scatterPlotDataAppender.getEncoder();
 	}
 
+	/**
+	 * Compiles the chart into a {@link ChartTemplate} with the Chart API's
+	 * location of the chart: the template chooses the location of each url by
+	 * the {@link ApiLocationStrategy} of the chart, or uses {@link #GOOGLE_API}
+	 * if no strategy is set. The template renders the chart with new x, y and
+	 * (if a point of the {@link ScatterPlotData} has a size) size values; the
+	 * encoder is fixed.
+	 * 
+	 * @return the compiled template
+	 * @throws IllegalStateException if no {@link ScatterPlotData} was set
+	 * @see #compile(String)
+	 */
+	public ChartTemplate compile() {
+		return compile(GOOGLE_API, getApiLocationStrategy());
+	}
+
+	/**
+	 * Compiles the chart into a {@link ChartTemplate} with the given Chart API's
+	 * location, the {@link ApiLocationStrategy} of the chart is not used. Float
+	 * values passed to the template are rounded.
+	 * 
+	 * @param apiLocation the Chart API's location
+	 * @return the compiled template
+	 * @throws IllegalArgumentException if apiLocation is {@code null}
+	 * @throws IllegalStateException if no {@link ScatterPlotData} was set
+	 */
+	public ChartTemplate compile(String apiLocation) {
+		return compile(apiLocation, null);
+	}
+
+	private ChartTemplate compile(String apiLocation, ApiLocationStrategy strategy) {
+		ScatterPlotData data = getScatterPlotData();
+		if (data == null)
+			throw new IllegalStateException("the chart has no data");
+		int seriesCount = data.isSizeSet() ? 3 : 2;
+		final IEncoder encoder = getEncoder();
+		return compileTemplate(apiLocation, strategy, seriesCount,
+				new ChartTemplate.IntegerDataEncoder() {
+					@Override
+					protected String encode(int[][] series) {
+						return encoder.encodeIntegerCollection(Arrays.asList(series));
+					}
+				});
+	}
+
 	public ChartTitle getChartTitle() {
 
 		if (this.chartTitleAppender.getList().size() > 0) {
@@ -0,0 +1,448 @@
+package de.toolforge.googlechartwrapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Writes charts as SVG documents, without a request to the chart service. The
+ * elements are written to the writer while the chart is painted from its model,
+ * there is no intermediate document tree. A line of a series is written as a
+ * single path point by point, so the memory needed does not depend on the size
+ * of the series.
+ * <p>
+ * The document has the size of the chart and approximates the image of the
+ * service, see {@link #isSupported(IChart)} for the supported chart types.
+ * The width of a text is estimated from its length, as no font metrics are
+ * available for the viewer of the document.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how SvgChartWriter can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * PieChart pieChart = new PieChart(new Dimension(300, 200));
+ * pieChart.addPieChartSlice(new PieChartSlice.PieChartSliceBuilder(40).label(
+ * 		"cats").build());
+ *
+ * SvgChartWriter writer = new SvgChartWriter();
+ * String svg = writer.toSvg(pieChart);
+ * writer.write(pieChart, new FileOutputStream("chart.svg"));
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see ChartImageRenderer
+ * @see OutputFormat#SVG
+ */
+public class SvgChartWriter {
+
+	/**
+	 * Returns {@code true} if the chart can be written as SVG.
+	 *
+	 * @param chart the chart
+	 * @return {@code true} if the chart type is supported
+	 */
+	public static boolean isSupported(IChart chart) {
+		return ChartPainter.isSupported(chart);
+	}
+
+	/**
+	 * Writes the chart as SVG document to the writer. The writer is neither
+	 * flushed nor closed.
+	 *
+	 * @param chart the chart
+	 * @param out destination of the document
+	 * @throws IOException if out throws an IOException
+	 *
+	 * @throws IllegalArgumentException if chart or out is {@code null} or the
+	 * chart is not supported
+	 */
+	public void write(IChart chart, Writer out) throws IOException {
+		if (chart == null)
+			throw new IllegalArgumentException("chart can not be null");
+		if (out == null)
+			throw new IllegalArgumentException("out can not be null");
+		if (!isSupported(chart))
+			throw new IllegalArgumentException("chart type can not be written: "
+					+ chart.getClass().getName());
+		ChartPainter painter = new ChartPainter((AbstractChart) chart);
+		SvgCanvas canvas = new SvgCanvas(out);
+		canvas.begin(painter.getWidth(), painter.getHeight());
+		painter.paint(canvas);
+		canvas.end();
+	}
+
+	/**
+	 * Writes the chart as UTF-8 encoded SVG document to the stream. The stream
+	 * is flushed but not closed.
+	 *
+	 * @param chart the chart
+	 * @param out destination of the document
+	 * @throws IOException if the document can not be written
+	 *
+	 * @throws IllegalArgumentException if chart or out is {@code null} or the
+	 * chart is not supported
+	 */
+	public void write(IChart chart, OutputStream out) throws IOException {
+		if (out == null)
+			throw new IllegalArgumentException("out can not be null");
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+		write(chart, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Returns the chart as SVG document.
+	 *
+	 * @param chart the chart
+	 * @return the document
+	 *
+	 * @throws IllegalArgumentException if chart is {@code null} or not
+	 * supported
+	 */
+	public String toSvg(IChart chart) {
+		StringWriter out = new StringWriter();
+		try {
+			write(chart, out);
+		} catch (IOException e) {
+			throw new RuntimeException(e); //not thrown by StringWriter
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Canvas which writes SVG elements. The {@link ChartCanvas} methods can not
+	 * throw an {@link IOException}, so the first one is kept and thrown by
+	 * {@link #end()}.
+	 */
+	private static class SvgCanvas implements ChartCanvas {
+
+		/**
+		 * estimated width of a character relative to the font size
+		 */
+		private static final double CHAR_WIDTH = 0.55;
+
+		private final Writer out;
+		private IOException exception;
+		private int clipCount;
+		private boolean clipped;
+
+		private SvgCanvas(Writer out) {
+			this.out = out;
+		}
+
+		private void begin(int width, int height) {
+			write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+			write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"");
+			write(width);
+			write("\" height=\"");
+			write(height);
+			write("\" viewBox=\"0 0 ");
+			write(width);
+			write(" ");
+			write(height);
+			write("\">\n");
+		}
+
+		private void end() throws IOException {
+			resetClip();
+			write("</svg>\n");
+			if (exception != null) {
+				throw exception;
+			}
+		}
+
+		public void fillRect(double x, double y, double width, double height,
+				Color color) {
+			write("<rect x=\"");
+			write(x);
+			write("\" y=\"");
+			write(y);
+			write("\" width=\"");
+			write(width);
+			write("\" height=\"");
+			write(height);
+			write("\"");
+			writeFill(color);
+			write("/>\n");
+		}
+
+		public void fillPolygon(double[] x, double[] y, int count, Color color) {
+			write("<polygon points=\"");
+			for (int i = 0; i < count; i++) {
+				if (i > 0) {
+					write(" ");
+				}
+				write(x[i]);
+				write(",");
+				write(y[i]);
+			}
+			write("\"");
+			writeFill(color);
+			write("/>\n");
+		}
+
+		public void fillCircle(double x, double y, double radius, Color color) {
+			write("<circle cx=\"");
+			write(x);
+			write("\" cy=\"");
+			write(y);
+			write("\" r=\"");
+			write(radius);
+			write("\"");
+			writeFill(color);
+			write("/>\n");
+		}
+
+		public void fillSector(double x, double y, double innerRadius,
+				double outerRadius, double startAngle, double extent, Color color) {
+			double end = startAngle + extent;
+			write("<path d=\"M");
+			writePoint(x, y, outerRadius, startAngle);
+			write(" A");
+			write(outerRadius);
+			write(" ");
+			write(outerRadius);
+			write(" 0 0 1");
+			writePoint(x, y, outerRadius, end);
+			if (innerRadius > 0) {
+				write(" L");
+				writePoint(x, y, innerRadius, end);
+				write(" A");
+				write(innerRadius);
+				write(" ");
+				write(innerRadius);
+				write(" 0 0 0");
+				writePoint(x, y, innerRadius, startAngle);
+			} else {
+				write(" L ");
+				write(x);
+				write(" ");
+				write(y);
+			}
+			write(" Z\"");
+			writeFill(color);
+			write("/>\n");
+		}
+
+		public void drawLine(double x1, double y1, double x2, double y2,
+				Color color, float thickness, float[] dash) {
+			write("<line x1=\"");
+			write(x1);
+			write("\" y1=\"");
+			write(y1);
+			write("\" x2=\"");
+			write(x2);
+			write("\" y2=\"");
+			write(y2);
+			write("\"");
+			writeStroke(color, thickness, dash);
+			write("/>\n");
+		}
+
+		public void beginPath(Color color, float thickness, float[] dash) {
+			write("<path fill=\"none\"");
+			writeStroke(color, thickness, dash);
+			write(" d=\"");
+		}
+
+		public void moveTo(double x, double y) {
+			write(" M ");
+			write(x);
+			write(" ");
+			write(y);
+		}
+
+		public void lineTo(double x, double y) {
+			write(" L ");
+			write(x);
+			write(" ");
+			write(y);
+		}
+
+		public void endPath() {
+			write("\"/>\n");
+		}
+
+		public void drawText(String text, double x, double y, int fontSize,
+				Color color, int alignment) {
+			if (text.length() == 0) {
+				return;
+			}
+			write("<text x=\"");
+			write(x);
+			write("\" y=\"");
+			// y is the center, the baseline is about a third of the size below
+			write(y + fontSize * 0.35);
+			write("\" font-family=\"sans-serif\" font-size=\"");
+			write(fontSize);
+			write("\"");
+			if (alignment != ALIGN_LEFT) {
+				write(alignment == ALIGN_CENTER ? " text-anchor=\"middle\""
+						: " text-anchor=\"end\"");
+			}
+			writeFill(color);
+			write(">");
+			writeEscaped(text);
+			write("</text>\n");
+		}
+
+		public double getTextWidth(String text, int fontSize) {
+			return text.length() * fontSize * CHAR_WIDTH;
+		}
+
+		public void clip(double x, double y, double width, double height) {
+			resetClip();
+			String id = "c" + clipCount++;
+			write("<clipPath id=\"");
+			write(id);
+			write("\"><rect x=\"");
+			write(x);
+			write("\" y=\"");
+			write(y);
+			write("\" width=\"");
+			write(width);
+			write("\" height=\"");
+			write(height);
+			write("\"/></clipPath>\n<g clip-path=\"url(#");
+			write(id);
+			write(")\">\n");
+			clipped = true;
+		}
+
+		public void resetClip() {
+			if (clipped) {
+				write("</g>\n");
+				clipped = false;
+			}
+		}
+
+		private void writePoint(double x, double y, double radius, double angle) {
+			write(" ");
+			write(x + Math.cos(angle) * radius);
+			write(" ");
+			write(y + Math.sin(angle) * radius);
+		}
+
+		private void writeFill(Color color) {
+			write(" fill=\"");
+			writeColor(color);
+			write("\"");
+			if (color.getAlpha() < 255) {
+				write(" fill-opacity=\"");
+				write(color.getAlpha() / 255.0);
+				write("\"");
+			}
+		}
+
+		private void writeStroke(Color color, float thickness, float[] dash) {
+			write(" stroke=\"");
+			writeColor(color);
+			write("\"");
+			if (color.getAlpha() < 255) {
+				write(" stroke-opacity=\"");
+				write(color.getAlpha() / 255.0);
+				write("\"");
+			}
+			write(" stroke-width=\"");
+			write(thickness);
+			write("\" stroke-linecap=\"round\" stroke-linejoin=\"round\"");
+			if (dash != null) {
+				write(" stroke-dasharray=\"");
+				write(dash[0]);
+				write(",");
+				write(dash[1]);
+				write("\"");
+			}
+		}
+
+		private void writeColor(Color color) {
+			write("#");
+			writeHex(color.getRed());
+			writeHex(color.getGreen());
+			writeHex(color.getBlue());
+		}
+
+		private void writeHex(int value) {
+			write(Character.forDigit(value >> 4, 16));
+			write(Character.forDigit(value & 0xF, 16));
+		}
+
+		private void writeEscaped(String text) {
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				switch (c) {
+				case '<':
+					write("&lt;");
+					break;
+				case '>':
+					write("&gt;");
+					break;
+				case '&':
+					write("&amp;");
+					break;
+				case '"':
+					write("&quot;");
+					break;
+				default:
+					write(c);
+				}
+			}
+		}
+
+		/**
+		 * Writes the number with at most two decimals.
+		 */
+		private void write(double value) {
+			long hundredths = Math.round(value * 100);
+			if (hundredths < 0) {
+				write('-');
+				hundredths = -hundredths;
+			}
+			write(Long.toString(hundredths / 100));
+			int fraction = (int) (hundredths % 100);
+			if (fraction != 0) {
+				write('.');
+				write((char) ('0' + fraction / 10));
+				if (fraction % 10 != 0) {
+					write((char) ('0' + fraction % 10));
+				}
+			}
+		}
+
+		private void write(int value) {
+			write(Integer.toString(value));
+		}
+
+		private void write(char c) {
+			if (exception != null) {
+				return;
+			}
+			try {
+				out.write(c);
+			} catch (IOException e) {
+				exception = e;
+			}
+		}
+
+		private void write(String text) {
+			if (exception != null) {
+				return;
+			}
+			try {
+				out.write(text);
+			} catch (IOException e) {
+				exception = e;
+			}
+		}
+	}
+
+}
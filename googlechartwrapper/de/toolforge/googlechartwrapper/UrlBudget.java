@@ -0,0 +1,153 @@
+package de.toolforge.googlechartwrapper;
+
+import java.util.Map;
+
+import de.toolforge.googlechartwrapper.coder.EncodingType;
+import de.toolforge.googlechartwrapper.data.DataScalingSet;
+
+/**
+ * Result of fitting a chart into a maximum url length, see
+ * {@link LineChart#fitUrlLength(int)}. It describes the chosen encoding, the
+ * count of decimal places of a text encoding and the maximum count of points
+ * of each line. If the chart does not fit into the url, even with the lowest
+ * fidelity, the parameters for a post request are provided instead.
+ *
+ * <p>
+ * Here are some examples of how UrlBudget can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * UrlBudget budget = lineChart.fitUrlLength(2048);
+ * if (budget.isFitting()) {
+ * 	 String url = lineChart.getUrl();
+ * } else {
+ * 	 Map&lt;String, String&gt; parameters = budget.getPostRequestParameters();
+ * }
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see LineChart#fitUrlLength(int)
+ */
+public class UrlBudget {
+
+	private final int maxLength;
+	private final int urlLength;
+	private final EncodingType encodingType;
+	private final int decimals;
+	private final int pointThreshold;
+	private final DataScalingSet dataScaling;
+	private final Map<String, String> postRequestParameters;
+
+	/**
+	 * Constructs a new result.
+	 *
+	 * @param maxLength the maximum url length
+	 * @param urlLength the length of the url with the chosen settings
+	 * @param encodingType the chosen encoding type
+	 * @param decimals the decimal places of a text encoding, -1 otherwise
+	 * @param pointThreshold maximum count of points of each line, 0 if no point is dropped
+	 * @param dataScaling the data scaling added for a text encoding, {@code null}
+	 * if none is added
+	 * @param postRequestParameters the post parameters if the url is too long,
+	 * {@code null} otherwise
+	 */
+	UrlBudget(int maxLength, int urlLength, EncodingType encodingType,
+			int decimals, int pointThreshold, DataScalingSet dataScaling,
+			Map<String, String> postRequestParameters) {
+		this.maxLength = maxLength;
+		this.urlLength = urlLength;
+		this.encodingType = encodingType;
+		this.decimals = decimals;
+		this.pointThreshold = pointThreshold;
+		this.dataScaling = dataScaling;
+		this.postRequestParameters = postRequestParameters;
+	}
+
+	/**
+	 * Returns {@code true} if the url of the chart fits into the maximum length.
+	 *
+	 * @return {@code true} if the url fits
+	 */
+	public boolean isFitting() {
+		return postRequestParameters == null;
+	}
+
+	/**
+	 * Returns the maximum url length.
+	 *
+	 * @return maximum url length
+	 */
+	public int getMaxLength() {
+		return maxLength;
+	}
+
+	/**
+	 * Returns the length of the url with the chosen settings.
+	 *
+	 * @return url length
+	 */
+	public int getUrlLength() {
+		return urlLength;
+	}
+
+	/**
+	 * Returns the chosen encoding type.
+	 *
+	 * @return encoding type
+	 */
+	public EncodingType getEncodingType() {
+		return encodingType;
+	}
+
+	/**
+	 * Returns the count of decimal places if a text encoding was chosen.
+	 *
+	 * @return count of decimal places, -1 if no text encoding was chosen
+	 */
+	public int getDecimals() {
+		return decimals;
+	}
+
+	/**
+	 * Returns the maximum count of points of each line.
+	 *
+	 * @return maximum count of points, 0 if no point is dropped
+	 */
+	public int getPointThreshold() {
+		return pointThreshold;
+	}
+
+	/**
+	 * Returns the data scaling which was added to the chart for a text encoding
+	 * of values out of the default range from 0 to 100.
+	 *
+	 * @return the added data scaling, {@code null} if none was added
+	 */
+	public DataScalingSet getDataScaling() {
+		return dataScaling;
+	}
+
+	/**
+	 * Returns the parameters for a post request if the url does not fit into
+	 * the maximum length.
+	 *
+	 * @return post request parameters, {@code null} if the url fits
+	 * @see AbstractChart#getPostRequestParameters()
+	 */
+	public Map<String, String> getPostRequestParameters() {
+		return postRequestParameters;
+	}
+
+	@Override
+	public String toString() {
+		return "UrlBudget max: " + maxLength + " length: " + urlLength
+				+ " encoding: " + encodingType + " decimals: " + decimals
+				+ " points: " + pointThreshold + " scaled: " + (dataScaling != null)
+				+ " fitting: " + isFitting();
+	}
+
+}
@@ -0,0 +1,262 @@
+package de.toolforge.googlechartwrapper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import de.toolforge.googlechartwrapper.coder.EncodingType;
+
+/**
+ * Breakdown of the length of a chart url, see {@link AbstractChart#getUrlProfile()}.
+ * The url is split into its elements (one per prefix like chd, chm or chxl),
+ * each element lists the appenders which contributed to it and, for the chart
+ * data, the length of each data series. For charts whose encoder may be set
+ * ({@link de.toolforge.googlechartwrapper.interfaces.IEncodeable}) the length of
+ * the url with each encoding type is given as well. All lengths are counts of
+ * characters, which equal the bytes of the url.
+ *
+ * <p>
+ * Here are some examples of how UrlProfile can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * UrlProfile profile = lineChart.getUrlProfile();
+ * int markers = profile.getElement(&quot;chm&quot;).getLength();
+ * Integer simple = profile.getAlternativeLengths().get(EncodingType.SimpleEncoding);
+ * System.out.println(profile);
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see AbstractChart#getUrlProfile()
+ */
+public class UrlProfile {
+
+	private final int locationLength;
+	private final List<Element> elements;
+	private final EncodingType encodingType;
+	private final Map<EncodingType, Integer> alternativeLengths;
+
+	/**
+	 * Constructs a profile.
+	 *
+	 * @param locationLength length of the Chart API's location
+	 * @param elements elements in the order of the url
+	 * @param encodingType encoding type of the chart data, {@code null} if
+	 * the chart has no encoded data
+	 * @param alternativeLengths url length per encoding type
+	 */
+	UrlProfile(int locationLength, List<Element> elements,
+			EncodingType encodingType,
+			Map<EncodingType, Integer> alternativeLengths) {
+		this.locationLength = locationLength;
+		this.elements = Collections.unmodifiableList(elements);
+		this.encodingType = encodingType;
+		this.alternativeLengths = Collections.unmodifiableMap(alternativeLengths);
+	}
+
+	/**
+	 * Returns the length of the url.
+	 *
+	 * @return the location length plus the length of all elements
+	 */
+	public int getLength() {
+		int length = locationLength;
+		for (Element element : elements) {
+			length += element.getLength();
+		}
+		return length;
+	}
+
+	/**
+	 * Returns the length of the Chart API's location in front of the
+	 * parameters.
+	 *
+	 * @return length of the location
+	 */
+	public int getLocationLength() {
+		return locationLength;
+	}
+
+	/**
+	 * Returns the elements in the order of the url.
+	 *
+	 * @return unmodifiable list of elements
+	 */
+	public List<Element> getElements() {
+		return elements;
+	}
+
+	/**
+	 * Returns the element with the prefix.
+	 *
+	 * @param prefix prefix of the element, for example "chd"
+	 * @return the element or {@code null} if the url has no such element
+	 */
+	public Element getElement(String prefix) {
+		for (Element element : elements) {
+			if (element.getPrefix().equals(prefix)) {
+				return element;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the encoding type of the chart data, for example the type chosen
+	 * by the {@link de.toolforge.googlechartwrapper.coder.AutoEncoder}. Text
+	 * encoded data is reported as {@link EncodingType#TextEncoding}.
+	 *
+	 * @return the encoding type or {@code null} if the chart has no encoded
+	 * data
+	 */
+	public EncodingType getEncodingType() {
+		return encodingType;
+	}
+
+	/**
+	 * Returns the length the url would have with each encoding type, predicted
+	 * from the values of the chart data. A type is missing if it can not hold
+	 * the range of the values (simple 0 - 61, extended 0 - 4095, text 0 - 100).
+	 * The map is empty if the encoder of the chart can not be set.
+	 *
+	 * @return unmodifiable map of encoding types and url lengths
+	 */
+	public Map<EncodingType, Integer> getAlternativeLengths() {
+		return alternativeLengths;
+	}
+
+	/**
+	 * Returns a table of the elements, their sources and series and the
+	 * alternative lengths.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder();
+		text.append("url ").append(getLength()).append(" (location ").append(
+				locationLength).append(")\n");
+		for (Element element : elements) {
+			text.append("  ").append(element.getPrefix()).append(' ').append(
+					element.getLength()).append('\n');
+			for (Source source : element.getSources()) {
+				text.append("    ").append(source.getName()).append(' ').append(
+						source.getLength()).append('\n');
+			}
+			List<Integer> series = element.getSeriesLengths();
+			for (int i = 0; i < series.size(); i++) {
+				text.append("    series ").append(i).append(' ').append(
+						series.get(i)).append('\n');
+			}
+		}
+		if (encodingType != null) {
+			text.append("encoding ").append(encodingType).append('\n');
+		}
+		for (Map.Entry<EncodingType, Integer> entry : alternativeLengths
+				.entrySet()) {
+			text.append("  with ").append(entry.getKey()).append(' ').append(
+					entry.getValue()).append('\n');
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Element of the url with one prefix, for example
+	 * <code>&amp;chtt=title</code>.
+	 *
+	 * @author martin
+	 */
+	public static class Element {
+
+		private final String prefix;
+		private final int length;
+		private final List<Source> sources;
+		private final List<Integer> seriesLengths;
+
+		Element(String prefix, int length, List<Source> sources,
+				List<Integer> seriesLengths) {
+			this.prefix = prefix;
+			this.length = length;
+			this.sources = Collections.unmodifiableList(sources);
+			this.seriesLengths = Collections.unmodifiableList(seriesLengths);
+		}
+
+		/**
+		 * Returns the prefix of the element.
+		 *
+		 * @return the prefix, for example "chd"
+		 */
+		public String getPrefix() {
+			return prefix;
+		}
+
+		/**
+		 * Returns the length of the element including the separator in front
+		 * of it, the prefix and the =.
+		 *
+		 * @return length of the element
+		 */
+		public int getLength() {
+			return length;
+		}
+
+		/**
+		 * Returns the appenders which contributed to the element. The chart
+		 * type and size have no source.
+		 *
+		 * @return unmodifiable list of sources
+		 */
+		public List<Source> getSources() {
+			return sources;
+		}
+
+		/**
+		 * Returns the length of each encoded data series of the chart data,
+		 * without the separators between the series.
+		 *
+		 * @return unmodifiable list of lengths, empty if the element is no
+		 * chart data
+		 */
+		public List<Integer> getSeriesLengths() {
+			return seriesLengths;
+		}
+	}
+
+	/**
+	 * Contribution of an appender to an element.
+	 *
+	 * @author martin
+	 */
+	public static class Source {
+
+		private final String name;
+		private final int length;
+
+		Source(String name, int length) {
+			this.name = name;
+			this.length = length;
+		}
+
+		/**
+		 * Returns the name of the appender, the simple name of its class.
+		 *
+		 * @return name of the appender
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Returns the length of the features of the appender including the
+		 * separators between them.
+		 *
+		 * @return length of the features
+		 */
+		public int getLength() {
+			return length;
+		}
+	}
+
+}
@@ -128,6 +128,7 @@ public class VennDiagram extends AbstractChart implements ILinearable,
 	public VennDiagram(java.awt.Dimension awtChartDimension, VennDiagramData data) {
 		super(awtChartDimension);
 
+		this.vennDiagramAppender.setVennDiagrammData(data);
 	}
 	
 	/**
@@ -142,6 +143,7 @@ public class VennDiagram extends AbstractChart implements ILinearable,
 	public VennDiagram(Dimension chartDimension, VennDiagramData data) {
 		super(chartDimension);
 
+		this.vennDiagramAppender.setVennDiagrammData(data);
 	}
 
 	@Override
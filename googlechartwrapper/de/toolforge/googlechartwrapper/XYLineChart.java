@@ -125,6 +125,15 @@ public class XYLineChart extends AbstractLineChart implements IEncodeable {
 		this.xyLineChartDataAppender.removeAllXYLineChartData();
 	}
 
+	/**
+	 * Returns a unmodifiable list of all {@link XYLineChartData}.
+	 * 
+	 * @return unmodifiable list, empty if nothing was set
+	 */
+	public List<? extends XYLineChartData> getAllXYLineChartData() {
+		return this.xyLineChartDataAppender.getList();
+	}
+
 	@Override
 	protected ChartType getChartType() {
 
@@ -10,7 +10,10 @@ import java.util.List;
  * {@link AbstractEncoder#collectionEncode(float[])} and
  * {AbstractEncoder#collectionEncode(float[])} method. In the process, the
  * individual encoded strings are concated with the respective separator
- * provided as an argument or by default.
+ * provided as an argument or by default. Encoders which are able to write their
+ * data directly (see {@link IStreamingEncoder}) override
+ * {@link #appendEncoded(float[], StringBuilder)} and
+ * {@link #appendEncoded(int[], StringBuilder)}, so no string is built per dataset.
  * 
  * @author martin
  * @author steffan
@@ -99,18 +102,33 @@ public abstract class AbstractEncoder implements IEncoder {
 		StringBuilder builder = new StringBuilder(values.size() * 10);
 		builder.append(prefix);
 		for (float current[] : values) {
-			builder.append(collectionEncode(current));
+			appendEncoded(current, builder);
 			builder.append(separator);
 		}
-		//check if something is in the builder, before we use substring
+		//check if something is in the builder, before we cut the last separator
 		if (builder.length() > 0) {
-			return builder.substring(0, builder.length() - 1);
+			builder.setLength(builder.length() - 1);
+			return builder.toString();
 		}
 		//no value was in the builder
 		return "";
 		
 	}
 
+	/**
+	 * Appends the encoded value array without the encoder prefix to the builder.
+	 * The default implementation appends the string returned by
+	 * {@link #collectionEncode(float[])}.
+	 * 
+	 * @param values
+	 *            data to encode
+	 * @param builder
+	 *            destination of the encoded data
+	 */
+	protected void appendEncoded(float[] values, StringBuilder builder) {
+		builder.append(collectionEncode(values));
+	}
+
 	/**
 	 * Encodes the value array and returns the encoded data without the encoder
 	 * prefix.
@@ -151,17 +169,32 @@ public abstract class AbstractEncoder implements IEncoder {
 
 		builder.append(prefix);
 		for (int current[] : values) {
-			builder.append(collectionEncode(current));
+			appendEncoded(current, builder);
 			builder.append(sep);
 		}
-		//check if something is in the builder, before we use substring
+		//check if something is in the builder, before we cut the last separator
 		if (builder.length() > 0) {
-			return builder.substring(0, builder.length() - 1);
+			builder.setLength(builder.length() - 1);
+			return builder.toString();
 		}
 		//no value was in the builder
 		return "";
 	}
 
+	/**
+	 * Appends the encoded value array without the encoder prefix to the builder.
+	 * The default implementation appends the string returned by
+	 * {@link #collectionEncode(int[])}.
+	 * 
+	 * @param values
+	 *            data to encode
+	 * @param builder
+	 *            destination of the encoded data
+	 */
+	protected void appendEncoded(int[] values, StringBuilder builder) {
+		builder.append(collectionEncode(values));
+	}
+
 	/**
 	 * Encodes the value array and returns the encoded data without the encoder
 	 * prefix.
@@ -172,4 +205,34 @@ public abstract class AbstractEncoder implements IEncoder {
 	 */
 	protected abstract String collectionEncode(int[] values);
 
+	/**
+	 * Checks the array and the range.
+	 * @param array array to check
+	 * @param arrayLength length of the array
+	 * @param offset start of the range
+	 * @param length length of the range
+	 * @throws IllegalArgumentException if array is {@code null}
+	 * @throws IndexOutOfBoundsException if the range is out of the array bounds
+	 */
+	protected static void checkBounds(Object array, int arrayLength, int offset, int length) {
+		if (array == null) {
+			throw new IllegalArgumentException("array can not be null");
+		}
+		if (offset < 0 || length < 0 || offset > arrayLength - length) {
+			throw new IndexOutOfBoundsException("offset: " + offset + ", length: "
+					+ length + ", array length: " + arrayLength);
+		}
+	}
+
+	/**
+	 * Rounds the value, a missing value ({@link Float#NaN}) becomes -1, which
+	 * is out of range of the simple and extended encoding and so encoded as
+	 * missing value.
+	 * @param value value to round
+	 * @return rounded value
+	 */
+	static int round(float value) {
+		return value != value ? -1 : Math.round(value);
+	}
+
 }
@@ -2,6 +2,8 @@ package de.toolforge.googlechartwrapper.coder;
 
 import java.util.List;
 
+import de.toolforge.googlechartwrapper.data.SeriesStats;
+
 /**
  * The default encoder implementation switching between the different 
  * encoder variants (for example {@link SimpleEncoder}, {@link ExtendedEncoder}) 
@@ -10,21 +12,15 @@ import java.util.List;
  * this encoder. In regards to the implementation of the transformation of 
  * data into an encoded string the documentation of these encoders
  * should be consulted. 
+ * <p>The encoder does not store the chosen encoding type: it is determined
+ * on each call and passed on to the chosen encoder. Thus a single instance may be
+ * shared between threads.</p>
  * @author steffan
  * @author martin
  * @see EncoderFactory
  */
 public class AutoEncoder extends AbstractEncoder implements IEncoder {	
 
-	/**
-	 * The recommended encodingtype (lowest possible) by the {@link EncoderFactory}
-	 */
-	private EncodingType encodingType = null;
-	/**
-	 * is a single value array encoded or more datasets (-> list)
-	 */
-	private boolean isCollection = false;
-	
 	/**
 	 * Constructs a new AutoEncoder with no specific encoder prefix.
 	 */
@@ -33,100 +29,83 @@ public class AutoEncoder extends AbstractEncoder implements IEncoder {
 	}
 
 	public String encode(int[] values) {
-		if (encodingType == null){
-			encodingType = EncoderFactory.getSuggestedEncodingType(values);	
-		}
-		
-		IEncoder encoder = EncoderFactory.getEncoder(encodingType);	
-		String result = encoder.encode(values);
-				
-		if (!isCollection){
-			encodingType = null;
-		}
-		return result;
+		IEncoder encoder = EncoderFactory.getEncoder(
+				EncoderFactory.getSuggestedEncodingType(values));
+		return encoder.encode(values);
 	}
 
 	public String encode(float[] values) {
-		if (encodingType == null){
-			encodingType = EncoderFactory.getSuggestedEncodingType(values);	
-		}
-		
-		IEncoder encoder = EncoderFactory.getEncoder(encodingType);	
-		String result = encoder.encode(values);
-		
-		if (!isCollection){
-			encodingType = null;
-		}
-		return result;
+		IEncoder encoder = EncoderFactory.getEncoder(
+				EncoderFactory.getSuggestedEncodingType(values));
+		return encoder.encode(values);
 	}
 
 	@Override
 	public String encodeFloatCollection(List<float[]> values, String sep) {
-		EncodingType highest = EncodingType.SimpleEncoding;
-		for (int i = 0; i < values.size(); i++){
-			EncodingType temp = EncoderFactory.getSuggestedEncodingType(values.get(i));	
-			if(temp.getRank() > highest.getRank()){
-				highest = temp;
-			}			
-		}
-		encodingType = highest;
-		isCollection = true;
-		
-		final IEncoder encoder = EncoderFactory.getEncoder(encodingType);
-		final String s = encoder.encodeFloatCollection(values);
-		
-		encodingType = null;
-		isCollection = false;
-		return s;
+		final IEncoder encoder = EncoderFactory.getEncoder(
+				EncoderFactory.getSuggestedFloatCollectionEncodingType(values));
+		return encoder.encodeFloatCollection(values);
+	}
+
+	/**
+	 * Encodes the collection like {@link #encodeFloatCollection(List, String)}, 
+	 * but determines the encoding type from the given statistics of all 
+	 * values instead of scanning the values again.
+	 * @param values value list (!= null)
+	 * @param stats statistics of all values of the list
+	 * @return encoded string
+	 * @see SeriesStats#combine(SeriesStats)
+	 */
+	public String encodeFloatCollection(List<float[]> values, SeriesStats stats) {
+		final IEncoder encoder = EncoderFactory.getEncoder(
+				EncoderFactory.getSuggestedEncodingType(stats));
+		return encoder.encodeFloatCollection(values);
 	}
 	
 	@Override
 	public String encodeIntegerCollection(List<int[]> values, String sep) {
-		EncodingType highest = EncodingType.SimpleEncoding;
-		for (int i = 0; i < values.size(); i++){
-			EncodingType temp = EncoderFactory.getSuggestedEncodingType(values.get(i));	
-			if(temp.getRank() > highest.getRank()){
-				highest = temp;
-			}	
-		}
-		encodingType = highest;
-		isCollection = true;
-		
-		final IEncoder encoder = EncoderFactory.getEncoder(encodingType);
-		final String s = encoder.encodeIntegerCollection(values);
-		
-		encodingType = null;
-		isCollection = false;
-		return  s;
+		final IEncoder encoder = EncoderFactory.getEncoder(
+				EncoderFactory.getSuggestedIntegerCollectionEncodingType(values));
+		return  encoder.encodeIntegerCollection(values);
 	}
 
 	@Override
 	protected String collectionEncode(float[] values) {
-		String s = encode(values);
-		if (s.length()>=encodingType.getCompletePrefix().length()){
-			return s.substring(encodingType.getCompletePrefix().length());
+		EncodingType encodingType = EncoderFactory.getSuggestedEncodingType(values);
+		IEncoder encoder = EncoderFactory.getEncoder(encodingType);
+		if ((encoder instanceof AbstractEncoder)){
+			return ((AbstractEncoder)encoder).collectionEncode(values);
 		}
 		else {
-			return s;
+			return withoutPrefix(encoder.encode(values), encodingType);
 		}
 	}
 
 	@Override
 	protected String collectionEncode(int[] values) {
+		EncodingType encodingType = EncoderFactory.getSuggestedEncodingType(values);
 		IEncoder encoder = EncoderFactory.getEncoder(encodingType);
-		if ((encoder instanceof AbstractEncoder)){ 
-			//Maintainability: should we discourage that? 
+		if ((encoder instanceof AbstractEncoder)){
+			//Maintainability: should we discourage that?
 			return ((AbstractEncoder)encoder).collectionEncode(values);
 		}
 		else {
-			String s = encode(values);
-			if (s.length()>=encodingType.getCompletePrefix().length()){
-				return s.substring(encodingType.getCompletePrefix().length());
-			}
-			else {
-				return s;
-			}
+			return withoutPrefix(encoder.encode(values), encodingType);
+		}
+	}
+
+	/**
+	 * Removes the complete prefix of the encoding type from the encoded string.
+	 * @param s encoded string
+	 * @param encodingType type which was used to encode the string
+	 * @return encoded string without prefix
+	 */
+	private static String withoutPrefix(String s, EncodingType encodingType) {
+		if (s.length()>=encodingType.getCompletePrefix().length()){
+			return s.substring(encodingType.getCompletePrefix().length());
+		}
+		else {
+			return s;
 		}
-		
 	}
 }
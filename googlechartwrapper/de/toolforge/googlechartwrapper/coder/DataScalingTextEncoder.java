@@ -10,6 +10,21 @@ public class DataScalingTextEncoder extends AbstractEncoder implements IEncoder{
 	 */
 	private static final EncodingType TYPE = EncodingType.TextEncodingWithDataScaling;
 	
+	/**
+	 * maximum count of decimal places
+	 */
+	public static final int MAX_DECIMALS = 6;
+	
+	/**
+	 * powers of ten for the decimal places
+	 */
+	private static final long[] POWERS = {1, 10, 100, 1000, 10000, 100000, 1000000};
+	
+	/**
+	 * count of decimal places, -1 if the values are written like {@link Float#toString(float)}
+	 */
+	private final int decimals;
+	
 	/*public DataScalingTextEncoder (GenericAppender<DataScalingSet> scales){
 		super(TYPE);
 		this.scales = scales;
@@ -17,6 +32,30 @@ public class DataScalingTextEncoder extends AbstractEncoder implements IEncoder{
 
 	public DataScalingTextEncoder() {
 		super(TYPE);
+		this.decimals = -1;
+	}
+	
+	/**
+	 * Constructs an encoder which rounds the values to the given count of 
+	 * decimal places. Trailing zeros are not written, so 20.0 becomes 20. A 
+	 * missing value ({@link Float#NaN}) is written as -1.
+	 * @param decimals count of decimal places (0 - {@link #MAX_DECIMALS})
+	 * @throws IllegalArgumentException if decimals is out of range
+	 */
+	public DataScalingTextEncoder(int decimals) {
+		super(TYPE);
+		if (decimals < 0 || decimals > MAX_DECIMALS){
+			throw new IllegalArgumentException("decimals must be between 0 and "+MAX_DECIMALS);
+		}
+		this.decimals = decimals;
+	}
+	
+	/**
+	 * Returns the count of decimal places the values are rounded to.
+	 * @return count of decimal places, -1 if the values are not rounded
+	 */
+	public int getDecimals() {
+		return decimals;
 	}
 
 	/*
@@ -44,13 +83,93 @@ public class DataScalingTextEncoder extends AbstractEncoder implements IEncoder{
 			return "";
 		}
 		
-		StringBuffer bf = new StringBuffer();
+		StringBuilder bf = new StringBuilder(values.length * 5);
 		for (float t: values){
-			bf.append((t));
+			if (t != t){ // NaN
+				bf.append("-1");
+			}
+			else if (decimals < 0){
+				bf.append((t));
+			}
+			else {
+				appendValue(t, decimals, bf);
+			}
 			bf.append(",");
 		}
 		return bf.substring(0, bf.length()-1);
 	}
+	
+	/**
+	 * Appends the value rounded to the count of decimal places without
+	 * trailing zeros.
+	 */
+	private static void appendValue(float value, int decimals, StringBuilder bf){
+		if (value != value){ // NaN
+			bf.append("-1");
+			return;
+		}
+		long scaled = Math.round((double) value * POWERS[decimals]);
+		if (scaled < 0){
+			bf.append('-');
+			scaled = -scaled;
+		}
+		bf.append(scaled / POWERS[decimals]);
+		long fraction = scaled % POWERS[decimals];
+		if (fraction != 0){
+			int digits = decimals;
+			while (fraction % 10 == 0){
+				fraction /= 10;
+				digits--;
+			}
+			bf.append('.');
+			for (int i = digits - 1; i > 0 && fraction < POWERS[i]; i--){
+				bf.append('0');
+			}
+			bf.append(fraction);
+		}
+	}
+	
+	/**
+	 * Returns the count of characters {@link #appendValue(float, int, StringBuilder)}
+	 * writes for the value, without writing it.
+	 * @param value value to encode
+	 * @param decimals count of decimal places
+	 * @return count of characters of the encoded value
+	 */
+	static int getEncodedLength(float value, int decimals){
+		if (value != value){ // NaN
+			return 2;
+		}
+		long scaled = Math.round((double) value * POWERS[decimals]);
+		int length = 0;
+		if (scaled < 0){
+			length++;
+			scaled = -scaled;
+		}
+		length += digitCount(scaled / POWERS[decimals]);
+		long fraction = scaled % POWERS[decimals];
+		if (fraction != 0){
+			int digits = decimals;
+			while (fraction % 10 == 0){
+				fraction /= 10;
+				digits--;
+			}
+			length += 1 + digits;
+		}
+		return length;
+	}
+	
+	/**
+	 * Returns the count of decimal digits of a value &gt;= 0.
+	 */
+	private static int digitCount(long value){
+		int count = 1;
+		while (value >= 10){
+			value /= 10;
+			count++;
+		}
+		return count;
+	}
 
 	@Override
 	protected String collectionEncode(int[] values) {
@@ -58,7 +177,7 @@ public class DataScalingTextEncoder extends AbstractEncoder implements IEncoder{
 			return "";
 		}
 		
-		StringBuffer bf = new StringBuffer();
+		StringBuilder bf = new StringBuilder(values.length * 5);
 		for (int t: values){
 			bf.append((t));
 			bf.append(",");
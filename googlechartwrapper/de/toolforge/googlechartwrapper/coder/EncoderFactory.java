@@ -1,14 +1,23 @@
 package de.toolforge.googlechartwrapper.coder;
 
-import de.toolforge.googlechartwrapper.util.ArrayUtils;
+import java.util.List;
+
+import de.toolforge.googlechartwrapper.data.SeriesStats;
 
 /**
  * A factory for default-encoders, also providing convenient method to determine 
  * the appropriate encoder based on the dataset range. 
+ * The default encoders do not keep any state, so the same instance is 
+ * returned by {@link #getEncoder(EncodingType)} for each call and may be shared 
+ * between threads.
  * @author martin
  *
  */
 public class EncoderFactory {
+
+	private static final IEncoder SIMPLE_ENCODER = new SimpleEncoder();
+	private static final IEncoder EXTENDED_ENCODER = new ExtendedEncoder();
+	private static final IEncoder TEXT_ENCODER = new DataScalingTextEncoder();
 	
 	/**
 	 * Determines the best matching encoder for a given dataset while aiming for 
@@ -32,19 +41,7 @@ public class EncoderFactory {
 	 * @return the best matching type based on a simple analysis of the values
 	 */
 	public static EncodingType getSuggestedEncodingType (int[] values){
-		int max = ArrayUtils.maxValue(values); 
-		//to simple, should check for min value
-		//further: check for scaling method without loosing accuracy and/or
-		//a configurable ammount of accuracy loss. (martin)
-		if (max < 62){
-			return EncodingType.SimpleEncoding;
-		}
-		else if (max < 4096){
-			return EncodingType.ExtendedEncoding;
-		}
-		else {
-			return EncodingType.TextEncoding;
-		}
+		return getSuggestedEncodingType(SeriesStats.of(values));
 	}
 	
 	/**
@@ -71,7 +68,28 @@ public class EncoderFactory {
 	 * @see #getSuggestedEncodingType(int[])
 	 */
 	public static EncodingType getSuggestedEncodingType (float[] values){
-		float max = ArrayUtils.maxValue(values); 
+		return getSuggestedEncodingType(SeriesStats.of(values));
+	}
+	
+	/**
+	 * Determines the best matching encoder for a dataset based on its 
+	 * statistics, e.g. statistics which were computed before and cached with 
+	 * the dataset. Only the maximum value is regarded, see 
+	 * {@link #getSuggestedEncodingType(int[])}. If the dataset does not contain any
+	 * value, {@link EncodingType#SimpleEncoding} is returned.
+	 * 
+	 * @param stats statistics of the values
+	 * @return the best matching type based on the maximum value
+	 * @throws IllegalArgumentException if stats == null
+	 */
+	public static EncodingType getSuggestedEncodingType (SeriesStats stats){
+		if (stats == null){
+			throw new IllegalArgumentException("stats can not be null");
+		}
+		if (stats.getValueCount() == 0){
+			return EncodingType.SimpleEncoding;
+		}
+		float max = stats.getMax(); 
 		//to simple, should check for min value
 		//further: check for scaling method without loosing accuracy and/or
 		//a configurable ammount of accuracy loss. (martin)
@@ -86,8 +104,47 @@ public class EncoderFactory {
 		}
 	}
 	
+	/**
+	 * Determines the encoding type which is able to encode each dataset of the
+	 * collection, so the type with the highest rank of the types suggested by
+	 * {@link #getSuggestedEncodingType(float[])} for the individual datasets.
+	 * @param values datasets to check
+	 * @return the best matching type for all datasets
+	 */
+	public static EncodingType getSuggestedFloatCollectionEncodingType (
+			List<float[]> values){
+		EncodingType highest = EncodingType.SimpleEncoding;
+		for (int i = 0; i < values.size(); i++){
+			EncodingType temp = getSuggestedEncodingType(values.get(i));	
+			if(temp.getRank() > highest.getRank()){
+				highest = temp;
+			}			
+		}
+		return highest;
+	}
+	
+	/**
+	 * Determines the encoding type which is able to encode each dataset of the
+	 * collection, so the type with the highest rank of the types suggested by
+	 * {@link #getSuggestedEncodingType(int[])} for the individual datasets.
+	 * @param values datasets to check
+	 * @return the best matching type for all datasets
+	 */
+	public static EncodingType getSuggestedIntegerCollectionEncodingType (
+			List<int[]> values){
+		EncodingType highest = EncodingType.SimpleEncoding;
+		for (int i = 0; i < values.size(); i++){
+			EncodingType temp = getSuggestedEncodingType(values.get(i));	
+			if(temp.getRank() > highest.getRank()){
+				highest = temp;
+			}			
+		}
+		return highest;
+	}
+	
 	/**
 	 * Returns the default encoder implementation for each {@link EncodingType}.
+	 * The returned encoders are shared instances.
 	 * @param type type of encoder
 	 * @return matching type
 	 * @throws IllegalArgumentException if type == null
@@ -97,10 +154,74 @@ public class EncoderFactory {
 			throw new IllegalArgumentException("type must not be null");
 		}
 		switch (type){
-		case SimpleEncoding: return new SimpleEncoder();
-		case ExtendedEncoding: return new ExtendedEncoder();
-		default: return new DataScalingTextEncoder();
+		case SimpleEncoding: return SIMPLE_ENCODER;
+		case ExtendedEncoding: return EXTENDED_ENCODER;
+		default: return TEXT_ENCODER;
 		}
 	}
 
+	/**
+	 * Returns the length of the string the encoder of the type returns for
+	 * the collection by {@link IEncoder#encodeFloatCollection(List)}, without
+	 * encoding the values. The length of {@link EncodingType#SimpleEncoding} and
+	 * {@link EncodingType#ExtendedEncoding} only depends on the count of values,
+	 * because each value (also a missing value) is written with a fixed count
+	 * of characters.
+	 * @param type {@link EncodingType#SimpleEncoding} or {@link EncodingType#ExtendedEncoding}
+	 * @param values datasets to encode
+	 * @return length of the encoded string including the prefix
+	 * @throws IllegalArgumentException if type is a text encoding or values == null
+	 * @see #getTextEncodedLength(List, int)
+	 */
+	public static int getEncodedLength (EncodingType type, List<float[]> values){
+		if (values == null){
+			throw new IllegalArgumentException("values can not be null");
+		}
+		int width;
+		if (type == EncodingType.SimpleEncoding){
+			width = 1;
+		}
+		else if (type == EncodingType.ExtendedEncoding){
+			width = 2;
+		}
+		else {
+			throw new IllegalArgumentException("type must be simple or extended encoding");
+		}
+		int length = type.getCompletePrefix().length();
+		for (int i = 0; i < values.size(); i++){
+			length += values.get(i).length * width + 1;
+		}
+		//the last separator (or the last prefix character if there is no dataset) is cut
+		return length - 1;
+	}
+	
+	/**
+	 * Returns the length of the string a {@link DataScalingTextEncoder} with 
+	 * the given count of decimal places returns for the collection, without
+	 * building the string. 
+	 * @param values datasets to encode
+	 * @param decimals count of decimal places
+	 * @return length of the encoded string including the prefix
+	 * @throws IllegalArgumentException if values == null or decimals is out of range
+	 * @see DataScalingTextEncoder#DataScalingTextEncoder(int)
+	 */
+	public static int getTextEncodedLength (List<float[]> values, int decimals){
+		if (values == null){
+			throw new IllegalArgumentException("values can not be null");
+		}
+		if (decimals < 0 || decimals > DataScalingTextEncoder.MAX_DECIMALS){
+			throw new IllegalArgumentException("decimals must be between 0 and "
+					+DataScalingTextEncoder.MAX_DECIMALS);
+		}
+		int length = EncodingType.TextEncodingWithDataScaling.getCompletePrefix().length();
+		for (int i = 0; i < values.size(); i++){
+			float[] current = values.get(i);
+			for (int j = 0; j < current.length; j++){
+				length += DataScalingTextEncoder.getEncodedLength(current[j], decimals);
+			}
+			//value separators and the dataset separator
+			length += current.length > 0 ? current.length : 1;
+		}
+		return length - 1;
+	}
 }
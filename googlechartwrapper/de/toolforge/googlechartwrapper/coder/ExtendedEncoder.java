@@ -1,5 +1,7 @@
 package de.toolforge.googlechartwrapper.coder;
 
+import java.io.IOException;
+
 /**
  * Class implementing the encoding of data which provide a 
  * resolution of 4096 different values (between 0 and 4095). 
@@ -13,9 +15,17 @@ package de.toolforge.googlechartwrapper.coder;
  * @author martin
  *
  */
-public class ExtendedEncoder extends AbstractEncoder implements IEncoder {
+public class ExtendedEncoder extends AbstractEncoder implements IStreamingEncoder {
 
-	private static String MISSING_VALUE = "__";
+	/**
+	 * character for values out of range, each missing value is written twice ("__")
+	 */
+	private static final char MISSING_VALUE = '_';
+	
+	/**
+	 * count of different values (64 * 64)
+	 */
+	private static final int VALUE_COUNT = 4096;
 	
 	/**
 	 * all possible chars for the extended encoding
@@ -27,26 +37,11 @@ public class ExtendedEncoder extends AbstractEncoder implements IEncoder {
 		'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z', '0', '1', '2', '3',
 		'4', '5', '6', '7', '8', '9', '-', '.' };
 
-	/**
-	 * resulting pairs of characters for each value between 0 and 4095
-	 */
-	private static final String[] extendedEncoding = new String[4096];	
-	
 	/**
 	 * associated enum type of the encoder.
 	 */
 	private static final EncodingType TYPE = EncodingType.ExtendedEncoding;
 
-	static { // Fill the encoding arrays in static block.
-		int cnt = 0;
-		for (int i = 0; i < extendedEncodingChars.length; i++) {
-			for (int j = 0; j < extendedEncodingChars.length; j++) {
-				extendedEncoding[cnt++] = extendedEncodingChars[i] + ""
-						+ extendedEncodingChars[j];
-			}
-		}
-	}
-	
 	/**
 	 * Constructs a new ExtendedEncoder which provides a resolution of 
 	 * 4,096 different values.
@@ -76,13 +71,9 @@ public class ExtendedEncoder extends AbstractEncoder implements IEncoder {
 			return "";
 		}
 
-		final StringBuilder encodedData = new StringBuilder();
-		for (int current : values) {
-			encodedData.append((current < 0 || current > 
-				(extendedEncoding.length - 1)) ? MISSING_VALUE
-							: extendedEncoding[current]);
-		}
-		return encodedData.toString();
+		final char[] encodedData = new char[getMaxEncodedLength(values.length)];
+		encodeTo(values, 0, values.length, encodedData, 0);
+		return new String(encodedData);
 	}
 		
 
@@ -109,14 +100,125 @@ public class ExtendedEncoder extends AbstractEncoder implements IEncoder {
 			return "";
 		}
 
-		final StringBuilder encodedData = new StringBuilder();
-		for (float cur : values) {
-			int current = Math.round(cur);
-			encodedData.append((current < 0 || current > 
-				(extendedEncoding.length - 1)) ? MISSING_VALUE
-							: extendedEncoding[current]);
+		final char[] encodedData = new char[getMaxEncodedLength(values.length)];
+		encodeTo(values, 0, values.length, encodedData, 0);
+		return new String(encodedData);
+	}
+
+	@Override
+	protected void appendEncoded(int[] values, StringBuilder builder) {
+		if (values != null) {
+			builder.ensureCapacity(builder.length() + getMaxEncodedLength(values.length) + 1);
+			try {
+				encodeTo(values, 0, values.length, builder);
+			}
+			catch (IOException e) {
+				throw new RuntimeException(e); //not thrown by StringBuilder
+			}
+		}
+	}
+
+	@Override
+	protected void appendEncoded(float[] values, StringBuilder builder) {
+		if (values != null) {
+			builder.ensureCapacity(builder.length() + getMaxEncodedLength(values.length) + 1);
+			try {
+				encodeTo(values, 0, values.length, builder);
+			}
+			catch (IOException e) {
+				throw new RuntimeException(e); //not thrown by StringBuilder
+			}
+		}
+	}
+
+	/**
+	 * Each value is encoded with exactly two characters.
+	 */
+	public int getMaxEncodedLength(int count) {
+		return count * 2;
+	}
+
+	public void encodeTo(float[] values, int offset, int length, Appendable out)
+			throws IOException {
+		checkBounds(values, values == null ? 0 : values.length, offset, length);
+		if (out == null) {
+			throw new IllegalArgumentException("out can not be null");
+		}
+		for (int i = offset; i < offset + length; i++) {
+			appendValue(round(values[i]), out);
+		}
+	}
+
+	public void encodeTo(int[] values, int offset, int length, Appendable out)
+			throws IOException {
+		checkBounds(values, values == null ? 0 : values.length, offset, length);
+		if (out == null) {
+			throw new IllegalArgumentException("out can not be null");
+		}
+		for (int i = offset; i < offset + length; i++) {
+			appendValue(values[i], out);
+		}
+	}
+
+	public int encodeTo(float[] values, int offset, int length, char[] dst,
+			int dstOffset) {
+		checkBounds(values, values == null ? 0 : values.length, offset, length);
+		checkBounds(dst, dst == null ? 0 : dst.length, dstOffset,
+				getMaxEncodedLength(length));
+		int pos = dstOffset;
+		for (int i = offset; i < offset + length; i++) {
+			pos = writeValue(round(values[i]), dst, pos);
+		}
+		return pos - dstOffset;
+	}
+
+	public int encodeTo(int[] values, int offset, int length, char[] dst,
+			int dstOffset) {
+		checkBounds(values, values == null ? 0 : values.length, offset, length);
+		checkBounds(dst, dst == null ? 0 : dst.length, dstOffset,
+				getMaxEncodedLength(length));
+		int pos = dstOffset;
+		for (int i = offset; i < offset + length; i++) {
+			pos = writeValue(values[i], dst, pos);
+		}
+		return pos - dstOffset;
+	}
+
+	/**
+	 * Writes the pair of characters for the value into the array. The first
+	 * character represents the upper 6 bits, the second the lower 6 bits.
+	 * @param value value to encode
+	 * @param dst destination
+	 * @param pos index of the first character
+	 * @return index after the written characters
+	 */
+	private static int writeValue(int value, char[] dst, int pos) {
+		if (value < 0 || value > (VALUE_COUNT - 1)) {
+			dst[pos] = MISSING_VALUE;
+			dst[pos + 1] = MISSING_VALUE;
+		}
+		else {
+			dst[pos] = extendedEncodingChars[value >> 6];
+			dst[pos + 1] = extendedEncodingChars[value & 63];
+		}
+		return pos + 2;
+	}
+
+	/**
+	 * Appends the pair of characters for the value.
+	 * @param value value to encode
+	 * @param out destination
+	 * @throws IOException if out throws an IOException
+	 */
+	private static void appendValue(int value, Appendable out) throws IOException {
+		if (value < 0 || value > (VALUE_COUNT - 1)) {
+			out.append(MISSING_VALUE);
+			out.append(MISSING_VALUE);
+		}
+		else {
+			out.append(extendedEncodingChars[value >> 6]);
+			out.append(extendedEncodingChars[value & 63]);
 		}
-		return encodedData.toString();
 	}
 
 }
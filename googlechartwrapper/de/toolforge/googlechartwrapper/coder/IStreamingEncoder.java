@@ -0,0 +1,86 @@
+package de.toolforge.googlechartwrapper.coder;
+
+import java.io.IOException;
+
+/**
+ * Extension of the {@link IEncoder} for encoders which are able to write the
+ * encoded data directly into a destination instead of returning a new string.
+ * The encoded data is written without the {@link EncodingType#getCompletePrefix()},
+ * so several datasets may be written one after another. Implementations do
+ * not allocate any objects per value or per dataset.
+ *
+ * @author martin
+ * @see SimpleEncoder
+ * @see ExtendedEncoder
+ */
+public interface IStreamingEncoder extends IEncoder {
+
+	/**
+	 * Returns the maximum count of characters which are written for the given
+	 * count of values.
+	 * @param count count of values
+	 * @return maximum count of encoded characters
+	 */
+	public int getMaxEncodedLength(int count);
+
+	/**
+	 * Appends the encoded values (without prefix) to the appendable.
+	 * @param values array of values
+	 * @param offset index of the first value to encode
+	 * @param length count of values to encode
+	 * @param out destination of the encoded data
+	 * @throws IOException if out throws an IOException
+	 * @throws IllegalArgumentException if values or out is {@code null}
+	 * @throws IndexOutOfBoundsException if offset or length are out of the array bounds
+	 */
+	public void encodeTo(float[] values, int offset, int length, Appendable out)
+		throws IOException;
+
+	/**
+	 * Appends the encoded values (without prefix) to the appendable.
+	 * @param values array of values
+	 * @param offset index of the first value to encode
+	 * @param length count of values to encode
+	 * @param out destination of the encoded data
+	 * @throws IOException if out throws an IOException
+	 * @throws IllegalArgumentException if values or out is {@code null}
+	 * @throws IndexOutOfBoundsException if offset or length are out of the array bounds
+	 */
+	public void encodeTo(int[] values, int offset, int length, Appendable out)
+		throws IOException;
+
+	/**
+	 * Writes the encoded values (without prefix) into the char array. The array
+	 * must provide space for {@link #getMaxEncodedLength(int)} characters starting
+	 * at dstOffset.
+	 * @param values array of values
+	 * @param offset index of the first value to encode
+	 * @param length count of values to encode
+	 * @param dst destination of the encoded data
+	 * @param dstOffset index of the first character to write
+	 * @return count of written characters
+	 * @throws IllegalArgumentException if values or dst is {@code null}
+	 * @throws IndexOutOfBoundsException if the values or the destination are
+	 * out of the array bounds
+	 */
+	public int encodeTo(float[] values, int offset, int length, char[] dst,
+			int dstOffset);
+
+	/**
+	 * Writes the encoded values (without prefix) into the char array. The array
+	 * must provide space for {@link #getMaxEncodedLength(int)} characters starting
+	 * at dstOffset.
+	 * @param values array of values
+	 * @param offset index of the first value to encode
+	 * @param length count of values to encode
+	 * @param dst destination of the encoded data
+	 * @param dstOffset index of the first character to write
+	 * @return count of written characters
+	 * @throws IllegalArgumentException if values or dst is {@code null}
+	 * @throws IndexOutOfBoundsException if the values or the destination are
+	 * out of the array bounds
+	 */
+	public int encodeTo(int[] values, int offset, int length, char[] dst,
+			int dstOffset);
+
+}
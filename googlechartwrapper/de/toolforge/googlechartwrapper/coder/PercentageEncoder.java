@@ -1,10 +1,9 @@
 package de.toolforge.googlechartwrapper.coder;
 
 
-import java.util.ArrayList;
 import java.util.List;
 
-import de.toolforge.googlechartwrapper.util.ArrayUtils;
+import de.toolforge.googlechartwrapper.data.SeriesStats;
 
 /**
  * option 1: greatest value equals 100
@@ -19,41 +18,105 @@ import de.toolforge.googlechartwrapper.util.ArrayUtils;
 //3 independent with his OWN max)
 public class PercentageEncoder implements IEncoder {
 
+	/**
+	 * count of values which are scaled and encoded at once
+	 */
+	private static final int CHUNK_SIZE = 1024;
+
 	public String encodeIntegerCollection(List<int[]> values) {
 		return encodeIntegerCollection(values,",");		
 	}
 
 	public String encodeIntegerCollection(List<int[]> values, String sep) {
-		int max = Integer.MIN_VALUE;
+		int[] lengths = new int[values.size()];
+		for (int i = 0; i < lengths.length; i++){
+			lengths[i] = values.get(i).length;
+		}
+		return encodeRanges(values, lengths, sep);
+	}
+
+	/**
+	 * Encodes the first values of each array, the arrays may be longer (e.g.
+	 * columns with spare capacity). The values are scaled together like by
+	 * {@link #encodeIntegerCollection(List, String)}.
+	 *
+	 * @param values arrays of values
+	 * @param length count of values to encode of each array
+	 * @param sep separator of the datasets
+	 * @return encoded string
+	 *
+	 * @throws IllegalArgumentException if an array has less than length values
+	 */
+	public String encodeIntegerCollection(List<int[]> values, int length, String sep) {
+		int[] lengths = new int[values.size()];
+		for (int i = 0; i < lengths.length; i++){
+			if (length < 0 || values.get(i).length < length)
+				throw new IllegalArgumentException("length must be in the array bounds");
+			lengths[i] = length;
+		}
+		return encodeRanges(values, lengths, sep);
+	}
+
+	private String encodeRanges(List<int[]> values, int[] lengths, String sep) {
+		SeriesStats stats = SeriesStats.EMPTY;
 		for (int i = 0; i < values.size(); i++){
-			int temp = ArrayUtils.maxValue(values.get(i));
-			if (temp > max){
-				max = temp;
-			}
+			stats = stats.combine(SeriesStats.of(values.get(i), 0, lengths[i]));
 		}
+		int max = maxValue(stats);
 		
-		List<int[]> newValues = new ArrayList<int[]>(values.size());
-		for (int i = 0; i < values.size(); i++){			
-			newValues.add(scaleValues(max, values.get(i)));
+		//the values are scaled chunk by chunk and streamed into the builder,
+		//so no scaled copy of a dataset is made
+		IStreamingEncoder e = (IStreamingEncoder) EncoderFactory.getEncoder(
+				EncodingType.ExtendedEncoding);
+		int[] scaled = new int[CHUNK_SIZE];
+		char[] encoded = new char[e.getMaxEncodedLength(CHUNK_SIZE)];
+		int length = 0;
+		for (int i = 0; i < values.size(); i++){
+			length += e.getMaxEncodedLength(lengths[i]) + sep.length();
+		}
+		StringBuilder builder = new StringBuilder(length + 2);
+		builder.append(EncodingType.ExtendedEncoding.getCompletePrefix());
+		for (int i = 0; i < values.size(); i++){
+			int[] current = values.get(i);
+			for (int offset = 0; offset < lengths[i]; offset += CHUNK_SIZE){
+				int count = Math.min(CHUNK_SIZE, lengths[i] - offset);
+				for (int j = 0; j < count; j++){
+					scaled[j] = scaleValue(max, current[offset + j]);
+				}
+				builder.append(encoded, 0, e.encodeTo(scaled, 0, count, encoded, 0));
+			}
+			builder.append(sep);
 		}
-		ExtendedEncoder e = new ExtendedEncoder();
-		return e.encodeIntegerCollection(newValues,sep);
+		//the last separator (or the colon of the prefix) is cut like by the
+		//extended encoder
+		builder.setLength(builder.length() - 1);
+		return builder.toString();
+	}
+	
+	/**
+	 * Returns the greatest value, {@link Integer#MIN_VALUE} if there is no value.
+	 */
+	private static int maxValue (SeriesStats stats){
+		return stats.getValueCount() > 0 ? (int) stats.getMax() : Integer.MIN_VALUE;
 	}
 	
 	private int[] scaleValues (int max, int[] values){
 		int newValues[] = new int[values.length];
 		
 		for (int i = 0; i < newValues.length; i++){
-			float multp = (float)values[i]/(float)max;
-			int realValue = Math.round( (4095*multp));
-			newValues[i] = realValue;
+			newValues[i] = scaleValue(max, values[i]);
 		}
 		return newValues;
 	}
+	
+	private static int scaleValue (int max, int value){
+		float multp = (float)value/(float)max;
+		return Math.round( (4095*multp));
+	}
 
 	public String encode(int[] values) {		
-		ExtendedEncoder e = new ExtendedEncoder();
-		return e.encode(scaleValues(ArrayUtils.maxValue(values), values));
+		IEncoder e = EncoderFactory.getEncoder(EncodingType.ExtendedEncoding);
+		return e.encode(scaleValues(maxValue(SeriesStats.of(values)), values));
 	}
 
 	public String encode(float[] values) {
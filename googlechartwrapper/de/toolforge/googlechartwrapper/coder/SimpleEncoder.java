@@ -1,5 +1,7 @@
 package de.toolforge.googlechartwrapper.coder;
 
+import java.io.IOException;
+
 /**
  * Simple encoding uses the alphanumeric characters (A to Z, a to z, and 0 to 9) 
  * where A represents 0, B represents 1, and so on up to 9 which represents 61,
@@ -11,7 +13,7 @@ package de.toolforge.googlechartwrapper.coder;
  * @author steffan
  *
  */
-public class SimpleEncoder extends AbstractEncoder implements IEncoder{
+public class SimpleEncoder extends AbstractEncoder implements IStreamingEncoder{
 	
 	/**
 	 * all characters for simple encoding
@@ -23,6 +25,11 @@ public class SimpleEncoder extends AbstractEncoder implements IEncoder{
 		'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z', '0', '1', '2', '3',
 		'4', '5', '6', '7', '8', '9' };
 	
+	/**
+	 * character for values out of range
+	 */
+	private static final char MISSING_VALUE = '_';
+	
 	/**
 	 * type of the encoder
 	 */
@@ -56,12 +63,9 @@ public class SimpleEncoder extends AbstractEncoder implements IEncoder{
 			return "";
 		}
 
-		final StringBuilder encodedData = new StringBuilder();
-		for (int current : values) {
-			encodedData.append((current < 0 || current > (simpleEncodingChars.length - 1)) ? "_"
-							: simpleEncodingChars[current]);
-		}
-		return encodedData.toString();
+		final char[] encodedData = new char[values.length];
+		encodeTo(values, 0, values.length, encodedData, 0);
+		return new String(encodedData);
 	}
 	
 	/**
@@ -85,13 +89,95 @@ public class SimpleEncoder extends AbstractEncoder implements IEncoder{
 			return "";
 		}
 
-		final StringBuilder encodedData = new StringBuilder();
-		for (float cur : values) {
-			int current = Math.round(cur);
-			encodedData.append((current < 0 || current > (simpleEncodingChars.length - 1)) ? "_"
-							: simpleEncodingChars[current]);
+		final char[] encodedData = new char[values.length];
+		encodeTo(values, 0, values.length, encodedData, 0);
+		return new String(encodedData);
+	}
+
+	@Override
+	protected void appendEncoded(int[] values, StringBuilder builder) {
+		if (values != null) {
+			builder.ensureCapacity(builder.length() + getMaxEncodedLength(values.length) + 1);
+			try {
+				encodeTo(values, 0, values.length, builder);
+			}
+			catch (IOException e) {
+				throw new RuntimeException(e); //not thrown by StringBuilder
+			}
+		}
+	}
+
+	@Override
+	protected void appendEncoded(float[] values, StringBuilder builder) {
+		if (values != null) {
+			builder.ensureCapacity(builder.length() + getMaxEncodedLength(values.length) + 1);
+			try {
+				encodeTo(values, 0, values.length, builder);
+			}
+			catch (IOException e) {
+				throw new RuntimeException(e); //not thrown by StringBuilder
+			}
+		}
+	}
+
+	/**
+	 * Each value is encoded with exactly one character.
+	 */
+	public int getMaxEncodedLength(int count) {
+		return count;
+	}
+
+	public void encodeTo(float[] values, int offset, int length, Appendable out)
+			throws IOException {
+		checkBounds(values, values == null ? 0 : values.length, offset, length);
+		if (out == null) {
+			throw new IllegalArgumentException("out can not be null");
+		}
+		for (int i = offset; i < offset + length; i++) {
+			out.append(encodeValue(round(values[i])));
+		}
+	}
+
+	public void encodeTo(int[] values, int offset, int length, Appendable out)
+			throws IOException {
+		checkBounds(values, values == null ? 0 : values.length, offset, length);
+		if (out == null) {
+			throw new IllegalArgumentException("out can not be null");
+		}
+		for (int i = offset; i < offset + length; i++) {
+			out.append(encodeValue(values[i]));
 		}
-		return encodedData.toString();
+	}
+
+	public int encodeTo(float[] values, int offset, int length, char[] dst,
+			int dstOffset) {
+		checkBounds(values, values == null ? 0 : values.length, offset, length);
+		checkBounds(dst, dst == null ? 0 : dst.length, dstOffset, length);
+		for (int i = 0; i < length; i++) {
+			dst[dstOffset + i] = encodeValue(round(values[offset + i]));
+		}
+		return length;
+	}
+
+	public int encodeTo(int[] values, int offset, int length, char[] dst,
+			int dstOffset) {
+		checkBounds(values, values == null ? 0 : values.length, offset, length);
+		checkBounds(dst, dst == null ? 0 : dst.length, dstOffset, length);
+		for (int i = 0; i < length; i++) {
+			dst[dstOffset + i] = encodeValue(values[offset + i]);
+		}
+		return length;
+	}
+
+	/**
+	 * Returns the character for the value, or the missing value character
+	 * if the value is out of range.
+	 * @param value value to encode
+	 * @return encoded character
+	 */
+	private static char encodeValue(int value) {
+		return (value < 0 || value > (simpleEncodingChars.length - 1)) ? MISSING_VALUE
+				: simpleEncodingChars[value];
 	}
 
 
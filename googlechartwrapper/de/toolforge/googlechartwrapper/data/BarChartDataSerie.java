@@ -1,13 +1,15 @@
 package de.toolforge.googlechartwrapper.data;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
 
 import de.toolforge.googlechartwrapper.Color;
 import de.toolforge.googlechartwrapper.label.ChartLegend;
 
 /**
+ * A data series of a bar chart. The values are held in a primitive array:
+ * whole numbers in an int array, values with fraction in a {@link FloatDataSet}.
  * 
  * <p>
  * Here are some examples of how BarChartDataSerie can be used:
@@ -16,7 +18,8 @@ import de.toolforge.googlechartwrapper.label.ChartLegend;
  * 
  * <pre>
  * BarChartDataSerie series = new BarChartDataSerie.BarChartDataSerieBuilder(Arrays.asList(10,50,60,80,40)).color(Color.BLACK).legend(new ChartLegend("legend")).build();
- * 
+ * BarChartDataSerie counts = new BarChartDataSerie.BarChartDataSerieBuilder(new int[] {10, 50, 60}).build();
+ * BarChartDataSerie shares = new BarChartDataSerie.BarChartDataSerieBuilder(new float[] {12.5f, 50.25f}).build();
  * 
  * </pre>
  * 
@@ -24,11 +27,23 @@ import de.toolforge.googlechartwrapper.label.ChartLegend;
  * <p>
  * 
  * @author steffan
+ * @author martin
  * 
  */
 public class BarChartDataSerie {
 
-	private List<Integer> dataSet;
+	/**
+	 * the whole number values, {@code null} if the float values are used
+	 */
+	private int[] intValues;
+	/**
+	 * the values with fraction, {@code null} if the int values are used
+	 */
+	private FloatDataSet floatValues;
+	/**
+	 * statistics of the int values, computed on first use
+	 */
+	private SeriesStats intStats;
 	private Color color;
 	private ChartLegend legend;
 
@@ -44,7 +59,8 @@ public class BarChartDataSerie {
 		if (builder == null)
 			throw new IllegalArgumentException("builder can not be null");
 		
-		this.dataSet = builder.dataSet;
+		this.intValues = builder.intValues;
+		this.floatValues = builder.floatValues;
 		this.color = builder.color;
 		this.legend = builder.legend;
 
@@ -59,12 +75,14 @@ public class BarChartDataSerie {
 	 */
 	public static class BarChartDataSerieBuilder {
 
-		private List<Integer> dataSet = null;
+		private int[] intValues = null;
+		private FloatDataSet floatValues = null;
 		private Color color = null;
 		private ChartLegend legend = null;
 
 		/**
-		 * Constructs a new {@link BarChartDataSerieBuilder}.
+		 * Constructs a new {@link BarChartDataSerieBuilder}. The values are
+		 * copied.
 		 * 
 		 * @param dataSet the values 
 		 * 
@@ -73,15 +91,56 @@ public class BarChartDataSerie {
 		 */
 		public BarChartDataSerieBuilder(List<Integer> dataSet) {
 
+			this.intValues = toIntArray(dataSet);
+		}
+
+		/**
+		 * Constructs a new {@link BarChartDataSerieBuilder}. The values are
+		 * copied.
+		 * 
+		 * @param dataSet the values 
+		 * 
+		 * @throws IllegalArgumentException
+		 *             if dataSet is {@code null}
+		 */
+		public BarChartDataSerieBuilder(int[] dataSet) {
+
 			if (dataSet == null)
 				throw new IllegalArgumentException("dataSet can not be null");
-			List<Integer> temp = Collections.unmodifiableList(dataSet);
+			this.intValues = dataSet.clone();
+		}
 
-			for (Integer current : temp) {
-				if (current == null)
-					throw new IllegalArgumentException("member can not be null");
-			}
-			this.dataSet = temp;
+		/**
+		 * Constructs a new {@link BarChartDataSerieBuilder}. The values are
+		 * copied.
+		 * 
+		 * @param dataSet the values 
+		 * 
+		 * @throws IllegalArgumentException
+		 *             if dataSet is {@code null}
+		 */
+		public BarChartDataSerieBuilder(float[] dataSet) {
+
+			if (dataSet == null)
+				throw new IllegalArgumentException("dataSet can not be null");
+			this.floatValues = FloatDataSet.copyOf(dataSet);
+		}
+
+		/**
+		 * Constructs a new {@link BarChartDataSerieBuilder}. The data set is
+		 * used as it is, so a data set created with
+		 * {@link FloatDataSet#wrap(float[])} is not copied.
+		 * 
+		 * @param dataSet the values 
+		 * 
+		 * @throws IllegalArgumentException
+		 *             if dataSet is {@code null}
+		 */
+		public BarChartDataSerieBuilder(FloatDataSet dataSet) {
+
+			if (dataSet == null)
+				throw new IllegalArgumentException("dataSet can not be null");
+			this.floatValues = dataSet;
 		}
 
 		/**
@@ -147,30 +206,154 @@ public class BarChartDataSerie {
 		}
 	}
 
+	private static int[] toIntArray(List<Integer> dataSet) {
+
+		if (dataSet == null)
+			throw new IllegalArgumentException("dataSet can not be null");
+		int[] values = new int[dataSet.size()];
+		int i = 0;
+		for (Integer current : dataSet) {
+			if (current == null)
+				throw new IllegalArgumentException("member can not be null");
+			values[i++] = current;
+		}
+		return values;
+	}
+
 	/**
-	 * Returns a unmodifiable view of the list.
+	 * Returns a unmodifiable view of the values, which are boxed on access.
+	 * Values with fraction are rounded.
 	 * @return the data
+	 * @see #getValue(int)
 	 */
 	public List<Integer> getData() {
-		return this.dataSet == null ? new ArrayList<Integer>() : Collections.unmodifiableList(this.dataSet);
+		return new IntegerListView();
 	}
 
 	/**
 	 * @param dataSet
-	 *            the data to set
+	 *            the data to set, the values are copied
 	 *            
 	 *@throws IllegalArgumentException if dataSet or member is {@code null}
 	 */
 	public void setData(List<Integer> dataSet) {
+		setIntValues(toIntArray(dataSet));
+	}
+
+	/**
+	 * @param dataSet
+	 *            the data to set, the values are copied
+	 *            
+	 *@throws IllegalArgumentException if dataSet is {@code null}
+	 */
+	public void setData(int[] dataSet) {
 		if (dataSet == null)
 			throw new IllegalArgumentException("dataSet can not be null");
-		List<Integer> temp = Collections.unmodifiableList(dataSet);
+		setIntValues(dataSet.clone());
+	}
 
-		for (Integer current : temp) {
-			if (current == null)
-				throw new IllegalArgumentException("member can not be null");
+	private void setIntValues(int[] values) {
+		this.intValues = values;
+		this.floatValues = null;
+		this.intStats = null;
+	}
+
+	/**
+	 * @param dataSet
+	 *            the data to set, it is used as it is
+	 *            
+	 *@throws IllegalArgumentException if dataSet is {@code null}
+	 */
+	public void setFloatDataSet(FloatDataSet dataSet) {
+		if (dataSet == null)
+			throw new IllegalArgumentException("dataSet can not be null");
+		this.floatValues = dataSet;
+		this.intValues = null;
+		this.intStats = null;
+	}
+
+	/**
+	 * Returns the values with fraction without copying or boxing them.
+	 * 
+	 * @return the values or {@code null} if the serie holds whole numbers
+	 * @see #isFloatData()
+	 */
+	public FloatDataSet getFloatDataSet() {
+		return this.floatValues;
+	}
+
+	/**
+	 * Returns whether the values are held as floats, otherwise they are
+	 * whole numbers.
+	 * 
+	 * @return {@code true} if the values are floats
+	 */
+	public boolean isFloatData() {
+		return this.floatValues != null;
+	}
+
+	/**
+	 * Returns the count of values.
+	 * 
+	 * @return count of values
+	 */
+	public int size() {
+		return this.floatValues != null ? this.floatValues.size()
+				: this.intValues.length;
+	}
+
+	/**
+	 * Returns the value at the given index without boxing it.
+	 * 
+	 * @param index index of the value
+	 * @return the value
+	 * 
+	 * @throws IndexOutOfBoundsException if index is out of bound
+	 */
+	public float getValue(int index) {
+		if (this.floatValues != null)
+			return this.floatValues.get(index);
+		if (index < 0 || index >= this.intValues.length)
+			throw new IndexOutOfBoundsException("index: " + index + ", size: "
+					+ this.intValues.length);
+		return this.intValues[index];
+	}
+
+	/**
+	 * Returns the statistics of the values, computed on the first call.
+	 * 
+	 * @return statistics of the values
+	 */
+	public SeriesStats getStats() {
+		if (this.floatValues != null)
+			return this.floatValues.getStats();
+		SeriesStats result = this.intStats;
+		if (result == null) {
+			result = SeriesStats.of(this.intValues);
+			this.intStats = result;
 		}
-		this.dataSet = temp;
+		return result;
+	}
+
+	/**
+	 * Returns the whole number values without copying them.
+	 * 
+	 * @return the values, must not be modified, {@code null} if the serie
+	 * holds floats
+	 */
+	int[] intValues() {
+		return this.intValues;
+	}
+
+	/**
+	 * Returns the float values for read-only use.
+	 * 
+	 * @return the values, must not be modified, {@code null} if the serie
+	 * holds whole numbers
+	 */
+	float[] floatValues() {
+		return this.floatValues != null ? this.floatValues.readOnlyArray()
+				: null;
 	}
 
 	/**
@@ -213,4 +396,21 @@ public class BarChartDataSerie {
 		this.legend = legend;
 	}
 
+	/**
+	 * List view of the values.
+	 */
+	private class IntegerListView extends AbstractList<Integer> implements
+			RandomAccess {
+
+		@Override
+		public Integer get(int index) {
+			return Math.round(getValue(index));
+		}
+
+		@Override
+		public int size() {
+			return BarChartDataSerie.this.size();
+		}
+	}
+
 }
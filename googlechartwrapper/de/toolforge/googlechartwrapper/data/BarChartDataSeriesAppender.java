@@ -3,7 +3,6 @@ package de.toolforge.googlechartwrapper.data;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 import de.toolforge.googlechartwrapper.ChartTypeFeature;
@@ -16,15 +15,20 @@ import de.toolforge.googlechartwrapper.util.IExtendedFeatureAppender;
 import de.toolforge.googlechartwrapper.util.IFeatureAppender;
 
 /**
+ * Appends the data, colors and legends of the {@link BarChartDataSerie}s. The
+ * series are iterated once and their primitive values are passed to the
+ * encoder without copying them. If one serie holds floats, all series are
+ * encoded as floats.
  * 
  * @author steffan
+ * @author martin
  * 
  */
 public class BarChartDataSeriesAppender implements IExtendedFeatureAppender,
 		IEncodeable {
 
 	private IEncoder encoder = new AutoEncoder();
-	protected List<BarChartDataSerie> barChartDataSeries = new LinkedList<BarChartDataSerie>();
+	protected List<BarChartDataSerie> barChartDataSeries = new ArrayList<BarChartDataSerie>();
 
 	/**
 	 * 
@@ -94,69 +98,66 @@ public class BarChartDataSeriesAppender implements IExtendedFeatureAppender,
 	public List<AppendableFeature> getAppendableFeatures(
 			List<? extends IFeatureAppender> otherAppenders) {
 
-		// the raw data
-		List<int[]> data = new LinkedList<int[]>();
-
-		for (int z = 0; z < this.barChartDataSeries.size(); z++) {
-
-			int values[] = new int[this.barChartDataSeries.get(z).getData()
-					.size()];
-			// copy elements
-			for (int u = 0; u < this.barChartDataSeries.get(z).getData().size(); u++) {
-				values[u] = this.barChartDataSeries.get(z).getData().get(u);
-			}
-			data.add(values);
+		int count = this.barChartDataSeries.size();
+		boolean isFloatData = false;
+		for (BarChartDataSerie current : this.barChartDataSeries) {
+			isFloatData |= current.isFloatData();
 		}
 
+		// the raw data
+		List<int[]> intData = isFloatData ? null : new ArrayList<int[]>(count);
+		List<float[]> floatData = isFloatData ? new ArrayList<float[]>(count)
+				: null;
+
 		boolean isColorUsed = false;
 		// the color string
 		StringBuilder color = new StringBuilder();
-		for (int i = 0; i < this.barChartDataSeries.size(); i++) {
+
+		boolean isLegendUsed = false;
+		// the chartLegend
+		StringBuilder legend = new StringBuilder();
+
+		int i = 0;
+		for (BarChartDataSerie current : this.barChartDataSeries) {
+
+			if (!isFloatData) {
+				intData.add(current.intValues());
+			} else if (current.isFloatData()) {
+				floatData.add(current.floatValues());
+			} else {
+				floatData.add(toFloatArray(current.intValues()));
+			}
 
 			// the user set a color
-			if (this.barChartDataSeries.get(i).getColor() != null) {
+			if (current.getColor() != null) {
 				isColorUsed = true;
-				color.append((this.barChartDataSeries.get(i)
-								.getColor().getMatchingColorHexValue()));
+				color.append(current.getColor().getMatchingColorHexValue());
 			}
 			// no color was set, we add the default color
-			if (this.barChartDataSeries.get(i).getColor() == null) {
+			else {
 				color.append(DefaultValues.DataColor.getMatchingColorHexValue());
 			}
 
-			// otherwise we have a "," at the end
-			if (i < this.barChartDataSeries.size() - 1) {
-				color.append(",");
-			}
-		}
-
-		boolean isLegendUsed = false;
-
-		// the chartLegend
-		StringBuilder legend = new StringBuilder();
-		for (int u = 0; u < this.barChartDataSeries.size(); u++) {
-
-			// the user set a legend
-			if (this.barChartDataSeries.get(u).getLegend() != null) {
+			// the user set a legend, otherwise the entry stays empty
+			if (current.getLegend() != null) {
 				isLegendUsed = true;
-				legend.append(this.barChartDataSeries.get(u).getLegend()
-						.getAppendableFeatures(null).get(0).getData());
-			}
-			// no style was set, we add the default legend
-			if (this.barChartDataSeries.get(u).getLegend() == null) {
-				legend.append("");
+				legend.append(current.getLegend().getAppendableFeatures(null)
+						.get(0).getData());
 			}
 
-			// otherwise we have a "," at the end
-			if (u < this.barChartDataSeries.size() - 1) {
+			// separate the entries of the next serie
+			if (i < count - 1) {
+				color.append(",");
 				legend.append("|");
 			}
+			i++;
 		}
 
 		List<AppendableFeature> features = new ArrayList<AppendableFeature>();
 
-		features.add(new AppendableFeature(this.encoder
-				.encodeIntegerCollection(data), ChartTypeFeature.ChartData));
+		features.add(new AppendableFeature(isFloatData ? this.encoder
+				.encodeFloatCollection(floatData) : this.encoder
+				.encodeIntegerCollection(intData), ChartTypeFeature.ChartData));
 
 		// if the user set the color we have to add the string
 		if (isColorUsed) {
@@ -172,6 +173,14 @@ public class BarChartDataSeriesAppender implements IExtendedFeatureAppender,
 		return features;
 	}
 
+	private static float[] toFloatArray(int[] values) {
+		float[] result = new float[values.length];
+		for (int i = 0; i < values.length; i++) {
+			result[i] = values[i];
+		}
+		return result;
+	}
+
 	public IEncoder getEncoder() {
 
 		return this.encoder;
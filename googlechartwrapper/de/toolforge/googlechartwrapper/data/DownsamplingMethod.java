@@ -0,0 +1,178 @@
+package de.toolforge.googlechartwrapper.data;
+
+/**
+ * Methods to reduce a data series to a smaller count of points before it is
+ * encoded. A line chart can not show more points than it is wide in pixels, so
+ * a long series only makes the url longer. Both methods need a single pass
+ * over the values and do not box them. {@link Float#NaN} values (missing
+ * values) are ignored when a point is chosen.
+ *
+ * @author martin
+ * @see LineChartDataAppender#setDownsampling(DownsamplingMethod, int)
+ */
+public enum DownsamplingMethod {
+
+	/**
+	 * Largest-Triangle-Three-Buckets: the values are split into
+	 * threshold - 2 buckets, from each bucket the point forming the largest
+	 * triangle with the point chosen before and the average of the next bucket
+	 * is kept. The first and the last point are always kept. Returns exactly
+	 * threshold points.
+	 */
+	LargestTriangleThreeBuckets {
+
+		@Override
+		float[] sample(float[] values, int offset, int length, int threshold) {
+			float[] sampled = new float[threshold];
+			int k = 0;
+			sampled[k++] = values[offset];
+
+			double every = (double) (length - 2) / (threshold - 2);
+			int a = 0; // index of the point chosen before
+
+			for (int i = 0; i < threshold - 2; i++) {
+				// average of the next bucket
+				int avgStart = (int) Math.floor((i + 1) * every) + 1;
+				int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, length);
+				double avgX = 0;
+				double avgY = 0;
+				int avgCount = 0;
+				for (int j = avgStart; j < avgEnd; j++) {
+					float current = values[offset + j];
+					if (current == current) { // not NaN
+						avgX += j;
+						avgY += current;
+						avgCount++;
+					}
+				}
+				if (avgCount > 0) {
+					avgX /= avgCount;
+					avgY /= avgCount;
+				} else {
+					avgX = Double.NaN;
+					avgY = Double.NaN;
+				}
+
+				// the current bucket
+				int rangeStart = (int) Math.floor(i * every) + 1;
+				int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+				double ay = values[offset + a];
+				double maxArea = -1;
+				int next = rangeStart;
+				for (int j = rangeStart; j < rangeEnd; j++) {
+					double area = Math.abs((a - avgX) * (values[offset + j] - ay)
+							- (a - j) * (avgY - ay));
+					if (area > maxArea) {
+						maxArea = area;
+						next = j;
+					}
+				}
+				sampled[k++] = values[offset + next];
+				a = next;
+			}
+
+			sampled[k] = values[offset + length - 1];
+			return sampled;
+		}
+	},
+
+	/**
+	 * The values are split into threshold / 2 buckets, from each bucket the
+	 * smallest and the greatest value are kept in their original order. Thus
+	 * all peaks are kept. Returns at most threshold points.
+	 */
+	MinMax {
+
+		@Override
+		float[] sample(float[] values, int offset, int length, int threshold) {
+			int buckets = threshold / 2;
+			float[] sampled = new float[buckets * 2];
+			int k = 0;
+
+			for (int b = 0; b < buckets; b++) {
+				int start = offset + (int) ((long) b * length / buckets);
+				int end = offset + (int) ((long) (b + 1) * length / buckets);
+				int minIndex = -1;
+				int maxIndex = -1;
+				for (int j = start; j < end; j++) {
+					float current = values[j];
+					if (current != current) { // NaN
+						continue;
+					}
+					if (minIndex < 0 || current < values[minIndex]) minIndex = j;
+					if (maxIndex < 0 || current > values[maxIndex]) maxIndex = j;
+				}
+				if (minIndex < 0) {
+					// only missing values
+					sampled[k++] = Float.NaN;
+				} else if (minIndex == maxIndex) {
+					sampled[k++] = values[minIndex];
+				} else {
+					sampled[k++] = values[Math.min(minIndex, maxIndex)];
+					sampled[k++] = values[Math.max(minIndex, maxIndex)];
+				}
+			}
+
+			if (k < sampled.length) {
+				float[] trimmed = new float[k];
+				System.arraycopy(sampled, 0, trimmed, 0, k);
+				return trimmed;
+			}
+			return sampled;
+		}
+	};
+
+	/**
+	 * Reduces the values to at most threshold points. If there are not more
+	 * values than threshold, a copy of the values is returned.
+	 *
+	 * @param values the values
+	 * @param threshold maximum count of points, must be &gt; 2
+	 * @return new array with the reduced values
+	 *
+	 * @throws IllegalArgumentException if values is {@code null} or threshold &lt; 3
+	 */
+	public float[] downsample(FloatDataSet values, int threshold) {
+		if (values == null)
+			throw new IllegalArgumentException("values can not be null");
+		return downsample(values.getArray(), values.getOffset(), values.size(),
+				threshold);
+	}
+
+	/**
+	 * Reduces a range of the values to at most threshold points. If there are
+	 * not more values than threshold, a copy of the range is returned.
+	 *
+	 * @param values the values
+	 * @param offset index of the first value
+	 * @param length count of values
+	 * @param threshold maximum count of points, must be &gt; 2
+	 * @return new array with the reduced values
+	 *
+	 * @throws IllegalArgumentException if values is {@code null} or threshold &lt; 3
+	 * @throws IllegalArgumentException if offset or length are out of the array bounds
+	 */
+	public float[] downsample(float[] values, int offset, int length,
+			int threshold) {
+		if (values == null)
+			throw new IllegalArgumentException("values can not be null");
+		if (offset < 0 || length < 0 || offset > values.length - length)
+			throw new IllegalArgumentException("offset and length must be in the array bounds");
+		if (threshold < 3)
+			throw new IllegalArgumentException("threshold must be > 2");
+
+		if (length <= threshold) {
+			float[] copy = new float[length];
+			System.arraycopy(values, offset, copy, 0, length);
+			return copy;
+		}
+		return sample(values, offset, length, threshold);
+	}
+
+	/**
+	 * Reduces the range of the values, length is greater than threshold.
+	 */
+	abstract float[] sample(float[] values, int offset, int length,
+			int threshold);
+
+}
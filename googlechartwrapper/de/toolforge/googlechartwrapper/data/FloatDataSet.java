@@ -0,0 +1,223 @@
+package de.toolforge.googlechartwrapper.data;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A data set of float values backed by a primitive float array. The values are
+ * a range of the backing array, described by an offset and a length. A data set
+ * may either own a copy of the values ({@link #copyOf(float[])}) or wrap an array
+ * of the caller without copying it ({@link #wrap(float[])}). In the latter case the
+ * caller must not modify the array as long as the data set is in use.
+ *
+ * <p>
+ * Here are some examples of how FloatDataSet can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * float[] latencies = ...;
+ * LineChartData data = new LineChartData.LineChartDataBuilder(FloatDataSet.wrap(latencies)).build();
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see LineChartData
+ */
+public final class FloatDataSet {
+
+	private final float[] values;
+	private final int offset;
+	private final int length;
+	/**
+	 * statistics of the values, computed on first use
+	 */
+	private volatile SeriesStats stats;
+
+	private FloatDataSet(float[] values, int offset, int length) {
+		this.values = values;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * Constructs a data set which uses the given array without copying it.
+	 *
+	 * @param values the values
+	 * @return data set backed by the array
+	 *
+	 * @throws IllegalArgumentException if values is {@code null}
+	 */
+	public static FloatDataSet wrap(float[] values) {
+		if (values == null)
+			throw new IllegalArgumentException("values can not be null");
+		return new FloatDataSet(values, 0, values.length);
+	}
+
+	/**
+	 * Constructs a data set which uses the range of the given array without
+	 * copying it.
+	 *
+	 * @param values the values
+	 * @param offset index of the first value
+	 * @param length count of values
+	 * @return data set backed by the array
+	 *
+	 * @throws IllegalArgumentException if values is {@code null}
+	 * @throws IllegalArgumentException if offset or length are out of the array bounds
+	 */
+	public static FloatDataSet wrap(float[] values, int offset, int length) {
+		if (values == null)
+			throw new IllegalArgumentException("values can not be null");
+		if (offset < 0 || length < 0 || offset > values.length - length)
+			throw new IllegalArgumentException("offset and length must be in the array bounds");
+		return new FloatDataSet(values, offset, length);
+	}
+
+	/**
+	 * Constructs a data set with a copy of the given values.
+	 *
+	 * @param values the values
+	 * @return data set with a copy of the values
+	 *
+	 * @throws IllegalArgumentException if values is {@code null}
+	 */
+	public static FloatDataSet copyOf(float[] values) {
+		if (values == null)
+			throw new IllegalArgumentException("values can not be null");
+		return new FloatDataSet(values.clone(), 0, values.length);
+	}
+
+	/**
+	 * Constructs a data set with a copy of the given values.
+	 *
+	 * @param values the values
+	 * @return data set with a copy of the values
+	 *
+	 * @throws IllegalArgumentException if values or member is {@code null}
+	 */
+	public static FloatDataSet copyOf(List<Float> values) {
+		if (values == null)
+			throw new IllegalArgumentException("values can not be null");
+		float[] copy = new float[values.size()];
+		int i = 0;
+		for (Float current : values) {
+			if (current == null)
+				throw new IllegalArgumentException("value can not be null");
+			copy[i++] = current;
+		}
+		return new FloatDataSet(copy, 0, copy.length);
+	}
+
+	/**
+	 * Returns the count of values.
+	 *
+	 * @return count of values
+	 */
+	public int size() {
+		return length;
+	}
+
+	/**
+	 * Returns the value at the given index.
+	 *
+	 * @param index index in this data set
+	 * @return the value
+	 *
+	 * @throws IndexOutOfBoundsException if index is out of bound
+	 */
+	public float get(int index) {
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException("index: " + index + ", size: " + length);
+		return values[offset + index];
+	}
+
+	/**
+	 * Returns the backing array. The values of this data set start at
+	 * {@link #getOffset()}. The array is not copied and must not be modified.
+	 *
+	 * @return the backing array
+	 */
+	public float[] getArray() {
+		return values;
+	}
+
+	/**
+	 * Returns the index of the first value in the backing array.
+	 *
+	 * @return offset in the backing array
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Returns a copy of the values.
+	 *
+	 * @return new array with the values
+	 */
+	public float[] toArray() {
+		float[] copy = new float[length];
+		System.arraycopy(values, offset, copy, 0, length);
+		return copy;
+	}
+
+	/**
+	 * Returns the values as an array for read-only use. If the data set spans the
+	 * complete backing array, the backing array itself is returned, otherwise
+	 * a copy of the range.
+	 *
+	 * @return array with the values, must not be modified
+	 */
+	float[] readOnlyArray() {
+		if (offset == 0 && length == values.length) {
+			return values;
+		}
+		return toArray();
+	}
+
+	/**
+	 * Returns the statistics of the values. They are computed on the first
+	 * call and cached afterwards, so a wrapped array must not be modified.
+	 *
+	 * @return statistics of the values
+	 */
+	public SeriesStats getStats() {
+		SeriesStats result = stats;
+		if (result == null) {
+			result = SeriesStats.of(values, offset, length);
+			stats = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns an unmodifiable {@link List} view of the values. The values
+	 * are boxed on access.
+	 *
+	 * @return unmodifiable list view
+	 */
+	public List<Float> asList() {
+		return new FloatListView();
+	}
+
+	/**
+	 * List view of the values.
+	 */
+	private class FloatListView extends AbstractList<Float> implements RandomAccess {
+
+		@Override
+		public Float get(int index) {
+			return FloatDataSet.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return length;
+		}
+	}
+
+}
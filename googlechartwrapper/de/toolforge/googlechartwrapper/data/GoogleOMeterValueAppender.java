@@ -15,6 +15,7 @@ import de.toolforge.googlechartwrapper.interfaces.IEncodeable;
 import de.toolforge.googlechartwrapper.util.AppendableFeature;
 import de.toolforge.googlechartwrapper.util.IExtendedFeatureAppender;
 import de.toolforge.googlechartwrapper.util.IFeatureAppender;
+import de.toolforge.googlechartwrapper.util.UrlEscaper;
 
 /**
  * 
@@ -59,7 +60,7 @@ public class GoogleOMeterValueAppender implements IExtendedFeatureAppender,
 			// the user set a label
 			if (this.list.get(u).getLabel() != null) {
 				isLabelUsed = true;
-				label.append(this.list.get(u).getLabel());
+				UrlEscaper.TEXT.escape(this.list.get(u).getLabel(), label);
 			}
 			// no label was set, we add ""
 			if (this.list.get(u).getLabel() == null) {
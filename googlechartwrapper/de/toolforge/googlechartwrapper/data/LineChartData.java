@@ -17,7 +17,7 @@ import de.toolforge.googlechartwrapper.style.LineStyle;
  */
 public class LineChartData {
 
-	private List<Float> dataSet = null;
+	private FloatDataSet dataSet = null;
 	private Color color = null;
 	private ChartLegend legend = null;
 	private LineStyle style = null;
@@ -34,7 +34,7 @@ public class LineChartData {
 		if (builder == null)
 			throw new IllegalArgumentException("builder can not be null");
 
-		this.dataSet = new ArrayList<Float>(builder.dataSet);
+		this.dataSet = builder.dataSet;
 		this.color = builder.color;
 		this.legend = builder.legend;
 		this.style = builder.style;
@@ -47,7 +47,7 @@ public class LineChartData {
 	 */
 	public static class LineChartDataBuilder {
 
-		private List<Float> dataSet = null;
+		private FloatDataSet dataSet = null;
 		private Color color = null;
 		private ChartLegend legend = null;
 		private LineStyle style = null;
@@ -70,10 +70,41 @@ public class LineChartData {
 						throw new IllegalArgumentException(
 								"integer can not be null");
 				}
-				this.dataSet = new ArrayList<Float>(dataSet);
+				this.dataSet = FloatDataSet.copyOf(dataSet);
 			}
 		}
 
+		/**
+		 * The values are copied.
+		 * 
+		 * @param dataSet
+		 * 
+		 * @throws IllegalArgumentException
+		 *             if dataSet is {@code null }
+		 */
+		public LineChartDataBuilder(float[] dataSet) {
+
+			if (dataSet == null)
+				throw new IllegalArgumentException("dataSet can not be null");
+			this.dataSet = FloatDataSet.copyOf(dataSet);
+		}
+
+		/**
+		 * The data set is used as it is, so a data set created with
+		 * {@link FloatDataSet#wrap(float[])} is not copied.
+		 * 
+		 * @param dataSet
+		 * 
+		 * @throws IllegalArgumentException
+		 *             if dataSet is {@code null }
+		 */
+		public LineChartDataBuilder(FloatDataSet dataSet) {
+
+			if (dataSet == null)
+				throw new IllegalArgumentException("dataSet can not be null");
+			this.dataSet = dataSet;
+		}
+
 		/**
 		 * 
 		 * @param color
@@ -149,10 +180,20 @@ public class LineChartData {
 	}
 
 	/**
-	 * @return the dataSet
+	 * @return a copy of the dataSet
+	 * @see #getFloatDataSet()
 	 */
 	public List<Float> getDataSet() {
-		return new ArrayList<Float>(dataSet);
+		return new ArrayList<Float>(dataSet.asList());
+	}
+
+	/**
+	 * Returns the values without copying or boxing them.
+	 * 
+	 * @return the dataSet
+	 */
+	public FloatDataSet getFloatDataSet() {
+		return dataSet;
 	}
 
 	/**
@@ -171,10 +212,22 @@ public class LineChartData {
 					throw new IllegalArgumentException(
 							"value can not be null");
 			}
-			this.dataSet = new ArrayList<Float>(dataSet);
+			this.dataSet = FloatDataSet.copyOf(dataSet);
 		}		
 	}
 
+	/**
+	 * @param dataSet the dataSet to set, it is used as it is
+	 * @throws IllegalArgumentException
+	 *             if dataSet is {@code null }
+	 */
+	public void setFloatDataSet(FloatDataSet dataSet) {
+		
+		if (dataSet == null)
+			throw new IllegalArgumentException("dataSet can not be null");
+		this.dataSet = dataSet;
+	}
+
 	/**
 	 * @return the color
 	 */
@@ -13,7 +13,6 @@ import de.toolforge.googlechartwrapper.util.IFeatureAppender;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -26,6 +25,10 @@ public class LineChartDataAppender implements IExtendedFeatureAppender,
 
     private IEncoder encoder = new AutoEncoder();
     private List<LineChartData> data = new ArrayList<LineChartData>();
+    private DownsamplingMethod downsampling = null;
+    private int downsamplingThreshold = 0;
+    // count of points dropped by the downsampling during the last url generation
+    private volatile int droppedPointCount = 0;
 
 
     public String getFeaturePrefix() {
@@ -103,18 +106,14 @@ public class LineChartDataAppender implements IExtendedFeatureAppender,
     public List<AppendableFeature> getAppendableFeatures(
             List<? extends IFeatureAppender> otherAppenders) {
 
-        // the raw data
-        List<float[]> data = new LinkedList<float[]>();
-
-        for (int z = 0; z < this.data.size(); z++) {
-
-            float values[] = new float[this.data.get(z).getDataSet().size()];
-            // copy elements
-            for (int u = 0; u < this.data.get(z).getDataSet().size(); u++) {
-                values[u] = this.data.get(z).getDataSet().get(u);
-            }
-            data.add(values);
+        List<FloatDataSet> dataSets = new ArrayList<FloatDataSet>(this.data.size());
+        for (LineChartData current : this.data) {
+            dataSets.add(current.getFloatDataSet());
         }
+        int[] dropped = new int[1];
+        String encoded = encode(dataSets, dropped);
+        this.droppedPointCount = dropped[0];
+
         boolean isColorUsed = false;
 
         // the color string
@@ -182,8 +181,7 @@ public class LineChartDataAppender implements IExtendedFeatureAppender,
 
         List<AppendableFeature> features = new ArrayList<AppendableFeature>();
 
-        features.add(new AppendableFeature(this.encoder.encodeFloatCollection(
-                data, ","), ChartTypeFeature.ChartData));
+        features.add(new AppendableFeature(encoded, ChartTypeFeature.ChartData));
 
         // if the user set the color we have to add the string
         if (isColorUsed) {
@@ -204,6 +202,97 @@ public class LineChartDataAppender implements IExtendedFeatureAppender,
         return features;
     }
 
+    /**
+     * Encodes the data sets like the chart data of the url: the downsampling
+     * and the encoder of this appender are applied.
+     *
+     * @param dataSets the data sets
+     * @return encoded data
+     * @throws IllegalArgumentException if dataSets or member is {@code null}
+     */
+    public String encodeDataSets(List<FloatDataSet> dataSets) {
+        if (dataSets == null)
+            throw new IllegalArgumentException("dataSets can not be null");
+        for (FloatDataSet temp : dataSets) {
+            if (temp == null)
+                throw new IllegalArgumentException("value can not be null");
+        }
+        return encode(dataSets, new int[1]);
+    }
+
+    /**
+     * Encodes the data sets and adds the count of points dropped by the
+     * downsampling to dropped[0].
+     */
+    private String encode(List<FloatDataSet> dataSets, int[] dropped) {
+
+        // the raw data, only copied if the data set is a range of a larger array
+        List<float[]> data = new ArrayList<float[]>(dataSets.size());
+        // the cached statistics of all data sets, used to choose the encoding
+        SeriesStats stats = SeriesStats.EMPTY;
+
+        for (FloatDataSet dataSet : dataSets) {
+            if (this.downsampling != null && dataSet.size() > this.downsamplingThreshold) {
+                float[] sampled = this.downsampling.downsample(dataSet, this.downsamplingThreshold);
+                dropped[0] += dataSet.size() - sampled.length;
+                data.add(sampled);
+                stats = stats.combine(SeriesStats.of(sampled));
+            } else {
+                data.add(dataSet.readOnlyArray());
+                stats = stats.combine(dataSet.getStats());
+            }
+        }
+
+        if (this.encoder instanceof AutoEncoder) {
+            return ((AutoEncoder) this.encoder).encodeFloatCollection(data, stats);
+        }
+        return this.encoder.encodeFloatCollection(data);
+    }
+
+    /**
+     * Sets the method to reduce each {@link LineChartData} with more than threshold
+     * points before it is encoded. The data itself is not changed.
+     *
+     * @param method the downsampling method, {@code null} to turn the downsampling off
+     * @param threshold maximum count of points of each line
+     * @throws IllegalArgumentException if method is not {@code null} and threshold &lt; 3
+     * @see DownsamplingMethod
+     */
+    public void setDownsampling(DownsamplingMethod method, int threshold) {
+        if (method != null && threshold < 3)
+            throw new IllegalArgumentException("threshold must be > 2");
+        this.downsampling = method;
+        this.downsamplingThreshold = method != null ? threshold : 0;
+    }
+
+    /**
+     * Returns the downsampling method.
+     *
+     * @return the downsampling method, {@code null} if no downsampling is used
+     */
+    public DownsamplingMethod getDownsampling() {
+        return this.downsampling;
+    }
+
+    /**
+     * Returns the maximum count of points of each line if a downsampling is used.
+     *
+     * @return maximum count of points, 0 if no downsampling is used
+     */
+    public int getDownsamplingThreshold() {
+        return this.downsamplingThreshold;
+    }
+
+    /**
+     * Returns the count of points of all lines which were dropped by the
+     * downsampling when the url was generated last.
+     *
+     * @return count of dropped points, 0 if nothing was dropped
+     */
+    public int getDroppedPointCount() {
+        return this.droppedPointCount;
+    }
+
     public IEncoder getEncoder() {
 
         return this.encoder;
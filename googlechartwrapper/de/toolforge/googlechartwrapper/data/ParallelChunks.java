@@ -0,0 +1,106 @@
+package de.toolforge.googlechartwrapper.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Aggregates a range of values in parallel: the range is split into chunks of
+ * at least {@link #MIN_CHUNK_SIZE} values, each chunk is aggregated by a
+ * thread of the executor into a partial result and the partial results are
+ * merged afterwards. A range of a single chunk is aggregated by the calling
+ * thread. The executor is not shut down.
+ *
+ * @author martin
+ *
+ * @param <T> type of the (partial) result
+ * @see SampleHistogram
+ * @see ScatterPlotBinning
+ */
+abstract class ParallelChunks<T> {
+
+	/**
+	 * count of values aggregated by one task at least
+	 */
+	static final int MIN_CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * Returns a new empty result.
+	 */
+	abstract T newResult();
+
+	/**
+	 * Adds the values from offset to offset + length - 1 to the result.
+	 */
+	abstract void addAll(T result, int offset, int length);
+
+	/**
+	 * Merges the partial result into the result.
+	 */
+	abstract void merge(T result, T partial);
+
+	/**
+	 * Aggregates the values from 0 to length - 1.
+	 *
+	 * @param length count of values
+	 * @param executor executor aggregating the chunks
+	 * @return the merged result
+	 *
+	 * @throws IllegalArgumentException if executor is {@code null}
+	 * @throws InterruptedException if the thread was interrupted while waiting
+	 */
+	T aggregate(int length, ExecutorService executor)
+			throws InterruptedException {
+		if (executor == null)
+			throw new IllegalArgumentException("executor can not be null");
+		int processors = Runtime.getRuntime().availableProcessors();
+		int chunkSize = Math.max(MIN_CHUNK_SIZE, (length + processors - 1)
+				/ processors);
+		T result = newResult();
+		if (length <= chunkSize) {
+			addAll(result, 0, length);
+			return result;
+		}
+		List<Future<T>> futures = new ArrayList<Future<T>>();
+		try {
+			for (int offset = 0; offset < length; offset += chunkSize) {
+				final int start = offset;
+				final int chunkLength = Math.min(chunkSize, length - offset);
+				futures.add(executor.submit(new Callable<T>() {
+					public T call() {
+						T partial = newResult();
+						addAll(partial, start, chunkLength);
+						return partial;
+					}
+				}));
+			}
+			for (Future<T> future : futures) {
+				merge(result, get(future));
+			}
+			return result;
+		} finally {
+			for (Future<T> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Waits for the partial result and rethrows the exception of the task.
+	 */
+	private static <T> T get(Future<T> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+}
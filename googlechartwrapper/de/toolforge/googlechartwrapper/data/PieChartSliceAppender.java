@@ -17,6 +17,7 @@ import de.toolforge.googlechartwrapper.style.DefaultValues;
 import de.toolforge.googlechartwrapper.util.AppendableFeature;
 import de.toolforge.googlechartwrapper.util.IExtendedFeatureAppender;
 import de.toolforge.googlechartwrapper.util.IFeatureAppender;
+import de.toolforge.googlechartwrapper.util.UrlEscaper;
 
 /**
  *   
@@ -141,7 +142,7 @@ public class PieChartSliceAppender implements IExtendedFeatureAppender, IEncodea
 			// the user set a label
 			if (this.pieChartSlices.get(u).getLabel() != null) {
 				isLabelUsed = true;
-				label.append(this.pieChartSlices.get(u).getLabel());
+				UrlEscaper.TEXT.escape(this.pieChartSlices.get(u).getLabel(), label);
 			}
 			// no label was set, we add ""
 			if (this.pieChartSlices.get(u).getLabel() == null) {
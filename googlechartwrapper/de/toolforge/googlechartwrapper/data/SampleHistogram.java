@@ -0,0 +1,619 @@
+package de.toolforge.googlechartwrapper.data;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import de.toolforge.googlechartwrapper.label.AxisLabel;
+import de.toolforge.googlechartwrapper.label.AxisLabelContainer;
+import de.toolforge.googlechartwrapper.label.AxisRange;
+import de.toolforge.googlechartwrapper.label.AxisType;
+
+/**
+ * Counts raw samples into buckets to draw a histogram with a
+ * {@link de.toolforge.googlechartwrapper.BarChart}. The buckets have a fixed
+ * width, grow logarithmically or are divided like a high dynamic range
+ * histogram: each power of two into the same count of sub buckets, so the
+ * relative precision is equal for all values.
+ * <p>
+ * The samples are counted in a single pass into one counter per bucket, so the
+ * memory does not depend on the count of samples: they may be streamed from an
+ * {@link Iterator} or added chunk by chunk to {@link Counts}. Large arrays of
+ * samples may be counted in parallel by the threads of an
+ * {@link ExecutorService}, each thread counts into own counts which are merged
+ * afterwards. Samples below the first or above the last bucket are counted as
+ * underflow and overflow, {@link Double#NaN} samples are ignored. Instances are
+ * immutable and may be shared between threads.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how SampleHistogram can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * SampleHistogram histogram = SampleHistogram.highDynamicRange(1, 60000, 2);
+ * SampleHistogram.Counts counts = histogram.count(latencies, executor);
+ * barChart.addBarChartDataSerie(counts.toBarChartDataSerie());
+ * barChart.addAxisLabelContainer(counts.toAxisLabelContainer(AxisType.XAxis, 10));
+ * AxisLabelContainer y = new AxisLabelContainer(AxisType.YAxis);
+ * y.setAxisRange(counts.toAxisRange());
+ * barChart.addAxisLabelContainer(y);
+ * barChart.addDataScalingSet(counts.toDataScalingSet());
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see BarChartDataSerie
+ */
+public class SampleHistogram {
+
+	/**
+	 * count of samples counted by one task at least
+	 */
+	public static final int MIN_CHUNK_SIZE = ParallelChunks.MIN_CHUNK_SIZE;
+
+	/**
+	 * Scale of the buckets.
+	 */
+	public static enum Scale {
+
+		/**
+		 * buckets of the same width
+		 */
+		Linear,
+
+		/**
+		 * each bucket is the same factor wider than the bucket before
+		 */
+		Logarithmic,
+
+		/**
+		 * each power of two is divided into the same count of buckets of the
+		 * same width
+		 */
+		HighDynamicRange
+	}
+
+	private final Scale scale;
+	/**
+	 * the bounds of the buckets, bucket i spans from bounds[i] to bounds[i +
+	 * 1], the last bucket includes its upper bound
+	 */
+	private final double[] bounds;
+
+	private SampleHistogram(Scale scale, double[] bounds) {
+		this.scale = scale;
+		this.bounds = bounds;
+	}
+
+	/**
+	 * Constructs a histogram with buckets of the same width.
+	 *
+	 * @param min lower bound of the first bucket
+	 * @param max upper bound of the last bucket
+	 * @param bucketCount count of buckets
+	 * @return the histogram
+	 *
+	 * @throws IllegalArgumentException if min &gt;= max, a bound is not finite
+	 * or bucketCount &lt; 1
+	 */
+	public static SampleHistogram linear(double min, double max, int bucketCount) {
+		checkRange(min, max, bucketCount);
+		double[] bounds = new double[bucketCount + 1];
+		for (int i = 0; i < bucketCount; i++) {
+			bounds[i] = min + (max - min) * i / bucketCount;
+		}
+		bounds[bucketCount] = max;
+		return new SampleHistogram(Scale.Linear, bounds);
+	}
+
+	/**
+	 * Constructs a histogram with logarithmically growing buckets.
+	 *
+	 * @param min lower bound of the first bucket
+	 * @param max upper bound of the last bucket
+	 * @param bucketCount count of buckets
+	 * @return the histogram
+	 *
+	 * @throws IllegalArgumentException if min &lt;= 0, min &gt;= max, a bound is
+	 * not finite or bucketCount &lt; 1
+	 */
+	public static SampleHistogram logarithmic(double min, double max,
+			int bucketCount) {
+		checkRange(min, max, bucketCount);
+		if (min <= 0)
+			throw new IllegalArgumentException("min must be > 0");
+		double[] bounds = new double[bucketCount + 1];
+		double factor = Math.log(max / min) / bucketCount;
+		for (int i = 0; i < bucketCount; i++) {
+			bounds[i] = min * Math.exp(factor * i);
+		}
+		bounds[bucketCount] = max;
+		return new SampleHistogram(Scale.Logarithmic, bounds);
+	}
+
+	/**
+	 * Constructs a high dynamic range histogram: the powers of two from the
+	 * one below lowest up to the one including highest are each divided into
+	 * 2<sup>precisionBits</sup> buckets. Values below 1 have no own buckets.
+	 *
+	 * @param lowest smallest value to count
+	 * @param highest greatest value to count
+	 * @param precisionBits bits of precision, for example 3 for eight buckets
+	 * per power of two, so an error of 12.5 percent at most
+	 * @return the histogram
+	 *
+	 * @throws IllegalArgumentException if lowest &lt; 1, lowest &gt;= highest
+	 * or precisionBits is not between 0 and 10
+	 */
+	public static SampleHistogram highDynamicRange(long lowest, long highest,
+			int precisionBits) {
+		if (lowest < 1)
+			throw new IllegalArgumentException("lowest must be > 0");
+		if (lowest >= highest)
+			throw new IllegalArgumentException("lowest must be < highest");
+		if (precisionBits < 0 || precisionBits > 10)
+			throw new IllegalArgumentException(
+					"precisionBits must be between 0 and 10");
+		int subBuckets = 1 << precisionBits;
+		List<Double> bounds = new ArrayList<Double>();
+		long power = Long.highestOneBit(lowest);
+		while (true) {
+			for (int i = 0; i < subBuckets; i++) {
+				bounds.add(power + (double) power * i / subBuckets);
+			}
+			if (power > highest / 2) {
+				break;
+			}
+			power *= 2;
+		}
+		bounds.add(2.0 * power);
+		double[] result = new double[bounds.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = bounds.get(i);
+		}
+		return new SampleHistogram(Scale.HighDynamicRange, result);
+	}
+
+	private static void checkRange(double min, double max, int bucketCount) {
+		if (Double.isNaN(min) || Double.isInfinite(min) || Double.isNaN(max)
+				|| Double.isInfinite(max))
+			throw new IllegalArgumentException("bounds must be finite");
+		if (min >= max)
+			throw new IllegalArgumentException("min must be < max");
+		if (bucketCount < 1)
+			throw new IllegalArgumentException("bucketCount must be > 0");
+	}
+
+	/**
+	 * Returns the scale of the buckets.
+	 *
+	 * @return scale of the buckets
+	 */
+	public Scale getScale() {
+		return scale;
+	}
+
+	/**
+	 * Returns the count of buckets.
+	 *
+	 * @return count of buckets
+	 */
+	public int getBucketCount() {
+		return bounds.length - 1;
+	}
+
+	/**
+	 * Returns the lower bound of the bucket.
+	 *
+	 * @param bucket index of the bucket, the bucket count for the upper bound
+	 * of the last bucket
+	 * @return the bound
+	 *
+	 * @throws IndexOutOfBoundsException if bucket is out of bound
+	 */
+	public double getBound(int bucket) {
+		return bounds[bucket];
+	}
+
+	/**
+	 * Returns the index of the bucket of the sample.
+	 *
+	 * @param sample the sample
+	 * @return index of the bucket, -1 if the sample is below the first bucket
+	 * or {@link Double#NaN}, the bucket count if it is above the last bucket
+	 */
+	public int bucketOf(double sample) {
+		int last = bounds.length - 1;
+		if (!(sample >= bounds[0])) { // below or NaN
+			return -1;
+		}
+		if (sample >= bounds[last]) {
+			return sample == bounds[last] ? last - 1 : last;
+		}
+		if (scale == Scale.Linear) {
+			int bucket = (int) ((sample - bounds[0]) / (bounds[last] - bounds[0]) * last);
+			// correct rounding errors of the division
+			if (bucket >= last) {
+				bucket = last - 1;
+			}
+			while (sample < bounds[bucket]) {
+				bucket--;
+			}
+			while (sample >= bounds[bucket + 1]) {
+				bucket++;
+			}
+			return bucket;
+		}
+		int index = Arrays.binarySearch(bounds, sample);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	/**
+	 * Returns empty counts to add samples to.
+	 *
+	 * @return new counts
+	 */
+	public Counts newCounts() {
+		return new Counts();
+	}
+
+	/**
+	 * Counts the samples of the iterator in a single pass.
+	 *
+	 * @param samples the samples, may be streamed
+	 * @return the counts
+	 *
+	 * @throws IllegalArgumentException if samples or member is {@code null}
+	 */
+	public Counts count(Iterator<? extends Number> samples) {
+		if (samples == null)
+			throw new IllegalArgumentException("samples can not be null");
+		Counts counts = new Counts();
+		while (samples.hasNext()) {
+			Number sample = samples.next();
+			if (sample == null)
+				throw new IllegalArgumentException("sample can not be null");
+			counts.add(sample.doubleValue());
+		}
+		return counts;
+	}
+
+	/**
+	 * Counts the samples in the current thread.
+	 *
+	 * @param samples the samples
+	 * @return the counts
+	 *
+	 * @throws IllegalArgumentException if samples is {@code null}
+	 */
+	public Counts count(double[] samples) {
+		Counts counts = new Counts();
+		counts.addAll(samples, 0, samples == null ? 0 : samples.length);
+		return counts;
+	}
+
+	/**
+	 * Counts the samples in the current thread.
+	 *
+	 * @param samples the samples
+	 * @return the counts
+	 *
+	 * @throws IllegalArgumentException if samples is {@code null}
+	 */
+	public Counts count(long[] samples) {
+		Counts counts = new Counts();
+		counts.addAll(samples, 0, samples == null ? 0 : samples.length);
+		return counts;
+	}
+
+	/**
+	 * Counts the samples in parallel: the array is split into chunks of at
+	 * least {@link #MIN_CHUNK_SIZE} samples, which are counted by the threads
+	 * of the executor and merged afterwards. The executor is not shut down.
+	 *
+	 * @param samples the samples
+	 * @param executor executor counting the chunks
+	 * @return the counts
+	 *
+	 * @throws IllegalArgumentException if samples or executor is {@code null}
+	 * @throws InterruptedException if the thread was interrupted while waiting
+	 */
+	public Counts count(final double[] samples, ExecutorService executor)
+			throws InterruptedException {
+		if (samples == null)
+			throw new IllegalArgumentException("samples can not be null");
+		return new ParallelChunks<Counts>() {
+			@Override
+			Counts newResult() {
+				return new Counts();
+			}
+
+			@Override
+			void addAll(Counts counts, int offset, int length) {
+				counts.addAll(samples, offset, length);
+			}
+
+			@Override
+			void merge(Counts counts, Counts partial) {
+				counts.addAll(partial);
+			}
+		}.aggregate(samples.length, executor);
+	}
+
+	/**
+	 * Counts the samples in parallel, see
+	 * {@link #count(double[], ExecutorService)}.
+	 *
+	 * @param samples the samples
+	 * @param executor executor counting the chunks
+	 * @return the counts
+	 *
+	 * @throws IllegalArgumentException if samples or executor is {@code null}
+	 * @throws InterruptedException if the thread was interrupted while waiting
+	 */
+	public Counts count(final long[] samples, ExecutorService executor)
+			throws InterruptedException {
+		if (samples == null)
+			throw new IllegalArgumentException("samples can not be null");
+		return new ParallelChunks<Counts>() {
+			@Override
+			Counts newResult() {
+				return new Counts();
+			}
+
+			@Override
+			void addAll(Counts counts, int offset, int length) {
+				counts.addAll(samples, offset, length);
+			}
+
+			@Override
+			void merge(Counts counts, Counts partial) {
+				counts.addAll(partial);
+			}
+		}.aggregate(samples.length, executor);
+	}
+
+	/**
+	 * Formats a bound with at most three significant digits, whole numbers
+	 * without fraction.
+	 */
+	static String format(double value) {
+		if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+			return Long.toString((long) value);
+		}
+		return new BigDecimal(value).round(new MathContext(3))
+				.stripTrailingZeros().toPlainString();
+	}
+
+	/**
+	 * Counts of samples per bucket of a {@link SampleHistogram}. Counts are not
+	 * thread safe, but the counts of several threads may be merged.
+	 *
+	 * @author martin
+	 */
+	public class Counts {
+
+		private final long[] counts = new long[getBucketCount()];
+		private long underflowCount;
+		private long overflowCount;
+
+		private Counts() {
+		}
+
+		/**
+		 * Adds a sample, {@link Double#NaN} is ignored.
+		 *
+		 * @param sample the sample
+		 */
+		public void add(double sample) {
+			int bucket = bucketOf(sample);
+			if (bucket < 0) {
+				if (sample == sample) { // not NaN
+					underflowCount++;
+				}
+			} else if (bucket == counts.length) {
+				overflowCount++;
+			} else {
+				counts[bucket]++;
+			}
+		}
+
+		/**
+		 * Adds a range of the samples.
+		 *
+		 * @param samples the samples
+		 * @param offset index of the first sample
+		 * @param length count of samples
+		 *
+		 * @throws IllegalArgumentException if samples is {@code null}
+		 * @throws IndexOutOfBoundsException if the range is out of the
+		 * bounds of the array
+		 */
+		public void addAll(double[] samples, int offset, int length) {
+			checkBounds(samples == null ? -1 : samples.length, offset, length);
+			for (int i = offset; i < offset + length; i++) {
+				add(samples[i]);
+			}
+		}
+
+		/**
+		 * Adds a range of the samples.
+		 *
+		 * @param samples the samples
+		 * @param offset index of the first sample
+		 * @param length count of samples
+		 *
+		 * @throws IllegalArgumentException if samples is {@code null}
+		 * @throws IndexOutOfBoundsException if the range is out of the
+		 * bounds of the array
+		 */
+		public void addAll(long[] samples, int offset, int length) {
+			checkBounds(samples == null ? -1 : samples.length, offset, length);
+			for (int i = offset; i < offset + length; i++) {
+				add(samples[i]);
+			}
+		}
+
+		private void checkBounds(int arrayLength, int offset, int length) {
+			if (arrayLength < 0)
+				throw new IllegalArgumentException("samples can not be null");
+			if (offset < 0 || length < 0 || offset > arrayLength - length)
+				throw new IndexOutOfBoundsException("offset: " + offset
+						+ ", length: " + length);
+		}
+
+		/**
+		 * Adds the counts of other counts of the same histogram.
+		 *
+		 * @param other the other counts
+		 *
+		 * @throws IllegalArgumentException if other is {@code null} or
+		 * belongs to another histogram
+		 */
+		public void addAll(Counts other) {
+			if (other == null)
+				throw new IllegalArgumentException("other can not be null");
+			if (other.getHistogram() != getHistogram())
+				throw new IllegalArgumentException("other belongs to another histogram");
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += other.counts[i];
+			}
+			underflowCount += other.underflowCount;
+			overflowCount += other.overflowCount;
+		}
+
+		/**
+		 * Returns the histogram of the counts.
+		 *
+		 * @return the histogram
+		 */
+		public SampleHistogram getHistogram() {
+			return SampleHistogram.this;
+		}
+
+		/**
+		 * Returns the count of samples in the bucket.
+		 *
+		 * @param bucket index of the bucket
+		 * @return count of samples
+		 *
+		 * @throws IndexOutOfBoundsException if bucket is out of bound
+		 */
+		public long getCount(int bucket) {
+			return counts[bucket];
+		}
+
+		/**
+		 * Returns the count of samples in all buckets.
+		 *
+		 * @return count of counted samples
+		 */
+		public long getTotalCount() {
+			long total = 0;
+			for (long count : counts) {
+				total += count;
+			}
+			return total;
+		}
+
+		/**
+		 * Returns the count of samples below the first bucket.
+		 *
+		 * @return count of samples
+		 */
+		public long getUnderflowCount() {
+			return underflowCount;
+		}
+
+		/**
+		 * Returns the count of samples above the last bucket.
+		 *
+		 * @return count of samples
+		 */
+		public long getOverflowCount() {
+			return overflowCount;
+		}
+
+		/**
+		 * Returns the greatest count of a bucket.
+		 *
+		 * @return greatest count
+		 */
+		public long getMaxCount() {
+			long max = 0;
+			for (long count : counts) {
+				max = Math.max(max, count);
+			}
+			return max;
+		}
+
+		/**
+		 * Returns a serie with one bar per bucket, counts greater than
+		 * {@link Integer#MAX_VALUE} are cut.
+		 *
+		 * @return the serie
+		 */
+		public BarChartDataSerie toBarChartDataSerie() {
+			int[] values = new int[counts.length];
+			for (int i = 0; i < counts.length; i++) {
+				values[i] = (int) Math.min(counts[i], Integer.MAX_VALUE);
+			}
+			return new BarChartDataSerie.BarChartDataSerieBuilder(values).build();
+		}
+
+		/**
+		 * Returns an axis with one label per bucket: the lower bound of the
+		 * bucket. If there are more buckets than labels, only every n-th
+		 * bucket is labeled, the others get an empty label.
+		 *
+		 * @param type the axis
+		 * @param maxLabels count of labels at most
+		 * @return the axis labels
+		 *
+		 * @throws IllegalArgumentException if type is {@code null} or
+		 * maxLabels &lt; 1
+		 */
+		public AxisLabelContainer toAxisLabelContainer(AxisType type,
+				int maxLabels) {
+			if (maxLabels < 1)
+				throw new IllegalArgumentException("maxLabels must be > 0");
+			AxisLabelContainer container = new AxisLabelContainer(type);
+			int every = (counts.length + maxLabels - 1) / maxLabels;
+			for (int i = 0; i < counts.length; i++) {
+				container.addLabel(new AxisLabel(i % every == 0 ? format(bounds[i])
+						: ""));
+			}
+			return container;
+		}
+
+		/**
+		 * Returns an {@link AxisRange} for the count axis, from 0 to the
+		 * greatest count.
+		 *
+		 * @return axis range matching the counts
+		 */
+		public AxisRange toAxisRange() {
+			return new AxisRange(0, (int) Math.min(Math.max(getMaxCount(), 1),
+					Integer.MAX_VALUE));
+		}
+
+		/**
+		 * Returns a {@link DataScalingSet} from 0 to the greatest count, which
+		 * matches {@link #toAxisRange()}.
+		 *
+		 * @return data scaling set matching the counts
+		 */
+		public DataScalingSet toDataScalingSet() {
+			return new DataScalingSet(0, Math.max(getMaxCount(), 1));
+		}
+	}
+
+}
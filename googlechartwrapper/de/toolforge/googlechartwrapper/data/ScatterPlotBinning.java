@@ -0,0 +1,393 @@
+package de.toolforge.googlechartwrapper.data;
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Aggregates a large count of scatter plot points into bins of a rectangular
+ * or hexagonal grid. Each occupied bin becomes one point at the center of the
+ * bin, its size is the count of points in the bin, so the density stays
+ * visible. A scatter plot is at most 1000 pixels wide, so hundreds of
+ * thousands of points only make the url longer.
+ * <p>
+ * The grid spans the coordinates from 0 to maxX and from 0 to maxY, points
+ * outside are counted as dropped. The points are counted in a single pass
+ * into an array with one counter per bin, so the memory does not depend on
+ * the count of points: they may be streamed from an {@link Iterator} or added
+ * chunk by chunk to {@link Bins}. The columns of a large {@link ScatterPlotData}
+ * may be counted in parallel by the threads of an {@link ExecutorService}.
+ * Instances are immutable and may be shared between threads.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how ScatterPlotBinning can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * ScatterPlotBinning binning = new ScatterPlotBinning(
+ * 		ScatterPlotBinning.Shape.Hexagon, 50, 30, maxThroughput, maxLatency);
+ * scatterPlot.setScatterPlotData(binning.bin(ScatterPlotData.wrap(throughputs, latencies), executor));
+ *
+ * ScatterPlotBinning.Bins bins = binning.newBins();
+ * while (source.hasMoreChunks()) {
+ * 	bins.addAll(source.nextX(), source.nextY(), 0, source.chunkLength());
+ * }
+ * scatterPlot.setScatterPlotData(bins.toScatterPlotData());
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see ScatterPlotData
+ */
+public class ScatterPlotBinning {
+
+	/**
+	 * count of points counted by one task at least
+	 */
+	public static final int MIN_CHUNK_SIZE = ParallelChunks.MIN_CHUNK_SIZE;
+
+	/**
+	 * Shape of the bins.
+	 */
+	public static enum Shape {
+
+		/**
+		 * columns x rows rectangles
+		 */
+		Rectangle,
+
+		/**
+		 * hexagons on two interleaved lattices: centers at the corners and
+		 * at the centers of the columns x rows rectangles. The hexagons are
+		 * regular if a rectangle is sqrt(3) times higher than wide on the
+		 * chart.
+		 */
+		Hexagon
+	}
+
+	private final Shape shape;
+	private final int columns;
+	private final int rows;
+	private final int maxX;
+	private final int maxY;
+	/**
+	 * width and height of a rectangle
+	 */
+	private final double cellWidth;
+	private final double cellHeight;
+
+	/**
+	 * Constructs a binning.
+	 *
+	 * @param shape shape of the bins
+	 * @param columns count of bins along the x axis
+	 * @param rows count of bins along the y axis
+	 * @param maxX greatest x coordinate of the grid
+	 * @param maxY greatest y coordinate of the grid
+	 *
+	 * @throws IllegalArgumentException if shape is {@code null}, columns or
+	 * rows &lt; 1 or maxX or maxY &lt; 1
+	 */
+	public ScatterPlotBinning(Shape shape, int columns, int rows, int maxX,
+			int maxY) {
+		if (shape == null)
+			throw new IllegalArgumentException("shape can not be null");
+		if (columns < 1 || rows < 1)
+			throw new IllegalArgumentException("columns and rows must be > 0");
+		if (maxX < 1 || maxY < 1)
+			throw new IllegalArgumentException("maxX and maxY must be > 0");
+		this.shape = shape;
+		this.columns = columns;
+		this.rows = rows;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.cellWidth = (double) maxX / columns;
+		this.cellHeight = (double) maxY / rows;
+	}
+
+	/**
+	 * Returns the shape of the bins.
+	 *
+	 * @return shape of the bins
+	 */
+	public Shape getShape() {
+		return shape;
+	}
+
+	/**
+	 * Returns the count of bins, including the hexagons at the border of the
+	 * grid.
+	 *
+	 * @return count of bins
+	 */
+	public int getBinCount() {
+		if (shape == Shape.Rectangle) {
+			return columns * rows;
+		}
+		return (columns + 1) * (rows + 1) + columns * rows;
+	}
+
+	/**
+	 * Returns empty bins to add points to.
+	 *
+	 * @return new bins
+	 */
+	public Bins newBins() {
+		return new Bins();
+	}
+
+	/**
+	 * Bins the points of the iterator in a single pass.
+	 *
+	 * @param points the points, may be streamed
+	 * @return one point per occupied bin, with the count of points as size
+	 *
+	 * @throws IllegalArgumentException if points or member is {@code null}
+	 */
+	public ScatterPlotData bin(Iterator<ScatterPlotPoint> points) {
+		if (points == null)
+			throw new IllegalArgumentException("points can not be null");
+		Bins bins = new Bins();
+		while (points.hasNext()) {
+			ScatterPlotPoint point = points.next();
+			if (point == null)
+				throw new IllegalArgumentException("point can not be null");
+			bins.add(point.getXCoordinate(), point.getYCoordinate());
+		}
+		return bins.toScatterPlotData();
+	}
+
+	/**
+	 * Bins the points of the data set in the current thread.
+	 *
+	 * @param data the points
+	 * @return one point per occupied bin, with the count of points as size
+	 *
+	 * @throws IllegalArgumentException if data is {@code null}
+	 */
+	public ScatterPlotData bin(ScatterPlotData data) {
+		if (data == null)
+			throw new IllegalArgumentException("data can not be null");
+		Bins bins = new Bins();
+		int[][] columns = data.getColumns();
+		bins.addAll(columns[0], columns[1], 0, data.size());
+		return bins.toScatterPlotData();
+	}
+
+	/**
+	 * Bins the points of the data set in parallel: the columns are split into
+	 * chunks of at least {@link #MIN_CHUNK_SIZE} points, which are counted by
+	 * the threads of the executor and merged afterwards. The executor is not
+	 * shut down.
+	 *
+	 * @param data the points
+	 * @param executor executor counting the chunks
+	 * @return one point per occupied bin, with the count of points as size
+	 *
+	 * @throws IllegalArgumentException if data or executor is {@code null}
+	 * @throws InterruptedException if the thread was interrupted while waiting
+	 */
+	public ScatterPlotData bin(ScatterPlotData data, ExecutorService executor)
+			throws InterruptedException {
+		if (data == null)
+			throw new IllegalArgumentException("data can not be null");
+		int[][] columns = data.getColumns();
+		final int[] x = columns[0];
+		final int[] y = columns[1];
+		return new ParallelChunks<Bins>() {
+			@Override
+			Bins newResult() {
+				return new Bins();
+			}
+
+			@Override
+			void addAll(Bins bins, int offset, int length) {
+				bins.addAll(x, y, offset, length);
+			}
+
+			@Override
+			void merge(Bins bins, Bins partial) {
+				bins.addAll(partial);
+			}
+		}.aggregate(data.size(), executor).toScatterPlotData();
+	}
+
+	/**
+	 * Returns the index of the bin of the point, -1 if the point is outside
+	 * of the grid.
+	 */
+	private int binIndex(int x, int y) {
+		if (x < 0 || y < 0 || x > maxX || y > maxY) {
+			return -1;
+		}
+		double u = x / cellWidth;
+		double v = y / cellHeight;
+		if (shape == Shape.Rectangle) {
+			int column = Math.min((int) u, columns - 1);
+			int row = Math.min((int) v, rows - 1);
+			return row * columns + column;
+		}
+		// the nearest center of the two lattices, a row of hexagons is
+		// sqrt(3) times farther apart than a column
+		int column1 = (int) Math.round(u);
+		int row1 = (int) Math.round(v);
+		int column2 = Math.min((int) u, columns - 1);
+		int row2 = Math.min((int) v, rows - 1);
+		double d1 = (u - column1) * (u - column1) + 3 * (v - row1) * (v - row1);
+		double d2 = (u - column2 - 0.5) * (u - column2 - 0.5) + 3
+				* (v - row2 - 0.5) * (v - row2 - 0.5);
+		if (d1 <= d2) {
+			return row1 * (columns + 1) + column1;
+		}
+		return (columns + 1) * (rows + 1) + row2 * columns + column2;
+	}
+
+	/**
+	 * Writes the center of the bin into the array.
+	 */
+	private void center(int index, int[] center) {
+		if (shape == Shape.Rectangle) {
+			center[0] = (int) Math.round((index % columns + 0.5) * cellWidth);
+			center[1] = (int) Math.round((index / columns + 0.5) * cellHeight);
+		} else if (index < (columns + 1) * (rows + 1)) {
+			center[0] = (int) Math.round(index % (columns + 1) * cellWidth);
+			center[1] = (int) Math.round(index / (columns + 1) * cellHeight);
+		} else {
+			index -= (columns + 1) * (rows + 1);
+			center[0] = (int) Math.round((index % columns + 0.5) * cellWidth);
+			center[1] = (int) Math.round((index / columns + 0.5) * cellHeight);
+		}
+	}
+
+	/**
+	 * Counts of points per bin of a {@link ScatterPlotBinning}. Bins are not
+	 * thread safe, but the bins of several threads may be merged.
+	 *
+	 * @author martin
+	 */
+	public class Bins {
+
+		private final int[] counts = new int[getBinCount()];
+		private long count;
+		private long droppedCount;
+
+		private Bins() {
+		}
+
+		/**
+		 * Adds a point.
+		 *
+		 * @param x x coordinate
+		 * @param y y coordinate
+		 */
+		public void add(int x, int y) {
+			int index = binIndex(x, y);
+			if (index < 0) {
+				droppedCount++;
+			} else {
+				counts[index]++;
+				count++;
+			}
+		}
+
+		/**
+		 * Adds the points of a range of the columns.
+		 *
+		 * @param x x coordinates
+		 * @param y y coordinates
+		 * @param offset index of the first point
+		 * @param length count of points
+		 *
+		 * @throws IllegalArgumentException if x or y is {@code null}
+		 * @throws IndexOutOfBoundsException if the range is out of the
+		 * bounds of an array
+		 */
+		public void addAll(int[] x, int[] y, int offset, int length) {
+			if (x == null || y == null)
+				throw new IllegalArgumentException("values can not be null");
+			if (offset < 0 || length < 0 || offset > x.length - length
+					|| offset > y.length - length)
+				throw new IndexOutOfBoundsException("offset: " + offset
+						+ ", length: " + length);
+			for (int i = offset; i < offset + length; i++) {
+				add(x[i], y[i]);
+			}
+		}
+
+		/**
+		 * Adds the counts of other bins of the same binning.
+		 *
+		 * @param other the other bins
+		 *
+		 * @throws IllegalArgumentException if other is {@code null} or
+		 * belongs to another binning
+		 */
+		public void addAll(Bins other) {
+			if (other == null)
+				throw new IllegalArgumentException("other can not be null");
+			if (other.getBinning() != getBinning())
+				throw new IllegalArgumentException("other belongs to another binning");
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += other.counts[i];
+			}
+			count += other.count;
+			droppedCount += other.droppedCount;
+		}
+
+		private ScatterPlotBinning getBinning() {
+			return ScatterPlotBinning.this;
+		}
+
+		/**
+		 * Returns the count of points in the bins.
+		 *
+		 * @return count of binned points
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the count of points outside of the grid.
+		 *
+		 * @return count of dropped points
+		 */
+		public long getDroppedCount() {
+			return droppedCount;
+		}
+
+		/**
+		 * Returns one point per occupied bin at the center of the bin, its
+		 * size is the count of points in the bin.
+		 *
+		 * @return the points of the bins
+		 */
+		public ScatterPlotData toScatterPlotData() {
+			int occupied = 0;
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] > 0) {
+					occupied++;
+				}
+			}
+			int[] x = new int[occupied];
+			int[] y = new int[occupied];
+			int[] sizes = new int[occupied];
+			int[] center = new int[2];
+			int k = 0;
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] > 0) {
+					center(i, center);
+					x[k] = center[0];
+					y[k] = center[1];
+					sizes[k] = counts[i];
+					k++;
+				}
+			}
+			return ScatterPlotData.wrap(x, y, sizes);
+		}
+	}
+
+}
@@ -1,51 +1,419 @@
 package de.toolforge.googlechartwrapper.data;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
- * 
- * @author steffan
+ * The points of a scatter plot. The points are either held as a list of
+ * {@link ScatterPlotPoint}s or as columns of primitive x, y and size values.
+ * The columns do not need an object per point: they may be filled by
+ * {@link #add(int, int)} and {@link #addAll(int[], int[])} or wrap the arrays of
+ * the caller without copying them ({@link #wrap(int[], int[])}). Adding points
+ * to a data set constructed from a list converts the list into columns.
+ * <p>
+ * The columns have a size column as soon as one point has a size, the other
+ * points get the {@link ScatterPlotPoint#DEFAULT_SIZE}. The data set is not
+ * thread safe.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how ScatterPlotData can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * int[] latencies = ...;
+ * int[] throughputs = ...;
+ * ScatterPlotData data = ScatterPlotData.wrap(throughputs, latencies);
+ *
+ * ScatterPlotData appended = new ScatterPlotData(1024);
+ * appended.add(10, 20);
+ * appended.addAll(moreX, moreY);
+ * </pre>
  *
- */ 
+ * </blockquote>
+ * <p>
+ *
+ * @author steffan
+ * @author martin
+ */
 public class ScatterPlotData {
-	
-	private List<ScatterPlotPoint> dataSet;	
-	
+
+	private static final int[] EMPTY = new int[0];
+
 	/**
-	 * 
+	 * the points, {@code null} if the columns are used
+	 */
+	private List<ScatterPlotPoint> dataSet;
+
+	private int[] xValues = EMPTY;
+	private int[] yValues = EMPTY;
+	/**
+	 * sizes of the points, {@code null} if no point has a size
+	 */
+	private int[] sizes;
+	private int count;
+
+	/**
+	 *
 	 * @param dataSet
-	 * 
+	 *
 	 * @throws IllegalArgumentException if dataSet is <code>null</code>
 	 */
 	public ScatterPlotData(List<ScatterPlotPoint> dataSet){
-		
+
 		if(dataSet == null)
-			throw new IllegalArgumentException("dataSet can not be null");				
-		
+			throw new IllegalArgumentException("dataSet can not be null");
+
 		this.dataSet = dataSet;
-				
-	}	
+
+	}
+
+	/**
+	 * Constructs an empty data set with columns for the given count of points.
+	 *
+	 * @param initialCapacity count of points which may be added without
+	 * growing the columns
+	 *
+	 * @throws IllegalArgumentException if initialCapacity &lt; 0
+	 */
+	public ScatterPlotData(int initialCapacity){
+
+		if(initialCapacity < 0)
+			throw new IllegalArgumentException("initialCapacity can not be < 0");
+
+		this.xValues = new int[initialCapacity];
+		this.yValues = new int[initialCapacity];
+	}
+
+	/**
+	 * Constructs a data set which uses the given arrays as columns without
+	 * copying them. The caller must not modify the arrays as long as the data
+	 * set is in use. Added points are written to new arrays.
+	 *
+	 * @param xValues x coordinates of the points
+	 * @param yValues y coordinates of the points
+	 * @return data set backed by the arrays
+	 *
+	 * @throws IllegalArgumentException if an array is {@code null}, the arrays
+	 * have different lengths or a coordinate is &lt; 0
+	 */
+	public static ScatterPlotData wrap(int[] xValues, int[] yValues){
+
+		return wrap(xValues, yValues, null);
+	}
+
+	/**
+	 * Constructs a data set which uses the given arrays as columns without
+	 * copying them. The caller must not modify the arrays as long as the data
+	 * set is in use. Added points are written to new arrays.
+	 *
+	 * @param xValues x coordinates of the points
+	 * @param yValues y coordinates of the points
+	 * @param sizes sizes of the points, {@code null} if the points have no size
+	 * @return data set backed by the arrays
+	 *
+	 * @throws IllegalArgumentException if xValues or yValues is {@code null},
+	 * the arrays have different lengths or a coordinate is &lt; 0
+	 */
+	public static ScatterPlotData wrap(int[] xValues, int[] yValues, int[] sizes){
+
+		checkColumns(xValues, yValues, sizes);
+		ScatterPlotData data = new ScatterPlotData(0);
+		data.xValues = xValues;
+		data.yValues = yValues;
+		data.sizes = sizes;
+		data.count = xValues.length;
+		return data;
+	}
+
+	private static void checkColumns(int[] xValues, int[] yValues, int[] sizes){
+
+		if(xValues == null || yValues == null)
+			throw new IllegalArgumentException("values can not be null");
+		if(xValues.length != yValues.length
+				|| (sizes != null && sizes.length != xValues.length))
+			throw new IllegalArgumentException("the arrays must have the same length");
+		for(int i = 0; i < xValues.length; i++){
+			if(xValues[i] < 0 || yValues[i] < 0)
+				throw new IllegalArgumentException("coordinate can not < 0");
+		}
+	}
 
 	/**
+	 * Returns the points. If the columns are used, an unmodifiable view is
+	 * returned which creates a {@link ScatterPlotPoint} on each access.
+	 *
 	 * @return the dataSet
 	 */
 	public List<ScatterPlotPoint> getDataSet() {
-		
-		return this.dataSet;
-		
+
+		if(this.dataSet != null)
+			return this.dataSet;
+		return new PointListView();
 	}
 
 	/**
 	 * @param dataSet the dataSet to set
-	 * 
+	 *
 	 * @throws IllegalArgumentException
 	 */
 	public void setDataSet(List<ScatterPlotPoint> dataSet) {
-		
+
 		if(dataSet == null)
-			throw new IllegalArgumentException("dataSet can not be null");				
-		
+			throw new IllegalArgumentException("dataSet can not be null");
+
 		this.dataSet = dataSet;
-	}	
+		this.xValues = EMPTY;
+		this.yValues = EMPTY;
+		this.sizes = null;
+		this.count = 0;
+	}
+
+	/**
+	 * Adds a point without size.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 *
+	 * @throws IllegalArgumentException if a coordinate is &lt; 0
+	 */
+	public void add(int x, int y){
+
+		if(x < 0 || y < 0)
+			throw new IllegalArgumentException("coordinate can not < 0");
+		toColumns();
+		ensureCapacity(count + 1);
+		xValues[count] = x;
+		yValues[count] = y;
+		if(sizes != null){
+			sizes[count] = ScatterPlotPoint.DEFAULT_SIZE;
+		}
+		count++;
+	}
+
+	/**
+	 * Adds a point with size.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @param size size of the point
+	 *
+	 * @throws IllegalArgumentException if a coordinate is &lt; 0
+	 */
+	public void add(int x, int y, int size){
+
+		add(x, y);
+		addSizeColumn();
+		sizes[count - 1] = size;
+	}
+
+	/**
+	 * Adds the points without size.
+	 *
+	 * @param xValues x coordinates of the points
+	 * @param yValues y coordinates of the points
+	 *
+	 * @throws IllegalArgumentException if an array is {@code null}, the arrays
+	 * have different lengths or a coordinate is &lt; 0
+	 */
+	public void addAll(int[] xValues, int[] yValues){
+
+		addAll(xValues, yValues, null);
+	}
+
+	/**
+	 * Adds the points.
+	 *
+	 * @param xValues x coordinates of the points
+	 * @param yValues y coordinates of the points
+	 * @param sizes sizes of the points, {@code null} if the points have no size
+	 *
+	 * @throws IllegalArgumentException if xValues or yValues is {@code null},
+	 * the arrays have different lengths or a coordinate is &lt; 0
+	 */
+	public void addAll(int[] xValues, int[] yValues, int[] sizes){
+
+		checkColumns(xValues, yValues, sizes);
+		toColumns();
+		ensureCapacity(count + xValues.length);
+		System.arraycopy(xValues, 0, this.xValues, count, xValues.length);
+		System.arraycopy(yValues, 0, this.yValues, count, yValues.length);
+		if(sizes != null){
+			addSizeColumn();
+			System.arraycopy(sizes, 0, this.sizes, count, sizes.length);
+		}
+		else if(this.sizes != null){
+			Arrays.fill(this.sizes, count, count + xValues.length,
+					ScatterPlotPoint.DEFAULT_SIZE);
+		}
+		count += xValues.length;
+	}
+
+	/**
+	 * Converts the points of the list into columns.
+	 */
+	private void toColumns(){
+
+		if(dataSet == null)
+			return;
+		int[][] columns = readColumns(dataSet);
+		count = dataSet.size();
+		dataSet = null;
+		xValues = columns[0];
+		yValues = columns[1];
+		sizes = columns.length > 2 ? columns[2] : null;
+	}
+
+	/**
+	 * Reads the columns of the points in one pass.
+	 *
+	 * @return x and y coordinates and the sizes if a point has a size
+	 */
+	private static int[][] readColumns(List<ScatterPlotPoint> points){
+
+		int[] x = new int[points.size()];
+		int[] y = new int[points.size()];
+		int[] pointSizes = new int[points.size()];
+		boolean isSizeSet = false;
+		int i = 0;
+		for(ScatterPlotPoint point : points){
+			x[i] = point.getXCoordinate();
+			y[i] = point.getYCoordinate();
+			pointSizes[i] = point.getSize();
+			isSizeSet |= point.isSizeSet();
+			i++;
+		}
+		return isSizeSet ? new int[][] { x, y, pointSizes } : new int[][] { x, y };
+	}
+
+	/**
+	 * Returns the columns which are encoded: the x and y coordinates and the
+	 * sizes if a point has a size. The points of a list are read in one pass,
+	 * the columns are returned without copying them, so they may be longer
+	 * than {@link #size()}: only the first {@link #size()} values are points.
+	 *
+	 * @return the columns, must not be modified
+	 */
+	int[][] getColumns(){
+
+		if(dataSet != null)
+			return readColumns(dataSet);
+		return sizes != null ? new int[][] { xValues, yValues, sizes }
+				: new int[][] { xValues, yValues };
+	}
+
+	private void ensureCapacity(int capacity){
+
+		if(capacity <= xValues.length)
+			return;
+		int newCapacity = Math.max(capacity, xValues.length + (xValues.length >> 1) + 16);
+		xValues = Arrays.copyOf(xValues, newCapacity);
+		yValues = Arrays.copyOf(yValues, newCapacity);
+		if(sizes != null){
+			sizes = Arrays.copyOf(sizes, newCapacity);
+		}
+	}
+
+	/**
+	 * Adds the size column, the points added so far get the default size.
+	 */
+	private void addSizeColumn(){
+
+		if(sizes != null)
+			return;
+		sizes = new int[xValues.length];
+		Arrays.fill(sizes, 0, count, ScatterPlotPoint.DEFAULT_SIZE);
+	}
+
+	/**
+	 * Returns the count of points.
+	 *
+	 * @return count of points
+	 */
+	public int size(){
+
+		return dataSet != null ? dataSet.size() : count;
+	}
+
+	/**
+	 * Returns whether at least one point has a size, so the sizes are part
+	 * of the chart data.
+	 *
+	 * @return {@code true} if a point has a size
+	 */
+	public boolean isSizeSet(){
+
+		if(dataSet == null)
+			return sizes != null;
+		for(ScatterPlotPoint point : dataSet){
+			if(point.isSizeSet())
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a copy of the x coordinates of the points. The array has exactly
+	 * {@link #size()} values, the columns of the data set are not changed.
+	 *
+	 * @return array of x coordinates
+	 */
+	public int[] getXValues(){
+
+		return copyColumn(0);
+	}
+
+	/**
+	 * Returns a copy of the y coordinates of the points, see
+	 * {@link #getXValues()}.
+	 *
+	 * @return array of y coordinates
+	 */
+	public int[] getYValues(){
+
+		return copyColumn(1);
+	}
+
+	/**
+	 * Returns a copy of the sizes of the points, see {@link #getXValues()}.
+	 *
+	 * @return array of sizes, {@code null} if no point has a size
+	 */
+	public int[] getSizes(){
+
+		return copyColumn(2);
+	}
+
+	private int[] copyColumn(int index){
+
+		int[][] columns = getColumns();
+		if(index >= columns.length)
+			return null;
+		// the columns read from the points are copies already
+		return dataSet != null ? columns[index] : Arrays.copyOf(columns[index], count);
+	}
+
+	/**
+	 * List view of the columns.
+	 */
+	private class PointListView extends AbstractList<ScatterPlotPoint> implements RandomAccess {
+
+		@Override
+		public ScatterPlotPoint get(int index) {
+			if(index < 0 || index >= count)
+				throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+			return sizes != null
+					? new ScatterPlotPoint(xValues[index], yValues[index], sizes[index])
+					: new ScatterPlotPoint(xValues[index], yValues[index]);
+		}
+
+		@Override
+		public int size() {
+			return count;
+		}
+	}
 
 }
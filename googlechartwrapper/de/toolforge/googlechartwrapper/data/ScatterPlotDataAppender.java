@@ -2,7 +2,7 @@ package de.toolforge.googlechartwrapper.data;
 
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 
 import de.toolforge.googlechartwrapper.ChartTypeFeature;
@@ -19,6 +19,9 @@ import de.toolforge.googlechartwrapper.util.IFeatureAppender;
  * {@link ScatterPlotPoint}s has an user set size, the 
  * 3rd data set (size) is omitted. That means, that for any 
  * {@link ScatterPlotPoint#isSizeSet()} call <code>false</code> is returned.
+ * The x, y and size columns of the {@link ScatterPlotData} are passed to the
+ * {@link PercentageEncoder} as they are, with the count of points as length.
+ * Other encoders get copies of exactly the count of points.
  * 
  * @author steffan
  *
@@ -53,59 +56,12 @@ public class ScatterPlotDataAppender implements IExtendedFeatureAppender, IEncod
 	public List<AppendableFeature> getAppendableFeatures(
 			List<? extends IFeatureAppender> otherAppenders) {
 		
-		StringBuilder builder = new StringBuilder();	
-		
-		//build to arrays, for x and y
+		//the columns are encoded without copying them, a list of points is read once
 		if(this.data != null){
 			
-			int [] valuesX = new int[data.getDataSet().size()];
-			int [] valuesY = new int[data.getDataSet().size()];
-			
-			for(int i = 0; i < data.getDataSet().size(); i++){
-				
-				valuesX[i] = ((ArrayList<ScatterPlotPoint>) data.getDataSet()).get(i).getXCoordinate();
-				valuesY[i] = ((ArrayList<ScatterPlotPoint>) data.getDataSet()).get(i).getYCoordinate();
-				
-			}
-			
-			
-			int [] valuesSize = new int[data.getDataSet().size()];
-			boolean isSizeGiven = false;
-			//check if their is a least one point size given
-			for(int i= 0; i < data.getDataSet().size(); i++){
-				
-				
-				if(((ArrayList<ScatterPlotPoint>) data.getDataSet()).get(i).isSizeSet()){
-					//we have at least one given size
-					isSizeGiven = true;
-				}
-				valuesSize[i] = ((ArrayList<ScatterPlotPoint>) data.getDataSet()).get(i).getSize();
-			}
-			
-			List<int[]> data = new LinkedList<int[]>();
-			data.add(valuesX);
-			data.add(valuesY);
-			//and if the size is given we add the size array
-			if(isSizeGiven){
-				data.add(valuesSize);
-				
-				// ???
-				builder.append(this.encoder.encodeIntegerCollection(data));
-				
-				List<AppendableFeature> feature = new ArrayList<AppendableFeature>(); 
-				
-		        feature.add(new AppendableFeature(builder.toString(), 
-		                  ChartTypeFeature.ChartData)); 
-		        
-				return feature;
-			}
-			// ???
-			builder.append(this.encoder.encodeIntegerCollection(data));
-						
 			List<AppendableFeature> feature = new ArrayList<AppendableFeature>(); 
 			
-	        feature.add(new AppendableFeature(builder.toString(), 
-	                  ChartTypeFeature.ChartData)); 
+	        feature.add(new AppendableFeature(encodeColumns(), ChartTypeFeature.ChartData)); 
 	        
 			return feature;
 			
@@ -115,6 +71,25 @@ public class ScatterPlotDataAppender implements IExtendedFeatureAppender, IEncod
 		
 	}
 
+	/**
+	 * Encodes the first {@link ScatterPlotData#size()} values of the columns,
+	 * which may have spare capacity after points were added.
+	 */
+	private String encodeColumns(){
+		
+		int[][] columns = this.data.getColumns();
+		int count = this.data.size();
+		if(this.encoder instanceof PercentageEncoder){
+			return ((PercentageEncoder) this.encoder).encodeIntegerCollection(
+					Arrays.asList(columns), count, ",");
+		}
+		int[][] values = new int[columns.length][];
+		for(int i = 0; i < columns.length; i++){
+			values[i] = columns[i].length == count ? columns[i] : Arrays.copyOf(columns[i], count);
+		}
+		return this.encoder.encodeIntegerCollection(Arrays.asList(values));
+	}
+
 	public IEncoder getEncoder() {
 		
 		return this.encoder;
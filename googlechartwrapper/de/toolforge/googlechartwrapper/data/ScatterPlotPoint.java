@@ -10,9 +10,14 @@ package de.toolforge.googlechartwrapper.data;
  */
 public class ScatterPlotPoint {
 	
+	/**
+	 * size of a point without a user set size
+	 */
+	public static final int DEFAULT_SIZE = 200;
+	
 	private int xCoordinate;
 	private int yCoordinate;
-	private int size = 200;
+	private int size = DEFAULT_SIZE;
 	private boolean isSizeSet = false;
 	
 	
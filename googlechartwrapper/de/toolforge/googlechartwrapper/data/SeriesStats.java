@@ -0,0 +1,275 @@
+package de.toolforge.googlechartwrapper.data;
+
+import de.toolforge.googlechartwrapper.coder.EncoderFactory;
+import de.toolforge.googlechartwrapper.label.AxisRange;
+
+/**
+ * Statistics of a data series: minimum, maximum, count of values, count of
+ * missing values and whether all values are whole numbers. The statistics are
+ * computed in a single pass over the values. A {@link Float#NaN} value counts as
+ * missing and is ignored for the minimum and maximum.
+ * <p>
+ * The statistics of a {@link FloatDataSet} are computed once and cached, see
+ * {@link FloatDataSet#getStats()}. They are used to determine the encoding type
+ * ({@link EncoderFactory#getSuggestedEncodingType(SeriesStats)}) and for
+ * percentage scaling.
+ * </p>
+ * <p>
+ * {@link #toDataScalingSet()} and {@link #toAxisRange()} are helpers for the
+ * caller: the charts do not add a data scaling or an axis range on their own,
+ * since both change the url. The exception is
+ * {@link de.toolforge.googlechartwrapper.LineChart#fitUrlLength(int)}, which
+ * adds the data scaling of a text encoding it chooses. Otherwise they are set
+ * explicitly like this:
+ * </p>
+ * <blockquote>
+ *
+ * <pre>
+ * SeriesStats stats = dataSet.getStats();
+ * lineChart.setEncoder(new DataScalingTextEncoder(1));
+ * lineChart.addDataScalingSet(stats.toDataScalingSet());
+ * AxisLabelContainer yAxis = new AxisLabelContainer(AxisType.YAxis);
+ * yAxis.setAxisRange(stats.toAxisRange());
+ * lineChart.addAxisLabelContainer(yAxis);
+ * </pre>
+ *
+ * </blockquote>
+ * Instances are immutable.
+ *
+ * @author martin
+ * @see FloatDataSet
+ */
+public final class SeriesStats {
+
+	/**
+	 * statistics without any value
+	 */
+	public static final SeriesStats EMPTY = new SeriesStats(0, 0, Float.NaN,
+			Float.NaN, true);
+
+	private final int count;
+	private final int missingCount;
+	private final float min;
+	private final float max;
+	private final boolean integral;
+
+	private SeriesStats(int count, int missingCount, float min, float max,
+			boolean integral) {
+		this.count = count;
+		this.missingCount = missingCount;
+		this.min = min;
+		this.max = max;
+		this.integral = integral;
+	}
+
+	/**
+	 * Computes the statistics of the values.
+	 *
+	 * @param values the values
+	 * @return statistics of the values
+	 *
+	 * @throws IllegalArgumentException if values is {@code null}
+	 */
+	public static SeriesStats of(float[] values) {
+		if (values == null)
+			throw new IllegalArgumentException("values can not be null");
+		return of(values, 0, values.length);
+	}
+
+	/**
+	 * Computes the statistics of a range of the values.
+	 *
+	 * @param values the values
+	 * @param offset index of the first value
+	 * @param length count of values
+	 * @return statistics of the values
+	 *
+	 * @throws IllegalArgumentException if values is {@code null}
+	 * @throws IllegalArgumentException if offset or length are out of the array bounds
+	 */
+	public static SeriesStats of(float[] values, int offset, int length) {
+		if (values == null)
+			throw new IllegalArgumentException("values can not be null");
+		if (offset < 0 || length < 0 || offset > values.length - length)
+			throw new IllegalArgumentException("offset and length must be in the array bounds");
+
+		int missing = 0;
+		float min = Float.POSITIVE_INFINITY;
+		float max = Float.NEGATIVE_INFINITY;
+		boolean integral = true;
+		for (int i = offset; i < offset + length; i++) {
+			float current = values[i];
+			if (current != current) { // NaN
+				missing++;
+				continue;
+			}
+			if (current < min) min = current;
+			if (current > max) max = current;
+			if (integral && (Float.isInfinite(current) || current != (float) Math.floor(current))) {
+				integral = false;
+			}
+		}
+		if (missing == length) {
+			return new SeriesStats(length, missing, Float.NaN, Float.NaN, true);
+		}
+		return new SeriesStats(length, missing, min, max, integral);
+	}
+
+	/**
+	 * Computes the statistics of the values.
+	 *
+	 * @param values the values
+	 * @return statistics of the values
+	 *
+	 * @throws IllegalArgumentException if values is {@code null}
+	 */
+	public static SeriesStats of(int[] values) {
+		if (values == null)
+			throw new IllegalArgumentException("values can not be null");
+		return of(values, 0, values.length);
+	}
+
+	/**
+	 * Computes the statistics of a range of the values.
+	 *
+	 * @param values the values
+	 * @param offset index of the first value
+	 * @param length count of values
+	 * @return statistics of the values
+	 *
+	 * @throws IllegalArgumentException if values is {@code null}
+	 * @throws IllegalArgumentException if offset or length are out of the array bounds
+	 */
+	public static SeriesStats of(int[] values, int offset, int length) {
+		if (values == null)
+			throw new IllegalArgumentException("values can not be null");
+		if (offset < 0 || length < 0 || offset > values.length - length)
+			throw new IllegalArgumentException("offset and length must be in the array bounds");
+		if (length == 0) {
+			return EMPTY;
+		}
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (int i = offset; i < offset + length; i++) {
+			int current = values[i];
+			if (current < min) min = current;
+			if (current > max) max = current;
+		}
+		return new SeriesStats(length, 0, min, max, true);
+	}
+
+	/**
+	 * Returns the statistics of the values of both statistics, e.g. of two
+	 * data series which are scaled or encoded together.
+	 *
+	 * @param other other statistics
+	 * @return combined statistics
+	 *
+	 * @throws IllegalArgumentException if other is {@code null}
+	 */
+	public SeriesStats combine(SeriesStats other) {
+		if (other == null)
+			throw new IllegalArgumentException("other can not be null");
+		if (other.getValueCount() == 0) {
+			return new SeriesStats(count + other.count, missingCount
+					+ other.missingCount, min, max, integral);
+		}
+		if (getValueCount() == 0) {
+			return new SeriesStats(count + other.count, missingCount
+					+ other.missingCount, other.min, other.max, other.integral);
+		}
+		return new SeriesStats(count + other.count, missingCount
+				+ other.missingCount, Math.min(min, other.min), Math.max(max,
+				other.max), integral && other.integral);
+	}
+
+	/**
+	 * Returns the count of all values including the missing values.
+	 *
+	 * @return count of values
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the count of missing ({@link Float#NaN}) values.
+	 *
+	 * @return count of missing values
+	 */
+	public int getMissingCount() {
+		return missingCount;
+	}
+
+	/**
+	 * Returns the count of values which are not missing.
+	 *
+	 * @return count of values which are not missing
+	 */
+	public int getValueCount() {
+		return count - missingCount;
+	}
+
+	/**
+	 * Returns the smallest value, {@link Float#NaN} if there is no value.
+	 *
+	 * @return smallest value
+	 */
+	public float getMin() {
+		return min;
+	}
+
+	/**
+	 * Returns the greatest value, {@link Float#NaN} if there is no value.
+	 *
+	 * @return greatest value
+	 */
+	public float getMax() {
+		return max;
+	}
+
+	/**
+	 * Returns {@code true} if all values which are not missing are whole numbers.
+	 *
+	 * @return {@code true} if all values are whole numbers
+	 */
+	public boolean isIntegral() {
+		return integral;
+	}
+
+	/**
+	 * Returns a {@link DataScalingSet} from the smallest to the greatest value,
+	 * to be added to the chart by the caller.
+	 *
+	 * @return data scaling set matching the values
+	 *
+	 * @throws IllegalStateException if there is no value
+	 */
+	public DataScalingSet toDataScalingSet() {
+		if (getValueCount() == 0)
+			throw new IllegalStateException("no values to scale");
+		return new DataScalingSet(min, max);
+	}
+
+	/**
+	 * Returns an {@link AxisRange} which includes all values, so from the
+	 * smallest value rounded down to the greatest value rounded up, to be set
+	 * on an axis by the caller.
+	 *
+	 * @return axis range matching the values
+	 *
+	 * @throws IllegalStateException if there is no value
+	 */
+	public AxisRange toAxisRange() {
+		if (getValueCount() == 0)
+			throw new IllegalStateException("no values for the range");
+		return new AxisRange((int) Math.floor(min), (int) Math.ceil(max));
+	}
+
+	@Override
+	public String toString() {
+		return "count: " + count + " missing: " + missingCount + " min: " + min
+				+ " max: " + max + " integral: " + integral;
+	}
+
+}
@@ -0,0 +1,512 @@
+package de.toolforge.googlechartwrapper.data;
+
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import de.toolforge.googlechartwrapper.coder.EncoderFactory;
+import de.toolforge.googlechartwrapper.coder.EncodingType;
+import de.toolforge.googlechartwrapper.label.AxisLabel;
+import de.toolforge.googlechartwrapper.label.AxisLabelContainer;
+import de.toolforge.googlechartwrapper.label.AxisRange;
+import de.toolforge.googlechartwrapper.label.AxisType;
+import de.toolforge.googlechartwrapper.util.Pair;
+
+/**
+ * Resamples values with irregular timestamps into evenly spaced time buckets,
+ * like a {@link LineChartData} expects them. The values of a bucket are
+ * aggregated, for example to their average or maximum. A bucket without
+ * values is a gap: it is a missing value ({@link Float#NaN}), which the
+ * encoders write as "_", "__" or -1, or it is filled with 0, the value before
+ * or a value interpolated between its neighbors.
+ * <p>
+ * The values are aggregated in a single pass into a few primitive arrays with
+ * one entry per bucket, so the memory does not depend on the count of values:
+ * they may be added chunk by chunk to {@link Buckets} and do not need to be
+ * sorted. The timestamps are milliseconds like {@link System#currentTimeMillis()},
+ * values outside of the buckets are dropped, {@link Float#NaN} values are
+ * ignored. Instances are immutable and may be shared between threads.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how TimeSeriesResampler can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * TimeSeriesResampler resampler = new TimeSeriesResampler(start, 60000, 120,
+ * 		TimeSeriesResampler.Aggregation.Average, TimeSeriesResampler.Gap.Missing);
+ * TimeSeriesResampler.Buckets buckets = resampler.resample(timestamps, values);
+ * lineChart.addLineChartData(buckets.toLineChartData());
+ * lineChart.addAxisLabelContainer(buckets.toAxisLabelContainer(AxisType.XAxis, 6,
+ * 		new SimpleDateFormat(&quot;HH:mm&quot;)));
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ * @see LineChartData
+ * @see XYLineChartData
+ */
+public class TimeSeriesResampler {
+
+	/**
+	 * Aggregation of the values of a bucket.
+	 */
+	public static enum Aggregation {
+
+		/**
+		 * the average of the values
+		 */
+		Average,
+
+		/**
+		 * the smallest value
+		 */
+		Min,
+
+		/**
+		 * the greatest value
+		 */
+		Max,
+
+		/**
+		 * the value with the latest timestamp, of equal timestamps the value
+		 * added last
+		 */
+		Last,
+
+		/**
+		 * the sum of the values
+		 */
+		Sum,
+
+		/**
+		 * the count of values, a bucket without values is 0 and no gap
+		 */
+		Count
+	}
+
+	/**
+	 * Value of a bucket without values.
+	 */
+	public static enum Gap {
+
+		/**
+		 * a missing value ({@link Float#NaN}), encoded as "_", "__" or -1
+		 */
+		Missing,
+
+		/**
+		 * 0
+		 */
+		Zero,
+
+		/**
+		 * the value of the bucket before, missing at the start
+		 */
+		Previous,
+
+		/**
+		 * interpolated linearly between the buckets before and after, missing
+		 * at the start and the end
+		 */
+		Interpolate
+	}
+
+	private final long start;
+	private final long bucketMillis;
+	private final int bucketCount;
+	private final Aggregation aggregation;
+	private final Gap gap;
+
+	/**
+	 * Constructs a resampler.
+	 *
+	 * @param start timestamp of the start of the first bucket
+	 * @param bucketMillis length of a bucket in milliseconds
+	 * @param bucketCount count of buckets
+	 * @param aggregation aggregation of the values of a bucket
+	 * @param gap value of a bucket without values
+	 *
+	 * @throws IllegalArgumentException if bucketMillis or bucketCount &lt; 1,
+	 * the buckets end after {@link Long#MAX_VALUE} or aggregation or gap is
+	 * {@code null}
+	 */
+	public TimeSeriesResampler(long start, long bucketMillis, int bucketCount,
+			Aggregation aggregation, Gap gap) {
+		if (bucketMillis < 1)
+			throw new IllegalArgumentException("bucketMillis must be > 0");
+		if (bucketCount < 1)
+			throw new IllegalArgumentException("bucketCount must be > 0");
+		if (bucketMillis > (Long.MAX_VALUE - Math.max(start, 0)) / bucketCount)
+			throw new IllegalArgumentException("the buckets end after Long.MAX_VALUE");
+		if (aggregation == null)
+			throw new IllegalArgumentException("aggregation can not be null");
+		if (gap == null)
+			throw new IllegalArgumentException("gap can not be null");
+		this.start = start;
+		this.bucketMillis = bucketMillis;
+		this.bucketCount = bucketCount;
+		this.aggregation = aggregation;
+		this.gap = gap;
+	}
+
+	/**
+	 * Returns the timestamp of the start of the bucket.
+	 *
+	 * @param bucket index of the bucket, the bucket count for the end of the
+	 * last bucket
+	 * @return the timestamp
+	 */
+	public long getBucketStart(int bucket) {
+		return start + bucket * bucketMillis;
+	}
+
+	/**
+	 * Returns the count of buckets.
+	 *
+	 * @return count of buckets
+	 */
+	public int getBucketCount() {
+		return bucketCount;
+	}
+
+	/**
+	 * Returns the aggregation of the values of a bucket.
+	 *
+	 * @return the aggregation
+	 */
+	public Aggregation getAggregation() {
+		return aggregation;
+	}
+
+	/**
+	 * Returns the value of a bucket without values.
+	 *
+	 * @return the gap handling
+	 */
+	public Gap getGap() {
+		return gap;
+	}
+
+	/**
+	 * Returns the index of the bucket of the timestamp.
+	 *
+	 * @param timestamp the timestamp
+	 * @return index of the bucket, -1 if the timestamp is outside of the
+	 * buckets
+	 */
+	public int bucketOf(long timestamp) {
+		if (timestamp < start) {
+			return -1;
+		}
+		long bucket = (timestamp - start) / bucketMillis;
+		return bucket < bucketCount ? (int) bucket : -1;
+	}
+
+	/**
+	 * Returns empty buckets to add values to.
+	 *
+	 * @return new buckets
+	 */
+	public Buckets newBuckets() {
+		return new Buckets();
+	}
+
+	/**
+	 * Resamples the values in a single pass.
+	 *
+	 * @param timestamps the timestamps of the values, need not be sorted
+	 * @param values the values
+	 * @return the buckets
+	 *
+	 * @throws IllegalArgumentException if an array is {@code null} or the
+	 * arrays have different lengths
+	 */
+	public Buckets resample(long[] timestamps, float[] values) {
+		if (timestamps == null || values == null)
+			throw new IllegalArgumentException("values can not be null");
+		if (timestamps.length != values.length)
+			throw new IllegalArgumentException("the arrays must have the same length");
+		Buckets buckets = new Buckets();
+		buckets.addAll(timestamps, values, 0, values.length);
+		return buckets;
+	}
+
+	/**
+	 * Aggregated values per bucket of a {@link TimeSeriesResampler}. Buckets
+	 * are not thread safe, but the buckets of several threads may be merged.
+	 *
+	 * @author martin
+	 */
+	public class Buckets {
+
+		private final int[] counts = new int[bucketCount];
+		/**
+		 * the sum, the smallest, greatest or last value depending on the
+		 * aggregation
+		 */
+		private final double[] values = new double[bucketCount];
+		/**
+		 * the timestamps of the last values, {@code null} unless the
+		 * aggregation is {@link Aggregation#Last}
+		 */
+		private final long[] lastTimestamps = aggregation == Aggregation.Last ? new long[bucketCount]
+				: null;
+		private long droppedCount;
+
+		private Buckets() {
+		}
+
+		/**
+		 * Adds a value, {@link Float#NaN} is ignored.
+		 *
+		 * @param timestamp the timestamp of the value
+		 * @param value the value
+		 */
+		public void add(long timestamp, float value) {
+			if (value != value) { // NaN
+				return;
+			}
+			int bucket = bucketOf(timestamp);
+			if (bucket < 0) {
+				droppedCount++;
+				return;
+			}
+			aggregate(bucket, 1, value, timestamp);
+		}
+
+		private void aggregate(int bucket, int count, double value, long timestamp) {
+			boolean first = counts[bucket] == 0;
+			counts[bucket] += count;
+			switch (aggregation) {
+			case Average:
+			case Sum:
+				values[bucket] += value;
+				break;
+			case Min:
+				values[bucket] = first ? value : Math.min(values[bucket], value);
+				break;
+			case Max:
+				values[bucket] = first ? value : Math.max(values[bucket], value);
+				break;
+			case Last:
+				if (first || timestamp >= lastTimestamps[bucket]) {
+					values[bucket] = value;
+					lastTimestamps[bucket] = timestamp;
+				}
+				break;
+			default:
+				break;
+			}
+		}
+
+		/**
+		 * Adds a range of the values.
+		 *
+		 * @param timestamps the timestamps of the values, need not be sorted
+		 * @param values the values
+		 * @param offset index of the first value
+		 * @param length count of values
+		 *
+		 * @throws IllegalArgumentException if an array is {@code null}
+		 * @throws IndexOutOfBoundsException if the range is out of the
+		 * bounds of an array
+		 */
+		public void addAll(long[] timestamps, float[] values, int offset,
+				int length) {
+			if (timestamps == null || values == null)
+				throw new IllegalArgumentException("values can not be null");
+			if (offset < 0 || length < 0 || offset > timestamps.length - length
+					|| offset > values.length - length)
+				throw new IndexOutOfBoundsException("offset: " + offset
+						+ ", length: " + length);
+			for (int i = offset; i < offset + length; i++) {
+				add(timestamps[i], values[i]);
+			}
+		}
+
+		/**
+		 * Adds the values of other buckets of the same resampler.
+		 *
+		 * @param other the other buckets
+		 *
+		 * @throws IllegalArgumentException if other is {@code null} or
+		 * belongs to another resampler
+		 */
+		public void addAll(Buckets other) {
+			if (other == null)
+				throw new IllegalArgumentException("other can not be null");
+			if (other.getResampler() != getResampler())
+				throw new IllegalArgumentException("other belongs to another resampler");
+			for (int i = 0; i < bucketCount; i++) {
+				if (other.counts[i] > 0) {
+					aggregate(i, other.counts[i], other.values[i],
+							other.lastTimestamps != null ? other.lastTimestamps[i] : 0);
+				}
+			}
+			droppedCount += other.droppedCount;
+		}
+
+		/**
+		 * Returns the resampler of the buckets.
+		 *
+		 * @return the resampler
+		 */
+		public TimeSeriesResampler getResampler() {
+			return TimeSeriesResampler.this;
+		}
+
+		/**
+		 * Returns the count of values in the bucket.
+		 *
+		 * @param bucket index of the bucket
+		 * @return count of values
+		 *
+		 * @throws IndexOutOfBoundsException if bucket is out of bound
+		 */
+		public int getCount(int bucket) {
+			return counts[bucket];
+		}
+
+		/**
+		 * Returns the count of values outside of the buckets.
+		 *
+		 * @return count of dropped values
+		 */
+		public long getDroppedCount() {
+			return droppedCount;
+		}
+
+		/**
+		 * Returns the aggregated value of each bucket, gaps are handled as set
+		 * in the resampler.
+		 *
+		 * @return new array with one value per bucket
+		 */
+		public float[] toValues() {
+			float[] result = new float[bucketCount];
+			for (int i = 0; i < bucketCount; i++) {
+				if (aggregation == Aggregation.Count) {
+					result[i] = counts[i];
+				} else if (counts[i] == 0) {
+					result[i] = Float.NaN;
+				} else if (aggregation == Aggregation.Average) {
+					result[i] = (float) (values[i] / counts[i]);
+				} else {
+					result[i] = (float) values[i];
+				}
+			}
+			fillGaps(result);
+			return result;
+		}
+
+		private void fillGaps(float[] result) {
+			if (gap == Gap.Missing || aggregation == Aggregation.Count) {
+				return;
+			}
+			int before = -1; // index of the last bucket with values
+			for (int i = 0; i < result.length; i++) {
+				if (counts[i] > 0) {
+					if (gap == Gap.Interpolate && before >= 0) {
+						for (int j = before + 1; j < i; j++) {
+							result[j] = result[before] + (result[i] - result[before])
+									* (j - before) / (i - before);
+						}
+					}
+					before = i;
+				} else if (gap == Gap.Zero) {
+					result[i] = 0;
+				} else if (gap == Gap.Previous && before >= 0) {
+					result[i] = result[before];
+				}
+			}
+		}
+
+		/**
+		 * Returns a line with one point per bucket.
+		 *
+		 * @return the line
+		 */
+		public LineChartData toLineChartData() {
+			return new LineChartData.LineChartDataBuilder(FloatDataSet
+					.wrap(toValues())).build();
+		}
+
+		/**
+		 * Returns a line with one point per bucket. The x values are spread over
+		 * the whole range of the encoding type (0 to 61 for simple, 0 to 4095
+		 * for extended and 0 to 100 for text encoding), so the first bucket is
+		 * drawn at the left and the last bucket at the right edge of the plot,
+		 * like the labels of {@link #toAxisLabelContainer(AxisType, int, DateFormat)}.
+		 * The chart must encode the data with the type, for example with
+		 * {@link EncoderFactory#getEncoder(EncodingType)}; the y values are
+		 * taken as they are.
+		 *
+		 * @param type encoding type of the chart
+		 * @return the line
+		 *
+		 * @throws IllegalArgumentException if type is {@code null}
+		 */
+		public XYLineChartData toXYLineChartData(EncodingType type) {
+			if (type == null)
+				throw new IllegalArgumentException("type can not be null");
+			float max = type == EncodingType.SimpleEncoding ? 61
+					: type == EncodingType.ExtendedEncoding ? 4095 : 100;
+			float[] y = toValues();
+			List<Float> xValues = new ArrayList<Float>(y.length);
+			List<Float> yValues = new ArrayList<Float>(y.length);
+			for (int i = 0; i < y.length; i++) {
+				xValues.add(y.length > 1 ? max * i / (y.length - 1) : 0);
+				yValues.add(y[i]);
+			}
+			return new XYLineChartData.XYLineChartDataBuilder(
+					new Pair<List<Float>, List<Float>>(xValues, yValues)).build();
+		}
+
+		/**
+		 * Returns a time axis: the start of every n-th bucket is labeled, so
+		 * that there are at most maxLabels labels. The labels are positioned
+		 * at the index of their bucket in the range from 0 to the bucket count
+		 * - 1, which matches the points of {@link #toLineChartData()} and
+		 * {@link #toXYLineChartData(EncodingType)}.
+		 *
+		 * @param type the axis
+		 * @param maxLabels count of labels at most
+		 * @param format format of the timestamps, used in the current thread
+		 * @return the axis labels
+		 *
+		 * @throws IllegalArgumentException if type or format is {@code null}
+		 * or maxLabels &lt; 1
+		 */
+		public AxisLabelContainer toAxisLabelContainer(AxisType type,
+				int maxLabels, DateFormat format) {
+			if (maxLabels < 1)
+				throw new IllegalArgumentException("maxLabels must be > 0");
+			if (format == null)
+				throw new IllegalArgumentException("format can not be null");
+			AxisLabelContainer container = new AxisLabelContainer(type);
+			container.setAxisRange(new AxisRange(0, Math.max(bucketCount - 1, 1)));
+			container.setUseLabelPositions(true);
+			int every = (bucketCount + maxLabels - 1) / maxLabels;
+			Date date = new Date();
+			for (int i = 0; i < bucketCount; i += every) {
+				date.setTime(getBucketStart(i));
+				AxisLabel label = new AxisLabel(format.format(date));
+				label.setPos(i);
+				container.addLabel(label);
+			}
+			return container;
+		}
+
+		@Override
+		public String toString() {
+			return Arrays.toString(toValues());
+		}
+	}
+
+}
@@ -91,6 +91,15 @@ public class XYLineChartDataAppender implements IExtendedFeatureAppender,
 		return this.xyLineChartData.remove(xyLineChartData);
 	}
 
+	/**
+	 * Returns a unmodifiable list of all {@link XYLineChartData}.
+	 * 
+	 * @return unmodifiable list, empty if nothing was set
+	 */
+	public List<XYLineChartData> getList() {
+		return Collections.unmodifiableList(this.xyLineChartData);
+	}
+
 	/*
 	 * public String getFeaturePrefix() {
 	 * 
@@ -7,6 +7,7 @@ import java.util.List;
 import de.toolforge.googlechartwrapper.util.AppendableFeature;
 import de.toolforge.googlechartwrapper.util.IExtendedFeatureAppender;
 import de.toolforge.googlechartwrapper.util.IFeatureAppender;
+import de.toolforge.googlechartwrapper.util.UrlEscaper;
 
 
 /**
@@ -34,7 +35,7 @@ public class AxisLabelAppender implements IExtendedFeatureAppender{
 		}
 		
 		//Axis labels
-		StringBuffer axisLabels = new StringBuffer(axis.size()*5+1);
+		StringBuilder axisLabels = new StringBuilder(axis.size()*5+1);
 		//chxl= <axis index>:|<label 1>|<label n>|
 		for (int i = 0; i < axis.size(); i++){
 			AxisLabelContainer sum = axis.get(i);
@@ -43,7 +44,7 @@ public class AxisLabelAppender implements IExtendedFeatureAppender{
 					axisLabels.append(i);
 					axisLabels.append(":|");
 					for (AxisLabel label : sum.getLabels()){
-						axisLabels.append(label.getLabel());
+						UrlEscaper.TEXT.escape(label.getLabel(), axisLabels);
 						axisLabels.append("|");
 					}
 				}				
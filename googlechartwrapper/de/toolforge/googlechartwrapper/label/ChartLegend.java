@@ -7,6 +7,7 @@ import java.util.List;
 import de.toolforge.googlechartwrapper.ChartTypeFeature;
 import de.toolforge.googlechartwrapper.util.AppendableFeature;
 import de.toolforge.googlechartwrapper.util.IFeatureAppender;
+import de.toolforge.googlechartwrapper.util.UrlEscaper;
 
 /**
  * Specifies a chart legend. <a
@@ -107,7 +108,7 @@ public class ChartLegend implements IFeatureAppender{
 		StringBuilder builder = new StringBuilder();
 
 		for (String currentLabel : this.labelList) {
-			builder.append(currentLabel);
+			UrlEscaper.TEXT.escape(currentLabel, builder);
 			builder.append('|');
 		}
 
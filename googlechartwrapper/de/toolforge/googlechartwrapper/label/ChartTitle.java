@@ -8,6 +8,7 @@ import de.toolforge.googlechartwrapper.Color;
 import de.toolforge.googlechartwrapper.util.AppendableFeature;
 import de.toolforge.googlechartwrapper.util.IExtendedFeatureAppender;
 import de.toolforge.googlechartwrapper.util.IFeatureAppender;
+import de.toolforge.googlechartwrapper.util.UrlEscaper;
 
 /**
  * Specifies a chart title and optionally title style (fontsize and color of title)
@@ -23,7 +24,8 @@ public class ChartTitle implements IExtendedFeatureAppender{
 	/**
 	 * Constructs a ChartTitle. Specify a space with a plus sign (+). 
 	 * Use a pipe character (|) to force a line break. 
-	 * Classic space characters " " are converted to a +.
+	 * Classic space characters " " are converted to a +, other characters 
+	 * are escaped by {@link UrlEscaper#TITLE}.
 	 * @param title title to set != null
 	 * @throws IllegalArgumentException if title == null
 	 */
@@ -34,7 +36,8 @@ public class ChartTitle implements IExtendedFeatureAppender{
 	/**
 	 * Constructs a ChartTitle. Specify a space with a plus sign (+). 
 	 * Use a pipe character (|) to force a line break. 
-	 * Classic space characters " " are converted to a +.
+	 * Classic space characters " " are converted to a +, other characters 
+	 * are escaped by {@link UrlEscaper#TITLE}.
 	 * @param title title to set != null
 	 * @param color color to set, if no style null
 	 * @param fontsize fontsize of the title, if color != null must be >= 0
@@ -65,7 +68,8 @@ public class ChartTitle implements IExtendedFeatureAppender{
 	/**
 	 * Set a ChartTitle. Specify a space with a plus sign (+). 
 	 * Use a pipe character (|) to force a line break. 
-	 * Classic space characters " " are converted to a +.
+	 * Classic space characters " " are converted to a +, other characters 
+	 * are escaped by {@link UrlEscaper#TITLE}.
 	 * @param title title to set != null
 	 * @throws IllegalArgumentException if title == null
 	 */
@@ -73,7 +77,7 @@ public class ChartTitle implements IExtendedFeatureAppender{
 		if (title == null){
 			throw new IllegalArgumentException("title cannot be null");
 		}
-		this.title = title.replaceAll(" ", "+");
+		this.title = title;
 	}
 
 	/*
@@ -89,10 +93,10 @@ public class ChartTitle implements IExtendedFeatureAppender{
 	 * @see googlechartwrapper.util.IFeatureAppender#getAppendableString(java.util.List)
 	 */
 	public List<AppendableFeature> getAppendableFeatures(List<? extends IFeatureAppender> otherAppenders) {
-		StringBuffer ret = new StringBuffer(title.length()+15);
+		StringBuilder ret = new StringBuilder(title.length()+15);
 		//ret.append(ChartTypeFeature.ChartTitle.getPrefix());
 		//ret.append("=");
-		ret.append(title);
+		UrlEscaper.TITLE.escape(title, ret);
 		if (color != null){
 			ret.append("&");
 			ret.append(ChartTypeFeature.ChartTitleStyle.getPrefix());
@@ -10,6 +10,7 @@ import de.toolforge.googlechartwrapper.ChartTypeFeature;
 import de.toolforge.googlechartwrapper.Color;
 import de.toolforge.googlechartwrapper.util.AppendableFeature;
 import de.toolforge.googlechartwrapper.util.IFeatureAppender;
+import de.toolforge.googlechartwrapper.util.UrlEscaper;
 
 /**
  * 
@@ -260,7 +261,7 @@ public class DataPointLabel implements IFeatureAppender {
 
 		if (!isContentNumber) {
 			builder.append(labelType.getLabelTypeChar());
-			builder.append(labelContent);
+			UrlEscaper.TEXT.escape(labelContent, builder);
 		}
 		if (isContentNumber) {
 			builder.append("N");
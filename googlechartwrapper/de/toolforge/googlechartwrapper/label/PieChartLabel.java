@@ -11,6 +11,7 @@ import de.toolforge.googlechartwrapper.PieChart;
 import de.toolforge.googlechartwrapper.data.PieChartSlice;
 import de.toolforge.googlechartwrapper.util.AppendableFeature;
 import de.toolforge.googlechartwrapper.util.IFeatureAppender;
+import de.toolforge.googlechartwrapper.util.UrlEscaper;
 
 
 /**
@@ -71,7 +72,7 @@ public class PieChartLabel implements IFeatureAppender {
 		StringBuilder builder = new StringBuilder();
 
 		for (String currentLabel : this.labelList) {
-			builder.append(currentLabel);
+			UrlEscaper.TEXT.escape(currentLabel, builder);
 			builder.append('|');
 		}
 
@@ -34,6 +34,7 @@ import de.toolforge.googlechartwrapper.ChartTypeFeature;
 import de.toolforge.googlechartwrapper.Color;
 import de.toolforge.googlechartwrapper.util.AppendableFeature;
 import de.toolforge.googlechartwrapper.util.IFeatureAppender;
+import de.toolforge.googlechartwrapper.util.UrlEscaper;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -190,8 +191,10 @@ public class BubbleFactory {
             if (direction != null)
                 builder.append("|" + direction.toString());
 
-            if (text != null)
-                builder.append("|" + text);
+            if (text != null) {
+                builder.append('|');
+                UrlEscaper.TEXT.escape(text, builder);
+            }
 
             builder.append("|" + fillColor.getSixCharacterHexValue());
 
@@ -201,7 +204,8 @@ public class BubbleFactory {
 
                 for (String current : textList) {
 
-                    builder.append("|" + current);
+                    builder.append('|');
+                    UrlEscaper.TEXT.escape(current, builder);
                 }
             }
 
@@ -239,14 +243,17 @@ public class BubbleFactory {
             if (direction != null)
                 builder.append("|" + direction.toString());
 
-            if (text != null)
-                builder.append("|" + text);
+            if (text != null) {
+                builder.append('|');
+                UrlEscaper.TEXT.escape(text, builder);
+            }
 
             if (textList != null) {
 
                 for (String current : textList) {
 
-                    builder.append("|" + current);
+                    builder.append('|');
+                    UrlEscaper.TEXT.escape(current, builder);
                 }
             }
 
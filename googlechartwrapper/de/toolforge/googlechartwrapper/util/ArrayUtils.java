@@ -62,8 +62,10 @@ public class ArrayUtils {
 	 * @return greatest value of the array
 	 */
 	public static float maxValue(float[] values){
-		float max = Float.MIN_VALUE;
-		for (int i = 0; i < values.length; i++){
+		if (values.length == 0) return Float.MIN_VALUE;
+		//start with the first value, Float.MIN_VALUE is the smallest positive value
+		float max = values[0];
+		for (int i = 1; i < values.length; i++){
 			if (values[i]>max) max = values[i];
 		}
 		return max;
@@ -1,9 +1,7 @@
 package de.toolforge.googlechartwrapper.util;
 
 import java.awt.Image;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.net.URL;
 
 import javax.imageio.ImageIO;
@@ -72,20 +70,16 @@ public class MiscUtils {
 	 * @param chart
 	 * 
 	 * @return bufferedImage 
+	 * @throws IOException if the image can not be loaded
+	 * @see de.toolforge.googlechartwrapper.ChartImageRenderer renders the chart locally
+	 * @deprecated replaced with
+	 * {@link de.toolforge.googlechartwrapper.ChartImageClient#fetchImage(de.toolforge.googlechartwrapper.IChart)},
+	 * which does not block and sends long charts by post
 	 */
+	@Deprecated
 	public static Image getBufferedImage(AbstractChart chart) throws IOException{				
 		
-		BufferedImage bufferedImage = null;
-		
-		//we can ensure that the url is correct
-		try {
-			bufferedImage = ImageIO.read( new URL(chart.getUrl()) );
-		} catch (MalformedURLException e) {
-			
-			e.printStackTrace();
-		} 
-		return bufferedImage;
-		
+		return ImageIO.read( new URL(chart.getUrl()) );
 	}
 	
 
@@ -57,6 +57,15 @@ public class PrimitivesAppender <T extends Number> implements IExtendedFeatureAp
 	public void removeAll(){
 		this.primitive = null;
 	}
+	/**
+	 * Returns the primitive.
+	 * 
+	 * @return the primitive, {@code null} if no one was set
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(){
+		return (T) this.primitive;
+	}
 	/**
 	 * Removes the primitive.
 	 * 
@@ -0,0 +1,209 @@
+package de.toolforge.googlechartwrapper.util;
+
+import java.io.IOException;
+
+/**
+ * Escapes user text (titles, legends, labels, qr code content) for the query
+ * of a chart url. The escaping of each ASCII character is looked up in a table
+ * which is computed once, other characters are written as percent encoded UTF-8
+ * bytes. The text is written directly into the url builder, a text without
+ * characters to escape is not copied at all.
+ * <p>
+ * Letters, digits and the characters {@code - _ . ~ ! * ' ( ) , | : / ? @ $ ;}
+ * are not escaped, so the separators of the chart api (for example "|" and ",")
+ * keep their meaning. All other characters (for example "&amp;", "=", "#", "%"
+ * and "+") are percent encoded. The escapers are immutable and may be shared
+ * between threads.
+ * </p>
+ *
+ * <p>
+ * Here are some examples of how UrlEscaper can be used:
+ * <p>
+ * <blockquote>
+ *
+ * <pre>
+ * UrlEscaper.TEXT.escape("M&amp;M's 100%"); // M%26M's+100%25
+ * UrlEscaper.TITLE.escape("first|second line"); // first|second+line
+ * UrlEscaper.PAYLOAD.escape("caf\u00e9 au lait"); // caf%C3%A9%20au%20lait
+ * </pre>
+ *
+ * </blockquote>
+ * <p>
+ *
+ * @author martin
+ */
+public final class UrlEscaper {
+
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	/**
+	 * characters besides letters and digits which are not escaped
+	 */
+	private static final String UNESCAPED = "-_.~!*'(),|:/?@$;";
+
+	/**
+	 * Escaper of labels and legends, a space is written as "+", a plus sign
+	 * is escaped.
+	 */
+	public static final UrlEscaper TEXT = new UrlEscaper("+", true);
+
+	/**
+	 * Escaper of chart titles, a space is written as "+". A plus sign is not
+	 * escaped as it specifies a space in a title.
+	 *
+	 * @see de.toolforge.googlechartwrapper.label.ChartTitle
+	 */
+	public static final UrlEscaper TITLE = new UrlEscaper("+", false);
+
+	/**
+	 * Escaper of data which is encoded as it is (for example the text of a qr
+	 * code), a space is written as "%20", a plus sign is escaped.
+	 */
+	public static final UrlEscaper PAYLOAD = new UrlEscaper("%20", true);
+
+	/**
+	 * replacement of each ASCII character, {@code null} if not escaped
+	 */
+	private final String[] table = new String[128];
+
+	private UrlEscaper(String space, boolean escapePlus) {
+		for (char c = 0; c < table.length; c++) {
+			if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+					|| (c >= '0' && c <= '9') || UNESCAPED.indexOf(c) >= 0) {
+				continue;
+			}
+			table[c] = new String(new char[] { '%', HEX[c >> 4], HEX[c & 0xF] });
+		}
+		table[' '] = space;
+		if (!escapePlus) {
+			table['+'] = null;
+		}
+	}
+
+	/**
+	 * Returns the escaped text. If nothing has to be escaped, the text itself
+	 * is returned.
+	 *
+	 * @param text text to escape
+	 * @return escaped text
+	 *
+	 * @throws IllegalArgumentException if text is {@code null}
+	 */
+	public String escape(String text) {
+		if (text == null)
+			throw new IllegalArgumentException("text can not be null");
+		int first = indexOfEscaped(text);
+		if (first < 0) {
+			return text;
+		}
+		StringBuilder builder = new StringBuilder(text.length() + 16);
+		builder.append(text, 0, first);
+		try {
+			escape(text, first, builder);
+		} catch (IOException e) {
+			throw new RuntimeException(e); //not thrown by StringBuilder
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Appends the escaped text to the builder.
+	 *
+	 * @param text text to escape
+	 * @param out destination of the escaped text
+	 *
+	 * @throws IllegalArgumentException if text or out is {@code null}
+	 */
+	public void escape(CharSequence text, StringBuilder out) {
+		try {
+			escape(text, (Appendable) out);
+		} catch (IOException e) {
+			throw new RuntimeException(e); //not thrown by StringBuilder
+		}
+	}
+
+	/**
+	 * Appends the escaped text to the appendable.
+	 *
+	 * @param text text to escape
+	 * @param out destination of the escaped text
+	 * @throws IOException if out throws an IOException
+	 *
+	 * @throws IllegalArgumentException if text or out is {@code null}
+	 */
+	public void escape(CharSequence text, Appendable out) throws IOException {
+		if (text == null)
+			throw new IllegalArgumentException("text can not be null");
+		if (out == null)
+			throw new IllegalArgumentException("out can not be null");
+		escape(text, 0, out);
+	}
+
+	/**
+	 * Returns the index of the first character which has to be escaped, -1 if
+	 * there is none.
+	 */
+	private int indexOfEscaped(CharSequence text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c >= table.length || table[c] != null) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void escape(CharSequence text, int start, Appendable out)
+			throws IOException {
+		int length = text.length();
+		for (int i = start; i < length; i++) {
+			char c = text.charAt(i);
+			if (c < table.length) {
+				String replacement = table[c];
+				if (replacement == null) {
+					out.append(c);
+				} else {
+					out.append(replacement);
+				}
+				continue;
+			}
+			int codePoint = c;
+			if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+				if (Character.isHighSurrogate(c) && i + 1 < length
+						&& Character.isLowSurrogate(text.charAt(i + 1))) {
+					codePoint = Character.toCodePoint(c, text.charAt(++i));
+				} else {
+					// a single surrogate can not be encoded
+					codePoint = 0xFFFD;
+				}
+			}
+			appendUtf8(codePoint, out);
+		}
+	}
+
+	/**
+	 * Appends the UTF-8 bytes of the code point (&gt;= 128) as percent encoded
+	 * bytes.
+	 */
+	private static void appendUtf8(int codePoint, Appendable out)
+			throws IOException {
+		if (codePoint < 0x800) {
+			appendByte(0xC0 | (codePoint >> 6), out);
+		} else if (codePoint < 0x10000) {
+			appendByte(0xE0 | (codePoint >> 12), out);
+			appendByte(0x80 | ((codePoint >> 6) & 0x3F), out);
+		} else {
+			appendByte(0xF0 | (codePoint >> 18), out);
+			appendByte(0x80 | ((codePoint >> 12) & 0x3F), out);
+			appendByte(0x80 | ((codePoint >> 6) & 0x3F), out);
+		}
+		appendByte(0x80 | (codePoint & 0x3F), out);
+	}
+
+	private static void appendByte(int b, Appendable out) throws IOException {
+		out.append('%');
+		out.append(HEX[b >> 4]);
+		out.append(HEX[b & 0xF]);
+	}
+
+}
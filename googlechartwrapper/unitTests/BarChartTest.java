@@ -34,6 +34,7 @@ package unitTests;
 import de.toolforge.googlechartwrapper.BarChart;
 import de.toolforge.googlechartwrapper.BarChart.BarChartOrientation;
 import de.toolforge.googlechartwrapper.BarChart.BarChartStyle;
+import de.toolforge.googlechartwrapper.ChartTemplate;
 import de.toolforge.googlechartwrapper.coder.EncoderFactory;
 import de.toolforge.googlechartwrapper.coder.EncodingType;
 import de.toolforge.googlechartwrapper.data.BarChartDataSerie;
@@ -45,6 +46,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.awt.*;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.Arrays;
 
 /**
@@ -90,7 +93,7 @@ public class BarChartTest {
 
         bc.setBarWidthAndSpacing(BarWidthAndSpacing.newAutomaticallyResize());
 
-        String target = "http://chart.apis.google.com/chart?cht=bvg&chs=300x300&chbh=a&chco=ffc800&chd=t:24,24,64,80,40,16&chm=D,ff7a59,0,0,5&chtt=Heights+of+Black+Cherry+trees&chxl=2:|Height (feet)|3:|Frequency&chxp=2,50|3,50&chxr=0,60,90,5|1,0,10,2&chxt=x,y,x,y";
+        String target = "http://chart.apis.google.com/chart?cht=bvg&chs=300x300&chbh=a&chco=ffc800&chd=t:24,24,64,80,40,16&chm=D,ff7a59,0,0,5&chtt=Heights+of+Black+Cherry+trees&chxl=2:|Height+(feet)|3:|Frequency&chxp=2,50|3,50&chxr=0,60,90,5|1,0,10,2&chxt=x,y,x,y";
 
         Assert.assertEquals(target, bc.getUrl());
 
@@ -111,5 +114,86 @@ public class BarChartTest {
         System.out.println(bc.getUrl());
     }
 
+    @Test
+    public void writeUrl() throws IOException {
+
+        BarChart bc = new BarChart(new Dimension(300, 300), BarChartOrientation.Horizontal, BarChartStyle.Grouped);
+        bc.setChartTitle(new ChartTitle("Heights of Black Cherry trees"));
+        bc.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(Arrays.asList(24, 24, 64, 80, 40, 16)).color(Color.ORANGE).build());
+
+        AxisLabelContainer x = new AxisLabelContainer(AxisType.XAxis);
+        x.setAxisRange(new AxisRange(60, 90, 5));
+        bc.addAxisLabelContainer(x);
+
+        StringBuilder url = new StringBuilder();
+        bc.writeUrl(url);
+        Assert.assertEquals(bc.getUrl(), url.toString());
+
+        StringWriter writer = new StringWriter();
+        bc.writeUrl("http://localhost/chart?", writer);
+        Assert.assertEquals(bc.getUrl("http://localhost/chart?"), writer.toString());
+    }
+
+    @Test
+    public void compile() {
+
+        BarChart template = new BarChart(new Dimension(300, 300), BarChartOrientation.Vertical, BarChartStyle.Grouped);
+        template.setChartTitle(new ChartTitle("compiled"));
+        template.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(Arrays.asList(1, 2)).color(Color.ORANGE).build());
+        template.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(Arrays.asList(3, 4)).build());
+        ChartTemplate compiled = template.compile();
+
+        BarChart bc = new BarChart(new Dimension(300, 300), BarChartOrientation.Vertical, BarChartStyle.Grouped);
+        bc.setChartTitle(new ChartTitle("compiled"));
+        bc.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(Arrays.asList(24, 640, 80)).color(Color.ORANGE).build());
+        bc.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(Arrays.asList(40, 16)).build());
+
+        Assert.assertEquals(bc.getUrl(), compiled.render(new int[]{24, 640, 80}, new int[]{40, 16}));
+        Assert.assertEquals(bc.getUrl(), compiled.render(new float[]{24.2f, 639.6f, 80f}, new float[]{40f, 16f}));
+    }
+
+    @Test
+    public void compileFloatData() {
+
+        BarChart bc = new BarChart(new Dimension(300, 300), BarChartOrientation.Vertical, BarChartStyle.Grouped);
+        bc.setEncoder(EncoderFactory.getEncoder(EncodingType.TextEncoding));
+        bc.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(new float[]{12.5f, 50.25f}).build());
+        bc.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(new int[]{7}).build());
+        ChartTemplate compiled = bc.compile();
+
+        Assert.assertTrue(bc.getUrl(), bc.getUrl().contains("chd=t:12.5,50.25|7.0"));
+        Assert.assertEquals(bc.getUrl(), compiled.render(new float[]{12.5f, 50.25f}, new float[]{7f}));
+    }
+
+    @Test
+    public void primitiveSeries() {
+
+        BarChart list = new BarChart(new Dimension(300, 300), BarChartOrientation.Vertical, BarChartStyle.Stacked);
+        list.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(Arrays.asList(10, 20, 30)).color(Color.ORANGE).build());
+        list.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(Arrays.asList(5, 6)).legend(new ChartLegend("b")).build());
+
+        BarChart array = new BarChart(new Dimension(300, 300), BarChartOrientation.Vertical, BarChartStyle.Stacked);
+        array.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(new int[]{10, 20, 30}).color(Color.ORANGE).build());
+        array.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(new int[]{5, 6}).legend(new ChartLegend("b")).build());
+        Assert.assertEquals(list.getUrl(), array.getUrl());
+        Assert.assertEquals(Arrays.asList(5, 6), array.getAllBarChartDataSeries().get(1).getData());
+
+        BarChartDataSerie floats = new BarChartDataSerie.BarChartDataSerieBuilder(new float[]{12.5f, 50.25f}).build();
+        Assert.assertTrue(floats.isFloatData());
+        Assert.assertEquals(2, floats.size());
+        Assert.assertEquals(50.25f, floats.getValue(1), 0f);
+        Assert.assertEquals(Arrays.asList(13, 50), floats.getData());
+
+        BarChart mixed = new BarChart(new Dimension(300, 300), BarChartOrientation.Vertical, BarChartStyle.Grouped);
+        mixed.setEncoder(EncoderFactory.getEncoder(EncodingType.TextEncoding));
+        mixed.addBarChartDataSerie(floats);
+        mixed.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(new int[]{7}).build());
+        Assert.assertTrue(mixed.getUrl(), mixed.getUrl().contains("chd=t:12.5,50.25|7.0"));
+
+        floats.setData(new int[]{1, 2});
+        Assert.assertFalse(floats.isFloatData());
+        Assert.assertEquals(2f, floats.getStats().getMax(), 0f);
+    }
+
 
 }
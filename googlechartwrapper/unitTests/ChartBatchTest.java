@@ -0,0 +1,86 @@
+package unitTests;
+
+
+import de.toolforge.googlechartwrapper.BarChart;
+import de.toolforge.googlechartwrapper.BarChart.BarChartOrientation;
+import de.toolforge.googlechartwrapper.BarChart.BarChartStyle;
+import de.toolforge.googlechartwrapper.ChartBatch;
+import de.toolforge.googlechartwrapper.IChart;
+import de.toolforge.googlechartwrapper.LineChart;
+import de.toolforge.googlechartwrapper.data.BarChartDataSerie;
+import de.toolforge.googlechartwrapper.data.LineChartData;
+import de.toolforge.googlechartwrapper.label.ChartTitle;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author martin
+ */
+public class ChartBatchTest {
+
+    private List<IChart> charts(int count) {
+
+        List<IChart> charts = new ArrayList<IChart>(count);
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                LineChart chart = new LineChart(new Dimension(300, 300));
+                chart.setChartTitle(new ChartTitle("line" + i));
+                chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList((float) (i % 60), 30f, 40f)).build());
+                charts.add(chart);
+            } else {
+                BarChart chart = new BarChart(new Dimension(300, 300), BarChartOrientation.Vertical, BarChartStyle.Grouped);
+                chart.setChartTitle(new ChartTitle("bar" + i));
+                chart.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(Arrays.asList(i % 4000, 24, 64)).build());
+                charts.add(chart);
+            }
+        }
+        return charts;
+    }
+
+    @Test
+    public void renderInOrder() throws Exception {
+
+        List<IChart> charts = charts(1000);
+        List<String> expected = new ArrayList<String>(charts.size());
+        for (IChart chart : charts) {
+            expected.add(chart.getUrl());
+        }
+
+        ChartBatch batch = new ChartBatch(4);
+        try {
+            Assert.assertEquals(expected, batch.render(charts));
+
+            final List<String> written = new ArrayList<String>();
+            ChartBatch.Statistics statistics = batch.render(charts.iterator(), new ChartBatch.UrlSink() {
+                public void write(int index, IChart chart, String url, long nanos) {
+                    Assert.assertEquals(written.size(), index);
+                    written.add(url);
+                }
+            });
+            Assert.assertEquals(expected, written);
+            Assert.assertEquals(1000, statistics.getChartCount());
+            Assert.assertTrue(statistics.getMaxChartNanos() >= statistics.getMinChartNanos());
+            Assert.assertTrue(statistics.getTotalUrlLength() > 0);
+        } finally {
+            batch.shutdown();
+        }
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullChart() throws Exception {
+
+        ChartBatch batch = new ChartBatch(2);
+        try {
+            batch.render(Arrays.asList((IChart) null));
+        } finally {
+            batch.shutdown();
+        }
+
+    }
+}
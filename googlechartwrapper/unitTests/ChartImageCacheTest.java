@@ -0,0 +1,126 @@
+package unitTests;
+
+
+import de.toolforge.googlechartwrapper.ChartImageCache;
+import de.toolforge.googlechartwrapper.ChartKey;
+import de.toolforge.googlechartwrapper.IChart;
+import de.toolforge.googlechartwrapper.LineChart;
+import de.toolforge.googlechartwrapper.data.LineChartData;
+import de.toolforge.googlechartwrapper.label.ChartTitle;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * @author martin
+ */
+public class ChartImageCacheTest {
+
+    private File directory;
+    private int loads;
+
+    private final ChartImageCache.Loader loader = new ChartImageCache.Loader() {
+        public byte[] load(IChart chart) {
+            loads++;
+            return new byte[100];
+        }
+    };
+
+    @Before
+    public void setUp() throws IOException {
+
+        directory = File.createTempFile("chartcache", "");
+        directory.delete();
+        directory.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    private static LineChart chart(String title) {
+
+        LineChart chart = new LineChart(new Dimension(200, 100));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(10f, 40f, 25f)).build());
+        chart.setChartTitle(new ChartTitle(title));
+        return chart;
+    }
+
+    @Test
+    public void chartKey() throws Exception {
+
+        ChartKey key = chart("a").getChartKey();
+        Assert.assertEquals(key, chart("a").getChartKey());
+        Assert.assertFalse(key.equals(chart("b").getChartKey()));
+        Assert.assertEquals(key, ChartKey.parse(key.toHexString()));
+        Assert.assertEquals(32, key.toHexString().length());
+
+        // the MD5 digest of the parameters of the url
+        String url = chart("a").getUrl();
+        byte[] digest = MessageDigest.getInstance("MD5").digest(
+                url.substring(url.indexOf('?') + 1).getBytes("UTF-16BE"));
+        Assert.assertEquals(new BigInteger(1, digest).toString(16), key.toHexString().replaceFirst("^0+", ""));
+    }
+
+    @Test
+    public void memoryTier() throws IOException {
+
+        ChartImageCache cache = new ChartImageCache(250);
+        cache.get(chart("a"), loader);
+        cache.get(chart("a"), loader);
+        Assert.assertEquals(1, loads);
+        Assert.assertEquals(1, cache.getMemoryHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+
+        // b and c evict a, the least recently used
+        cache.get(chart("b"), loader);
+        cache.get(chart("c"), loader);
+        Assert.assertEquals(1, cache.getMemoryEvictionCount());
+        Assert.assertEquals(200, cache.getMemorySize());
+        Assert.assertNull(cache.get(chart("a").getChartKey()));
+        Assert.assertNotNull(cache.get(chart("c").getChartKey()));
+    }
+
+    @Test
+    public void diskTier() throws IOException {
+
+        ChartImageCache cache = new ChartImageCache(1000, directory, 1000);
+        cache.get(chart("a"), loader);
+        Assert.assertEquals(100, cache.getDiskSize());
+
+        // a new cache finds the image on disk
+        ChartImageCache restarted = new ChartImageCache(1000, directory, 1000);
+        Assert.assertEquals(100, restarted.getDiskSize());
+        restarted.get(chart("a"), loader);
+        restarted.get(chart("a"), loader);
+        Assert.assertEquals(1, loads);
+        Assert.assertEquals(1, restarted.getDiskHitCount());
+        Assert.assertEquals(1, restarted.getMemoryHitCount());
+    }
+
+    @Test
+    public void diskEviction() throws IOException {
+
+        ChartImageCache cache = new ChartImageCache(0, directory, 250);
+        cache.get(chart("a"), loader);
+        cache.get(chart("b"), loader);
+        cache.get(chart("c"), loader);
+        Assert.assertEquals(1, cache.getDiskEvictionCount());
+        Assert.assertEquals(200, cache.getDiskSize());
+        Assert.assertEquals(2, directory.listFiles().length);
+        Assert.assertNull(cache.get(chart("a").getChartKey()));
+    }
+}
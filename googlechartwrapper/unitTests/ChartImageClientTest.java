@@ -0,0 +1,288 @@
+package unitTests;
+
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import de.toolforge.googlechartwrapper.ChartImageClient;
+import de.toolforge.googlechartwrapper.ChartImageRenderer;
+import de.toolforge.googlechartwrapper.Color;
+import de.toolforge.googlechartwrapper.LineChart;
+import de.toolforge.googlechartwrapper.data.LineChartData;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests the {@link ChartImageClient} against a local stand-in of the chart
+ * service, which answers with the locally rendered image.
+ *
+ * @author martin
+ */
+public class ChartImageClientTest {
+
+    private HttpServer server;
+    private ChartImageClient client;
+    private final List<String> methods = Collections.synchronizedList(new ArrayList<String>());
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<String>());
+    private volatile int status = 200;
+    private volatile long delay = 0;
+
+    @Before
+    public void setUp() throws IOException {
+
+        final byte[] png = new ChartImageRenderer().toPng(lineChart(3));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/chart", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                methods.add(exchange.getRequestMethod());
+                queries.add("POST".equals(exchange.getRequestMethod())
+                        ? read(exchange.getRequestBody()) : exchange.getRequestURI().getRawQuery());
+                if (delay > 0) {
+                    try {
+                        Thread.sleep(delay);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                byte[] body = status == 200 ? png : "error".getBytes("UTF-8");
+                exchange.sendResponseHeaders(status, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+        client = new ChartImageClient(2);
+        client.setApiLocation("http://127.0.0.1:" + server.getAddress().getPort() + "/chart?");
+    }
+
+    @After
+    public void tearDown() {
+
+        client.shutdown();
+        server.stop(0);
+    }
+
+    private static LineChart lineChart(int points) {
+
+        Float[] values = new Float[points];
+        for (int i = 0; i < points; i++) {
+            values[i] = (float) (i * 37 % 100);
+        }
+        LineChart chart = new LineChart(new Dimension(200, 100));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(values))
+                .color(Color.BLUE).build());
+        return chart;
+    }
+
+    private static String read(InputStream in) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), "US-ASCII");
+    }
+
+    @Test
+    public void fetchWithGet() throws Exception {
+
+        LineChart chart = lineChart(3);
+        Future<BufferedImage> image = client.fetchImage(chart);
+        Assert.assertEquals(200, image.get().getWidth());
+        Assert.assertEquals(Arrays.asList("GET"), methods);
+        String url = chart.getUrl();
+        Assert.assertEquals(url.substring(url.indexOf('?') + 1), queries.get(0));
+    }
+
+    @Test
+    public void fetchLongChartWithPost() throws Exception {
+
+        LineChart chart = lineChart(2000);
+        client.setMaxUrlLength(500);
+        byte[] png = client.fetch(chart).get();
+        Assert.assertEquals((byte) 0x89, png[0]);
+        Assert.assertEquals(Arrays.asList("POST"), methods);
+        String url = chart.getUrl();
+        Assert.assertEquals(url.substring(url.indexOf('?') + 1), queries.get(0));
+    }
+
+    @Test
+    public void errorStatus() throws Exception {
+
+        status = 400;
+        try {
+            client.fetch(lineChart(3)).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void readTimeout() throws Exception {
+
+        delay = 1000;
+        client.setReadTimeout(100);
+        try {
+            client.fetch(lineChart(3)).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void coalesceIdenticalCharts() throws Exception {
+
+        delay = 300;
+        List<Future<byte[]>> futures = new ArrayList<Future<byte[]>>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(client.fetch(lineChart(3)));
+        }
+        Future<byte[]> other = client.fetch(lineChart(4));
+        for (Future<byte[]> future : futures) {
+            Assert.assertSame(futures.get(0).get(), future.get());
+        }
+        other.get();
+        Assert.assertEquals(2, methods.size());
+        Assert.assertEquals(2, client.getFetchCount());
+        Assert.assertEquals(9, client.getCoalescedCount());
+
+        // a finished request is not shared
+        client.fetch(lineChart(3)).get();
+        Assert.assertEquals(3, client.getFetchCount());
+    }
+
+    @Test
+    public void waiterTimeoutAndCancel() throws Exception {
+
+        delay = 300;
+        Future<byte[]> first = client.fetch(lineChart(3));
+        Future<byte[]> second = client.fetch(lineChart(3));
+        Future<byte[]> third = client.fetch(lineChart(3));
+        try {
+            first.get(10, TimeUnit.MILLISECONDS);
+            Assert.fail();
+        } catch (TimeoutException e) {
+            // expected
+        }
+        Assert.assertTrue(second.cancel(true));
+        Assert.assertTrue(second.isCancelled());
+        try {
+            second.get();
+            Assert.fail();
+        } catch (CancellationException e) {
+            // expected
+        }
+        Assert.assertEquals((byte) 0x89, first.get()[0]);
+        Assert.assertEquals((byte) 0x89, third.get()[0]);
+    }
+
+    @Test
+    public void cancelAllWaiters() throws Exception {
+
+        delay = 300;
+        Future<byte[]> first = client.fetch(lineChart(3));
+        Future<byte[]> second = client.fetch(lineChart(3));
+        first.cancel(true);
+        second.cancel(true);
+
+        // the abandoned request is not shared any more
+        delay = 0;
+        Assert.assertEquals((byte) 0x89, client.fetch(lineChart(3)).get()[0]);
+        Assert.assertEquals(2, client.getFetchCount());
+    }
+
+    @Test
+    public void cancelReleasesBlockedGet() throws Exception {
+
+        delay = 1000;
+        final Future<byte[]> first = client.fetch(lineChart(3));
+        Future<byte[]> second = client.fetch(lineChart(3));
+        final List<Throwable> thrown = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread getter = new Thread() {
+            public void run() {
+                try {
+                    first.get();
+                } catch (Throwable e) {
+                    thrown.add(e);
+                }
+            }
+        };
+        getter.start();
+        Thread.sleep(50);
+        Assert.assertTrue(first.cancel(true));
+        getter.join(500);
+        Assert.assertFalse(getter.isAlive());
+        Assert.assertTrue(thrown.get(0) instanceof CancellationException);
+        Assert.assertEquals((byte) 0x89, second.get()[0]);
+    }
+
+    @Test
+    public void rejectedRequestReleasesJoinedFetches() throws Exception {
+
+        final List<Future<byte[]>> joined = new ArrayList<Future<byte[]>>();
+        ThreadPoolExecutor rejecting = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>()) {
+            public void execute(Runnable command) {
+                // an identical chart is fetched before the request is rejected
+                joined.add(client.fetch(lineChart(3)));
+                throw new RejectedExecutionException("rejected");
+            }
+        };
+        ChartImageClient own = client;
+        client = new ChartImageClient(rejecting);
+        client.setApiLocation(own.getApiLocation());
+        try {
+            client.fetch(lineChart(3));
+            Assert.fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        } finally {
+            own.shutdown();
+            rejecting.shutdown();
+        }
+        try {
+            joined.get(0).get(1, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        Assert.assertEquals(0, client.getFetchCount());
+    }
+
+    @Test
+    public void nullChart() {
+
+        try {
+            client.fetch(null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package unitTests;
+
+
+import de.toolforge.googlechartwrapper.BarChart;
+import de.toolforge.googlechartwrapper.BarChart.BarChartOrientation;
+import de.toolforge.googlechartwrapper.BarChart.BarChartStyle;
+import de.toolforge.googlechartwrapper.ChartImageRenderer;
+import de.toolforge.googlechartwrapper.Color;
+import de.toolforge.googlechartwrapper.LineChart;
+import de.toolforge.googlechartwrapper.OutputFormat;
+import de.toolforge.googlechartwrapper.PieChart;
+import de.toolforge.googlechartwrapper.QRCode;
+import de.toolforge.googlechartwrapper.ScatterPlot;
+import de.toolforge.googlechartwrapper.data.BarChartDataSerie;
+import de.toolforge.googlechartwrapper.data.LineChartData;
+import de.toolforge.googlechartwrapper.data.PieChartSlice;
+import de.toolforge.googlechartwrapper.data.ScatterPlotData;
+import de.toolforge.googlechartwrapper.data.ScatterPlotPoint;
+import de.toolforge.googlechartwrapper.label.AxisLabelContainer;
+import de.toolforge.googlechartwrapper.label.AxisRange;
+import de.toolforge.googlechartwrapper.label.AxisType;
+import de.toolforge.googlechartwrapper.label.ChartLegend;
+import de.toolforge.googlechartwrapper.label.ChartTitle;
+import de.toolforge.googlechartwrapper.style.GridLine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * @author martin
+ */
+public class ChartImageRendererTest {
+
+    private final ChartImageRenderer renderer = new ChartImageRenderer();
+
+    private static boolean containsColor(BufferedImage image, Color color) {
+
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                if ((image.getRGB(x, y) & 0xFFFFFF) == (color.getRGB() & 0xFFFFFF)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void lineChart() {
+
+        LineChart chart = new LineChart(new Dimension(300, 200));
+        chart.setChartTitle(new ChartTitle("Sales|2009"));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(10f, 40f, 25f, Float.NaN, 30f))
+                .color(Color.BLUE).legend(new ChartLegend("sales")).build());
+        AxisLabelContainer yAxis = new AxisLabelContainer(AxisType.YAxis);
+        yAxis.setAxisRange(new AxisRange(0, 50));
+        chart.addAxisLabelContainer(yAxis);
+        chart.setGridLine(new GridLine.GridLineBuilder(20, 25).build());
+
+        BufferedImage image = renderer.render(chart);
+        Assert.assertEquals(300, image.getWidth());
+        Assert.assertEquals(200, image.getHeight());
+        Assert.assertEquals(0xFFFFFF, image.getRGB(0, 0) & 0xFFFFFF);
+        Assert.assertTrue(containsColor(image, Color.BLUE));
+    }
+
+    @Test
+    public void barChart() {
+
+        BarChart chart = new BarChart(new Dimension(200, 150), BarChartOrientation.Horizontal, BarChartStyle.Stacked);
+        chart.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(Arrays.asList(1200, 2400, 1600)).color(Color.GREEN).build());
+        chart.addBarChartDataSerie(new BarChartDataSerie.BarChartDataSerieBuilder(Arrays.asList(800, 1000, 1200)).color(Color.RED).build());
+
+        BufferedImage image = renderer.render(chart);
+        Assert.assertEquals(200, image.getWidth());
+        Assert.assertEquals(150, image.getHeight());
+        Assert.assertTrue(containsColor(image, Color.GREEN));
+        Assert.assertTrue(containsColor(image, Color.RED));
+    }
+
+    @Test
+    public void scatterPlotPng() {
+
+        ScatterPlot chart = new ScatterPlot(new Dimension(120, 100));
+        chart.setScatterPlotData(new ScatterPlotData(Arrays.asList(new ScatterPlotPoint(10, 20),
+                new ScatterPlotPoint(50, 80), new ScatterPlotPoint(90, 40))));
+
+        byte[] png = renderer.toPng(chart);
+        Assert.assertTrue(png.length > 8);
+        Assert.assertEquals((byte) 0x89, png[0]);
+        Assert.assertEquals('P', png[1]);
+        Assert.assertEquals('N', png[2]);
+        Assert.assertEquals('G', png[3]);
+    }
+
+    @Test
+    public void pieChart() {
+
+        PieChart chart = new PieChart(new Dimension(200, 100));
+        chart.addPieChartSlice(new PieChartSlice.PieChartSliceBuilder(30).color(Color.RED).label("a").build());
+        chart.addPieChartSlice(new PieChartSlice.PieChartSliceBuilder(70).color(Color.BLUE).label("b").build());
+
+        BufferedImage image = renderer.render(chart);
+        Assert.assertEquals(0xFFFFFF, image.getRGB(0, 0) & 0xFFFFFF);
+        Assert.assertTrue(containsColor(image, Color.RED));
+        Assert.assertTrue(containsColor(image, Color.BLUE));
+    }
+
+    @Test
+    public void writeSvg() throws IOException {
+
+        PieChart chart = new PieChart(new Dimension(200, 100));
+        chart.addPieChartSlice(new PieChartSlice.PieChartSliceBuilder(50).build());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.write(chart, OutputFormat.SVG, out);
+        Assert.assertTrue(new String(out.toByteArray(), "UTF-8").contains("<svg"));
+        try {
+            renderer.write(chart, OutputFormat.JSON, out);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void unsupportedChart() {
+
+        QRCode chart = new QRCode(new Dimension(100, 100), "text");
+
+        Assert.assertFalse(ChartImageRenderer.isSupported(chart));
+        try {
+            renderer.render(chart);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            renderer.render(null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
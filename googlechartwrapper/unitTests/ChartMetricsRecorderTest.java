@@ -0,0 +1,62 @@
+package unitTests;
+
+
+import de.toolforge.googlechartwrapper.AbstractChart;
+import de.toolforge.googlechartwrapper.ChartMetricsRecorder;
+import de.toolforge.googlechartwrapper.LineChart;
+import de.toolforge.googlechartwrapper.data.LineChartData;
+import de.toolforge.googlechartwrapper.label.ChartTitle;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.util.Arrays;
+
+/**
+ * @author martin
+ */
+public class ChartMetricsRecorderTest {
+
+    @Test
+    public void recordUrlGeneration() {
+
+        LineChart chart = new LineChart(new Dimension(200, 100));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(10f, 40f, 25f)).build());
+        chart.setChartTitle(new ChartTitle("title"));
+
+        ChartMetricsRecorder recorder = new ChartMetricsRecorder();
+        AbstractChart.setChartMetrics(recorder);
+        String url;
+        try {
+            url = chart.getUrl();
+            chart.getUrl();
+        } finally {
+            AbstractChart.setChartMetrics(null);
+        }
+        chart.getUrl();
+
+        Assert.assertEquals(2, recorder.getHistogram("LineChart.url.nanos").getCount());
+        Assert.assertEquals(url.length(), recorder.getHistogram("LineChart.url.bytes").getMax());
+        Assert.assertEquals(2, recorder.getHistogram("LineChart.appenders.nanos").getCount());
+        Assert.assertEquals("chtt=title".length(), recorder.getHistogram("LineChart.chtt.bytes").getMax());
+        Assert.assertEquals(3, recorder.getHistogram("LineChart.chd.SimpleEncoding.points").getMax());
+        Assert.assertTrue(recorder.toString().contains("LineChart.url.bytes count=2"));
+    }
+
+    @Test
+    public void histogram() {
+
+        ChartMetricsRecorder.Histogram histogram = new ChartMetricsRecorder.Histogram();
+        Assert.assertEquals(0, histogram.getPercentile(0.5));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(500.5, histogram.getMean(), 0.001);
+        Assert.assertEquals(1000, histogram.getMax());
+        long median = histogram.getPercentile(0.5);
+        Assert.assertTrue(median >= 500 && median <= 500 * 1.125);
+        Assert.assertEquals(1000, histogram.getPercentile(1));
+        Assert.assertEquals(1, histogram.getPercentile(0));
+    }
+}
@@ -0,0 +1,140 @@
+package unitTests;
+
+
+import de.toolforge.googlechartwrapper.AbstractChart;
+import de.toolforge.googlechartwrapper.ChartMetricsRecorder;
+import de.toolforge.googlechartwrapper.ChartTemplate;
+import de.toolforge.googlechartwrapper.ConsistentHashStrategy;
+import de.toolforge.googlechartwrapper.LineChart;
+import de.toolforge.googlechartwrapper.data.LineChartData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author martin
+ */
+public class ConsistentHashStrategyTest {
+
+    private static List<String> locations(int count) {
+
+        List<String> locations = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            locations.add("http://" + i + ".chart.apis.google.com/chart?");
+        }
+        return locations;
+    }
+
+    private static LineChart chart(int value) {
+
+        LineChart chart = new LineChart(new Dimension(200, 100));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList((float) value, 50f)).build());
+        return chart;
+    }
+
+    @Test
+    public void sameChartSameLocation() {
+
+        LineChart chart = chart(1);
+        chart.setApiLocationStrategy(new ConsistentHashStrategy(locations(10)));
+        String location = chart.getApiLocation();
+        Assert.assertTrue(chart.getUrl().startsWith(location));
+        Assert.assertEquals(location, new ConsistentHashStrategy(locations(10)).getApiLocation(chart(1).getChartKey()));
+
+        chart.setApiLocationStrategy(null);
+        Assert.assertTrue(chart.getUrl().startsWith(AbstractChart.GOOGLE_API));
+    }
+
+    @Test
+    public void collectedOnce() throws Exception {
+
+        LineChart chart = chart(1);
+        chart.setApiLocationStrategy(new ConsistentHashStrategy(locations(10)));
+        ChartMetricsRecorder recorder = new ChartMetricsRecorder();
+        AbstractChart.setChartMetrics(recorder);
+        try {
+            String url = chart.getUrl();
+            StringBuilder written = new StringBuilder();
+            chart.writeUrl(written);
+            Assert.assertEquals(url, written.toString());
+            Assert.assertTrue(url.startsWith(chart.getApiLocation()));
+        } finally {
+            AbstractChart.setChartMetrics(null);
+        }
+        // the location is chosen from the elements collected for the url
+        Assert.assertEquals(3, recorder.getHistogram("LineChart.appenders.nanos").getCount());
+    }
+
+    @Test
+    public void spreadAndStability() {
+
+        ConsistentHashStrategy ten = new ConsistentHashStrategy(locations(10));
+        List<String> nineLocations = locations(10);
+        nineLocations.remove(3);
+        ConsistentHashStrategy nine = new ConsistentHashStrategy(nineLocations);
+
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        int moved = 0;
+        for (int i = 0; i < 1000; i++) {
+            LineChart chart = chart(i);
+            String location = ten.getApiLocation(chart.getChartKey());
+            Integer count = counts.get(location);
+            counts.put(location, count == null ? 1 : count + 1);
+            if (!location.equals(nine.getApiLocation(chart.getChartKey()))) {
+                // only the charts of the removed location move
+                Assert.assertEquals(locations(10).get(3), location);
+                moved++;
+            }
+        }
+        Assert.assertEquals(10, counts.size());
+        for (int count : counts.values()) {
+            Assert.assertTrue(count > 50 && count < 150);
+        }
+        Assert.assertEquals((int) counts.get(locations(10).get(3)), moved);
+    }
+
+    @Test
+    public void compiledTemplate() {
+
+        LineChart chart = chart(0);
+        chart.setApiLocationStrategy(new ConsistentHashStrategy(locations(10)));
+        ChartTemplate template = chart.compile();
+        Set<String> used = new HashSet<String>();
+        for (int value = 0; value < 20; value++) {
+            LineChart current = chart(value);
+            current.setApiLocationStrategy(new ConsistentHashStrategy(locations(10)));
+            Assert.assertEquals(current.getUrl(), template.render(new float[]{value, 50f}));
+            used.add(current.getApiLocation());
+        }
+        Assert.assertTrue(used.size() > 1);
+
+        // a given location replaces the strategy
+        Assert.assertTrue(chart.compile(AbstractChart.GOOGLE_API).render(new float[]{1f, 50f})
+                .startsWith(AbstractChart.GOOGLE_API));
+    }
+
+    @Test
+    public void invalidLocations() {
+
+        try {
+            new ConsistentHashStrategy(new ArrayList<String>());
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new ConsistentHashStrategy(Arrays.asList("http://a/chart?", null));
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
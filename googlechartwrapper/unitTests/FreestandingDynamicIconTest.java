@@ -12,6 +12,8 @@ import de.toolforge.googlechartwrapper.style.icon.Icon;
 import de.toolforge.googlechartwrapper.style.icon.TailDirection;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * @author steffan
  */
@@ -24,16 +26,23 @@ public class FreestandingDynamicIconTest {
 
         FreestandingDynamicIcon chart = new FreestandingDynamicIcon(new FreestandingDynamicIconData(b));
 
-        System.out.print(chart.getUrl());
-
-        /*assertEquals("http://chart.apis.google.com/chart?cht=p&chs=400x180&chco=0000ff," +
-                  "ff9d0a&chd=e:..QA&chl=USA|Canada&chp=2.5&chtt=GDP+of+the+world(nominal)"
-                  ,chart.getUrl());
-          */
+        assertEquals("http://chart.apis.google.com/chart?chld=bank-dollar|bb|mit+der+Api+verdienen|00ff00|808080" +
+                "&chst=d_bubble_icon_text_big", chart.getUrl());
 
-        System.out.print("\n");
         FreestandingDynamicIcon chart2 = new FreestandingDynamicIcon(new FreestandingDynamicIconData(b.toShadow()));
 
-        System.out.println(chart2.getUrl());
+        assertEquals("http://chart.apis.google.com/chart?chld=bank-dollar|bb|mit+der+Api+verdienen" +
+                "&chst=d_bubble_icon_text_big_shadow", chart2.getUrl());
+    }
+
+    @Test
+    public void escapedText() {
+
+        Bubble b = BubbleFactory.createBubble(Icon.BankDollar, TailDirection.BottomLeft, "Soll & Haben", Color.GREEN, Color.GRAY);
+
+        FreestandingDynamicIcon chart = new FreestandingDynamicIcon(new FreestandingDynamicIconData(b));
+
+        assertEquals("http://chart.apis.google.com/chart?chld=bank-dollar|bb|Soll+%26+Haben|00ff00|808080" +
+                "&chst=d_bubble_icon_text_big", chart.getUrl());
     }
 }
@@ -1,13 +1,17 @@
 package unitTests;
 
 
+import de.toolforge.googlechartwrapper.ChartTemplate;
 import de.toolforge.googlechartwrapper.LineChart;
+import de.toolforge.googlechartwrapper.UrlBudget;
 import de.toolforge.googlechartwrapper.XYLineChart;
 import de.toolforge.googlechartwrapper.coder.EncoderFactory;
 import de.toolforge.googlechartwrapper.coder.EncodingType;
 import de.toolforge.googlechartwrapper.color.FillArea;
 import de.toolforge.googlechartwrapper.color.FillArea.DataSetKind;
 import de.toolforge.googlechartwrapper.data.DataScalingSet;
+import de.toolforge.googlechartwrapper.data.DownsamplingMethod;
+import de.toolforge.googlechartwrapper.data.FloatDataSet;
 import de.toolforge.googlechartwrapper.data.LineChartData;
 import de.toolforge.googlechartwrapper.data.XYLineChartData;
 import de.toolforge.googlechartwrapper.label.*;
@@ -21,6 +25,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.awt.*;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -95,7 +100,7 @@ public class LineChartTest {
         l.addDataPointLabel(new DataPointLabel(new DataPointLabel.PercentageValueNumberBuilder(1).build(), Color.BLACK, 0, DataPointLabel.DataPoint.newDrawNPoint(5), 10, de.toolforge.googlechartwrapper.label.DataPointLabel.Priority.First));
 
 
-        String target = "http://chart.apis.google.com/chart?cht=lc&chs=600x350&chd=s:CDDDDEEFGIJLLKIKLLMNJ&chdl=Dow Jones&chls=5.0,0.0,0.0&chm=d,0000ff,0,-1,10|B,ff0000,0,0,0|N*p1*,000000,0,-5,10,-1&chtt=Dow+Jones+89-09&chxr=0,1989,2009,2&chxt=x";
+        String target = "http://chart.apis.google.com/chart?cht=lc&chs=600x350&chd=s:CDDDDEEFGIJLLKIKLLMNJ&chdl=Dow+Jones&chls=5.0,0.0,0.0&chm=d,0000ff,0,-1,10|B,ff0000,0,0,0|N*p1*,000000,0,-5,10,-1&chtt=Dow+Jones+89-09&chxr=0,1989,2009,2&chxt=x";
 
         Assert.assertEquals(target, l.getUrl());
 
@@ -114,5 +119,224 @@ public class LineChartTest {
 
 
     }
+
+    @Test
+    public void appendersOfEachInstance() {
+
+        LineChart first = new LineChart(new Dimension(300, 300));
+        first.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(20f, 30f, 40f)).build());
+
+        LineChart second = new LineChart(new Dimension(300, 300));
+        second.setChartTitle(new ChartTitle("second"));
+        second.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(40f, 50f, 60f)).build());
+
+        Assert.assertEquals("http://chart.apis.google.com/chart?cht=lc&chs=300x300&chd=s:Ueo", first.getUrl());
+        Assert.assertEquals("http://chart.apis.google.com/chart?cht=lc&chs=300x300&chd=s:oy8&chtt=second", second.getUrl());
+        Assert.assertEquals(first.getUrl(), first.getUrl());
+
+    }
+
+    @Test
+    public void escapedText() {
+
+        LineChart chart = new LineChart(new Dimension(300, 300));
+        chart.setChartTitle(new ChartTitle("Q&A|100% C++"));
+        chart.setChartLegend(new ChartLegend("a=b #1"));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(20f, 30f, 40f)).build());
+
+        Assert.assertEquals("http://chart.apis.google.com/chart?cht=lc&chs=300x300&chd=s:Ueo&chdl=a%3Db+%231&chdlp=r&chtt=Q%26A|100%25+C++", chart.getUrl());
+        Assert.assertEquals("Q&A|100% C++", chart.getChartTitle().getTitle());
+
+    }
+
+    @Test
+    public void floatDataSet() {
+
+        LineChart listChart = new LineChart(new Dimension(300, 300));
+        listChart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(20f, 30f, 40f)).build());
+        listChart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(40f, 50f, 60f)).build());
+
+        float[] values = new float[]{0f, 20f, 30f, 40f, 50f, 60f};
+        LineChart arrayChart = new LineChart(new Dimension(300, 300));
+        arrayChart.addLineChartData(new LineChartData.LineChartDataBuilder(FloatDataSet.wrap(values, 1, 3)).build());
+        arrayChart.addLineChartData(new LineChartData.LineChartDataBuilder(new float[]{40f, 50f, 60f}).build());
+
+        Assert.assertEquals(listChart.getUrl(), arrayChart.getUrl());
+        Assert.assertEquals(Arrays.asList(20f, 30f, 40f), arrayChart.getAllLineChartData().get(0).getDataSet());
+
+    }
+
+    @Test
+    public void downsampling() {
+
+        float[] values = new float[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1000f + (i % 100);
+        }
+        values[5003] = 4000f;
+        values[7007] = 0f;
+
+        for (DownsamplingMethod method : DownsamplingMethod.values()) {
+            float[] sampled = method.downsample(FloatDataSet.wrap(values), 100);
+            Assert.assertTrue(sampled.length <= 100);
+            float min = Float.MAX_VALUE;
+            float max = -Float.MAX_VALUE;
+            for (float current : sampled) {
+                min = Math.min(min, current);
+                max = Math.max(max, current);
+            }
+            // the peaks are kept
+            Assert.assertEquals(4000f, max, 0f);
+            Assert.assertEquals(0f, min, 0f);
+        }
+
+        LineChart chart = new LineChart(new Dimension(100, 100));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(FloatDataSet.wrap(values)).build());
+        String raw = chart.getUrl();
+        Assert.assertEquals(0, chart.getDroppedPointCount());
+
+        chart.setDownsampling(DownsamplingMethod.LargestTriangleThreeBuckets);
+        String sampled = chart.getUrl();
+        Assert.assertEquals(9900, chart.getDroppedPointCount());
+        Assert.assertTrue(sampled.length() < raw.length() / 50);
+        Assert.assertEquals(10000, chart.getAllLineChartData().get(0).getFloatDataSet().size());
+
+        chart.setDownsampling(null);
+        Assert.assertEquals(raw, chart.getUrl());
+        Assert.assertEquals(0, chart.getDroppedPointCount());
+
+    }
+
+    @Test
+    public void compile() throws IOException {
+
+        LineChart template = new LineChart(new Dimension(300, 300));
+        template.setChartTitle(new ChartTitle("compiled"));
+        template.addShapeMarker(new ShapeMarker(MarkerTyp.Diamond, Color.BLUE, 0, ShapeMarker.DataPoint.newDrawEachPoint(), 10));
+        template.addLineChartData(new LineChartData.LineChartDataBuilder(new float[0]).color(Color.RED).build());
+        template.addLineChartData(new LineChartData.LineChartDataBuilder(new float[0]).lineStyle(new LineStyle(5f, 0f, 0f)).build());
+        ChartTemplate compiled = template.compile();
+        Assert.assertEquals(2, compiled.getSeriesCount());
+
+        float[] first = new float[]{20f, 30f, 40f};
+        float[] second = new float[]{100f, 3000f, 40f};
+        LineChart chart = new LineChart(new Dimension(300, 300));
+        chart.setChartTitle(new ChartTitle("compiled"));
+        chart.addShapeMarker(new ShapeMarker(MarkerTyp.Diamond, Color.BLUE, 0, ShapeMarker.DataPoint.newDrawEachPoint(), 10));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(first).color(Color.RED).build());
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(second).lineStyle(new LineStyle(5f, 0f, 0f)).build());
+
+        Assert.assertEquals(chart.getUrl(), compiled.render(first, second));
+        StringBuilder url = new StringBuilder();
+        compiled.writeUrl(url, first, second);
+        Assert.assertEquals(chart.getUrl(), url.toString());
+
+        // the template does not change with the chart
+        template.setChartTitle(new ChartTitle("changed"));
+        Assert.assertEquals(chart.getUrl(), compiled.render(first, second));
+
+        try {
+            compiled.render(first);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // one series is missing
+        }
+    }
+
+    @Test
+    public void fitUrlLength() {
+
+        float[] values = new float[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) (50 + 40 * Math.sin(i / 100.0));
+        }
+        values[10] = Float.NaN;
+
+        LineChart chart = new LineChart(new Dimension(300, 200));
+        chart.setChartTitle(new ChartTitle("budget"));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(FloatDataSet.wrap(values)).build());
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(1.25f, -0.5f, 99.125f)).build());
+
+        for (int maxLength : new int[]{100000, 40000, 2048, 1000}) {
+            UrlBudget budget = chart.fitUrlLength(maxLength);
+            Assert.assertTrue(budget.isFitting());
+            Assert.assertEquals(budget.getUrlLength(), chart.getUrl().length());
+            Assert.assertTrue(chart.getUrl().length() <= maxLength);
+        }
+
+        UrlBudget full = chart.fitUrlLength(100000);
+        Assert.assertEquals(EncodingType.TextEncodingWithDataScaling, full.getEncodingType());
+        Assert.assertEquals(2, full.getDecimals());
+        Assert.assertEquals(0, full.getPointThreshold());
+        // -0.5 is out of the default range of the text encoding
+        Assert.assertTrue(chart.getUrl().endsWith("|1.25,-0.5,99.13&chds=-0.5,99.125&chtt=budget"));
+
+        UrlBudget small = chart.fitUrlLength(2048);
+        Assert.assertTrue(small.getPointThreshold() > 0);
+
+        UrlBudget tooSmall = chart.fitUrlLength(50);
+        Assert.assertFalse(tooSmall.isFitting());
+        Assert.assertEquals(full.getUrlLength(), tooSmall.getUrlLength());
+        Assert.assertTrue(tooSmall.getPostRequestParameters().containsKey("chd"));
+
+        LineChart simple = new LineChart(new Dimension(300, 200));
+        simple.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(20f, 30f, 40f)).build());
+        String url = simple.getUrl();
+        UrlBudget simpleBudget = simple.fitUrlLength(2048);
+        Assert.assertEquals(EncodingType.SimpleEncoding, simpleBudget.getEncodingType());
+        Assert.assertEquals(url, simple.getUrl());
+
+    }
+
+    @Test
+    public void fitUrlLengthKeepsExtendedEncoding() {
+
+        float[] values = new float[50];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1000.5f + i * 1825.3f / (values.length - 1);
+        }
+        LineChart chart = new LineChart(new Dimension(300, 200));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(FloatDataSet.wrap(values)).build());
+
+        UrlBudget budget = chart.fitUrlLength(400);
+        Assert.assertTrue(budget.isFitting());
+        Assert.assertEquals(EncodingType.ExtendedEncoding, budget.getEncodingType());
+        Assert.assertNull(budget.getDataScaling());
+        Assert.assertTrue(chart.getUrl().contains("chd=e:"));
+        Assert.assertEquals(budget.getUrlLength(), chart.getUrl().length());
+    }
+
+    @Test
+    public void fitUrlLengthKeepsGapsInSimpleEncoding() {
+
+        LineChart chart = new LineChart(new Dimension(300, 200));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(
+                FloatDataSet.wrap(new float[]{20, Float.NaN, 40})).build());
+
+        UrlBudget budget = chart.fitUrlLength(2048);
+        Assert.assertEquals(EncodingType.SimpleEncoding, budget.getEncodingType());
+        Assert.assertTrue(chart.getUrl().contains("chd=s:U_o"));
+        Assert.assertEquals(budget.getUrlLength(), chart.getUrl().length());
+    }
+
+    @Test
+    public void fitUrlLengthScalesTextEncoding() {
+
+        LineChart chart = new LineChart(new Dimension(300, 200));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(-50.5f, 10.25f, 150f)).build());
+
+        UrlBudget budget = chart.fitUrlLength(2048);
+        Assert.assertEquals(EncodingType.TextEncodingWithDataScaling, budget.getEncodingType());
+        Assert.assertEquals(-50.5, budget.getDataScaling().getMinimumValue(), 0);
+        Assert.assertEquals(150, budget.getDataScaling().getMaximumValue(), 0);
+        Assert.assertTrue(chart.getUrl().contains("chd=t:-50.5,10.25,150&chds=-50.5,150.0"));
+        Assert.assertEquals(budget.getUrlLength(), chart.getUrl().length());
+
+        // the scaling of the previous fit is replaced, not added again
+        UrlBudget again = chart.fitUrlLength(2048);
+        Assert.assertEquals(budget.getUrlLength(), again.getUrlLength());
+        Assert.assertEquals(1, chart.getDataScalings().size());
+        Assert.assertEquals(again.getUrlLength(), chart.getUrl().length());
+    }
 }
 
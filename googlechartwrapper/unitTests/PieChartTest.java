@@ -46,8 +46,8 @@ public class PieChartTest {
 						
 		assertEquals("http://chart.apis.google.com/chart?cht=p&chs=400x180&chco=0000ff," +
 				"ff9d0a,ff9d0a,ff9d0a,ff9d0a,ff9d0a,ff9d0a,ff9d0a,ff9d0a,ff9d0a,ff9d0a&" +
-				"chd=e:wqPaLrLbJwJAHaFEFCEo..&chl=USA|Japan|Germany|China (PRC)|" +
-				"United Kingdom|France|Italy|Spain|Canada|Brazil|other&chtt=GDP+of+the+" +
+				"chd=e:wqPaLrLbJwJAHaFEFCEo..&chl=USA|Japan|Germany|China+(PRC)|" +
+				"United+Kingdom|France|Italy|Spain|Canada|Brazil|other&chtt=GDP+of+the+" +
 				"world(nominal)", 
 				chart.getUrl());
 			
@@ -0,0 +1,74 @@
+package unitTests;
+
+
+import de.toolforge.googlechartwrapper.LineChart;
+import de.toolforge.googlechartwrapper.PostBody;
+import de.toolforge.googlechartwrapper.data.LineChartData;
+import de.toolforge.googlechartwrapper.label.ChartTitle;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * @author martin
+ */
+public class PostBodyTest {
+
+    private static LineChart chart(String title) {
+
+        LineChart chart = new LineChart(new Dimension(200, 100));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(10f, 40f, 25f)).build());
+        chart.setChartTitle(new ChartTitle(title));
+        return chart;
+    }
+
+    @Test
+    public void bodyIsQueryOfUrl() throws Exception {
+
+        LineChart chart = chart("Sales & \"more\" ä€");
+        String url = chart.getUrl();
+        String query = url.substring(url.indexOf('?') + 1);
+
+        PostBody body = chart.getPostBody();
+        Assert.assertEquals(query, body.toString());
+        Assert.assertEquals(query.length(), body.getContentLength());
+        Assert.assertEquals("application/x-www-form-urlencoded", body.getContentType());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        Assert.assertEquals(query, new String(out.toByteArray(), "US-ASCII"));
+
+        ByteBuffer buffer = body.toByteBuffer();
+        Assert.assertEquals(0, buffer.position());
+        Assert.assertEquals(body.getContentLength(), buffer.remaining());
+    }
+
+    @Test
+    public void bufferTooSmall() {
+
+        PostBody body = chart("a").getPostBody();
+        try {
+            body.writeTo(ByteBuffer.allocate(body.getContentLength() - 1));
+            Assert.fail();
+        } catch (BufferOverflowException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void form() {
+
+        String form = chart("Sales & \"more\" ä€").getPostRequest();
+        Assert.assertTrue(form.startsWith("<form action='http://chart.apis.google.com/chart' method='POST'"));
+        Assert.assertTrue(form.contains("<input type=\"hidden\" name=\"cht\" value=\"lc\" />"));
+        // the browser encodes the value again, so it is decoded in the form
+        Assert.assertTrue(form.contains(
+                "<input type=\"hidden\" name=\"chtt\" value=\"Sales &amp; &quot;more&quot; ä€\" />"));
+        Assert.assertTrue(form.endsWith(" <input type=\"submit\"  /></form>"));
+    }
+}
@@ -55,4 +55,14 @@ public class QRCodeTest {
         Assert.assertEquals(target, qrCode.getUrl());
     }
 
+    @Test
+    public void escapedText() {
+
+        QRCode qrCode = new QRCode(new Dimension(300, 300), "a+b=c & caf\u00e9 \ud83d\ude00");
+
+        String target = "http://chart.apis.google.com/chart?cht=qr&chs=300x300&chl=a%2Bb%3Dc%20%26%20caf%C3%A9%20%F0%9F%98%80&choe=UTF-8";
+
+        Assert.assertEquals(target, qrCode.getUrl());
+    }
+
 }
@@ -108,7 +108,7 @@ public class RadarChartTest {
 
         chart.setEncoder(EncoderFactory.getEncoder(EncodingType.TextEncoding));
 
-        String expected = "http://chart.apis.google.com/chart?cht=r&chs=400x400&chco=00ff00&chd=t:30,50,50,80,20,30&chls=3.5,0.0,0.0&chm=a,ff0000,0,3.0,10|h,ffff00,0,-1,1&chtt=free+time+activities&chxl=0:|Math|Coding (Java)|Music|Sport|Reading|1:|0|20|40|60|100&chxr=1,0,100&chxt=x,y";
+        String expected = "http://chart.apis.google.com/chart?cht=r&chs=400x400&chco=00ff00&chd=t:30,50,50,80,20,30&chls=3.5,0.0,0.0&chm=a,ff0000,0,3.0,10|h,ffff00,0,-1,1&chtt=free+time+activities&chxl=0:|Math|Coding+(Java)|Music|Sport|Reading|1:|0|20|40|60|100&chxr=1,0,100&chxt=x,y";
         assertEquals(expected, chart.getUrl());
     }
 
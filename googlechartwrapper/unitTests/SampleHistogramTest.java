@@ -0,0 +1,132 @@
+package unitTests;
+
+
+import de.toolforge.googlechartwrapper.BarChart;
+import de.toolforge.googlechartwrapper.data.SampleHistogram;
+import de.toolforge.googlechartwrapper.label.AxisLabelContainer;
+import de.toolforge.googlechartwrapper.label.AxisType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @author martin
+ */
+public class SampleHistogramTest {
+
+    @Test
+    public void linear() {
+
+        SampleHistogram histogram = SampleHistogram.linear(0, 10, 5);
+        SampleHistogram.Counts counts = histogram.count(new double[]{0, 1.9, 2, 5, 10, -1, 11, Double.NaN});
+
+        Assert.assertEquals(5, histogram.getBucketCount());
+        Assert.assertEquals(2, counts.getCount(0));
+        Assert.assertEquals(1, counts.getCount(1));
+        Assert.assertEquals(1, counts.getCount(2));
+        Assert.assertEquals(1, counts.getCount(4));
+        Assert.assertEquals(5, counts.getTotalCount());
+        Assert.assertEquals(1, counts.getUnderflowCount());
+        Assert.assertEquals(1, counts.getOverflowCount());
+        Assert.assertEquals(Arrays.asList(2, 1, 1, 0, 1), counts.toBarChartDataSerie().getData());
+    }
+
+    @Test
+    public void logarithmic() {
+
+        SampleHistogram histogram = SampleHistogram.logarithmic(1, 1000, 3);
+        Assert.assertEquals(10, histogram.getBound(1), 1e-9);
+        SampleHistogram.Counts counts = histogram.count(Arrays.asList(1, 9, 10, 99.5, 500L, 1000f).iterator());
+        Assert.assertEquals(2, counts.getCount(0));
+        Assert.assertEquals(2, counts.getCount(1));
+        Assert.assertEquals(2, counts.getCount(2));
+    }
+
+    @Test
+    public void highDynamicRange() {
+
+        SampleHistogram histogram = SampleHistogram.highDynamicRange(3, 20, 1);
+        // 2, 3, 4, 6, 8, 12, 16, 24, 32
+        Assert.assertEquals(8, histogram.getBucketCount());
+        Assert.assertEquals(2, histogram.getBound(0), 0);
+        Assert.assertEquals(6, histogram.getBound(3), 0);
+        Assert.assertEquals(32, histogram.getBound(8), 0);
+        Assert.assertEquals(3, histogram.bucketOf(7));
+        Assert.assertEquals(7, histogram.bucketOf(31));
+        Assert.assertEquals(-1, histogram.bucketOf(1));
+        Assert.assertEquals(8, histogram.bucketOf(33));
+    }
+
+    @Test
+    public void parallel() throws InterruptedException {
+
+        long[] samples = new long[3 * SampleHistogram.MIN_CHUNK_SIZE + 5];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (i * 7919L) % 70000;
+        }
+        SampleHistogram histogram = SampleHistogram.highDynamicRange(1, 60000, 3);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            SampleHistogram.Counts parallel = histogram.count(samples, executor);
+            SampleHistogram.Counts sequential = histogram.count(samples);
+            for (int i = 0; i < histogram.getBucketCount(); i++) {
+                Assert.assertEquals(sequential.getCount(i), parallel.getCount(i));
+            }
+            Assert.assertEquals(samples.length, parallel.getTotalCount() + parallel.getUnderflowCount()
+                    + parallel.getOverflowCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void barChart() {
+
+        SampleHistogram.Counts counts = SampleHistogram.linear(0, 100, 4).count(new double[]{5, 30, 35, 60, 65, 70});
+        AxisLabelContainer x = counts.toAxisLabelContainer(AxisType.XAxis, 2);
+        Assert.assertEquals(4, x.getLabels().size());
+        Assert.assertEquals("0", x.getLabels().get(0).getLabel());
+        Assert.assertEquals("", x.getLabels().get(1).getLabel());
+        Assert.assertEquals("50", x.getLabels().get(2).getLabel());
+        Assert.assertEquals(3, counts.toAxisRange().getUpper());
+
+        BarChart chart = new BarChart(new Dimension(300, 200), BarChart.BarChartOrientation.Vertical,
+                BarChart.BarChartStyle.Grouped);
+        chart.addBarChartDataSerie(counts.toBarChartDataSerie());
+        chart.addAxisLabelContainer(x);
+        Assert.assertTrue(chart.getUrl(), chart.getUrl().contains("chxl=0:|0||50|"));
+
+        Assert.assertEquals("0.25", SampleHistogram.linear(0, 1, 4).count(new double[0])
+                .toAxisLabelContainer(AxisType.XAxis, 4).getLabels().get(1).getLabel());
+    }
+
+    @Test
+    public void invalid() {
+
+        try {
+            SampleHistogram.linear(1, 1, 2);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            SampleHistogram.logarithmic(0, 10, 2);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            SampleHistogram.highDynamicRange(0, 10, 2);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            SampleHistogram.linear(0, 1, 2).newCounts().addAll(SampleHistogram.linear(0, 1, 2).newCounts());
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
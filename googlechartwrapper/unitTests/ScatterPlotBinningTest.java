@@ -0,0 +1,103 @@
+package unitTests;
+
+
+import de.toolforge.googlechartwrapper.data.ScatterPlotBinning;
+import de.toolforge.googlechartwrapper.data.ScatterPlotData;
+import de.toolforge.googlechartwrapper.data.ScatterPlotPoint;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @author martin
+ */
+public class ScatterPlotBinningTest {
+
+    @Test
+    public void rectangle() {
+
+        ScatterPlotBinning binning = new ScatterPlotBinning(ScatterPlotBinning.Shape.Rectangle, 2, 2, 100, 100);
+        ScatterPlotData binned = binning.bin(Arrays.asList(new ScatterPlotPoint(10, 10), new ScatterPlotPoint(20, 30),
+                new ScatterPlotPoint(100, 100), new ScatterPlotPoint(101, 5)).iterator());
+
+        Assert.assertEquals(2, binned.size());
+        Assert.assertArrayEquals(new int[]{25, 75}, binned.getXValues());
+        Assert.assertArrayEquals(new int[]{25, 75}, binned.getYValues());
+        Assert.assertArrayEquals(new int[]{2, 1}, binned.getSizes());
+    }
+
+    @Test
+    public void hexagon() {
+
+        ScatterPlotBinning binning = new ScatterPlotBinning(ScatterPlotBinning.Shape.Hexagon, 2, 2, 100, 100);
+        Assert.assertEquals(9 + 4, binning.getBinCount());
+
+        ScatterPlotBinning.Bins bins = binning.newBins();
+        bins.add(1, 2);      // corner 0,0
+        bins.add(24, 26);    // center of the first rectangle
+        bins.add(49, 99);    // corner 50,100
+        bins.add(-1, 0);
+        Assert.assertEquals(3, bins.getCount());
+        Assert.assertEquals(1, bins.getDroppedCount());
+
+        ScatterPlotData binned = bins.toScatterPlotData();
+        Assert.assertArrayEquals(new int[]{0, 50, 25}, binned.getXValues());
+        Assert.assertArrayEquals(new int[]{0, 100, 25}, binned.getYValues());
+        Assert.assertArrayEquals(new int[]{1, 1, 1}, binned.getSizes());
+    }
+
+    @Test
+    public void parallel() throws InterruptedException {
+
+        int count = 3 * ScatterPlotBinning.MIN_CHUNK_SIZE + 17;
+        int[] x = new int[count];
+        int[] y = new int[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = (i * 31) % 1000;
+            y[i] = (i * 17) % 500;
+        }
+        ScatterPlotData data = ScatterPlotData.wrap(x, y);
+        ScatterPlotBinning binning = new ScatterPlotBinning(ScatterPlotBinning.Shape.Hexagon, 20, 10, 999, 499);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ScatterPlotData parallel = binning.bin(data, executor);
+            ScatterPlotData sequential = binning.bin(data);
+            Assert.assertArrayEquals(sequential.getXValues(), parallel.getXValues());
+            Assert.assertArrayEquals(sequential.getYValues(), parallel.getYValues());
+            Assert.assertArrayEquals(sequential.getSizes(), parallel.getSizes());
+
+            int sum = 0;
+            for (int size : parallel.getSizes()) {
+                sum += size;
+            }
+            Assert.assertEquals(count, sum);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void invalid() {
+
+        try {
+            new ScatterPlotBinning(null, 2, 2, 100, 100);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            new ScatterPlotBinning(ScatterPlotBinning.Shape.Rectangle, 0, 2, 100, 100);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        ScatterPlotBinning binning = new ScatterPlotBinning(ScatterPlotBinning.Shape.Rectangle, 2, 2, 100, 100);
+        try {
+            binning.newBins().addAll(new ScatterPlotBinning(ScatterPlotBinning.Shape.Rectangle, 2, 2, 100, 100).newBins());
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
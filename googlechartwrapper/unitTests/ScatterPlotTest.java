@@ -4,11 +4,13 @@ package unitTests;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import de.toolforge.googlechartwrapper.ChartTemplate;
 import de.toolforge.googlechartwrapper.ScatterPlot;
 import de.toolforge.googlechartwrapper.coder.EncoderFactory;
 import de.toolforge.googlechartwrapper.coder.EncodingType;
@@ -55,7 +57,7 @@ public class ScatterPlotTest {
 				.offset(25, 25).build());
 		
 		
-		String target = "http://chart.apis.google.com/chart?cht=s&chs=300x300&chd=e:eU..jtvJhr,O0..cS5Qhr&chg=30,15,12,2,25,25&chtt=Simple ScatterPlot&chts=808080,12";
+		String target = "http://chart.apis.google.com/chart?cht=s&chs=300x300&chd=e:eU..jtvJhr,O0..cS5Qhr&chg=30,15,12,2,25,25&chtt=Simple+ScatterPlot&chts=808080,12";
 
 		Assert.assertEquals(target, s.getUrl());
 
@@ -132,8 +134,94 @@ public class ScatterPlotTest {
 		plot.setEncoder(EncoderFactory.getEncoder(EncodingType.TextEncoding));
 		
 		
-		String target = "http://chart.apis.google.com/chart?cht=s&chs=600x450&chd=t:10,50,30,45,65,95,20,80,40|20,40,40,15,85,95,80,20,20|100,30,50,75,40,35,80,100,10&chg=30,15,12,2,25,25&chm=a,ff0000,1,-1,20,-1&chtt=Scatter Plot&chts=ffffff,12";
+		String target = "http://chart.apis.google.com/chart?cht=s&chs=600x450&chd=t:10,50,30,45,65,95,20,80,40|20,40,40,15,85,95,80,20,20|100,30,50,75,40,35,80,100,10&chg=30,15,12,2,25,25&chm=a,ff0000,1,-1,20,-1&chtt=Scatter+Plot&chts=ffffff,12";
 		Assert.assertEquals(target, plot.getUrl());
 	}
 
+	@Test
+	public void compile() {
+
+		List<ScatterPlotPoint> p = new ArrayList<ScatterPlotPoint>();
+		p.add(new ScatterPlotPoint(0, 0, 10));
+		ScatterPlot template = new ScatterPlot(new Dimension(300, 300));
+		template.setChartTitle(new ChartTitle("compiled"));
+		template.setScatterPlotData(new ScatterPlotData(p));
+		ChartTemplate compiled = template.compile();
+		Assert.assertEquals(3, compiled.getSeriesCount());
+
+		List<ScatterPlotPoint> points = new ArrayList<ScatterPlotPoint>();
+		points.add(new ScatterPlotPoint(450, 220, 10));
+		points.add(new ScatterPlotPoint(950, 950, 20));
+		points.add(new ScatterPlotPoint(530, 420, 30));
+		ScatterPlot s = new ScatterPlot(new Dimension(300, 300));
+		s.setChartTitle(new ChartTitle("compiled"));
+		s.setScatterPlotData(new ScatterPlotData(points));
+
+		Assert.assertEquals(s.getUrl(), compiled.render(new int[]{450, 950, 530},
+				new int[]{220, 950, 420}, new int[]{10, 20, 30}));
+	}
+
+	@Test
+	public void columns() {
+
+		List<ScatterPlotPoint> p = new LinkedList<ScatterPlotPoint>();
+		p.add(new ScatterPlotPoint(450, 220));
+		p.add(new ScatterPlotPoint(950, 950));
+		p.add(new ScatterPlotPoint(530, 420, 30));
+		ScatterPlot list = new ScatterPlot(new Dimension(300, 300));
+		// any list may be used, not only an ArrayList
+		list.setScatterPlotData(new ScatterPlotData(p));
+
+		ScatterPlot wrapped = new ScatterPlot(new Dimension(300, 300));
+		wrapped.setScatterPlotData(ScatterPlotData.wrap(new int[]{450, 950, 530},
+				new int[]{220, 950, 420}, new int[]{200, 200, 30}));
+		Assert.assertEquals(list.getUrl(), wrapped.getUrl());
+
+		ScatterPlotData appended = new ScatterPlotData(1);
+		appended.add(450, 220);
+		appended.addAll(new int[]{950}, new int[]{950});
+		appended.add(530, 420, 30);
+		Assert.assertEquals(3, appended.size());
+		Assert.assertTrue(appended.isSizeSet());
+		Assert.assertEquals(200, appended.getDataSet().get(1).getSize());
+		ScatterPlot added = new ScatterPlot(new Dimension(300, 300));
+		added.setScatterPlotData(appended);
+		Assert.assertEquals(list.getUrl(), added.getUrl());
+
+		// only the points are encoded, not the spare capacity of the columns
+		appended.add(100, 100);
+		wrapped.setScatterPlotData(ScatterPlotData.wrap(new int[]{450, 950, 530, 100},
+				new int[]{220, 950, 420, 100}, new int[]{200, 200, 30, 200}));
+		Assert.assertEquals(wrapped.getUrl(), added.getUrl());
+		Assert.assertEquals(4, appended.getXValues().length);
+		// the values are copies of the columns
+		appended.getXValues()[0] = 0;
+		Assert.assertEquals(450, appended.getXValues()[0]);
+		Assert.assertEquals(wrapped.getUrl(), added.getUrl());
+
+		// adding converts the list into columns
+		ScatterPlotData converted = new ScatterPlotData(p);
+		converted.add(10, 10);
+		Assert.assertEquals(4, converted.size());
+		Assert.assertEquals(3, p.size());
+		Assert.assertEquals(10, converted.getDataSet().get(3).getXCoordinate());
+	}
+
+	@Test
+	public void invalidColumns() {
+
+		try {
+			ScatterPlotData.wrap(new int[]{1, 2}, new int[]{1});
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			ScatterPlotData.wrap(new int[]{-1}, new int[]{1});
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
 }
@@ -0,0 +1,152 @@
+package unitTests;
+
+
+import de.toolforge.googlechartwrapper.Color;
+import de.toolforge.googlechartwrapper.ConcentricPieChart;
+import de.toolforge.googlechartwrapper.GoogleOMeter;
+import de.toolforge.googlechartwrapper.LineChart;
+import de.toolforge.googlechartwrapper.OutputFormat;
+import de.toolforge.googlechartwrapper.PieChart;
+import de.toolforge.googlechartwrapper.QRCode;
+import de.toolforge.googlechartwrapper.RadarChart;
+import de.toolforge.googlechartwrapper.SvgChartWriter;
+import de.toolforge.googlechartwrapper.VennDiagram;
+import de.toolforge.googlechartwrapper.color.ChartColor;
+import de.toolforge.googlechartwrapper.data.ConcentricPieChartSlice;
+import de.toolforge.googlechartwrapper.data.GoogleOMeterValue;
+import de.toolforge.googlechartwrapper.data.LineChartData;
+import de.toolforge.googlechartwrapper.data.PieChartSlice;
+import de.toolforge.googlechartwrapper.data.RadarChartLine;
+import de.toolforge.googlechartwrapper.data.VennDiagramData;
+import de.toolforge.googlechartwrapper.label.ChartTitle;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * @author martin
+ */
+public class SvgChartWriterTest {
+
+    private final SvgChartWriter writer = new SvgChartWriter();
+
+    @Test
+    public void lineChart() {
+
+        LineChart chart = new LineChart(new Dimension(300, 200));
+        chart.setChartTitle(new ChartTitle("Cats & Dogs"));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(10f, 40f, 25f))
+                .color(Color.BLUE).build());
+
+        String svg = writer.toSvg(chart);
+        Assert.assertTrue(svg.contains("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"300\" height=\"200\""));
+        Assert.assertTrue(svg.contains("Cats &amp; Dogs"));
+        Assert.assertTrue(svg.contains("<path fill=\"none\" stroke=\"#0000ff\""));
+        Assert.assertTrue(svg.trim().endsWith("</svg>"));
+    }
+
+    @Test
+    public void pieChart() {
+
+        PieChart chart = new PieChart(new Dimension(200, 100));
+        chart.addPieChartSlice(new PieChartSlice.PieChartSliceBuilder(30).color(Color.RED).label("<a>").build());
+        chart.addPieChartSlice(new PieChartSlice.PieChartSliceBuilder(70).color(Color.GREEN).build());
+
+        String svg = writer.toSvg(chart);
+        Assert.assertTrue(svg.contains("fill=\"#ff0000\""));
+        Assert.assertTrue(svg.contains("fill=\"#00ff00\""));
+        Assert.assertTrue(svg.contains("&lt;a&gt;"));
+    }
+
+    @Test
+    public void concentricPieChart() {
+
+        ConcentricPieChart chart = new ConcentricPieChart(new Dimension(200, 200));
+        chart.addConcentricPieChartSlice(new ConcentricPieChartSlice.ConcentricPieChartSliceBuilder(
+                Arrays.asList(new PieChartSlice.PieChartSliceBuilder(50).build()))
+                .color(Color.RED).build());
+        chart.addConcentricPieChartSlice(new ConcentricPieChartSlice.ConcentricPieChartSliceBuilder(
+                Arrays.asList(new PieChartSlice.PieChartSliceBuilder(20).build(),
+                        new PieChartSlice.PieChartSliceBuilder(80).build()))
+                .color(Color.BLUE).build());
+
+        String svg = writer.toSvg(chart);
+        Assert.assertTrue(svg.contains("fill=\"#ff0000\""));
+        Assert.assertTrue(svg.contains("fill=\"#0000ff\""));
+    }
+
+    @Test
+    public void radarChart() {
+
+        RadarChart chart = new RadarChart(new Dimension(200, 200));
+        chart.addRadarChartLine(new RadarChartLine(Color.RED, Arrays.asList(10, 20, 30, 40, 10)));
+
+        String svg = writer.toSvg(chart);
+        Assert.assertTrue(svg.contains("stroke=\"#ff0000\""));
+    }
+
+    @Test
+    public void vennDiagram() {
+
+        VennDiagram chart = new VennDiagram(new Dimension(200, 200), new VennDiagramData(100, 80, 60, 30, 30, 20, 10));
+        chart.addChartColor(new ChartColor(Color.RED));
+
+        String svg = writer.toSvg(chart);
+        Assert.assertEquals(3, count(svg, "<circle"));
+        Assert.assertTrue(svg.contains("fill=\"#ff0000\" fill-opacity=\""));
+    }
+
+    @Test
+    public void googleOMeter() {
+
+        GoogleOMeter chart = new GoogleOMeter(new Dimension(200, 120), new GoogleOMeterValue("speed", 70));
+
+        String svg = writer.toSvg(chart);
+        Assert.assertTrue(svg.contains("<polygon"));
+        Assert.assertTrue(svg.contains(">speed</text>"));
+    }
+
+    @Test
+    public void writeStream() throws IOException {
+
+        PieChart chart = new PieChart(new Dimension(200, 100));
+        chart.addPieChartSlice(new PieChartSlice.PieChartSliceBuilder(50).label("café").build());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(chart, out);
+        Assert.assertEquals(writer.toSvg(chart), new String(out.toByteArray(), "UTF-8"));
+    }
+
+    @Test
+    public void unsupported() {
+
+        QRCode chart = new QRCode(new Dimension(100, 100), "text");
+
+        Assert.assertFalse(SvgChartWriter.isSupported(chart));
+        try {
+            writer.toSvg(chart);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            chart.getUrl(OutputFormat.SVG);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static int count(String text, String part) {
+
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,146 @@
+package unitTests;
+
+
+import de.toolforge.googlechartwrapper.LineChart;
+import de.toolforge.googlechartwrapper.XYLineChart;
+import de.toolforge.googlechartwrapper.coder.EncoderFactory;
+import de.toolforge.googlechartwrapper.coder.EncodingType;
+import de.toolforge.googlechartwrapper.data.TimeSeriesResampler;
+import de.toolforge.googlechartwrapper.data.TimeSeriesResampler.Aggregation;
+import de.toolforge.googlechartwrapper.data.TimeSeriesResampler.Gap;
+import de.toolforge.googlechartwrapper.data.XYLineChartData;
+import de.toolforge.googlechartwrapper.label.AxisLabelContainer;
+import de.toolforge.googlechartwrapper.label.AxisType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.TimeZone;
+
+/**
+ * @author martin
+ */
+public class TimeSeriesResamplerTest {
+
+    private static final long[] TIMESTAMPS = {1000, 1500, 3100, 1200, 500, 6000, 4999};
+    private static final float[] VALUES = {4, 8, 3, 6, 99, 1, 7};
+
+    private static float[] resample(Aggregation aggregation, Gap gap) {
+        return new TimeSeriesResampler(1000, 1000, 4, aggregation, gap).resample(TIMESTAMPS, VALUES).toValues();
+    }
+
+    @Test
+    public void aggregations() {
+
+        Assert.assertArrayEquals(new float[]{6, Float.NaN, 3, 7}, resample(Aggregation.Average, Gap.Missing), 0f);
+        Assert.assertArrayEquals(new float[]{4, Float.NaN, 3, 7}, resample(Aggregation.Min, Gap.Missing), 0f);
+        Assert.assertArrayEquals(new float[]{8, Float.NaN, 3, 7}, resample(Aggregation.Max, Gap.Missing), 0f);
+        Assert.assertArrayEquals(new float[]{8, Float.NaN, 3, 7}, resample(Aggregation.Last, Gap.Missing), 0f);
+        Assert.assertArrayEquals(new float[]{18, Float.NaN, 3, 7}, resample(Aggregation.Sum, Gap.Missing), 0f);
+        Assert.assertArrayEquals(new float[]{3, 0, 1, 1}, resample(Aggregation.Count, Gap.Missing), 0f);
+    }
+
+    @Test
+    public void gaps() {
+
+        Assert.assertArrayEquals(new float[]{6, 0, 3, 7}, resample(Aggregation.Average, Gap.Zero), 0f);
+        Assert.assertArrayEquals(new float[]{6, 6, 3, 7}, resample(Aggregation.Average, Gap.Previous), 0f);
+        Assert.assertArrayEquals(new float[]{6, 4.5f, 3, 7}, resample(Aggregation.Average, Gap.Interpolate), 0f);
+
+        TimeSeriesResampler resampler = new TimeSeriesResampler(0, 10, 3, Aggregation.Max, Gap.Previous);
+        TimeSeriesResampler.Buckets buckets = resampler.resample(new long[]{15}, new float[]{2});
+        Assert.assertArrayEquals(new float[]{Float.NaN, 2, 2}, buckets.toValues(), 0f);
+    }
+
+    @Test
+    public void merge() {
+
+        TimeSeriesResampler resampler = new TimeSeriesResampler(1000, 1000, 4, Aggregation.Last, Gap.Missing);
+        TimeSeriesResampler.Buckets first = resampler.newBuckets();
+        first.addAll(TIMESTAMPS, VALUES, 0, 3);
+        TimeSeriesResampler.Buckets second = resampler.newBuckets();
+        second.addAll(TIMESTAMPS, VALUES, 3, 4);
+        first.addAll(second);
+
+        Assert.assertArrayEquals(resampler.resample(TIMESTAMPS, VALUES).toValues(), first.toValues(), 0f);
+        Assert.assertEquals(2, first.getDroppedCount());
+        Assert.assertEquals(3, first.getCount(0));
+    }
+
+    @Test
+    public void missingValues() {
+
+        TimeSeriesResampler.Buckets buckets = new TimeSeriesResampler(1000, 1000, 4, Aggregation.Average, Gap.Missing)
+                .resample(TIMESTAMPS, VALUES);
+        LineChart chart = new LineChart(new Dimension(200, 100));
+        chart.addLineChartData(buckets.toLineChartData());
+
+        chart.setEncoder(EncoderFactory.getEncoder(EncodingType.SimpleEncoding));
+        Assert.assertTrue(chart.getUrl(), chart.getUrl().contains("chd=s:G_DH"));
+        chart.setEncoder(EncoderFactory.getEncoder(EncodingType.ExtendedEncoding));
+        Assert.assertTrue(chart.getUrl(), chart.getUrl().contains("chd=e:AG__ADAH"));
+        chart.setEncoder(EncoderFactory.getEncoder(EncodingType.TextEncoding));
+        Assert.assertTrue(chart.getUrl(), chart.getUrl().contains("chd=t:6.0,-1,3.0,7.0"));
+
+        XYLineChartData xy = buckets.toXYLineChartData(EncodingType.TextEncoding);
+        Assert.assertEquals(Arrays.asList(0f, 100f / 3, 200f / 3, 100f), xy.getDataSet().getFirst());
+        Assert.assertTrue(Float.isNaN(xy.getDataSet().getSecond().get(1)));
+    }
+
+    @Test
+    public void xyLineSpansAxis() {
+
+        TimeSeriesResampler resampler = new TimeSeriesResampler(0, 1000, 120, Aggregation.Average, Gap.Zero);
+        TimeSeriesResampler.Buckets buckets = resampler.newBuckets();
+        for (int i = 0; i < 120; i++) {
+            buckets.add(i * 1000, 2000);
+        }
+        XYLineChart chart = new XYLineChart(new Dimension(300, 200));
+        chart.setEncoder(EncoderFactory.getEncoder(EncodingType.ExtendedEncoding));
+        chart.addXYLineChartData(buckets.toXYLineChartData(EncodingType.ExtendedEncoding));
+        chart.addAxisLabelContainer(buckets.toAxisLabelContainer(AxisType.XAxis, 4, new SimpleDateFormat("mm:ss")));
+
+        String url = chart.getUrl();
+        // the x values span the range of the extended encoding like the axis spans the buckets
+        Assert.assertTrue(url, url.contains("chd=e:AAAiBF"));
+        Assert.assertTrue(url, url.contains("..,"));
+        Assert.assertTrue(url, url.contains("chxr=0,0,119"));
+    }
+
+    @Test
+    public void axisLabels() {
+
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        TimeSeriesResampler resampler = new TimeSeriesResampler(0, 60000, 5, Aggregation.Average, Gap.Missing);
+        AxisLabelContainer x = resampler.newBuckets().toAxisLabelContainer(AxisType.XAxis, 3, format);
+
+        Assert.assertEquals(3, x.getLabels().size());
+        Assert.assertEquals("00:02", x.getLabels().get(1).getLabel());
+        Assert.assertEquals(4, x.getLabels().get(2).getPos());
+        Assert.assertEquals(4, x.getAxisRange().getUpper());
+        Assert.assertTrue(x.isUseLabelPositions());
+    }
+
+    @Test
+    public void invalid() {
+
+        try {
+            new TimeSeriesResampler(0, 0, 5, Aggregation.Average, Gap.Missing);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            new TimeSeriesResampler(Long.MAX_VALUE - 10, 10, 5, Aggregation.Average, Gap.Missing);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            new TimeSeriesResampler(0, 10, 5, Aggregation.Average, Gap.Missing).resample(new long[2], new float[1]);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
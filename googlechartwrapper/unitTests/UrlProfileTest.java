@@ -0,0 +1,94 @@
+package unitTests;
+
+
+import de.toolforge.googlechartwrapper.AbstractChart;
+import de.toolforge.googlechartwrapper.ChartMetricsRecorder;
+import de.toolforge.googlechartwrapper.Color;
+import de.toolforge.googlechartwrapper.LineChart;
+import de.toolforge.googlechartwrapper.QRCode;
+import de.toolforge.googlechartwrapper.UrlProfile;
+import de.toolforge.googlechartwrapper.coder.EncoderFactory;
+import de.toolforge.googlechartwrapper.coder.EncodingType;
+import de.toolforge.googlechartwrapper.data.LineChartData;
+import de.toolforge.googlechartwrapper.label.ChartTitle;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * @author martin
+ */
+public class UrlProfileTest {
+
+    @Test
+    public void lineChart() {
+
+        LineChart chart = new LineChart(new Dimension(200, 100));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(10f, 40f, 25f)).build());
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(10f, 40f, 25f, 7f))
+                .color(Color.RED).build());
+        chart.setChartTitle(new ChartTitle("title"));
+        String url = chart.getUrl();
+
+        UrlProfile profile = chart.getUrlProfile();
+        Assert.assertEquals(url.length(), profile.getLength());
+        Assert.assertEquals(url.indexOf('?') + 1, profile.getLocationLength());
+        Assert.assertEquals("cht", profile.getElements().get(0).getPrefix());
+        Assert.assertEquals("&chtt=title".length(), profile.getElement("chtt").getLength());
+
+        UrlProfile.Element data = profile.getElement("chd");
+        Assert.assertEquals(EncodingType.SimpleEncoding, profile.getEncodingType());
+        Assert.assertEquals(Arrays.asList(3, 4), data.getSeriesLengths());
+        Assert.assertEquals(1, data.getSources().size());
+        Assert.assertEquals("s:KoZ,KoZH".length(), data.getSources().get(0).getLength());
+        Assert.assertEquals(0, profile.getElement("cht").getSources().size());
+
+        Assert.assertEquals(url.length(), (int) profile.getAlternativeLengths().get(EncodingType.SimpleEncoding));
+        Assert.assertEquals(url.length() + 7, (int) profile.getAlternativeLengths().get(EncodingType.ExtendedEncoding));
+        Assert.assertTrue(profile.getAlternativeLengths().containsKey(EncodingType.TextEncoding));
+        // the encoder of the chart is left alone
+        Assert.assertEquals(url, chart.getUrl());
+    }
+
+    @Test
+    public void alternativesHoldValueRange() {
+
+        LineChart chart = new LineChart(new Dimension(200, 100));
+        chart.setEncoder(EncoderFactory.getEncoder(EncodingType.TextEncoding));
+        chart.addLineChartData(new LineChartData.LineChartDataBuilder(Arrays.asList(10f, 700.5f)).build());
+        String url = chart.getUrl();
+        Assert.assertTrue(url.contains("chd=t:10.0,700.5"));
+
+        ChartMetricsRecorder recorder = new ChartMetricsRecorder();
+        AbstractChart.setChartMetrics(recorder);
+        UrlProfile profile;
+        try {
+            profile = chart.getUrlProfile();
+        } finally {
+            AbstractChart.setChartMetrics(null);
+        }
+        // no url is built to predict the alternatives
+        Assert.assertNull(recorder.getHistogram("LineChart.url.bytes"));
+
+        Map<EncodingType, Integer> lengths = profile.getAlternativeLengths();
+        Assert.assertFalse(lengths.containsKey(EncodingType.SimpleEncoding));
+        Assert.assertFalse(lengths.containsKey(EncodingType.TextEncoding));
+        Assert.assertEquals(url.length() - "t:10.0,700.5".length() + "e:AKK9".length(),
+                (int) lengths.get(EncodingType.ExtendedEncoding));
+        Assert.assertEquals(url.length() - 2, (int) lengths.get(EncodingType.TextEncodingWithDataScaling));
+        Assert.assertSame(EncoderFactory.getEncoder(EncodingType.TextEncoding), chart.getEncoder());
+    }
+
+    @Test
+    public void chartWithoutData() {
+
+        QRCode code = new QRCode(new Dimension(100, 100), "text");
+        UrlProfile profile = code.getUrlProfile();
+        Assert.assertEquals(code.getUrl().length(), profile.getLength());
+        Assert.assertNull(profile.getEncodingType());
+        Assert.assertTrue(profile.getAlternativeLengths().isEmpty());
+    }
+}
@@ -1,14 +1,26 @@
 package unitTests.coder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 import org.junit.Before;
 import org.junit.Test;
 
 import de.toolforge.googlechartwrapper.coder.AutoEncoder;
+import de.toolforge.googlechartwrapper.coder.EncoderFactory;
+import de.toolforge.googlechartwrapper.coder.EncodingType;
+import de.toolforge.googlechartwrapper.data.SeriesStats;
+import de.toolforge.googlechartwrapper.util.ArrayUtils;
 
 public class AutoEncoderTest {
 	
@@ -98,5 +110,70 @@ public class AutoEncoderTest {
 		String expected = "e:AAAZAaAzA9A.,AAAZAaAzA9"; //max(Simple,Extended) -> Extended
 		assertEquals(expected, actual);
 	}
+	
+	@Test
+	public void testSharedBetweenThreads() throws Exception {
+		final int[] simple = new int[]{0,19,27,53,61};
+		final int[] extended = new int[]{0,25,26,51,61,63};
+		final List<int[]> collection = new ArrayList<int[]>(2);
+		collection.add(simple);
+		collection.add(extended);
+		
+		final int threads = 8;
+		final int rounds = 2000;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>(threads);
+		for (int t = 0; t < threads; t++){
+			results.add(executor.submit(new Callable<Integer>() {
+				public Integer call() throws Exception {
+					start.await();
+					int mismatches = 0;
+					for (int i = 0; i < rounds; i++){
+						if (!"s:ATb19".equals(encoder.encode(simple))) mismatches++;
+						if (!"e:AAAZAaAzA9A.".equals(encoder.encode(extended))) mismatches++;
+						if (!"e:AAATAbA1A9,AAAZAaAzA9A.".equals(
+								encoder.encodeIntegerCollection(collection))) mismatches++;
+					}
+					return mismatches;
+				}
+			}));
+		}
+		start.countDown();
+		int mismatches = 0;
+		for (Future<Integer> result : results){
+			mismatches += result.get();
+		}
+		executor.shutdown();
+		assertEquals(0, mismatches);
+	}
+
+	@Test
+	public void testEncodeWithSeriesStats(){
+		float[] valOne = new float[]{0f,25f,26f,51f};
+		float[] valTwo = new float[]{61f,Float.NaN,63f};
+		List<float[]> values = new ArrayList<float[]>(2);
+		values.add(valOne);
+		values.add(valTwo);
+		SeriesStats stats = SeriesStats.of(valOne).combine(SeriesStats.of(valTwo));
+		assertEquals(7, stats.getCount());
+		assertEquals(1, stats.getMissingCount());
+		assertEquals(0f, stats.getMin(), 0f);
+		assertEquals(63f, stats.getMax(), 0f);
+		assertTrue(stats.isIntegral());
+		assertEquals(encoder.encodeFloatCollection(values),
+				encoder.encodeFloatCollection(values, stats));
+	}
+
+	@Test
+	public void testSuggestedEncodingTypeNegativeValues(){
+		float[] val = new float[]{-5.5f,-3f,-100f};
+		SeriesStats stats = SeriesStats.of(val);
+		assertEquals(-100f, stats.getMin(), 0f);
+		assertEquals(-3f, stats.getMax(), 0f);
+		assertFalse(stats.isIntegral());
+		assertEquals(-3f, ArrayUtils.maxValue(val), 0f);
+		assertEquals(EncodingType.SimpleEncoding, EncoderFactory.getSuggestedEncodingType(val));
+	}
 
 }
@@ -2,6 +2,7 @@ package unitTests.coder;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 import org.junit.Before;
@@ -161,4 +162,21 @@ public class ExtendedEncoderTest {
 
 		assertEquals("e:AT__AU", encoded);
 	}
+
+	@Test
+	public void testEncodeToCharArray() {
+		float[] values = new float[]{7f, 64f, 4095f, 4096f, 7f};
+		char[] dst = new char[8];
+		int written = encoder.encodeTo(values, 1, 3, dst, 1);
+		assertEquals(6, written);
+		assertEquals("BA..__", new String(dst, 1, written));
+	}
+
+	@Test
+	public void testEncodeToAppendable() throws IOException {
+		int[] values = new int[]{0, 25, 64, -1};
+		StringBuilder out = new StringBuilder();
+		encoder.encodeTo(values, 0, values.length, out);
+		assertEquals("AAAZBA__", out.toString());
+	}
 }
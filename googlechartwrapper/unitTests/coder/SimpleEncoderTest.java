@@ -2,6 +2,7 @@ package unitTests.coder;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 import org.junit.Before;
@@ -128,4 +129,21 @@ public class SimpleEncoderTest {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void testEncodeToCharArray(){
+		float[] values = new float[]{5f,0f,1f,62f,2f};
+		char[] dst = new char[]{'x','x','x','x','x'};
+		int written = encoder.encodeTo(values, 1, 3, dst, 1);
+		assertEquals(3, written);
+		assertEquals("xAB_x", new String(dst));
+	}
+
+	@Test
+	public void testEncodeToAppendable() throws IOException{
+		int[] values = new int[]{5,0,1,2};
+		StringBuilder out = new StringBuilder("s:");
+		encoder.encodeTo(values, 1, 3, out);
+		assertEquals("s:ABC", out.toString());
+	}
+
 }
@@ -15,7 +15,19 @@ import unitTests.*;
         LineChartTest.class,
         MapTest.class,
         BarChartTest.class,
-        FreestandingDynamicIconTest.class
+        FreestandingDynamicIconTest.class,
+        ChartBatchTest.class,
+        ChartImageRendererTest.class,
+        SvgChartWriterTest.class,
+        ChartImageClientTest.class,
+        ChartImageCacheTest.class,
+        ConsistentHashStrategyTest.class,
+        PostBodyTest.class,
+        ChartMetricsRecorderTest.class,
+        UrlProfileTest.class,
+        ScatterPlotBinningTest.class,
+        SampleHistogramTest.class,
+        TimeSeriesResamplerTest.class
 })
 
 /**